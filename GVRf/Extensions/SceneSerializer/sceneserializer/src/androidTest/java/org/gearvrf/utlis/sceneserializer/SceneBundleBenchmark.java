@@ -0,0 +1,112 @@
+package org.gearvrf.utlis.sceneserializer;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRScene;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.utility.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading a scene from its JSON description, which imports every
+ * model with assimp, with loading the same scene from a binary bundle.
+ * <p>
+ * Both files should be exported from the same {@link SceneSerializer}.
+ * Every loaded scene is removed again before the next iteration.
+ */
+public class SceneBundleBenchmark {
+    private static final String TAG = SceneBundleBenchmark.class.getSimpleName();
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private static class Collector implements SceneSerializer.SceneLoaderListener {
+        final List<GVRSceneObject> loaded = new ArrayList<GVRSceneObject>();
+        final CountDownLatch done;
+        int models;
+
+        Collector(int expected) {
+            done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onEnvironmentLoaded(GVRSceneObject envSceneObject) {
+            if (envSceneObject != null) {
+                loaded.add(envSceneObject);
+            }
+        }
+
+        @Override
+        public void onSceneObjectLoaded(GVRSceneObject sceneObject) {
+            loaded.add(sceneObject);
+            ++models;
+            done.countDown();
+        }
+    }
+
+    /**
+     * Loads both files {@code iterations} times, after a warm-up, and measures
+     * the average load time of each.
+     *
+     * @return a one-line summary of the results
+     */
+    public String run(GVRContext gvrContext, GVRScene gvrScene, File json, File bundle,
+                      int iterations) throws IOException, InterruptedException {
+        int models = countModels(gvrContext, gvrScene, bundle);
+        loadJson(gvrContext, gvrScene, json, models);
+
+        long jsonNanos = 0;
+        long bundleNanos = 0;
+        for (int i = 0; i < iterations; ++i) {
+            jsonNanos += loadJson(gvrContext, gvrScene, json, models);
+            bundleNanos += loadBundle(gvrContext, gvrScene, bundle);
+        }
+
+        return String.format("%d models: json %.2f ms, bundle %.2f ms (%d bytes)",
+                models, jsonNanos / 1e6 / iterations, bundleNanos / 1e6 / iterations,
+                bundle.length());
+    }
+
+    /*
+     * Loads the bundle once as a warm-up and returns how many models it has.
+     */
+    private int countModels(GVRContext gvrContext, GVRScene gvrScene, File bundle)
+            throws IOException {
+        Collector collector = new Collector(0);
+        new SceneSerializer().importBundle(gvrContext, gvrScene, bundle, collector);
+        remove(gvrScene, collector);
+        return collector.models;
+    }
+
+    private long loadJson(GVRContext gvrContext, GVRScene gvrScene, File json, int models)
+            throws InterruptedException {
+        Collector collector = new Collector(models);
+        long start = System.nanoTime();
+        new SceneSerializer().importScene(gvrContext, gvrScene, json, collector);
+        if (!collector.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            Log.w(TAG, "Timed out loading %s", json);
+        }
+        long nanos = System.nanoTime() - start;
+        remove(gvrScene, collector);
+        return nanos;
+    }
+
+    private long loadBundle(GVRContext gvrContext, GVRScene gvrScene, File bundle)
+            throws IOException {
+        Collector collector = new Collector(0);
+        long start = System.nanoTime();
+        new SceneSerializer().importBundle(gvrContext, gvrScene, bundle, collector);
+        long nanos = System.nanoTime() - start;
+        remove(gvrScene, collector);
+        return nanos;
+    }
+
+    private static void remove(GVRScene gvrScene, Collector collector) {
+        for (GVRSceneObject sceneObject : collector.loaded) {
+            gvrScene.removeSceneObject(sceneObject);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.gearvrf.utlis.sceneserializer;
+
+import android.os.Bundle;
+
+import org.gearvrf.GVRActivity;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRMain;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Activity the scene bundle benchmark runs in. It shows an empty scene and
+ * hands its {@link GVRContext} to the test thread once the scene is
+ * initialized.
+ */
+public class SceneBundleBenchmarkActivity extends GVRActivity {
+    private final CountDownLatch mInitialized = new CountDownLatch(1);
+    private volatile GVRContext mContext;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setMain(new GVRMain() {
+            @Override
+            public void onInit(GVRContext gvrContext) {
+                mContext = gvrContext;
+                mInitialized.countDown();
+            }
+
+            @Override
+            public SplashMode getSplashMode() {
+                return SplashMode.NONE;
+            }
+        }, "gvr.xml");
+    }
+
+    /**
+     * Waits until the scene is initialized.
+     *
+     * @return the context of the activity, or {@code null} if it was not
+     *         initialized within the timeout
+     */
+    public GVRContext waitForContext(long timeout, TimeUnit unit) throws InterruptedException {
+        mInitialized.await(timeout, unit);
+        return mContext;
+    }
+}
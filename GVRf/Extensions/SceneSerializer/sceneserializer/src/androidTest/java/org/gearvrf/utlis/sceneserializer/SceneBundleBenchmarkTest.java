@@ -0,0 +1,185 @@
+package org.gearvrf.utlis.sceneserializer;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+import android.os.Environment;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.GVRTexture;
+import org.gearvrf.IAssetEvents;
+import org.gearvrf.utility.Log;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports a scene of textured grid models as JSON and as a bundle and runs
+ * the {@link SceneBundleBenchmark} on both files. The models are written
+ * to the external files directory of the app, because the serializer
+ * loads models from the SD card.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SceneBundleBenchmarkTest {
+    private static final String TAG = "GVRBenchmark";
+    private static final int MODELS = 4;
+    private static final int GRID_SIZE = 64;
+    private static final int TEXTURE_SIZE = 512;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    @Rule
+    public final ActivityTestRule<SceneBundleBenchmarkActivity> mActivityRule =
+            new ActivityTestRule<SceneBundleBenchmarkActivity>(SceneBundleBenchmarkActivity.class);
+
+    @Test
+    public void loadScene() throws InterruptedException, IOException {
+        GVRContext context = mActivityRule.getActivity().waitForContext(TIMEOUT_SECONDS,
+                TimeUnit.SECONDS);
+        assertNotNull("The scene was not initialized", context);
+
+        File directory = new File(context.getContext().getExternalFilesDir(null),
+                "benchmark_scene");
+        String sdPath = directory.getPath().substring(
+                Environment.getExternalStorageDirectory().getPath().length() + 1);
+        File json = new File(directory, "scene.json");
+        File bundle = new File(directory, "scene.bundle");
+        try {
+            writeModels(directory);
+
+            SceneSerializer serializer = new SceneSerializer();
+            serializer.trackTextures(context);
+            try {
+                for (int i = 0; i < MODELS; ++i) {
+                    String source = sdPath + "/model" + i + ".obj";
+                    serializer.addToSceneData(loadModel(context, source), source);
+                }
+            } finally {
+                serializer.stopTrackingTextures(context);
+            }
+            serializer.exportScene(json);
+            serializer.exportBundle(bundle);
+
+            String summary = new SceneBundleBenchmark().run(context, context.getMainScene(),
+                    json, bundle, 5);
+            Log.i(TAG, "Scene bundle: %s", summary);
+            assertFalse(summary.isEmpty());
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        }
+    }
+
+    /*
+     * Loads a model and waits until its textures are loaded too, so the
+     * serializer knows their files when the bundle is exported.
+     */
+    private static GVRSceneObject loadModel(GVRContext context, String source)
+            throws InterruptedException, IOException {
+        final CountDownLatch loaded = new CountDownLatch(1);
+        GVRSceneObject model = context.getAssetLoader().loadModel("sd:" + source,
+                new IAssetEvents() {
+                    @Override
+                    public void onAssetLoaded(GVRContext context, GVRSceneObject model,
+                                              String filePath, String errors) {
+                        loaded.countDown();
+                    }
+
+                    @Override
+                    public void onModelLoaded(GVRContext context, GVRSceneObject model,
+                                              String filePath) {
+                    }
+
+                    @Override
+                    public void onTextureLoaded(GVRContext context, GVRTexture texture,
+                                                String filePath) {
+                    }
+
+                    @Override
+                    public void onModelError(GVRContext context, String error,
+                                             String filePath) {
+                        loaded.countDown();
+                    }
+
+                    @Override
+                    public void onTextureError(GVRContext context, String error,
+                                               String filePath) {
+                    }
+                });
+        assertTrue("Timed out loading " + source, loaded.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return model;
+    }
+
+    /*
+     * Writes grid models as OBJ files, each with its own material and
+     * texture.
+     */
+    private static void writeModels(File directory) throws IOException {
+        directory.mkdirs();
+        for (int i = 0; i < MODELS; ++i) {
+            String name = "model" + i;
+            Writer obj = new FileWriter(new File(directory, name + ".obj"));
+            try {
+                obj.write("mtllib " + name + ".mtl\nusemtl " + name + "\n");
+                for (int y = 0; y < GRID_SIZE; ++y) {
+                    for (int x = 0; x < GRID_SIZE; ++x) {
+                        float u = (float) x / (GRID_SIZE - 1);
+                        float v = (float) y / (GRID_SIZE - 1);
+                        obj.write(String.format("v %f %f %f\nvt %f %f\nvn 0 0 1\n",
+                                u - 0.5f + i, v - 0.5f, -2.0f, u, v));
+                    }
+                }
+                for (int y = 0; y < GRID_SIZE - 1; ++y) {
+                    for (int x = 0; x < GRID_SIZE - 1; ++x) {
+                        int a = y * GRID_SIZE + x + 1;
+                        int b = a + 1;
+                        int c = a + GRID_SIZE;
+                        int d = c + 1;
+                        obj.write(String.format("f %d/%d/%d %d/%d/%d %d/%d/%d\n",
+                                a, a, a, b, b, b, d, d, d));
+                        obj.write(String.format("f %d/%d/%d %d/%d/%d %d/%d/%d\n",
+                                a, a, a, d, d, d, c, c, c));
+                    }
+                }
+            } finally {
+                obj.close();
+            }
+
+            Writer mtl = new FileWriter(new File(directory, name + ".mtl"));
+            try {
+                mtl.write("newmtl " + name + "\nKd 1 1 1\nmap_Kd " + name + ".png\n");
+            } finally {
+                mtl.close();
+            }
+
+            Bitmap texture = Bitmap.createBitmap(TEXTURE_SIZE, TEXTURE_SIZE,
+                    Bitmap.Config.ARGB_8888);
+            texture.eraseColor(0xFF000000 | (0x40 * i << 16) | 0x8080);
+            OutputStream png = new FileOutputStream(new File(directory, name + ".png"));
+            try {
+                texture.compress(Bitmap.CompressFormat.PNG, 100, png);
+            } finally {
+                png.close();
+                texture.recycle();
+            }
+        }
+    }
+}
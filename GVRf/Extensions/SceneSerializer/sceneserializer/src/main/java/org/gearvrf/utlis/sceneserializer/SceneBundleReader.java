@@ -0,0 +1,280 @@
+package org.gearvrf.utlis.sceneserializer;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import org.gearvrf.GVRBitmapTexture;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRMaterial;
+import org.gearvrf.GVRMaterialShaderId;
+import org.gearvrf.GVRMesh;
+import org.gearvrf.GVRRenderData;
+import org.gearvrf.GVRRenderPass.GVRCullFaceEnum;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.GVRTexture;
+import org.gearvrf.GVRPhongShader;
+import org.gearvrf.utility.ByteBufferInputStream;
+import org.gearvrf.utility.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads a scene bundle written by {@link SceneBundleWriter}.
+ * <p>
+ * The file is memory-mapped and the vertex and index blocks are passed to
+ * {@link GVRMesh} as views of the mapping, so the mesh data goes from the
+ * page cache to the native mesh without being copied into Java arrays.
+ * Only the texture images are decoded.
+ */
+class SceneBundleReader {
+    private static final String TAG = SceneBundleReader.class.getSimpleName();
+
+    private final GVRContext context;
+    private ByteBuffer buffer;
+    private GVRTexture[] textures;
+    private GVRMaterial[] materials;
+    private boolean[] phongMaterials;
+    private GVRMesh[] meshes;
+
+    SceneBundleReader(GVRContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Creates the scene objects of a bundle. The returned scene data has
+     * the environment and a {@link SceneObjectData} with its scene object
+     * for every model that was exported.
+     */
+    SceneData read(File location) throws IOException {
+        if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+            throw new IOException("Scene bundles need a little endian device");
+        }
+        RandomAccessFile file = new RandomAccessFile(location, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        } finally {
+            // the mapping stays valid after the file is closed
+            file.close();
+        }
+
+        try {
+            return readScene(location);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException
+                | IllegalArgumentException e) {
+            throw new IOException("Corrupt scene bundle " + location, e);
+        } finally {
+            buffer = null;
+        }
+    }
+
+    private SceneData readScene(File location) throws IOException {
+        if (buffer.getInt() != SceneBundleWriter.MAGIC) {
+            throw new IOException(location + " is not a scene bundle");
+        }
+        int version = buffer.getInt();
+        if (version != SceneBundleWriter.VERSION) {
+            throw new IOException("Unsupported scene bundle version " + version);
+        }
+
+        SceneData sceneData = new SceneData();
+        String environmentSrc = getString();
+        float environmentScale = buffer.getFloat();
+        if (!environmentSrc.isEmpty()) {
+            sceneData.setEnvironmentData(new EnvironmentData(environmentSrc, environmentScale));
+        }
+
+        textures = new GVRTexture[buffer.getInt()];
+        materials = new GVRMaterial[buffer.getInt()];
+        phongMaterials = new boolean[materials.length];
+        meshes = new GVRMesh[buffer.getInt()];
+        int numObjects = buffer.getInt();
+
+        for (int i = 0; i < textures.length; ++i) {
+            textures[i] = readTexture();
+        }
+        for (int i = 0; i < materials.length; ++i) {
+            readMaterial(i);
+        }
+        for (int i = 0; i < meshes.length; ++i) {
+            meshes[i] = readMesh();
+        }
+
+        List<SceneObjectData> objects = new ArrayList<SceneObjectData>(numObjects);
+        for (int i = 0; i < numObjects; ++i) {
+            SceneObjectData sod = new SceneObjectData();
+            sod.setSrc(getString());
+            GVRSceneObject sceneObject = readNode();
+            sod.setName(sceneObject.getName());
+            sod.setModelMatrix(sceneObject.getTransform().getModelMatrix());
+            sod.setGvrSceneObject(sceneObject);
+            objects.add(sod);
+        }
+        sceneData.setSceneObjectDataList(objects);
+        return sceneData;
+    }
+
+    private GVRTexture readTexture() {
+        int length = buffer.getInt();
+        ByteBuffer image = slice(length);
+        align();
+        Bitmap bitmap = BitmapFactory.decodeStream(new ByteBufferInputStream(image));
+        if (bitmap == null) {
+            Log.w(TAG, "Could not decode texture of %d bytes", length);
+            return null;
+        }
+        return new GVRBitmapTexture(context, bitmap);
+    }
+
+    private void readMaterial(int index) {
+        GVRMaterialShaderId shader = SceneBundleWriter.STOCK_SHADERS[buffer.getInt()];
+        GVRMaterial material = new GVRMaterial(context, shader);
+        material.setShaderFeatureSet(buffer.getInt());
+
+        int numUniforms = buffer.getInt();
+        for (int i = 0; i < numUniforms; ++i) {
+            String key = getString();
+            int size = buffer.getInt();
+            if (size == 1) {
+                material.setFloat(key, buffer.getFloat());
+            } else if (size == 2) {
+                material.setVec2(key, buffer.getFloat(), buffer.getFloat());
+            } else if (size == 3) {
+                material.setVec3(key, buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+            } else if (size == 4) {
+                material.setVec4(key, buffer.getFloat(), buffer.getFloat(), buffer.getFloat(),
+                        buffer.getFloat());
+            } else if (size == 16) {
+                float[] matrix = new float[16];
+                buffer.asFloatBuffer().get(matrix);
+                buffer.position(buffer.position() + matrix.length * 4);
+                material.setMat4(GVRMaterial.getUniformSlot(key), matrix);
+            } else {
+                throw new IllegalArgumentException("Uniform " + key + " has size " + size);
+            }
+        }
+
+        int numTextures = buffer.getInt();
+        for (int i = 0; i < numTextures; ++i) {
+            String key = getString();
+            GVRTexture texture = textures[buffer.getInt()];
+            String texCoordAttr = getString();
+            String shaderVar = getString();
+            if (texture != null) {
+                material.setTexture(key, texture);
+                if (!texCoordAttr.isEmpty() && !shaderVar.isEmpty()) {
+                    material.setTexCoord(key, texCoordAttr, shaderVar);
+                }
+            }
+        }
+        materials[index] = material;
+        phongMaterials[index] = (shader == GVRMaterial.GVRShaderType.BeingGenerated.ID);
+    }
+
+    private GVRMesh readMesh() {
+        int numVertices = buffer.getInt();
+        int numIndices = buffer.getInt();
+        int numAttributes = buffer.getInt();
+        GVRMesh mesh = new GVRMesh(context);
+
+        for (int i = 0; i < numAttributes; ++i) {
+            String key = getString();
+            int size = buffer.getInt();
+            FloatBuffer data = slice(numVertices * size * 4).asFloatBuffer();
+            mesh.setVertexBuffer(key, data, size, size, numVertices);
+        }
+        if (numIndices > 0) {
+            IntBuffer indices = slice(numIndices * 4).asIntBuffer();
+            mesh.setIndexBuffer(indices);
+        }
+        return mesh;
+    }
+
+    private GVRSceneObject readNode() {
+        GVRSceneObject sceneObject = new GVRSceneObject(context);
+        sceneObject.setName(getString());
+        float[] matrix = new float[16];
+        buffer.asFloatBuffer().get(matrix);
+        buffer.position(buffer.position() + matrix.length * 4);
+        sceneObject.getTransform().setModelMatrix(matrix);
+
+        int mesh = buffer.getInt();
+        int material = buffer.getInt();
+        if (mesh >= 0) {
+            GVRRenderData renderData = new GVRRenderData(context);
+            renderData.setMesh(meshes[mesh]);
+            if (material >= 0) {
+                renderData.setMaterial(materials[material]);
+                if (phongMaterials[material]) {
+                    renderData.setShaderTemplate(GVRPhongShader.class);
+                }
+            }
+            readRenderState(renderData);
+            sceneObject.attachRenderData(renderData);
+        }
+
+        int numChildren = buffer.getInt();
+        for (int i = 0; i < numChildren; ++i) {
+            sceneObject.addChildObject(readNode());
+        }
+        return sceneObject;
+    }
+
+    private void readRenderState(GVRRenderData renderData) {
+        renderData.setRenderMask(buffer.getInt());
+        renderData.setRenderingOrder(buffer.getInt());
+        renderData.setCullFace(GVRCullFaceEnum.fromInt(buffer.getInt()));
+        renderData.setDrawMode(buffer.getInt());
+        int flags = buffer.getInt();
+        renderData.setAlphaBlend((flags & SceneBundleWriter.ALPHA_BLEND) != 0);
+        renderData.setDepthTest((flags & SceneBundleWriter.DEPTH_TEST) != 0);
+        renderData.setOffset((flags & SceneBundleWriter.OFFSET) != 0);
+        renderData.setAlphaToCoverage((flags & SceneBundleWriter.ALPHA_TO_COVERAGE) != 0);
+        renderData.setInvertCoverageMask((flags & SceneBundleWriter.INVERT_COVERAGE_MASK) != 0);
+        renderData.setCastShadows((flags & SceneBundleWriter.CAST_SHADOWS) != 0);
+        renderData.setOffsetFactor(buffer.getFloat());
+        renderData.setOffsetUnits(buffer.getFloat());
+        renderData.setSampleCoverage(buffer.getFloat());
+        int sourceBlendFunc = buffer.getInt();
+        renderData.setAlphaBlendFunc(sourceBlendFunc, buffer.getInt());
+    }
+
+    private String getString() {
+        int length = buffer.getInt();
+        String value = "";
+        if (length > 0) {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, SceneBundleWriter.UTF8);
+        }
+        align();
+        return value;
+    }
+
+    /*
+     * Returns the next length bytes as a buffer of their own and skips them.
+     */
+    private ByteBuffer slice(int length) {
+        ByteBuffer region = buffer.duplicate();
+        region.limit(buffer.position() + length);
+        buffer.position(buffer.position() + length);
+        return region.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void align() {
+        buffer.position((buffer.position() + 3) & ~3);
+    }
+}
@@ -0,0 +1,497 @@
+package org.gearvrf.utlis.sceneserializer;
+
+import android.os.Environment;
+
+import org.gearvrf.GVRBone;
+import org.gearvrf.GVRMaterial;
+import org.gearvrf.GVRMaterialShaderId;
+import org.gearvrf.GVRMesh;
+import org.gearvrf.GVRRenderData;
+import org.gearvrf.GVRShaderId;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.GVRTexture;
+import org.gearvrf.utility.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a {@link SceneData} as a binary scene bundle which
+ * {@link SceneBundleReader} loads without importing the source models.
+ * <p>
+ * All values are little endian and every block starts at a multiple of 4
+ * bytes, so the reader can hand the vertex data of the memory-mapped file
+ * straight to {@link GVRMesh}:
+ * <pre>
+ * header    int magic, int version, string environment, float scale,
+ *           int textures, int materials, int meshes, int objects
+ * texture   int length, byte[length] image file (PNG, JPEG, ...)
+ * material  int shader, int feature set, int uniforms, { string key, int size, float[size] },
+ *           int textures, { string key, int texture, string texcoord, string shadervar }
+ * mesh      int vertices, int indices, int attributes,
+ *           { string key, int size, float[vertices * size] }, int[indices]
+ * object    string src, node
+ * node      string name, float[16] local matrix, int mesh, int material,
+ *           [render state if mesh >= 0], int children, node[children]
+ * render    int render mask, int rendering order, int cull face, int draw mode,
+ * state     int flags, float offset factor, float offset units,
+ *           float sample coverage, int source blend func, int dest blend func
+ * string    int length, byte[length] UTF-8
+ * </pre>
+ * The shader of a material is stored as its index in {@link #STOCK_SHADERS}
+ * and all of its uniforms are stored. Textures are stored as the image files
+ * they were loaded from. A texture whose file is unknown is left out, its
+ * material keeps its colors.
+ * <p>
+ * The format cannot carry materials with a custom shader, meshes with
+ * bones and render data with more than one pass; {@link #write} throws an
+ * {@link IOException} for scenes that have them.
+ * <p>
+ * The bundle is written straight to the file through a small staging
+ * buffer, and texture files are copied from channel to channel, so the
+ * memory used does not grow with the size of the bundle.
+ */
+class SceneBundleWriter {
+    private static final String TAG = SceneBundleWriter.class.getSimpleName();
+    static final int MAGIC = 0x42525647; // "GVRB"
+    static final int VERSION = 2;
+    static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Shaders a material can have, in the order of their indices in a bundle */
+    static final GVRMaterialShaderId[] STOCK_SHADERS = {
+            GVRMaterial.GVRShaderType.BeingGenerated.ID,
+            GVRMaterial.GVRShaderType.UnlitHorizontalStereo.ID,
+            GVRMaterial.GVRShaderType.UnlitVerticalStereo.ID,
+            GVRMaterial.GVRShaderType.OES.ID,
+            GVRMaterial.GVRShaderType.OESHorizontalStereo.ID,
+            GVRMaterial.GVRShaderType.OESVerticalStereo.ID,
+            GVRMaterial.GVRShaderType.Cubemap.ID,
+            GVRMaterial.GVRShaderType.CubemapReflection.ID,
+            GVRMaterial.GVRShaderType.Texture.ID,
+            GVRMaterial.GVRShaderType.ExternalRenderer.ID,
+            GVRMaterial.GVRShaderType.Assimp.ID,
+            GVRMaterial.GVRShaderType.UnlitFBO.ID,
+            GVRMaterial.GVRShaderType.LightMap.ID
+    };
+
+    // Render state flags
+    static final int ALPHA_BLEND = 1;
+    static final int DEPTH_TEST = 2;
+    static final int OFFSET = 4;
+    static final int ALPHA_TO_COVERAGE = 8;
+    static final int INVERT_COVERAGE_MASK = 16;
+    static final int CAST_SHADOWS = 32;
+
+    private final Map<GVRTexture, String> textureFiles;
+    private final Map<GVRTexture, Integer> textureIndices = new IdentityHashMap<GVRTexture,
+            Integer>();
+    private final List<File> textures = new ArrayList<File>();
+    private final Map<GVRMaterial, Integer> materialIndices = new IdentityHashMap<GVRMaterial,
+            Integer>();
+    private final List<GVRMaterial> materials = new ArrayList<GVRMaterial>();
+    private final Map<GVRMesh, Integer> meshIndices = new IdentityHashMap<GVRMesh, Integer>();
+    private final List<GVRMesh> meshes = new ArrayList<GVRMesh>();
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private FileChannel channel;
+    /** Bytes already written to the channel */
+    private long written;
+
+    /**
+     * @param textureFiles file of every texture whose image should be
+     *                     stored, relative to the directory of its model
+     */
+    SceneBundleWriter(Map<GVRTexture, String> textureFiles) {
+        this.textureFiles = textureFiles;
+    }
+
+    void write(SceneData sceneData, File location) throws IOException {
+        List<SceneObjectData> objects = new ArrayList<SceneObjectData>();
+        if (sceneData.getSceneObjectDataList() != null) {
+            for (SceneObjectData sod : sceneData.getSceneObjectDataList()) {
+                if (sod.getGvrSceneObject() != null) {
+                    objects.add(sod);
+                    collect(sod.getGvrSceneObject(), getModelDirectory(sod.getSrc()));
+                }
+            }
+        }
+
+        FileOutputStream output = new FileOutputStream(location);
+        boolean complete = false;
+        try {
+            channel = output.getChannel();
+            writeSections(sceneData, objects);
+            flush();
+            complete = true;
+        } finally {
+            output.close();
+            channel = null;
+            if (!complete) {
+                location.delete();
+            }
+        }
+    }
+
+    private void writeSections(SceneData sceneData, List<SceneObjectData> objects)
+            throws IOException {
+        EnvironmentData environment = sceneData.getEnvironmentData();
+        putInt(MAGIC);
+        putInt(VERSION);
+        putString((environment != null) ? environment.getSrc() : null);
+        putFloat((environment != null) ? environment.getScale() : 0);
+        putInt(textures.size());
+        putInt(materials.size());
+        putInt(meshes.size());
+        putInt(objects.size());
+
+        for (File file : textures) {
+            writeTexture(file);
+        }
+        for (GVRMaterial material : materials) {
+            writeMaterial(material);
+        }
+        for (GVRMesh mesh : meshes) {
+            writeMesh(mesh);
+        }
+        for (SceneObjectData sod : objects) {
+            putString(sod.getSrc());
+            writeNode(sod.getGvrSceneObject());
+        }
+    }
+
+    private static File getModelDirectory(String src) {
+        File model = new File(src);
+        if (!model.isAbsolute()) {
+            model = new File(Environment.getExternalStorageDirectory(), src);
+        }
+        return model.getParentFile();
+    }
+
+    /*
+     * Assigns indices to the meshes, materials and textures below a node.
+     */
+    private void collect(GVRSceneObject sceneObject, File modelDirectory) {
+        GVRRenderData renderData = sceneObject.getRenderData();
+        if (renderData != null && renderData.getMesh() != null) {
+            GVRMesh mesh = renderData.getMesh();
+            if (!meshIndices.containsKey(mesh)) {
+                meshIndices.put(mesh, meshes.size());
+                meshes.add(mesh);
+            }
+            GVRMaterial material = renderData.getMaterial();
+            if (material != null && !materialIndices.containsKey(material)) {
+                materialIndices.put(material, materials.size());
+                materials.add(material);
+                for (String key : material.getTextureNames()) {
+                    collectTexture(material.getTexture(key), modelDirectory);
+                }
+            }
+        }
+        for (GVRSceneObject child : sceneObject.getChildren()) {
+            collect(child, modelDirectory);
+        }
+    }
+
+    private void collectTexture(GVRTexture texture, File modelDirectory) {
+        if (texture == null || textureIndices.containsKey(texture)) {
+            return;
+        }
+        String fileName = textureFiles.get(texture);
+        if (fileName == null) {
+            Log.w(TAG, "Texture file not known, leaving out texture %s", texture);
+            return;
+        }
+        File file = new File(fileName);
+        if (!file.isAbsolute()) {
+            file = new File(modelDirectory, fileName);
+        }
+        if (!file.isFile()) {
+            Log.w(TAG, "Texture file %s not found", file);
+            return;
+        }
+        textureIndices.put(texture, textures.size());
+        textures.add(file);
+    }
+
+    private void writeTexture(File file) throws IOException {
+        int length = (int) file.length();
+        putInt(length);
+        flush();
+        FileInputStream input = new FileInputStream(file);
+        try {
+            FileChannel source = input.getChannel();
+            long copied = 0;
+            while (copied < length) {
+                long count = source.transferTo(copied, length - copied, channel);
+                if (count <= 0) {
+                    throw new IOException("Texture file " + file + " ended after " + copied
+                            + " of " + length + " bytes");
+                }
+                copied += count;
+            }
+        } finally {
+            input.close();
+        }
+        written += length;
+        align();
+    }
+
+    private void writeMaterial(GVRMaterial material) throws IOException {
+        putInt(getShaderIndex(material.getShaderType()));
+        putInt(material.getShaderFeatureSet());
+
+        String[] uniforms = material.getUniformNames();
+        putInt(uniforms.length);
+        for (String key : uniforms) {
+            float[] values = material.getUniform(key);
+            putString(key);
+            putInt(values.length);
+            putFloats(values);
+        }
+
+        List<String> textureKeys = new ArrayList<String>();
+        for (String key : material.getTextureNames()) {
+            if (textureIndices.containsKey(material.getTexture(key))) {
+                textureKeys.add(key);
+            }
+        }
+        putInt(textureKeys.size());
+        for (String key : textureKeys) {
+            putString(key);
+            putInt(textureIndices.get(material.getTexture(key)));
+            putString(material.getTexCoordAttr(key));
+            putString(material.getTexCoordShaderVar(key));
+        }
+    }
+
+    private static int getShaderIndex(GVRShaderId shader) throws IOException {
+        for (int i = 0; i < STOCK_SHADERS.length; ++i) {
+            if (STOCK_SHADERS[i] == shader) {
+                return i;
+            }
+        }
+        throw new IOException("Materials with a custom shader cannot be stored in a scene bundle");
+    }
+
+    private void writeMesh(GVRMesh mesh) throws IOException {
+        List<GVRBone> bones = mesh.getBones();
+        if (bones != null && !bones.isEmpty()) {
+            throw new IOException("Meshes with bones cannot be stored in a scene bundle");
+        }
+        float[] vertices = mesh.getVertices();
+        int numVertices = (vertices != null) ? vertices.length / 3 : 0;
+        int[] indices = mesh.getIntIndices();
+        List<String> attributes = new ArrayList<String>();
+        List<float[]> data = new ArrayList<float[]>();
+
+        if (numVertices > 0) {
+            for (String key : mesh.getAttributeNames()) {
+                attributes.add(key);
+                data.add(getAttribute(mesh, key, numVertices));
+            }
+        }
+
+        putInt(numVertices);
+        putInt((indices != null) ? indices.length : 0);
+        putInt(attributes.size());
+        for (int i = 0; i < attributes.size(); ++i) {
+            putString(attributes.get(i));
+            putInt(data.get(i).length / numVertices);
+            putFloats(data.get(i));
+        }
+        if (indices != null) {
+            putInts(indices);
+        }
+    }
+
+    /*
+     * Returns the values of an attribute of 1 to 4 floats per vertex, from
+     * the interleaved vertex array if the mesh has one.
+     */
+    private static float[] getAttribute(GVRMesh mesh, String key, int numVertices)
+            throws IOException {
+        FloatBuffer interleaved = mesh.getInterleavedBuffer();
+        int size;
+        float[] values;
+        if (interleaved != null) {
+            int stride = mesh.getVertexStride();
+            int offset = mesh.getVertexOffset(key);
+            if (offset < 0) {
+                throw new IOException("Vertex attribute " + key
+                        + " is not in the interleaved layout of its mesh");
+            }
+            size = stride - offset;
+            for (String other : mesh.getAttributeNames()) {
+                int otherOffset = mesh.getVertexOffset(other);
+                if (otherOffset > offset) {
+                    size = Math.min(size, otherOffset - offset);
+                }
+            }
+            values = new float[numVertices * size];
+            for (int i = 0; i < numVertices; ++i) {
+                for (int j = 0; j < size; ++j) {
+                    values[i * size + j] = interleaved.get(i * stride + offset + j);
+                }
+            }
+        } else {
+            FloatBuffer attribute = mesh.getAttributeBuffer(key);
+            if (attribute == null) {
+                throw new IOException("Vertex attribute " + key + " cannot be stored in a scene bundle");
+            }
+            attribute = attribute.duplicate();
+            attribute.clear();
+            size = attribute.remaining() / numVertices;
+            values = new float[numVertices * size];
+            attribute.get(values);
+        }
+        if (size < 1 || size > 4) {
+            throw new IOException("Vertex attribute " + key + " with " + size
+                    + " floats per vertex cannot be stored in a scene bundle");
+        }
+        return values;
+    }
+
+    private void writeNode(GVRSceneObject sceneObject) throws IOException {
+        GVRRenderData renderData = sceneObject.getRenderData();
+        int mesh = -1;
+        int material = -1;
+        if (renderData != null && renderData.getMesh() != null) {
+            mesh = meshIndices.get(renderData.getMesh());
+            if (renderData.getMaterial() != null) {
+                material = materialIndices.get(renderData.getMaterial());
+            }
+        }
+        putString(sceneObject.getName());
+        putFloats(sceneObject.getTransform().getLocalModelMatrix());
+        putInt(mesh);
+        putInt(material);
+        if (mesh >= 0) {
+            writeRenderState(renderData);
+        }
+        List<GVRSceneObject> children = sceneObject.getChildren();
+        putInt(children.size());
+        for (GVRSceneObject child : children) {
+            writeNode(child);
+        }
+    }
+
+    private void writeRenderState(GVRRenderData renderData) throws IOException {
+        if (renderData.getPassCount() > 1) {
+            throw new IOException("Render data with more than one pass cannot be stored in a scene bundle");
+        }
+        int flags = 0;
+        if (renderData.getAlphaBlend()) {
+            flags |= ALPHA_BLEND;
+        }
+        if (renderData.getDepthTest()) {
+            flags |= DEPTH_TEST;
+        }
+        if (renderData.getOffset()) {
+            flags |= OFFSET;
+        }
+        if (renderData.getAlphaToCoverage()) {
+            flags |= ALPHA_TO_COVERAGE;
+        }
+        if (renderData.getInvertCoverageMask()) {
+            flags |= INVERT_COVERAGE_MASK;
+        }
+        if (renderData.getCastShadows()) {
+            flags |= CAST_SHADOWS;
+        }
+        putInt(renderData.getRenderMask());
+        putInt(renderData.getRenderingOrder());
+        putInt(renderData.getCullFace().getValue());
+        putInt(renderData.getDrawMode());
+        putInt(flags);
+        putFloat(renderData.getOffsetFactor());
+        putFloat(renderData.getOffsetUnits());
+        putFloat(renderData.getSampleCoverage());
+        putInt(renderData.getSourceAlphaBlendFunc());
+        putInt(renderData.getDestAlphaBlendFunc());
+    }
+
+    private void putInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    private void putFloat(float value) throws IOException {
+        ensure(4);
+        buffer.putFloat(value);
+    }
+
+    /*
+     * Arrays larger than the staging buffer are written in chunks.
+     */
+    private void putFloats(float[] values) throws IOException {
+        int offset = 0;
+        while (offset < values.length) {
+            ensure(4);
+            int count = Math.min(values.length - offset, buffer.remaining() / 4);
+            buffer.asFloatBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * 4);
+            offset += count;
+        }
+    }
+
+    private void putInts(int[] values) throws IOException {
+        int offset = 0;
+        while (offset < values.length) {
+            ensure(4);
+            int count = Math.min(values.length - offset, buffer.remaining() / 4);
+            buffer.asIntBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * 4);
+            offset += count;
+        }
+    }
+
+    private void putString(String value) throws IOException {
+        byte[] bytes = (value != null) ? value.getBytes(UTF8) : new byte[0];
+        putInt(bytes.length);
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensure(1);
+            int count = Math.min(bytes.length - offset, buffer.remaining());
+            buffer.put(bytes, offset, count);
+            offset += count;
+        }
+        align();
+    }
+
+    /*
+     * Pads to a multiple of 4 bytes from the start of the file, which is
+     * what the reader aligns to.
+     */
+    private void align() throws IOException {
+        while (((written + buffer.position()) & 3) != 0) {
+            ensure(1);
+            buffer.put((byte) 0);
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
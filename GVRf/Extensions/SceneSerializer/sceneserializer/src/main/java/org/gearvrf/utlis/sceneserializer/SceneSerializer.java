@@ -26,8 +26,11 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.Future;
 
 public class SceneSerializer {
@@ -38,6 +41,9 @@ public class SceneSerializer {
     private Gson gson;
     private SceneData sceneData;
     private SceneLoaderListener sceneLoaderListener;
+    private final Map<GVRTexture, String> textureFiles = Collections.synchronizedMap(new
+            WeakHashMap<GVRTexture, String>());
+    private TextureObserver textureObserver;
 
     public interface SceneLoaderListener {
         void onEnvironmentLoaded(GVRSceneObject envSceneObject);
@@ -89,6 +95,70 @@ public class SceneSerializer {
         bw.close();
     }
 
+    /**
+     * Exports the scene as a binary bundle which {@link #importBundle} loads
+     * much faster than {@link #importScene} because no model has to be
+     * imported: meshes, materials and transforms are stored ready to use
+     * and textures as the image files they were loaded from.
+     * <p>
+     * Textures of models added with {@link #addToSceneData} are only
+     * stored if they were loaded after {@link #trackTextures} was called,
+     * or by {@link #importScene}.
+     *
+     * @throws IOException if the file cannot be written, or if the scene
+     *         has materials with a custom shader, meshes with bones or
+     *         render data with more than one pass, which a bundle cannot store
+     */
+    public void exportBundle(File location) throws IOException {
+        if(sceneData == null) {
+            return;
+        }
+        sceneData.prepareForExport();
+        new SceneBundleWriter(textureFiles).write(sceneData, location);
+    }
+
+    /**
+     * Loads a bundle written by {@link #exportBundle} and adds its models
+     * to the scene. Unlike {@link #importScene} the models are created
+     * before this method returns.
+     */
+    public void importBundle(GVRContext gvrContext, GVRScene gvrScene, File location,
+                             SceneLoaderListener sceneLoaderListener) throws IOException {
+        this.sceneLoaderListener = sceneLoaderListener;
+        sceneData = new SceneBundleReader(gvrContext).read(location);
+        loadEnvironment(gvrContext, gvrScene);
+        for (SceneObjectData sod : sceneData.getSceneObjectDataList()) {
+            GVRSceneObject model = sod.getGvrSceneObject();
+            gvrScene.addSceneObject(model);
+            if(sceneLoaderListener != null) {
+                sceneLoaderListener.onSceneObjectLoaded(model);
+            }
+        }
+    }
+
+    /**
+     * Remembers the files of all textures loaded from now on, so that
+     * {@link #exportBundle} can store them, until
+     * {@link #stopTrackingTextures} is called.
+     */
+    public void trackTextures(GVRContext gvrContext) {
+        if (textureObserver == null) {
+            textureObserver = new TextureObserver();
+            gvrContext.getEventReceiver().addListener(textureObserver);
+        }
+    }
+
+    /**
+     * Stops remembering the files of loaded textures, which
+     * {@link #trackTextures} started.
+     */
+    public void stopTrackingTextures(GVRContext gvrContext) {
+        if (textureObserver != null) {
+            gvrContext.getEventReceiver().removeListener(textureObserver);
+            textureObserver = null;
+        }
+    }
+
     public void setEnvironmentData(String fullPath) {
         setEnvironmentData(fullPath, DEFAULT_ENVIRONMENT_SCALE);
     }
@@ -234,6 +304,7 @@ public class SceneSerializer {
 
         @Override
         public void onTextureLoaded(GVRContext context, GVRTexture texture, String filePath) {
+            textureFiles.put(texture, filePath);
             if (currentSod != null && currentSod.getSrc().endsWith(filePath)) {
                 Log.d(TAG, "Texture loaded:%s", filePath);
             }
@@ -274,5 +345,27 @@ public class SceneSerializer {
         }
     }
 
+    private class TextureObserver implements IAssetEvents {
+        @Override
+        public void onAssetLoaded(GVRContext context, GVRSceneObject model, String filePath,
+                                  String errors) {
+        }
+
+        @Override
+        public void onModelLoaded(GVRContext context, GVRSceneObject model, String filePath) {
+        }
 
+        @Override
+        public void onTextureLoaded(GVRContext context, GVRTexture texture, String filePath) {
+            textureFiles.put(texture, filePath);
+        }
+
+        @Override
+        public void onModelError(GVRContext context, String error, String filePath) {
+        }
+
+        @Override
+        public void onTextureError(GVRContext context, String error, String filePath) {
+        }
+    }
 }
@@ -0,0 +1,158 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.physics;
+
+import android.util.LongSparseArray;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The collisions which started or ended in a {@link GVRWorld} since the
+ * previous frame.
+ * <p>
+ * The contacts are written by native code into a direct buffer which is
+ * reused every frame, so delivering them allocates nothing. Access them by
+ * index:
+ *
+ * <pre>
+ * {@code
+ * public void onCollisions(GVRWorld world, GVRCollisionBatch collisions) {
+ *     for (int i = 0; i < collisions.size(); ++i) {
+ *         if (collisions.isEnter(i)) {
+ *             hit(collisions.getBodyA(i), collisions.getBodyB(i));
+ *         }
+ *     }
+ * }
+ * }
+ * </pre>
+ *
+ * A batch is only valid during {@link ICollisionListener#onCollisions}.
+ */
+public final class GVRCollisionBatch {
+    /** Size in bytes of one contact in the native buffer. */
+    static final int CONTACT_SIZE = 40;
+
+    private static final int BODY_A = 0;
+    private static final int BODY_B = 8;
+    private static final int NORMAL = 16;
+    private static final int DISTANCE = 28;
+    private static final int IS_HIT = 32;
+
+    private ByteBuffer mContacts;
+    private GVRRigidBody[] mBodiesA;
+    private GVRRigidBody[] mBodiesB;
+    private int mSize;
+
+    GVRCollisionBatch(int capacity) {
+        allocate(capacity);
+    }
+
+    /**
+     * @return number of collisions in the batch
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @return true if the collision started, false if it ended
+     */
+    public boolean isEnter(int index) {
+        return mContacts.getInt(index * CONTACT_SIZE + IS_HIT) != 0;
+    }
+
+    /**
+     * @return the first body of the collision
+     */
+    public GVRRigidBody getBodyA(int index) {
+        return mBodiesA[index];
+    }
+
+    /**
+     * @return the second body of the collision
+     */
+    public GVRRigidBody getBodyB(int index) {
+        return mBodiesB[index];
+    }
+
+    /**
+     * Copies the normal between the two bodies, in world coordinates,
+     * into {@code normal}.
+     *
+     * @param index index of the collision
+     * @param normal array of at least three floats
+     * @return {@code normal}
+     */
+    public float[] getNormal(int index, float[] normal) {
+        int offset = index * CONTACT_SIZE + NORMAL;
+        normal[0] = mContacts.getFloat(offset);
+        normal[1] = mContacts.getFloat(offset + 4);
+        normal[2] = mContacts.getFloat(offset + 8);
+        return normal;
+    }
+
+    /**
+     * @return the distance between the bodies (usually zero)
+     */
+    public float getDistance(int index) {
+        return mContacts.getFloat(index * CONTACT_SIZE + DISTANCE);
+    }
+
+    int capacity() {
+        return mBodiesA.length;
+    }
+
+    ByteBuffer getContactBuffer() {
+        return mContacts;
+    }
+
+    void allocate(int capacity) {
+        mContacts = ByteBuffer.allocateDirect(capacity * CONTACT_SIZE)
+                .order(ByteOrder.nativeOrder());
+        mBodiesA = new GVRRigidBody[capacity];
+        mBodiesB = new GVRRigidBody[capacity];
+    }
+
+    /*
+     * Resolves the native bodies of the first count contacts. Contacts
+     * with a body which is not in the world anymore are dropped.
+     */
+    void resolve(int count, LongSparseArray<GVRRigidBody> bodies) {
+        int size = 0;
+        for (int i = 0; i < count; ++i) {
+            int offset = i * CONTACT_SIZE;
+            GVRRigidBody bodyA = bodies.get(mContacts.getLong(offset + BODY_A));
+            GVRRigidBody bodyB = bodies.get(mContacts.getLong(offset + BODY_B));
+            if (bodyA == null || bodyB == null) {
+                continue;
+            }
+            if (size != i) {
+                for (int b = 0; b < CONTACT_SIZE; b += 4) {
+                    mContacts.putInt(size * CONTACT_SIZE + b, mContacts.getInt(offset + b));
+                }
+            }
+            mBodiesA[size] = bodyA;
+            mBodiesB[size] = bodyB;
+            ++size;
+        }
+        for (int i = size; i < mSize; ++i) {
+            mBodiesA[i] = null;
+            mBodiesB[i] = null;
+        }
+        mSize = size;
+    }
+}
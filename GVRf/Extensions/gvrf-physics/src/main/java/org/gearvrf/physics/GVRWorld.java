@@ -24,8 +24,11 @@ import org.gearvrf.GVRSceneObject;
 import org.gearvrf.GVRSceneObject.ComponentVisitor;
 import org.gearvrf.ISceneObjectEvents;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 
 /**
  * Represents a physics world where all {@link GVRSceneObject} with {@link GVRRigidBody} component
@@ -41,6 +44,11 @@ public class GVRWorld extends GVRBehavior implements ISceneObjectEvents, Compone
 
     private final LongSparseArray<GVRRigidBody> mRigidBodies = new LongSparseArray<GVRRigidBody>();
     private final GVRCollisionMatrix mCollisionMatrix;
+    private float mFixedTimeStep = 0.0f;
+    private int mMaxSubSteps = 0;
+    private final GVRCollisionBatch mCollisions = new GVRCollisionBatch(64);
+    private final List<ICollisionListener> mCollisionListeners = new ArrayList<ICollisionListener>();
+    private boolean mSendCollisionEvents = true;
 
     /**
      * Constructs new instance to simulatethe Physics World of the Scene.
@@ -111,38 +119,144 @@ public class GVRWorld extends GVRBehavior implements ISceneObjectEvents, Compone
         }
     }
 
+    /**
+     * Steps the simulation on a separate thread with a fixed time step
+     * instead of stepping it from {@link #onDrawFrame(float)} with the
+     * variable frame time.
+     * <p>
+     * The simulation thread advances the world every {@code fixedTimeStep}
+     * seconds, taking at most {@code maxSubSteps} steps to catch up when it
+     * falls behind. Each frame the scene objects of the dynamic bodies are
+     * updated with their transforms interpolated between the last two
+     * simulation steps, so the frame time no longer depends on the cost of
+     * the simulation. The transforms of kinematic bodies are read each
+     * frame and used by the following steps; collisions are reported as of
+     * the last finished step.
+     *
+     * @param fixedTimeStep time in seconds simulated by each step, e.g. 1/60.
+     * @param maxSubSteps maximum number of steps taken at once to catch up.
+     */
+    public void enableSimulationThread(float fixedTimeStep, int maxSubSteps) {
+        if (fixedTimeStep <= 0.0f || maxSubSteps < 1) {
+            throw new IllegalArgumentException("Invalid time step or number of sub steps");
+        }
+        mFixedTimeStep = fixedTimeStep;
+        mMaxSubSteps = maxSubSteps;
+        if (owner != null) {
+            NativePhysics3DWorld.startSimulation(getNative(), mFixedTimeStep, mMaxSubSteps);
+        }
+    }
+
+    /**
+     * Stops the simulation thread started by
+     * {@link #enableSimulationThread(float, int)}, the world is stepped from
+     * {@link #onDrawFrame(float)} again.
+     */
+    public void disableSimulationThread() {
+        mFixedTimeStep = 0.0f;
+        NativePhysics3DWorld.stopSimulation(getNative());
+    }
+
+    /**
+     * @return true if the world is simulated on a separate thread.
+     */
+    public boolean isSimulationThreadEnabled() {
+        return mFixedTimeStep > 0.0f;
+    }
+
     @Override
     public void onDrawFrame(float frameTime) {
-        NativePhysics3DWorld.step(getNative(), frameTime);
+        if (isSimulationThreadEnabled()) {
+            NativePhysics3DWorld.updateTransforms(getNative());
+        } else {
+            NativePhysics3DWorld.step(getNative(), frameTime);
+        }
 
         generateCollisionEvents();
     }
 
+    /**
+     * Adds a listener which receives all collisions of the world once per
+     * frame.
+     *
+     * @param listener the {@link ICollisionListener} to add
+     */
+    public void addCollisionListener(ICollisionListener listener) {
+        synchronized (mCollisionListeners) {
+            if (!mCollisionListeners.contains(listener)) {
+                mCollisionListeners.add(listener);
+            }
+        }
+    }
+
+    /**
+     * Removes a listener added with {@link #addCollisionListener(ICollisionListener)}.
+     *
+     * @param listener the {@link ICollisionListener} to remove
+     */
+    public void removeCollisionListener(ICollisionListener listener) {
+        synchronized (mCollisionListeners) {
+            mCollisionListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Enables or disables sending {@link ICollisionEvents} to the scene
+     * objects of the colliding bodies. They are sent by default. Scenes
+     * with many bodies should use an {@link ICollisionListener} and disable
+     * them, as each event is dispatched through the event manager.
+     *
+     * @param send true to send {@link ICollisionEvents}
+     */
+    public void setSendCollisionEvents(boolean send) {
+        mSendCollisionEvents = send;
+    }
+
+    /**
+     * @return true if {@link ICollisionEvents} are sent to the scene objects.
+     */
+    public boolean getSendCollisionEvents() {
+        return mSendCollisionEvents;
+    }
+
     private void generateCollisionEvents() {
-        GVRCollisionInfo collisionInfos[] = NativePhysics3DWorld.listCollisions(getNative());
+        int count = NativePhysics3DWorld.listCollisions(getNative(),
+                mCollisions.getContactBuffer(), mCollisions.capacity());
 
-        String onEnter = "onEnter";
-        String onExit = "onExit";
+        if (count > mCollisions.capacity()) {
+            mCollisions.allocate(Math.max(count, 2 * mCollisions.capacity()));
+            NativePhysics3DWorld.getCollisions(getNative(), mCollisions.getContactBuffer(),
+                    mCollisions.capacity());
+        }
+        mCollisions.resolve(count, mRigidBodies);
+        if (mCollisions.size() == 0) {
+            return;
+        }
 
-        for (GVRCollisionInfo info : collisionInfos) {
-            if (info.isHit) {
-                sendCollisionEvent(info, onEnter);
+        synchronized (mCollisionListeners) {
+            for (int i = 0; i < mCollisionListeners.size(); ++i) {
+                mCollisionListeners.get(i).onCollisions(this, mCollisions);
             }
-            else {
-                sendCollisionEvent(info, onExit);
+        }
+
+        if (mSendCollisionEvents) {
+            for (int i = 0; i < mCollisions.size(); ++i) {
+                sendCollisionEvent(i, mCollisions.isEnter(i) ? "onEnter" : "onExit");
             }
         }
     }
 
-    private void sendCollisionEvent(GVRCollisionInfo info, String eventName) {
-        GVRSceneObject bodyA = mRigidBodies.get(info.bodyA).getOwnerObject();
-        GVRSceneObject bodyB = mRigidBodies.get(info.bodyB).getOwnerObject();
+    private void sendCollisionEvent(int index, String eventName) {
+        GVRSceneObject bodyA = mCollisions.getBodyA(index).getOwnerObject();
+        GVRSceneObject bodyB = mCollisions.getBodyB(index).getOwnerObject();
+        float normal[] = mCollisions.getNormal(index, new float[3]);
+        float distance = mCollisions.getDistance(index);
 
         getGVRContext().getEventManager().sendEvent(bodyA, ICollisionEvents.class, eventName,
-                bodyA, bodyB, info.normal, info.distance);
+                bodyA, bodyB, normal, distance);
 
         getGVRContext().getEventManager().sendEvent(bodyB, ICollisionEvents.class, eventName,
-                bodyB, bodyA, info.normal, info.distance);
+                bodyB, bodyA, normal, distance);
     }
 
     private void doPhysicsAttach(GVRSceneObject rootSceneObject) {
@@ -152,9 +266,13 @@ public class GVRWorld extends GVRBehavior implements ISceneObjectEvents, Compone
             startListening();
         }
         rootSceneObject.forAllComponents(this, GVRRigidBody.getComponentType());
+        if (isSimulationThreadEnabled()) {
+            NativePhysics3DWorld.startSimulation(getNative(), mFixedTimeStep, mMaxSubSteps);
+        }
     }
 
     private void doPhysicsDetach(GVRSceneObject rootSceneObject) {
+        NativePhysics3DWorld.stopSimulation(getNative());
         if (!mHasFrameCallback) {
             rootSceneObject.getEventReceiver().removeListener(this);
         }
@@ -238,5 +356,13 @@ class NativePhysics3DWorld {
 
     static native void step(long jphysics_world, float jtime_step);
 
-    static native GVRCollisionInfo[] listCollisions(long jphysics_world);
+    static native int listCollisions(long jphysics_world, ByteBuffer contacts, int maxContacts);
+
+    static native void getCollisions(long jphysics_world, ByteBuffer contacts, int maxContacts);
+
+    static native void startSimulation(long jphysics_world, float jtime_step, int jmax_sub_steps);
+
+    static native void stopSimulation(long jphysics_world);
+
+    static native void updateTransforms(long jphysics_world);
 }
@@ -0,0 +1,38 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.physics;
+
+/**
+ * Receives all collisions which started or ended in a {@link GVRWorld}
+ * during a frame with a single call.
+ * <p>
+ * Unlike {@link ICollisionEvents}, which are delivered per scene object
+ * through the event manager, the listener is called directly and the
+ * collisions are not copied into new objects.
+ *
+ * @see GVRWorld#addCollisionListener(ICollisionListener)
+ */
+public interface ICollisionListener {
+
+    /**
+     * Called on the GL thread once per frame when collisions started or
+     * ended since the previous frame.
+     *
+     * @param world the world where the collisions happened
+     * @param collisions the collisions; only valid during this call
+     */
+    void onCollisions(GVRWorld world, GVRCollisionBatch collisions);
+}
@@ -26,7 +26,8 @@ namespace gvr {
 
 BulletRigidBody::BulletRigidBody()
         : Physics3DRigidBody(), mConstructionInfo(btScalar(0.0f), nullptr, new btEmptyShape()),
-          m_centerOfMassOffset(btTransform::getIdentity()), mScale(1.0f, 1.0f, 1.0f) {
+          m_centerOfMassOffset(btTransform::getIdentity()), mScale(1.0f, 1.0f, 1.0f),
+          mSimulationLock(nullptr) {
     initialize();
 }
 
@@ -111,15 +112,60 @@ void BulletRigidBody::setCenterOfMass(const Transform *t) {
 }
 
 void BulletRigidBody::getWorldTransform(btTransform &centerOfMassWorldTrans) const {
+    if (mSimulationLock != nullptr) {
+        // called on the simulation thread, which must not read the owner's
+        // transform while the render thread may be writing it
+        const btTransform &owner = mRigidBody->isKinematicObject() ? mOwnerTransform
+                                                                   : mSimulatedTransform;
+        centerOfMassWorldTrans = owner * m_centerOfMassOffset.inverse();
+        return;
+    }
     centerOfMassWorldTrans = convertTransform2btTransform(owner_object()->transform())
                              * m_centerOfMassOffset.inverse();
 }
 
 void BulletRigidBody::setWorldTransform(const btTransform &centerOfMassWorldTrans) {
+    if (mSimulationLock != nullptr) {
+        // the render thread applies it, see BulletWorld::updateTransforms
+        mSimulatedTransform = centerOfMassWorldTrans * m_centerOfMassOffset;
+        return;
+    }
     convertBtTransform2Transform(centerOfMassWorldTrans * m_centerOfMassOffset,
                                  owner_object()->transform());
 }
 
+void BulletRigidBody::beginSimulation(std::mutex *lock) {
+    mSimulatedTransform = mRigidBody->getCenterOfMassTransform() * m_centerOfMassOffset;
+    mPreviousTransform = mSimulatedTransform;
+    mOwnerTransform = mSimulatedTransform;
+    {
+        std::lock_guard<std::mutex> stateLock(mStateLock);
+        mLinearVelocity = mRigidBody->getLinearVelocity();
+        mAngularVelocity = mRigidBody->getAngularVelocity();
+    }
+    mSimulationLock = lock;
+}
+
+void BulletRigidBody::endSimulation() {
+    if (mSimulationLock == nullptr) {
+        return;
+    }
+    mSimulationLock = nullptr;
+    if ((owner_object() != nullptr) && !mRigidBody->isStaticOrKinematicObject()) {
+        convertBtTransform2Transform(mSimulatedTransform, owner_object()->transform());
+    }
+}
+
+void BulletRigidBody::captureSimulatedTransform(btTransform &previous, btTransform &current) {
+    previous = mPreviousTransform;
+    current = mSimulatedTransform;
+    mPreviousTransform = mSimulatedTransform;
+
+    std::lock_guard<std::mutex> stateLock(mStateLock);
+    mLinearVelocity = mRigidBody->getLinearVelocity();
+    mAngularVelocity = mRigidBody->getAngularVelocity();
+}
+
 void BulletRigidBody::applyCentralForce(float x, float y, float z) {
     mRigidBody->applyCentralForce(btVector3(x, y, z));
 }
@@ -207,10 +253,14 @@ void BulletRigidBody::setDamping(float linear, float angular) {
 
 void BulletRigidBody::setLinearVelocity(float x, float y, float z) {
     mRigidBody->setLinearVelocity(btVector3(x, y, z));
+    std::lock_guard<std::mutex> stateLock(mStateLock);
+    mLinearVelocity = mRigidBody->getLinearVelocity();
 }
 
 void BulletRigidBody::setAngularVelocity(float x, float y, float z) {
     mRigidBody->setAngularVelocity(btVector3(x, y, z));
+    std::lock_guard<std::mutex> stateLock(mStateLock);
+    mAngularVelocity = mRigidBody->getAngularVelocity();
 }
 
 void BulletRigidBody::setAngularFactor(float x, float y, float z) {
@@ -263,14 +313,26 @@ void BulletRigidBody::getDamping(float &angular, float &linear) const {
 }
 
 void BulletRigidBody::getLinearVelocity(float *v3) const {
-    btVector3 result = mRigidBody->getLinearVelocity();
+    btVector3 result;
+    if (mSimulationLock != nullptr) {
+        std::lock_guard<std::mutex> stateLock(mStateLock);
+        result = mLinearVelocity;
+    } else {
+        result = mRigidBody->getLinearVelocity();
+    }
     v3[0] = result.getX();
     v3[1] = result.getY();
     v3[2] = result.getZ();
 }
 
 void BulletRigidBody::getAngularVelocity(float *v3) const {
-    btVector3 result = mRigidBody->getAngularVelocity();
+    btVector3 result;
+    if (mSimulationLock != nullptr) {
+        std::lock_guard<std::mutex> stateLock(mStateLock);
+        result = mAngularVelocity;
+    } else {
+        result = mRigidBody->getAngularVelocity();
+    }
     v3[0] = result.getX();
     v3[1] = result.getY();
     v3[2] = result.getZ();
@@ -21,6 +21,8 @@
 #include <BulletDynamics/Dynamics/btRigidBody.h>
 #include <LinearMath/btMotionState.h>
 
+#include <mutex>
+
 namespace gvr {
 
 class BulletRigidBody : public Physics3DRigidBody, btMotionState {
@@ -51,6 +53,37 @@ class BulletRigidBody : public Physics3DRigidBody, btMotionState {
 
     void setWorldTransform(const btTransform &worldTrans);
 
+    /*
+     * Called by the world when it starts simulating on its own thread.
+     * Until endSimulation is called the motion state keeps the simulated
+     * transform instead of updating the owner's transform, and lock
+     * guards the body against the simulation thread.
+     */
+    void beginSimulation(std::mutex *lock);
+
+    void endSimulation();
+
+    std::mutex *getSimulationLock() const {
+        return mSimulationLock;
+    }
+
+    /*
+     * Remembers the last simulated transform as the previous one
+     * and returns both, used to interpolate between simulation steps.
+     * Also publishes the velocities read by the getters while the
+     * simulation thread runs.
+     */
+    void captureSimulatedTransform(btTransform &previous, btTransform &current);
+
+    /*
+     * Sets the owner's transform as read on the render thread. While the
+     * world is simulated on its own thread, the motion state reports it
+     * to Bullet instead of reading the owner's transform.
+     */
+    void setOwnerTransform(const btTransform &transform) {
+        mOwnerTransform = transform;
+    }
+
     void applyCentralForce(float x, float y, float z);
 
     void applyTorque(float x, float y, float z);
@@ -145,6 +178,16 @@ class BulletRigidBody : public Physics3DRigidBody, btMotionState {
     btRigidBody::btRigidBodyConstructionInfo mConstructionInfo;
     btTransform m_centerOfMassOffset;
     btVector3 mScale;
+
+    std::mutex *mSimulationLock;
+    btTransform mSimulatedTransform;
+    btTransform mPreviousTransform;
+    btTransform mOwnerTransform;
+
+    // velocities after the last simulation step, guarded by mStateLock
+    mutable std::mutex mStateLock;
+    btVector3 mLinearVelocity;
+    btVector3 mAngularVelocity;
 };
 
 }
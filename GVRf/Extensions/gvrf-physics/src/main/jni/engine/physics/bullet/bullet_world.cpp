@@ -15,19 +15,24 @@
 
 #include "bullet_world.h"
 #include "bullet_rigidbody.h"
+#include "bullet_gvr_utils.h"
 #include "util/gvr_log.h"
 
 #include <BulletCollision/CollisionDispatch/btDefaultCollisionConfiguration.h>
 #include <BulletCollision/BroadphaseCollision/btDbvtBroadphase.h>
 #include <BulletDynamics/Dynamics/btDiscreteDynamicsWorld.h>
 
+#include <algorithm>
+
 namespace gvr {
 
-BulletWorld::BulletWorld() {
+BulletWorld::BulletWorld() : mSimulating(false), mTimeStep(1.0f / 60.0f), mMaxSubSteps(1),
+        mFrontSnapshot(0) {
     initialize();
 }
 
 BulletWorld::~BulletWorld() {
+    stopSimulation();
     finalize();
 }
 
@@ -75,82 +80,299 @@ void BulletWorld::finalize() {
 }
 
 void BulletWorld::addRigidBody(PhysicsRigidBody *body) {
-    mPhysicsWorld->addRigidBody((static_cast<BulletRigidBody *>(body))->getRigidBody());
+    BulletRigidBody *rigidBody = static_cast<BulletRigidBody *>(body);
+    std::lock_guard<std::mutex> lock(mLock);
+
+    mPhysicsWorld->addRigidBody(rigidBody->getRigidBody());
+    if (mSimulating) {
+        rigidBody->beginSimulation(&mLock);
+    }
 }
 
 void BulletWorld::removeRigidBody(PhysicsRigidBody *body) {
-    mPhysicsWorld->removeRigidBody((static_cast<BulletRigidBody *>(body))->getRigidBody());
+    BulletRigidBody *rigidBody = static_cast<BulletRigidBody *>(body);
+    std::lock_guard<std::mutex> lock(mLock);
+
+    mPhysicsWorld->removeRigidBody(rigidBody->getRigidBody());
+    rigidBody->endSimulation();
+    std::lock_guard<std::mutex> snapshotLock(mSnapshotLock);
+
+    // no onExit events for a body which left the world
+    for (auto it = prevCollisions.begin(); it != prevCollisions.end();) {
+        if ((it->second.body0 == rigidBody) || (it->second.body1 == rigidBody)) {
+            it = prevCollisions.erase(it);
+        } else {
+            ++it;
+        }
+    }
+
+    // the body may be deleted, forget about it
+    for (int i = 0; i < 2; ++i) {
+        Snapshot &snapshot = mSnapshots[i];
+        snapshot.bodies.erase(std::remove_if(snapshot.bodies.begin(), snapshot.bodies.end(),
+                [rigidBody](const BodySnapshot &body) { return body.body == rigidBody; }),
+                snapshot.bodies.end());
+        snapshot.kinematic.erase(std::remove(snapshot.kinematic.begin(),
+                snapshot.kinematic.end(), rigidBody), snapshot.kinematic.end());
+        snapshot.contacts.erase(std::remove_if(snapshot.contacts.begin(),
+                snapshot.contacts.end(), [rigidBody](const ContactPoint &contact) {
+                    return (contact.body0 == rigidBody) || (contact.body1 == rigidBody);
+                }), snapshot.contacts.end());
+    }
+    mOwnerTransforms.erase(std::remove_if(mOwnerTransforms.begin(), mOwnerTransforms.end(),
+            [rigidBody](const OwnerTransform &owner) { return owner.first == rigidBody; }),
+            mOwnerTransforms.end());
 }
 
 void BulletWorld::step(float timeStep) {
+    if (mSimulating) {
+        return;
+    }
+    std::lock_guard<std::mutex> lock(mLock);
     mPhysicsWorld->stepSimulation(timeStep);
 }
 
+void BulletWorld::startSimulation(float timeStep, int maxSubSteps) {
+    stopSimulation();
+    if ((timeStep <= 0) || (maxSubSteps < 1)) {
+        LOGE("BulletWorld::startSimulation() : invalid time step %f or sub steps %d", timeStep,
+             maxSubSteps);
+        return;
+    }
+    {
+        std::lock_guard<std::mutex> lock(mLock);
+        mTimeStep = timeStep;
+        mMaxSubSteps = maxSubSteps;
+        for (int i = mPhysicsWorld->getNumCollisionObjects() - 1; i >= 0; i--) {
+            btCollisionObject *obj = mPhysicsWorld->getCollisionObjectArray()[i];
+            static_cast<BulletRigidBody *>(obj->getUserPointer())->beginSimulation(&mLock);
+        }
+        captureSnapshot();
+        captureSnapshot();
+        mSimulating = true;
+    }
+    mSimulationThread = std::thread(&BulletWorld::simulate, this);
+}
+
+void BulletWorld::stopSimulation() {
+    if (!mSimulating) {
+        return;
+    }
+    mSimulating = false;
+    mSimulationThread.join();
+
+    std::lock_guard<std::mutex> lock(mLock);
+    for (int i = mPhysicsWorld->getNumCollisionObjects() - 1; i >= 0; i--) {
+        btCollisionObject *obj = mPhysicsWorld->getCollisionObjectArray()[i];
+        static_cast<BulletRigidBody *>(obj->getUserPointer())->endSimulation();
+    }
+    std::lock_guard<std::mutex> snapshotLock(mSnapshotLock);
+    for (int i = 0; i < 2; ++i) {
+        mSnapshots[i].bodies.clear();
+        mSnapshots[i].kinematic.clear();
+        mSnapshots[i].contacts.clear();
+    }
+    mOwnerTransforms.clear();
+}
+
+/*
+ * Body of the simulation thread. Each step advances the world by exactly
+ * mTimeStep so the result does not depend on the frame rate. Steps which
+ * cannot be caught up with mMaxSubSteps are dropped.
+ */
+void BulletWorld::simulate() {
+    const Clock::duration step = std::chrono::duration_cast<Clock::duration>(
+            std::chrono::duration<float>(mTimeStep));
+    Clock::time_point next = Clock::now() + step;
+
+    while (mSimulating) {
+        std::this_thread::sleep_until(next);
+
+        Clock::time_point now = Clock::now();
+        for (int i = 0; (i < mMaxSubSteps) && (next <= now); ++i) {
+            {
+                std::lock_guard<std::mutex> lock(mLock);
+                applyOwnerTransforms();
+                mPhysicsWorld->stepSimulation(mTimeStep, 0);
+                captureSnapshot();
+            }
+            next += step;
+        }
+        if (next <= now) {
+            next = now + step;
+        }
+    }
+}
+
+/*
+ * Writes the simulated transforms of the dynamic rigid bodies and the
+ * current contacts into the back buffer and makes it the front buffer.
+ * Called with mLock held.
+ */
+void BulletWorld::captureSnapshot() {
+    Snapshot &snapshot = mSnapshots[1 - mFrontSnapshot];
+
+    snapshot.bodies.clear();
+    snapshot.kinematic.clear();
+    for (int i = mPhysicsWorld->getNumCollisionObjects() - 1; i >= 0; i--) {
+        btCollisionObject *obj = mPhysicsWorld->getCollisionObjectArray()[i];
+        BulletRigidBody *rigidBody = static_cast<BulletRigidBody *>(obj->getUserPointer());
+        if (obj->isKinematicObject()) {
+            snapshot.kinematic.push_back(rigidBody);
+        }
+        if (obj->isStaticOrKinematicObject()) {
+            continue;
+        }
+        BodySnapshot body;
+        body.body = rigidBody;
+        body.body->captureSimulatedTransform(body.previous, body.current);
+        snapshot.bodies.push_back(body);
+    }
+    gatherContacts(snapshot.contacts);
+
+    std::lock_guard<std::mutex> lock(mSnapshotLock);
+    mFrontSnapshot = 1 - mFrontSnapshot;
+    mSnapshotTime = Clock::now();
+}
+
+/*
+ * Passes the owners' transforms of the kinematic bodies, last read by the
+ * render thread, to the bodies before a step. Called with mLock held.
+ */
+void BulletWorld::applyOwnerTransforms() {
+    std::lock_guard<std::mutex> lock(mSnapshotLock);
+
+    for (auto it = mOwnerTransforms.begin(); it != mOwnerTransforms.end(); ++it) {
+        it->first->setOwnerTransform(it->second);
+    }
+}
+
+void BulletWorld::updateTransforms() {
+    std::lock_guard<std::mutex> lock(mSnapshotLock);
+
+    std::chrono::duration<float> elapsed = Clock::now() - mSnapshotTime;
+    float alpha = std::min(std::max(elapsed.count() / mTimeStep, 0.0f), 1.0f);
+    const Snapshot &snapshot = mSnapshots[mFrontSnapshot];
+
+    mOwnerTransforms.clear();
+    for (auto it = snapshot.kinematic.begin(); it != snapshot.kinematic.end(); ++it) {
+        SceneObject *owner = (*it)->owner_object();
+        if (owner != nullptr) {
+            mOwnerTransforms.push_back(
+                    OwnerTransform(*it, convertTransform2btTransform(owner->transform())));
+        }
+    }
+
+    for (auto it = snapshot.bodies.begin(); it != snapshot.bodies.end(); ++it) {
+        SceneObject *owner = it->body->owner_object();
+        if (owner == nullptr) {
+            continue;
+        }
+        btTransform transform;
+        transform.setOrigin(it->previous.getOrigin().lerp(it->current.getOrigin(), alpha));
+        transform.setRotation(it->previous.getRotation().slerp(it->current.getRotation(), alpha));
+        convertBtTransform2Transform(transform, owner->transform());
+    }
+}
+
 /**
  * Returns by reference the list of new and ceased collisions
  *  that will be the objects of ONENTER and ONEXIT events.
  */
 void BulletWorld::listCollisions(std::list <ContactPoint> &contactPoints) {
+    const std::vector<ContactPoint> &events = updateCollisions();
+
+    contactPoints.insert(contactPoints.end(), events.begin(), events.end());
+}
 
 /*
- * Creates a list of all the current collisions on the World
- * */
-    std::map<std::pair<long,long>, ContactPoint> currCollisions;
+ * While the simulation thread runs, the contacts it published with the
+ * last step are compared, so the caller never waits for a step.
+ */
+const std::vector<ContactPoint>& BulletWorld::updateCollisions() {
+    if (mSimulating) {
+        std::lock_guard<std::mutex> snapshotLock(mSnapshotLock);
+        return compareCollisions(mSnapshots[mFrontSnapshot].contacts);
+    }
+    std::lock_guard<std::mutex> lock(mLock);
+    std::lock_guard<std::mutex> snapshotLock(mSnapshotLock);
+    gatherContacts(mContacts);
+    return compareCollisions(mContacts);
+}
+
+/*
+ * Collects all the current collisions on the World. Called with mLock held.
+ */
+void BulletWorld::gatherContacts(std::vector<ContactPoint> &contacts) {
+    contacts.clear();
     int numManifolds = mPhysicsWorld->getDispatcher()->getNumManifolds();
-    btPersistentManifold *contactManifold;
 
     for (int i = 0; i < numManifolds; i++) {
-        ContactPoint contactPt;
-
-        contactManifold = mPhysicsWorld->getDispatcher()->
+        btPersistentManifold *contactManifold = mPhysicsWorld->getDispatcher()->
                 getManifoldByIndexInternal(i);
+        const btManifoldPoint &point = contactManifold->getContactPoint(0);
+        ContactPoint contactPt;
 
         contactPt.body0 = (BulletRigidBody *) (contactManifold->getBody0()->getUserPointer());
         contactPt.body1 = (BulletRigidBody *) (contactManifold->getBody1()->getUserPointer());
-        contactPt.normal[0] = contactManifold->getContactPoint(0).m_normalWorldOnB.getX();
-        contactPt.normal[1] = contactManifold->getContactPoint(0).m_normalWorldOnB.getY();
-        contactPt.normal[2] = contactManifold->getContactPoint(0).m_normalWorldOnB.getZ();
-        contactPt.distance = contactManifold->getContactPoint(0).getDistance();
+        contactPt.normal[0] = point.m_normalWorldOnB.getX();
+        contactPt.normal[1] = point.m_normalWorldOnB.getY();
+        contactPt.normal[2] = point.m_normalWorldOnB.getZ();
+        contactPt.distance = point.getDistance();
         contactPt.isHit = true;
+        contacts.push_back(contactPt);
+    }
+}
+
+/*
+ * Compares the current contacts with the previous ones. Called with
+ * mSnapshotLock held, which also guards the collision maps.
+ */
+const std::vector<ContactPoint>& BulletWorld::compareCollisions(
+        const std::vector<ContactPoint> &contacts) {
+    mCollisionEvents.clear();
+    currCollisions.clear();
 
-        std::pair<long, long> collisionPair((long)contactPt.body0, (long)contactPt.body1);
-        std::pair<std::pair<long, long>, ContactPoint> newPair(collisionPair, contactPt);
-        currCollisions.insert(newPair);
+    for (auto it = contacts.begin(); it != contacts.end(); ++it) {
+        CollisionPair collisionPair((long) it->body0, (long) it->body1);
+        currCollisions[collisionPair] = *it;
 
         /*
-         * If one of these current collisions is not on the list with all the previous
-         * collision, then it should be on the return list, because it is an onEnter event
+         * If one of these current collisions is not among the previous
+         * collisions, it is an onEnter event
          * */
-        auto it = prevCollisions.find(collisionPair);
-        if ( it == prevCollisions.end()) {
-            contactPoints.push_front(contactPt);
-        } 
-        contactManifold = 0;
+        if (prevCollisions.find(collisionPair) == prevCollisions.end()) {
+            mCollisionEvents.push_back(*it);
+        }
     }
 
     /*
-     * After going through all the current list, go through all the previous collisions list,
-     * if one of its collisions is not on the current collision list, then it should be
-     * on the return list, because it is an onExit event
+     * Previous collisions which are not current anymore are onExit events
      * */
     for (auto it = prevCollisions.begin(); it != prevCollisions.end(); ++it) {
         if (currCollisions.find(it->first) == currCollisions.end()) {
             ContactPoint cp = it->second;
             cp.isHit = false;
-            contactPoints.push_front(cp);
+            mCollisionEvents.push_back(cp);
         }
     }
 
 /*
- * Save all the current collisions on the previous collisions list for the next iteration
+ * Keep the current collisions as the previous ones for the next call,
+ * swapping keeps the buckets of both maps allocated
  * */
-    prevCollisions.clear();
     prevCollisions.swap(currCollisions);
-
+    return mCollisionEvents;
 }
 
 void BulletWorld::addRigidBody(PhysicsRigidBody *body, int collisiontype, int collidesWith) {
-    mPhysicsWorld->addRigidBody((static_cast<BulletRigidBody *>(body))->getRigidBody(), collidesWith, collisiontype);
+    BulletRigidBody *rigidBody = static_cast<BulletRigidBody *>(body);
+    std::lock_guard<std::mutex> lock(mLock);
+
+    mPhysicsWorld->addRigidBody(rigidBody->getRigidBody(), collidesWith, collisiontype);
+    if (mSimulating) {
+        rigidBody->beginSimulation(&mLock);
+    }
 }
 
 }
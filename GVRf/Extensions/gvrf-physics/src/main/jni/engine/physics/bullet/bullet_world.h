@@ -26,10 +26,16 @@
 #include <BulletDynamics/ConstraintSolver/btSequentialImpulseConstraintSolver.h>
 
 #include "glm/glm.hpp"
+#include <atomic>
+#include <chrono>
+#include <mutex>
+#include <thread>
 #include <utility>
-#include <map>
+#include <unordered_map>
+#include <vector>
 
 namespace gvr {
+class BulletRigidBody;
 
 class BulletWorld : public Physics3DWorld {
  public:
@@ -47,13 +53,116 @@ class BulletWorld : public Physics3DWorld {
 
     void listCollisions(std::list <ContactPoint> &contactPoints);
 
+    /*
+     * Compares the current contacts with the ones of the previous call
+     * and returns the collisions which started (isHit true) or ended
+     * (isHit false) since then. The returned vector is reused by the
+     * next call.
+     */
+    const std::vector<ContactPoint>& updateCollisions();
+
+    /*
+     * Returns the collisions found by the last updateCollisions().
+     */
+    const std::vector<ContactPoint>& getCollisions() const {
+        return mCollisionEvents;
+    }
+
+    /*
+     * Starts stepping the world on its own thread with a fixed time step.
+     * At most maxSubSteps steps are taken to catch up after a stall.
+     * While the thread runs, step() does nothing and the owners of the
+     * rigid bodies are only updated by updateTransforms().
+     */
+    void startSimulation(float timeStep, int maxSubSteps);
+
+    /*
+     * Stops the simulation thread and leaves the rigid bodies at their
+     * last simulated transforms.
+     */
+    void stopSimulation();
+
+    bool isSimulating() const {
+        return mSimulating;
+    }
+
+    /*
+     * Sets the transforms of the simulated rigid bodies' owners,
+     * interpolated between the last two simulation steps, and hands the
+     * owners' transforms of the kinematic bodies to the simulation thread.
+     * Called from the render thread every frame.
+     */
+    void updateTransforms();
+
  private:
     void initialize();
 
     void finalize();
 
+    void simulate();
+
+    void captureSnapshot();
+
+    void applyOwnerTransforms();
+
+    void gatherContacts(std::vector<ContactPoint> &contacts);
+
+    const std::vector<ContactPoint>& compareCollisions(const std::vector<ContactPoint> &contacts);
+
+    typedef std::chrono::steady_clock Clock;
+
+    typedef std::pair<long, long> CollisionPair;
+
+    struct CollisionPairHash {
+        size_t operator()(const CollisionPair &pair) const {
+            return std::hash<long>()(pair.first) * 31 + std::hash<long>()(pair.second);
+        }
+    };
+
+    typedef std::unordered_map<CollisionPair, ContactPoint, CollisionPairHash> CollisionMap;
+
+    struct BodySnapshot {
+        BulletRigidBody *body;
+        btTransform previous;
+        btTransform current;
+    };
+
+    // state published by one simulation step
+    struct Snapshot {
+        std::vector<BodySnapshot> bodies;       // dynamic bodies
+        std::vector<BulletRigidBody *> kinematic;
+        std::vector<ContactPoint> contacts;
+    };
+
+    typedef std::pair<BulletRigidBody *, btTransform> OwnerTransform;
+
  private:
-    std::map<std::pair <long,long>, ContactPoint> prevCollisions;
+    // guards the dynamics world against the simulation thread
+    std::mutex mLock;
+    std::thread mSimulationThread;
+    std::atomic<bool> mSimulating;
+    float mTimeStep;
+    int mMaxSubSteps;
+
+    // double buffered step results written by the simulation thread,
+    // mSnapshotLock guards swapping the buffers and reading the front one,
+    // so readers never wait for a step to finish
+    std::mutex mSnapshotLock;
+    Snapshot mSnapshots[2];
+    int mFrontSnapshot;
+    Clock::time_point mSnapshotTime;
+
+    // owners' transforms of the kinematic bodies, written by the render
+    // thread and read before each step, guarded by mSnapshotLock
+    std::vector<OwnerTransform> mOwnerTransforms;
+
+    // contacts found by updateCollisions() when no simulation thread runs
+    std::vector<ContactPoint> mContacts;
+
+    // contacts of the last and the current updateCollisions(), swapped every call
+    CollisionMap prevCollisions;
+    CollisionMap currCollisions;
+    std::vector<ContactPoint> mCollisionEvents;
     btDynamicsWorld *mPhysicsWorld;
     btCollisionConfiguration *mCollisionConfiguration;
     btCollisionDispatcher *mDispatcher;
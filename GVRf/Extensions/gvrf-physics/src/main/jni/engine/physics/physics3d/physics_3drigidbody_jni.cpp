@@ -191,6 +191,30 @@ extern "C" {
             jlong jrigid_body) ;
 }
 
+/*
+ * Keeps the simulation thread of the world the rigid body belongs to
+ * from stepping while the body is modified. The getters do not take it:
+ * the simulation thread only changes the velocities, which it publishes
+ * after every step, see BulletRigidBody::captureSimulatedTransform.
+ */
+class SimulationLock {
+ public:
+    SimulationLock(BulletRigidBody *body) : mLock(body->getSimulationLock()) {
+        if (mLock != nullptr) {
+            mLock->lock();
+        }
+    }
+
+    ~SimulationLock() {
+        if (mLock != nullptr) {
+            mLock->unlock();
+        }
+    }
+
+ private:
+    std::mutex *mLock;
+};
+
 JNIEXPORT jlong JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_ctor(JNIEnv * env, jobject obj) {
     return reinterpret_cast<jlong>(new BulletRigidBody());
@@ -213,6 +237,7 @@ JNIEXPORT void JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setMass(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat mass) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->setMass(mass);
 }
@@ -221,6 +246,7 @@ JNIEXPORT void JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_applyCentralForce(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat x, jfloat y, jfloat z) {
     BulletRigidBody *rigid_body = reinterpret_cast<BulletRigidBody *>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->applyCentralForce(x, y, z);
 }
@@ -229,6 +255,7 @@ JNIEXPORT void JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_applyTorque(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat x, jfloat y, jfloat z) {
     BulletRigidBody *rigid_body = reinterpret_cast<BulletRigidBody *>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->applyTorque(x, y, z);
 }
@@ -237,6 +264,7 @@ JNIEXPORT void JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_onAttach(JNIEnv * env, jobject obj,
         jlong jrigid_body) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->onAttach();
 }
@@ -245,6 +273,7 @@ JNIEXPORT void JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_onDetach(JNIEnv * env, jobject obj,
         jlong jrigid_body) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->onDetach();
 }
@@ -277,6 +306,7 @@ JNIEXPORT void JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setCenter(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat x, jfloat y, jfloat z) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->set_center(x, y, z);
 }
@@ -317,6 +347,7 @@ JNIEXPORT void JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setRotation(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat w, jfloat x, jfloat y, jfloat z) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->set_rotation(w, x, y, z);
 }
@@ -349,6 +380,7 @@ JNIEXPORT void JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setScale(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat x, jfloat y, jfloat z) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->set_scale(x, y, z);
 }
@@ -357,6 +389,7 @@ JNIEXPORT void   JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setGravity(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat x, jfloat y, jfloat z) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->setGravity(x, y, z);
 }
@@ -365,6 +398,7 @@ JNIEXPORT void   JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setDamping(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat linear, jfloat angular) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->setDamping(linear, angular);
 }
@@ -373,6 +407,7 @@ JNIEXPORT void   JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setLinearVelocity(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat x, jfloat y, jfloat z) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->setLinearVelocity(x, y, z);
 }
@@ -381,6 +416,7 @@ JNIEXPORT void   JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setAngularVelocity(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat x, jfloat y, jfloat z) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->setAngularVelocity(x, y, z);
 }
@@ -389,6 +425,7 @@ JNIEXPORT void   JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setAngularFactor(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat x, jfloat y, jfloat z) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->setAngularFactor(x, y, z);
 }
@@ -397,6 +434,7 @@ JNIEXPORT void   JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setLinearFactor(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat x, jfloat y, jfloat z) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->setLinearFactor(x, y, z);
 }
@@ -405,6 +443,7 @@ JNIEXPORT void   JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setFriction(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat n) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->setFriction(n);
 }
@@ -413,6 +452,7 @@ JNIEXPORT void   JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setRestitution(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat n) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->setRestitution(n);
 }
@@ -421,6 +461,7 @@ JNIEXPORT void   JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setSleepingThresholds(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat linear, jfloat angular) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->setSleepingThresholds(linear, angular);
 }
@@ -429,6 +470,7 @@ JNIEXPORT void   JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setCcdMotionThreshold(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat n) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->setCcdMotionThreshold(n);
 }
@@ -437,6 +479,7 @@ JNIEXPORT void   JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setContactProcessingThreshold(JNIEnv * env, jobject obj,
         jlong jrigid_body, jfloat n) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->setContactProcessingThreshold(n);
 }
@@ -445,6 +488,7 @@ JNIEXPORT void   JNICALL
 Java_org_gearvrf_physics_Native3DRigidBody_setIgnoreCollisionCheck(JNIEnv * env, jobject obj,
         jlong jrigid_body, jobject collisionObj, jboolean ignore) {
     BulletRigidBody* rigid_body = reinterpret_cast<BulletRigidBody*>(jrigid_body);
+    SimulationLock lock(rigid_body);
 
     rigid_body->setIgnoreCollisionCheck(reinterpret_cast<BulletRigidBody*>(jrigid_body), ignore);
 }
@@ -47,9 +47,25 @@ extern "C" {
     Java_org_gearvrf_physics_NativePhysics3DWorld_step(JNIEnv * env, jobject obj,
             jlong jworld, jfloat jtime_step);
 
-    JNIEXPORT jobjectArray JNICALL
+    JNIEXPORT jint JNICALL
     Java_org_gearvrf_physics_NativePhysics3DWorld_listCollisions(JNIEnv * env, jobject obj,
-                                                                    jlong jworld);
+            jlong jworld, jobject jcontacts, jint jmax_contacts);
+
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_physics_NativePhysics3DWorld_getCollisions(JNIEnv * env, jobject obj,
+            jlong jworld, jobject jcontacts, jint jmax_contacts);
+
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_physics_NativePhysics3DWorld_startSimulation(JNIEnv * env, jobject obj,
+            jlong jworld, jfloat jtime_step, jint jmax_sub_steps);
+
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_physics_NativePhysics3DWorld_stopSimulation(JNIEnv * env, jobject obj,
+            jlong jworld);
+
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_physics_NativePhysics3DWorld_updateTransforms(JNIEnv * env, jobject obj,
+            jlong jworld);
 }
 
 JNIEXPORT jlong JNICALL
@@ -97,39 +113,79 @@ Java_org_gearvrf_physics_NativePhysics3DWorld_step(JNIEnv * env, jobject obj,
     world->step((float)jtime_step);
 }
 
-JNIEXPORT jobjectArray JNICALL
-Java_org_gearvrf_physics_NativePhysics3DWorld_listCollisions(JNIEnv * env, jobject obj, jlong jworld) {
+JNIEXPORT void JNICALL
+Java_org_gearvrf_physics_NativePhysics3DWorld_startSimulation(JNIEnv * env, jobject obj,
+        jlong jworld, jfloat jtime_step, jint jmax_sub_steps) {
+    BulletWorld *world = reinterpret_cast<BulletWorld*>(jworld);
 
-    jclass collisionInfoClass = env->FindClass("org/gearvrf/physics/GVRCollisionInfo");
-    jmethodID collisionInfoConstructor = env->GetMethodID(collisionInfoClass, "<init>", "(JJ[FFZ)V");
+    world->startSimulation((float)jtime_step, (int)jmax_sub_steps);
+}
 
-    BulletWorld *world = reinterpret_cast <BulletWorld*> (jworld);
-    std::list <ContactPoint> contactPoints;
+JNIEXPORT void JNICALL
+Java_org_gearvrf_physics_NativePhysics3DWorld_stopSimulation(JNIEnv * env, jobject obj,
+        jlong jworld) {
+    BulletWorld *world = reinterpret_cast<BulletWorld*>(jworld);
 
-    world->listCollisions(contactPoints);
+    world->stopSimulation();
+}
 
-    int size = contactPoints.size();
-    jobjectArray jNewList = env->NewObjectArray(size, collisionInfoClass, NULL);
+JNIEXPORT void JNICALL
+Java_org_gearvrf_physics_NativePhysics3DWorld_updateTransforms(JNIEnv * env, jobject obj,
+        jlong jworld) {
+    BulletWorld *world = reinterpret_cast<BulletWorld*>(jworld);
 
-    int i = 0;
-    for (auto it = contactPoints.begin(); it != contactPoints.end(); ++it) {
-        const ContactPoint& data = *it;
+    world->updateTransforms();
+}
 
-        jfloatArray normal = env->NewFloatArray(3);
-        env->SetFloatArrayRegion(normal, 0, 3, data.normal);
+/*
+ * Layout of one contact in the buffer shared with GVRCollisionBatch.
+ */
+struct CollisionContact {
+    jlong body0;
+    jlong body1;
+    jfloat normal[3];
+    jfloat distance;
+    jint isHit;
+    jint padding;
+};
+
+static_assert(sizeof(CollisionContact) == 40, "GVRCollisionBatch.CONTACT_SIZE mismatch");
+
+static void writeCollisions(JNIEnv * env, const std::vector<ContactPoint>& contacts,
+        jobject jcontacts, jint jmax_contacts) {
+    CollisionContact *out = static_cast<CollisionContact*>(env->GetDirectBufferAddress(jcontacts));
+    int count = std::min((int) contacts.size(), (int) jmax_contacts);
+
+    for (int i = 0; i < count; ++i) {
+        const ContactPoint& data = contacts[i];
+
+        out[i].body0 = reinterpret_cast<jlong>(data.body0);
+        out[i].body1 = reinterpret_cast<jlong>(data.body1);
+        out[i].normal[0] = data.normal[0];
+        out[i].normal[1] = data.normal[1];
+        out[i].normal[2] = data.normal[2];
+        out[i].distance = data.distance;
+        out[i].isHit = data.isHit ? 1 : 0;
+        out[i].padding = 0;
+    }
+}
 
-        jobject contactObject = env->NewObject(collisionInfoClass, collisionInfoConstructor,
-                                               (jlong)data.body0, (jlong)data.body1,
-                                               (jfloatArray)normal, (jfloat)data.distance,
-                                               (jboolean)data.isHit);
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_physics_NativePhysics3DWorld_listCollisions(JNIEnv * env, jobject obj,
+        jlong jworld, jobject jcontacts, jint jmax_contacts) {
+    BulletWorld *world = reinterpret_cast <BulletWorld*> (jworld);
+    const std::vector<ContactPoint>& contacts = world->updateCollisions();
 
-        env->SetObjectArrayElement(jNewList, i++, contactObject);
-        env->DeleteLocalRef(contactObject);
-        env->DeleteLocalRef(normal);
-    }
+    writeCollisions(env, contacts, jcontacts, jmax_contacts);
+    return contacts.size();
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_physics_NativePhysics3DWorld_getCollisions(JNIEnv * env, jobject obj,
+        jlong jworld, jobject jcontacts, jint jmax_contacts) {
+    BulletWorld *world = reinterpret_cast <BulletWorld*> (jworld);
 
-    env->DeleteLocalRef(collisionInfoClass);
-    return jNewList;
+    writeCollisions(env, world->getCollisions(), jcontacts, jmax_contacts);
 }
 
 }
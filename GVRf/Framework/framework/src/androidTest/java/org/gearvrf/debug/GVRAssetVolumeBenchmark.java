@@ -0,0 +1,219 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import android.os.Debug;
+
+import org.gearvrf.GVRAndroidResource;
+import org.gearvrf.GVRArchiveVolume;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRResourceVolume;
+import org.gearvrf.utility.Log;
+import org.gearvrf.utility.ResourceReader;
+
+/**
+ * Compares reading the files of a model from a {@link GVRArchiveVolume}
+ * with reading the same files through a stream-based
+ * {@link GVRResourceVolume}, the way the asset loader hands them to assimp
+ * and the texture decoders.<p>
+ *
+ * The archive is extracted to the cache directory for the stream-based
+ * volume first. Every pass reads all files of the archive and keeps them
+ * until the end of the pass, like an import does, and checksums every byte
+ * so both volumes do the same work. Besides the time per pass the
+ * benchmark reports the Java heap allocated by a pass and the peak heap
+ * held at its end.
+ */
+public class GVRAssetVolumeBenchmark {
+    private static final String TAG = GVRAssetVolumeBenchmark.class.getSimpleName();
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final GVRContext mContext;
+
+    private static class Pass {
+        long nanos;
+        long allocated;
+        long held;
+        long checksum;
+    }
+
+    public GVRAssetVolumeBenchmark(GVRContext context) {
+        mContext = context;
+    }
+
+    /**
+     * Reads all files of an archive {@code iterations} times from each
+     * volume, after a warm-up, and measures the average time per pass and the
+     * largest heap use.
+     *
+     * @return a one-line summary of the results
+     */
+    public String run(File archive, int iterations) throws IOException {
+        File directory = new File(mContext.getContext().getCacheDir(), TAG + "/" + archive.getName());
+        Set<String> names = new GVRArchiveVolume(mContext, archive).getFileNames();
+        long bytes = extract(archive, directory);
+
+        // Warm up both paths and the page cache
+        Pass streamed = readStreams(directory, names);
+        Pass mapped = readArchive(archive, names);
+        if (streamed.checksum != mapped.checksum) {
+            Log.e(TAG, "Checksums differ: stream %x, archive %x", streamed.checksum, mapped.checksum);
+        }
+
+        long streamNanos = 0;
+        long streamAllocated = 0;
+        long streamHeld = 0;
+        long archiveNanos = 0;
+        long archiveAllocated = 0;
+        long archiveHeld = 0;
+        for (int i = 0; i < iterations; ++i) {
+            streamed = readStreams(directory, names);
+            streamNanos += streamed.nanos;
+            streamAllocated = Math.max(streamAllocated, streamed.allocated);
+            streamHeld = Math.max(streamHeld, streamed.held);
+
+            mapped = readArchive(archive, names);
+            archiveNanos += mapped.nanos;
+            archiveAllocated = Math.max(archiveAllocated, mapped.allocated);
+            archiveHeld = Math.max(archiveHeld, mapped.held);
+        }
+
+        String result = String.format(
+                "%d files, %d KB: stream %.2f ms, %d KB allocated, %d KB held; "
+                        + "archive %.2f ms, %d KB allocated, %d KB held",
+                names.size(), bytes / 1024,
+                streamNanos / 1e6 / iterations, streamAllocated / 1024, streamHeld / 1024,
+                archiveNanos / 1e6 / iterations, archiveAllocated / 1024, archiveHeld / 1024);
+        return result;
+    }
+
+    /*
+     * Reads the extracted files like GVRAssetLoader.ResourceVolumeIO does.
+     */
+    private Pass readStreams(File directory, Set<String> names) throws IOException {
+        List<byte[]> files = new ArrayList<byte[]>(names.size());
+        Pass pass = new Pass();
+        long heap = startPass();
+        long start = System.nanoTime();
+
+        GVRResourceVolume volume = new GVRResourceVolume(mContext,
+                GVRResourceVolume.VolumeType.LINUX_FILESYSTEM, directory.getPath());
+        for (String name : names) {
+            GVRAndroidResource resource = volume.openResource(name);
+            try {
+                byte[] data = ResourceReader.readStream(resource.getStream());
+                for (byte b : data) {
+                    pass.checksum += b & 0xFF;
+                }
+                files.add(data);
+            } finally {
+                resource.closeStream();
+            }
+        }
+
+        pass.nanos = System.nanoTime() - start;
+        finishPass(pass, heap);
+        files.clear();
+        return pass;
+    }
+
+    private Pass readArchive(File archive, Set<String> names) throws IOException {
+        List<ByteBuffer> files = new ArrayList<ByteBuffer>(names.size());
+        Pass pass = new Pass();
+        long heap = startPass();
+        long start = System.nanoTime();
+
+        GVRArchiveVolume volume = new GVRArchiveVolume(mContext, archive);
+        for (String name : names) {
+            ByteBuffer data = volume.getBuffer(name);
+            for (int i = data.position(); i < data.limit(); ++i) {
+                pass.checksum += data.get(i) & 0xFF;
+            }
+            files.add(data);
+        }
+
+        pass.nanos = System.nanoTime() - start;
+        finishPass(pass, heap);
+        files.clear();
+        return pass;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static long startPass() {
+        Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        Debug.resetThreadAllocSize();
+        Debug.startAllocCounting();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void finishPass(Pass pass, long heap) {
+        Debug.stopAllocCounting();
+        pass.allocated = Debug.getThreadAllocSize();
+        Runtime runtime = Runtime.getRuntime();
+        pass.held = Math.max(0, runtime.totalMemory() - runtime.freeMemory() - heap);
+    }
+
+    /*
+     * Extracts the archive for the stream-based volume and returns the
+     * total size of its files.
+     */
+    private static long extract(File archive, File directory) throws IOException {
+        ZipFile zip = new ZipFile(archive);
+        long total = 0;
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        try {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory() || entry.getName().contains("..")) {
+                    continue;
+                }
+                File file = new File(directory, entry.getName());
+                file.getParentFile().mkdirs();
+                InputStream in = zip.getInputStream(entry);
+                OutputStream out = new FileOutputStream(file);
+                try {
+                    int count;
+                    while ((count = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, count);
+                        total += count;
+                    }
+                } finally {
+                    in.close();
+                    out.close();
+                }
+            }
+        } finally {
+            zip.close();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,85 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.gearvrf.GVRContext;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class GVRAssetVolumeBenchmarkTest extends GVRBenchmarkTest {
+    private static final int TEXTURES = 8;
+    private static final int TEXTURE_SIZE = 512 * 1024;
+    private static final int MODEL_VERTICES = 20000;
+
+    @Test
+    public void readArchive() throws InterruptedException, IOException {
+        GVRContext context = getGVRContext();
+        File archive = new File(context.getContext().getCacheDir(), "benchmark_model.zip");
+        writeArchive(archive);
+        try {
+            report("Asset volume", new GVRAssetVolumeBenchmark(context).run(archive, 5));
+        } finally {
+            archive.delete();
+        }
+    }
+
+    /*
+     * Writes an archive laid out like a packaged model: a deflated OBJ file
+     * and stored textures, whose data is already compressed.
+     */
+    private static void writeArchive(File archive) throws IOException {
+        Random random = new Random(0);
+        ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archive));
+        try {
+            StringBuilder model = new StringBuilder();
+            for (int i = 0; i < MODEL_VERTICES; ++i) {
+                model.append(String.format("v %f %f %f\nvt %f %f\n", random.nextFloat(),
+                        random.nextFloat(), random.nextFloat(), random.nextFloat(),
+                        random.nextFloat()));
+            }
+            zip.putNextEntry(new ZipEntry("model.obj"));
+            zip.write(model.toString().getBytes("UTF-8"));
+            zip.closeEntry();
+
+            byte[] texture = new byte[TEXTURE_SIZE];
+            for (int i = 0; i < TEXTURES; ++i) {
+                random.nextBytes(texture);
+                CRC32 crc = new CRC32();
+                crc.update(texture);
+                ZipEntry entry = new ZipEntry("textures/texture" + i + ".png");
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(texture.length);
+                entry.setCrc(crc.getValue());
+                zip.putNextEntry(entry);
+                zip.write(texture);
+                zip.closeEntry();
+            }
+        } finally {
+            zip.close();
+        }
+    }
+}
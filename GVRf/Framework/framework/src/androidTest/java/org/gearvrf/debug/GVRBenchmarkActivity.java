@@ -0,0 +1,62 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import android.os.Bundle;
+
+import org.gearvrf.GVRActivity;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRMain;
+
+/**
+ * Activity the benchmarks run in. It shows an empty scene and hands its
+ * {@link GVRContext} to the test thread once the scene is initialized.
+ */
+public class GVRBenchmarkActivity extends GVRActivity {
+    private final CountDownLatch mInitialized = new CountDownLatch(1);
+    private volatile GVRContext mContext;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setMain(new GVRMain() {
+            @Override
+            public void onInit(GVRContext gvrContext) {
+                mContext = gvrContext;
+                mInitialized.countDown();
+            }
+
+            @Override
+            public SplashMode getSplashMode() {
+                return SplashMode.NONE;
+            }
+        }, "gvr.xml");
+    }
+
+    /**
+     * Waits until the scene is initialized.
+     *
+     * @return the context of the activity, or {@code null} if it was not
+     *         initialized within the timeout
+     */
+    public GVRContext waitForContext(long timeout, TimeUnit unit) throws InterruptedException {
+        mInitialized.await(timeout, unit);
+        return mContext;
+    }
+}
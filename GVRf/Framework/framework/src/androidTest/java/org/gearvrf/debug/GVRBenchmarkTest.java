@@ -0,0 +1,53 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import android.support.test.rule.ActivityTestRule;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.utility.Log;
+import org.junit.Rule;
+
+/**
+ * Base of the benchmark tests. The benchmarks run on the instrumentation
+ * thread, off the GL thread of a {@link GVRBenchmarkActivity}, and every
+ * test logs the summary of its benchmark.
+ */
+public abstract class GVRBenchmarkTest {
+    private static final String TAG = "GVRBenchmark";
+    private static final long INIT_TIMEOUT_SECONDS = 30;
+
+    @Rule
+    public final ActivityTestRule<GVRBenchmarkActivity> mActivityRule =
+            new ActivityTestRule<GVRBenchmarkActivity>(GVRBenchmarkActivity.class);
+
+    protected GVRContext getGVRContext() throws InterruptedException {
+        GVRContext context = mActivityRule.getActivity().waitForContext(INIT_TIMEOUT_SECONDS,
+                TimeUnit.SECONDS);
+        assertNotNull("The scene was not initialized", context);
+        return context;
+    }
+
+    protected void report(String name, String summary) {
+        Log.i(TAG, "%s: %s", name, summary);
+        assertFalse(summary.isEmpty());
+    }
+}
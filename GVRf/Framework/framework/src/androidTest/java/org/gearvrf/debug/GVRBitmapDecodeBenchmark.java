@@ -0,0 +1,253 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.util.Arrays;
+
+import android.graphics.Bitmap;
+import android.os.Debug;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.asynchronous.GVRAsynchronousResourceLoader;
+import org.gearvrf.asynchronous.GVRBitmapDecoder;
+import org.gearvrf.utility.BitmapPool;
+import org.gearvrf.utility.MarkingFileInputStream;
+
+/**
+ * Compares decoding a gallery of images with the {@link GVRBitmapDecoder}
+ * pipeline, which reuses pooled bitmaps and buffers and generates the mip
+ * levels, with decoding them into a new bitmap each, the way texture loads
+ * did before.<p>
+ *
+ * Every pass decodes all images of a directory and drops each result right
+ * away, as a texture does after its upload: the pipeline's buffers go back
+ * to the pool, the bitmaps are left to the garbage collector. The old path
+ * fits images to {@code GL_MAX_TEXTURE_SIZE} and leaves mip generation to
+ * the GL thread, which this benchmark does not measure; the average size of
+ * the decoded images is reported to show whether both paths decoded at the
+ * same size. Besides images per second the benchmark reports the Java heap
+ * allocated by a pass and the peak memory in use during it: the Java heap,
+ * which holds direct buffers, plus the native heap, which holds the pixels
+ * of bitmaps on newer Android versions. A thread samples both every
+ * millisecond while the pass runs, so memory held only during a decode is
+ * counted. For the pipeline the bytes kept by the pool after the pass are
+ * reported as well.
+ */
+public class GVRBitmapDecodeBenchmark {
+    private static final int POOL_SIZE = 32 * 1024 * 1024;
+
+    private final GVRContext mContext;
+
+    private static class Pass {
+        int images;
+        long pixels;
+        long nanos;
+        long allocated;
+        long peak;
+        long pooled;
+    }
+
+    /*
+     * Samples the Java and native heap in use, above their use when the
+     * sampler was created, until finish() is called.
+     */
+    private static class MemorySampler extends Thread {
+        private final long mJavaBase = getJavaHeapUsed();
+        private final long mNativeBase = Debug.getNativeHeapAllocatedSize();
+        private volatile boolean mRunning = true;
+        private long mPeak;
+
+        MemorySampler() {
+            setDaemon(true);
+            start();
+        }
+
+        @Override
+        public void run() {
+            while (mRunning) {
+                sample();
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private synchronized void sample() {
+            long used = getJavaHeapUsed() - mJavaBase
+                    + Debug.getNativeHeapAllocatedSize() - mNativeBase;
+            mPeak = Math.max(mPeak, used);
+        }
+
+        long finish() {
+            mRunning = false;
+            interrupt();
+            try {
+                join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sample();
+            synchronized (this) {
+                return mPeak;
+            }
+        }
+    }
+
+    public GVRBitmapDecodeBenchmark(GVRContext context) {
+        mContext = context;
+    }
+
+    /**
+     * Decodes the JPEG, PNG and WebP images in a directory
+     * {@code iterations} times with each path, after a warm-up, and measures
+     * the images per second and the largest memory use.
+     *
+     * @param directory
+     *            Directory with the images
+     * @param maxSize
+     *            Largest width and height of the images decoded by the
+     *            pipeline
+     * @param iterations
+     *            Number of passes
+     * @return a one-line summary of the results
+     */
+    public String run(File directory, int maxSize, int iterations) throws IOException {
+        File[] images = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                String name = file.getName().toLowerCase();
+                return file.isFile() && (name.endsWith(".jpg") || name.endsWith(".jpeg")
+                        || name.endsWith(".png") || name.endsWith(".webp"));
+            }
+        });
+        if (images == null || images.length == 0) {
+            throw new IOException("No images in " + directory);
+        }
+        Arrays.sort(images);
+
+        GVRBitmapDecoder decoder = new GVRBitmapDecoder(new BitmapPool(POOL_SIZE));
+
+        // Warm up both paths, the pool and the page cache
+        decodeBitmaps(images);
+        decodePipeline(decoder, images, maxSize);
+
+        Pass bitmaps = new Pass();
+        Pass pipeline = new Pass();
+        for (int i = 0; i < iterations; ++i) {
+            add(bitmaps, decodeBitmaps(images));
+            add(pipeline, decodePipeline(decoder, images, maxSize));
+        }
+
+        String result = String.format(
+                "%d images: bitmaps %.1f images/s, %d kpixels avg, %d KB allocated, %d KB peak; "
+                        + "pipeline %.1f images/s, %d kpixels avg, %d KB allocated, %d KB peak, "
+                        + "pool %d KB pooled %d hits %d misses",
+                images.length,
+                imagesPerSecond(bitmaps), averageKilopixels(bitmaps),
+                bitmaps.allocated / 1024, bitmaps.peak / 1024,
+                imagesPerSecond(pipeline), averageKilopixels(pipeline),
+                pipeline.allocated / 1024, pipeline.peak / 1024, pipeline.pooled / 1024,
+                decoder.getPool().getHitCount(), decoder.getPool().getMissCount());
+        return result;
+    }
+
+    private Pass decodeBitmaps(File[] images) throws IOException {
+        Pass pass = new Pass();
+        MemorySampler sampler = startPass();
+        long start = System.nanoTime();
+
+        for (File image : images) {
+            Bitmap bitmap = GVRAsynchronousResourceLoader.decodeStream(
+                    new MarkingFileInputStream(image), true);
+            if (bitmap != null) {
+                ++pass.images;
+                pass.pixels += (long) bitmap.getWidth() * bitmap.getHeight();
+            }
+        }
+
+        pass.nanos = System.nanoTime() - start;
+        finishPass(pass, sampler);
+        return pass;
+    }
+
+    private Pass decodePipeline(GVRBitmapDecoder decoder, File[] images, int maxSize)
+            throws IOException {
+        Pass pass = new Pass();
+        MemorySampler sampler = startPass();
+        long start = System.nanoTime();
+
+        for (File image : images) {
+            MarkingFileInputStream stream = new MarkingFileInputStream(image);
+            try {
+                GVRBitmapDecoder.Image decoded = decoder.decode(stream, maxSize, maxSize, 0);
+                if (decoded != null) {
+                    ++pass.images;
+                    pass.pixels += (long) decoded.getWidth() * decoded.getHeight();
+                    decoded.recycle();
+                }
+            } finally {
+                stream.close();
+            }
+        }
+
+        pass.nanos = System.nanoTime() - start;
+        finishPass(pass, sampler);
+        pass.pooled = decoder.getPool().getPooledBytes();
+        return pass;
+    }
+
+    private static void add(Pass total, Pass pass) {
+        total.images += pass.images;
+        total.pixels += pass.pixels;
+        total.nanos += pass.nanos;
+        total.allocated = Math.max(total.allocated, pass.allocated);
+        total.peak = Math.max(total.peak, pass.peak);
+        total.pooled = Math.max(total.pooled, pass.pooled);
+    }
+
+    private static double imagesPerSecond(Pass pass) {
+        return (pass.nanos > 0) ? pass.images * 1e9 / pass.nanos : 0;
+    }
+
+    private static long averageKilopixels(Pass pass) {
+        return (pass.images > 0) ? pass.pixels / pass.images / 1000 : 0;
+    }
+
+    private static long getJavaHeapUsed() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static MemorySampler startPass() {
+        Runtime.getRuntime().gc();
+        Debug.resetThreadAllocSize();
+        Debug.startAllocCounting();
+        return new MemorySampler();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void finishPass(Pass pass, MemorySampler sampler) {
+        pass.peak = sampler.finish();
+        Debug.stopAllocCounting();
+        pass.allocated = Debug.getThreadAllocSize();
+    }
+}
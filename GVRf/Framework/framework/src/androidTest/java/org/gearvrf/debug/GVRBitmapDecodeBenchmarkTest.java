@@ -0,0 +1,84 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+import android.graphics.Bitmap;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.gearvrf.GVRContext;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class GVRBitmapDecodeBenchmarkTest extends GVRBenchmarkTest {
+    private static final int IMAGES = 6;
+    private static final int WIDTH = 2048;
+    private static final int HEIGHT = 1536;
+
+    @Test
+    public void decodeGallery() throws InterruptedException, IOException {
+        GVRContext context = getGVRContext();
+        File directory = new File(context.getContext().getCacheDir(), "benchmark_images");
+        writeImages(directory);
+        try {
+            report("Bitmap decode",
+                    new GVRBitmapDecodeBenchmark(context).run(directory, 2048, 3));
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    /*
+     * Writes camera sized images, alternately as JPEG and PNG.
+     */
+    private static void writeImages(File directory) throws IOException {
+        directory.mkdirs();
+        Random random = new Random(0);
+        int[] pixels = new int[WIDTH * HEIGHT];
+        for (int i = 0; i < IMAGES; ++i) {
+            // smooth gradients with some noise compress like photos do
+            for (int y = 0; y < HEIGHT; ++y) {
+                for (int x = 0; x < WIDTH; ++x) {
+                    int noise = random.nextInt(16);
+                    int red = Math.min(255, x * 240 / WIDTH + noise);
+                    int green = Math.min(255, y * 240 / HEIGHT + noise);
+                    int blue = Math.min(255, i * 40 + noise);
+                    pixels[y * WIDTH + x] = 0xFF000000 | (red << 16) | (green << 8) | blue;
+                }
+            }
+            Bitmap bitmap = Bitmap.createBitmap(pixels, WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+            boolean jpeg = (i % 2) == 0;
+            OutputStream stream = new FileOutputStream(
+                    new File(directory, "image" + i + (jpeg ? ".jpg" : ".png")));
+            try {
+                bitmap.compress(jpeg ? Bitmap.CompressFormat.JPEG : Bitmap.CompressFormat.PNG,
+                        90, stream);
+            } finally {
+                stream.close();
+                bitmap.recycle();
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVREventManager;
+import org.gearvrf.GVRPicker;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.IPickEvents;
+import org.gearvrf.IScriptEvents;
+import org.gearvrf.script.IScriptable;
+
+/**
+ * Microbenchmark comparing event delivery through {@link GVREventManager}
+ * with the reflective path it used to take: a synchronized per-target
+ * method cache followed by {@link Method#invoke} with a freshly allocated
+ * parameter array.
+ */
+public class GVREventDispatchBenchmark {
+    private final GVRContext mContext;
+    private final WeakHashMap<Object, Map<String, Method>> mReflectiveCache
+            = new WeakHashMap<Object, Map<String, Method>>();
+
+    /*
+     * Handler which does minimal work so the benchmark measures dispatch.
+     */
+    private static class Handler implements IScriptEvents, IPickEvents {
+        int count;
+
+        public void onEarlyInit(GVRContext gvrContext) { }
+        public void onInit(GVRContext gvrContext) { }
+        public void onAfterInit() { }
+        public void onAttach(IScriptable target) { }
+        public void onDetach(IScriptable target) { }
+        public void onStep() { ++count; }
+        public void onPick(GVRPicker picker) { ++count; }
+        public void onNoPick(GVRPicker picker) { ++count; }
+        public void onEnter(GVRSceneObject sceneObj, GVRPicker.GVRPickedObject collision) { ++count; }
+        public void onExit(GVRSceneObject sceneObj) { ++count; }
+        public void onInside(GVRSceneObject sceneObj, GVRPicker.GVRPickedObject collision) { ++count; }
+    }
+
+    public GVREventDispatchBenchmark(GVRContext context) {
+        mContext = context;
+    }
+
+    /**
+     * Runs both paths for {@code iterations} events each, after a warm-up,
+     * and measures the cost per event.
+     *
+     * @return a one-line summary of the results
+     */
+    public String run(int iterations) {
+        Handler handler = new Handler();
+        GVREventManager eventManager = mContext.getEventManager();
+
+        // Warm up both paths
+        runReflective(handler, iterations / 10);
+        runManager(eventManager, handler, iterations / 10);
+
+        long reflectiveStep = timeReflective(handler, iterations, "onStep");
+        long managerStep = timeManager(eventManager, handler, iterations, "onStep");
+        long reflectiveInside = timeReflective(handler, iterations, "onInside");
+        long managerInside = timeManager(eventManager, handler, iterations, "onInside");
+
+        String result = String.format(
+                "onStep: reflective %.1f ns, manager %.1f ns; onInside: reflective %.1f ns, manager %.1f ns",
+                (double) reflectiveStep / iterations, (double) managerStep / iterations,
+                (double) reflectiveInside / iterations, (double) managerInside / iterations);
+        return result;
+    }
+
+    private long timeReflective(Handler handler, int iterations, String eventName) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) {
+            if (eventName.equals("onStep")) {
+                invokeReflective(handler, IScriptEvents.class, eventName);
+            } else {
+                invokeReflective(handler, IPickEvents.class, eventName, null, null);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long timeManager(GVREventManager eventManager, Handler handler, int iterations,
+            String eventName) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) {
+            if (eventName.equals("onStep")) {
+                eventManager.sendEvent(handler, IScriptEvents.class, eventName);
+            } else {
+                eventManager.sendEvent(handler, IPickEvents.class, eventName, null, null);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void runReflective(Handler handler, int iterations) {
+        timeReflective(handler, iterations, "onStep");
+        timeReflective(handler, iterations, "onInside");
+    }
+
+    private void runManager(GVREventManager eventManager, Handler handler, int iterations) {
+        timeManager(eventManager, handler, iterations, "onStep");
+        timeManager(eventManager, handler, iterations, "onInside");
+    }
+
+    /*
+     * The previous dispatch path: global lock, per-target cache and
+     * Method.invoke with a boxed parameter array.
+     */
+    private void invokeReflective(Object target, Class<?> eventsClass, String eventName,
+            Object... params) {
+        Method method;
+        synchronized (mReflectiveCache) {
+            Map<String, Method> targetCache = mReflectiveCache.get(target);
+            if (targetCache == null) {
+                targetCache = new HashMap<String, Method>();
+                mReflectiveCache.put(target, targetCache);
+            }
+            method = targetCache.get(eventName);
+            if (method == null) {
+                for (Method m : eventsClass.getMethods()) {
+                    if (m.getName().equals(eventName)) {
+                        method = m;
+                        break;
+                    }
+                }
+                targetCache.put(eventName, method);
+            }
+        }
+        try {
+            method.invoke(target, params);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import android.os.Debug;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRMesh;
+
+/**
+ * Microbenchmark comparing how {@link org.gearvrf.GVRJassimpAdapter}
+ * creates a {@link GVRMesh} from the direct buffers of an assimp mesh:
+ * copying every attribute into Java arrays first, repacking texture
+ * coordinates and narrowing indices to {@code char} one at a time, as it
+ * used to, or letting native code copy straight from the direct buffers.<p>
+ *
+ * The meshes are synthetic grids laid out like an {@code AiMesh}:
+ * positions, normals, tangents and bitangents, 3D texture coordinates and
+ * RGBA colors. Besides the load time the benchmark reports the Java heap
+ * allocated while creating each mesh. The largest grid has more than 65536
+ * vertices; the old path truncates its indices, only its cost is
+ * meaningful.
+ */
+public class GVRMeshImportBenchmark {
+    private static final int[] TRIANGLE_COUNTS = { 2000, 20000, 200000 };
+
+    private final GVRContext mContext;
+
+    /*
+     * Vertex data laid out the way jassimp hands it out.
+     */
+    private static class SourceMesh {
+        int numVertices;
+        FloatBuffer positions;
+        FloatBuffer normals;
+        FloatBuffer tangents;
+        FloatBuffer bitangents;
+        FloatBuffer texCoords;  // 3 components per vertex
+        FloatBuffer colors;
+        IntBuffer indices;
+    }
+
+    public GVRMeshImportBenchmark(GVRContext context) {
+        mContext = context;
+    }
+
+    /**
+     * Creates meshes of 2k, 20k and 200k triangles {@code iterations}
+     * times each with both paths, after a warm-up, and measures the average
+     * time and Java heap allocation per mesh.
+     *
+     * @return a one-line summary of the results
+     */
+    public String run(int iterations) {
+        StringBuilder result = new StringBuilder();
+
+        for (int triangles : TRIANGLE_COUNTS) {
+            SourceMesh source = createSource(triangles);
+
+            // Warm up both paths
+            createCopying(source);
+            createDirect(source);
+
+            long[] copying = time(source, false, iterations);
+            long[] direct = time(source, true, iterations);
+
+            if (result.length() > 0) {
+                result.append("; ");
+            }
+            result.append(String.format(
+                    "%d triangles: copying %.2f ms %d KB, direct %.2f ms %d KB",
+                    triangles, copying[0] / 1e6 / iterations, copying[1] / 1024,
+                    direct[0] / 1e6 / iterations, direct[1] / 1024));
+        }
+        return result.toString();
+    }
+
+    /*
+     * Returns the total time and the Java heap allocated by one mesh.
+     */
+    @SuppressWarnings("deprecation")
+    private long[] time(SourceMesh source, boolean direct, int iterations) {
+        long elapsed = 0;
+        long allocated = 0;
+        for (int i = 0; i < iterations; ++i) {
+            Runtime.getRuntime().gc();
+            Debug.resetThreadAllocSize();
+            Debug.startAllocCounting();
+            long start = System.nanoTime();
+            if (direct) {
+                createDirect(source);
+            } else {
+                createCopying(source);
+            }
+            elapsed += System.nanoTime() - start;
+            Debug.stopAllocCounting();
+            allocated = Math.max(allocated, Debug.getThreadAllocSize());
+        }
+        return new long[] { elapsed, allocated };
+    }
+
+    private GVRMesh createDirect(SourceMesh source) {
+        GVRMesh mesh = new GVRMesh(mContext);
+        int n = source.numVertices;
+
+        mesh.setVertexBuffer("a_position", source.positions, 3, 3, n);
+        mesh.setVertexBuffer("a_tangent", source.tangents, 3, 3, n);
+        mesh.setVertexBuffer("a_bitangent", source.bitangents, 3, 3, n);
+        mesh.setVertexBuffer("a_normal", source.normals, 3, 3, n);
+        mesh.setVertexBuffer("a_texcoord", source.texCoords, 2, 3, n);
+        mesh.setVertexBuffer("a_color", source.colors, 4, 4, n);
+        mesh.setIndexBuffer(source.indices);
+        return mesh;
+    }
+
+    /*
+     * The previous import path of GVRJassimpAdapter.createMesh.
+     */
+    private GVRMesh createCopying(SourceMesh source) {
+        GVRMesh mesh = new GVRMesh(mContext);
+        int n = source.numVertices;
+
+        mesh.setVertices(toArray(source.positions));
+        mesh.setVec3Vector("a_tangent", toArray(source.tangents));
+        mesh.setVec3Vector("a_bitangent", toArray(source.bitangents));
+        mesh.setNormals(toArray(source.normals));
+
+        FloatBuffer coords = FloatBuffer.allocate(n * 2);
+        for (int i = 0; i < n; ++i) {
+            coords.put(source.texCoords.get(i * 3));
+            coords.put(source.texCoords.get(i * 3 + 1));
+        }
+        mesh.setTexCoords(coords.array(), 0);
+
+        FloatBuffer colors = FloatBuffer.allocate(n * 4);
+        source.colors.position(0);
+        colors.put(source.colors);
+        mesh.setVec4Vector("a_color", colors.array());
+
+        IntBuffer indexBuffer = source.indices;
+        indexBuffer.position(0);
+        CharBuffer triangles = CharBuffer.allocate(indexBuffer.capacity());
+        for (int i = 0; i < indexBuffer.capacity(); ++i) {
+            triangles.put((char) indexBuffer.get());
+        }
+        mesh.setIndices(triangles.array());
+        return mesh;
+    }
+
+    private static float[] toArray(FloatBuffer buffer) {
+        float[] array = new float[buffer.capacity()];
+        buffer.position(0);
+        buffer.get(array, 0, buffer.capacity());
+        return array;
+    }
+
+    /*
+     * A square grid with at least the given number of triangles.
+     */
+    private static SourceMesh createSource(int triangles) {
+        int quads = (int) Math.ceil(Math.sqrt(triangles / 2.0));
+        int side = quads + 1;
+        SourceMesh source = new SourceMesh();
+
+        source.numVertices = side * side;
+        source.positions = allocateFloats(source.numVertices * 3);
+        source.normals = allocateFloats(source.numVertices * 3);
+        source.tangents = allocateFloats(source.numVertices * 3);
+        source.bitangents = allocateFloats(source.numVertices * 3);
+        source.texCoords = allocateFloats(source.numVertices * 3);
+        source.colors = allocateFloats(source.numVertices * 4);
+        for (int y = 0; y < side; ++y) {
+            for (int x = 0; x < side; ++x) {
+                float u = (float) x / quads;
+                float v = (float) y / quads;
+                source.positions.put(u - 0.5f).put(v - 0.5f).put(0.0f);
+                source.normals.put(0.0f).put(0.0f).put(1.0f);
+                source.tangents.put(1.0f).put(0.0f).put(0.0f);
+                source.bitangents.put(0.0f).put(1.0f).put(0.0f);
+                source.texCoords.put(u).put(v).put(0.0f);
+                source.colors.put(u).put(v).put(1.0f).put(1.0f);
+            }
+        }
+
+        source.indices = ByteBuffer.allocateDirect(quads * quads * 6 * 4)
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+        for (int y = 0; y < quads; ++y) {
+            for (int x = 0; x < quads; ++x) {
+                int i = y * side + x;
+                source.indices.put(i).put(i + 1).put(i + side);
+                source.indices.put(i + 1).put(i + side + 1).put(i + side);
+            }
+        }
+        source.indices.flip();
+        return source;
+    }
+
+    private static FloatBuffer allocateFloats(int count) {
+        return ByteBuffer.allocateDirect(count * 4).order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+    }
+}
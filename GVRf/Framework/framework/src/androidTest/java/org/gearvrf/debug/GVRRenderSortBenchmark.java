@@ -0,0 +1,64 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+/**
+ * Native microbenchmark for sorting the render list of a frame. For render
+ * lists of 1k to 50k synthetic items it compares {@code std::sort} with the
+ * render data comparator the renderer used to call, with building packed
+ * 64-bit sort keys and radix sorting them as the renderer does now.<p>
+ *
+ * Every frame moves the camera a little and sorts the list again, so the
+ * keys change like in a real scene. The comparator starts from the culling
+ * order, the keys from the order of the last sort, like the renderer.<p>
+ *
+ * The native code is in the {@code gvrf-sort-benchmark} library of the
+ * test APK, which is built with the render sorter of libgvrf.
+ */
+public class GVRRenderSortBenchmark {
+    private static final int[] ITEM_COUNTS = { 1000, 5000, 20000, 50000 };
+
+    /**
+     * Sorts each render list for {@code frames} frames, after a warm-up,
+     * and measures the average time per frame.
+     *
+     * @return a one-line summary of the results
+     */
+    public String run(int frames) {
+        StringBuilder result = new StringBuilder();
+
+        for (int items : ITEM_COUNTS) {
+            // Warm up both paths
+            NativeRenderSortBenchmark.run(items, 2);
+
+            long[] nanos = NativeRenderSortBenchmark.run(items, frames);
+            if (result.length() > 0) {
+                result.append("; ");
+            }
+            result.append(String.format("%d items: comparator %.3f ms, keys %.3f ms",
+                    items, nanos[0] / 1e6 / frames, nanos[1] / 1e6 / frames));
+        }
+        return result.toString();
+    }
+}
+
+class NativeRenderSortBenchmark {
+    static {
+        System.loadLibrary("gvrf-sort-benchmark");
+    }
+
+    static native long[] run(int items, int frames);
+}
@@ -0,0 +1,38 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import static org.junit.Assert.assertFalse;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.gearvrf.utility.Log;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * The render sort benchmark only runs native code on synthetic render
+ * lists, so it does not need a {@link GVRBenchmarkActivity}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GVRRenderSortBenchmarkTest {
+    @Test
+    public void sortRenderLists() {
+        String summary = new GVRRenderSortBenchmark().run(100);
+        Log.i("GVRBenchmark", "Render sort: %s", summary);
+        assertFalse(summary.isEmpty());
+    }
+}
@@ -0,0 +1,107 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.script.GVRJavascriptScriptFile;
+import org.gearvrf.script.GVRLuaScriptFile;
+import org.gearvrf.script.GVRScriptFile;
+import org.gearvrf.script.GVRScriptManager;
+
+/**
+ * Microbenchmark measuring the per-frame cost of calling {@code onStep} on
+ * many scripted objects, the way {@link org.gearvrf.script.GVRScriptBehavior}
+ * does every frame. Each case compares direct invocation through the
+ * engine with evaluating an invocation statement, see
+ * {@link GVRScriptFile#setDirectInvocation(boolean)}.
+ */
+public class GVRScriptInvocationBenchmark {
+    private static final int[] OBJECT_COUNTS = { 10, 100, 1000 };
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private static final String JAVASCRIPT_STEP =
+            "var steps = 0;\n" +
+            "function onStep() {\n" +
+            "    steps = steps + 1;\n" +
+            "}\n";
+
+    private static final String LUA_STEP =
+            "steps = 0\n" +
+            "function onStep()\n" +
+            "    steps = steps + 1\n" +
+            "end\n";
+
+    private final GVRContext mContext;
+
+    public GVRScriptInvocationBenchmark(GVRContext context) {
+        mContext = context;
+    }
+
+    /**
+     * Invokes {@code onStep} on 10, 100 and 1000 script files for
+     * {@code frames} frames each, after a warm-up, and measures the cost
+     * per frame for both invocation paths.
+     *
+     * @param language {@link GVRScriptManager#LANG_JAVASCRIPT} or
+     *                 {@link GVRScriptManager#LANG_LUA}
+     * @param frames   number of frames to time per case
+     * @return a one-line summary of the results
+     */
+    public String run(String language, int frames) {
+        StringBuilder result = new StringBuilder();
+
+        for (int count : OBJECT_COUNTS) {
+            GVRScriptFile[] scripts = new GVRScriptFile[count];
+            for (int i = 0; i < count; ++i) {
+                scripts[i] = createScript(language);
+            }
+
+            // Warm up both paths, this also evaluates the script text
+            timeFrames(scripts, false, Math.max(1, frames / 10));
+            timeFrames(scripts, true, Math.max(1, frames / 10));
+
+            long eval = timeFrames(scripts, false, frames);
+            long direct = timeFrames(scripts, true, frames);
+
+            if (result.length() > 0) {
+                result.append("; ");
+            }
+            result.append(String.format("%d objects: eval %.3f ms, direct %.3f ms",
+                    count, eval / 1e6 / frames, direct / 1e6 / frames));
+        }
+        return result.toString();
+    }
+
+    private GVRScriptFile createScript(String language) {
+        if (language.equals(GVRScriptManager.LANG_LUA)) {
+            return new GVRLuaScriptFile(mContext, LUA_STEP);
+        }
+        return new GVRJavascriptScriptFile(mContext, JAVASCRIPT_STEP);
+    }
+
+    private long timeFrames(GVRScriptFile[] scripts, boolean direct, int frames) {
+        for (GVRScriptFile script : scripts) {
+            script.setDirectInvocation(direct);
+        }
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; ++frame) {
+            for (GVRScriptFile script : scripts) {
+                script.invokeFunction("onStep", NO_ARGS);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,37 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.gearvrf.script.GVRScriptManager;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class GVRScriptInvocationBenchmarkTest extends GVRBenchmarkTest {
+    @Test
+    public void invokeJavascript() throws InterruptedException {
+        report("Javascript invocation", new GVRScriptInvocationBenchmark(getGVRContext())
+                .run(GVRScriptManager.LANG_JAVASCRIPT, 100));
+    }
+
+    @Test
+    public void invokeLua() throws InterruptedException {
+        report("Lua invocation", new GVRScriptInvocationBenchmark(getGVRContext())
+                .run(GVRScriptManager.LANG_LUA, 100));
+    }
+}
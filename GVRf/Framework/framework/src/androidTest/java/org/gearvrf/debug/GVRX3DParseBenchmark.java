@@ -0,0 +1,229 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StreamTokenizer;
+import java.io.StringReader;
+import java.util.Vector;
+
+import org.gearvrf.GVRAndroidResource;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRImportSettings;
+import org.gearvrf.utility.Log;
+import org.gearvrf.x3d.X3DNumberScanner;
+
+/**
+ * Microbenchmark for loading large {@code IndexedFaceSet}s with the X3D
+ * loader. For every mesh size it compares scanning the {@code coordIndex},
+ * {@code point} and texture coordinate attributes with a
+ * {@link StreamTokenizer} into boxed per-vertex objects, as the loader used
+ * to, with {@link X3DNumberScanner}, and then times loading the whole
+ * model from a file, which includes building the mesh.<p>
+ *
+ * The meshes are synthetic grids without normals, so the loader has to
+ * generate them. The largest grid has more than 65536 vertices.
+ */
+public class GVRX3DParseBenchmark {
+    private static final String TAG = GVRX3DParseBenchmark.class.getSimpleName();
+    private static final int[] TRIANGLE_COUNTS = { 2000, 20000, 200000 };
+
+    private final GVRContext mContext;
+
+    /*
+     * The attribute values of one IndexedFaceSet.
+     */
+    private static class SourceMesh {
+        String coordIndex;
+        String points;
+        String texCoords;
+    }
+
+    public GVRX3DParseBenchmark(GVRContext context) {
+        mContext = context;
+    }
+
+    /**
+     * Parses and loads grids of 2k, 20k and 200k triangles
+     * {@code iterations} times each, after a warm-up, and measures the average
+     * time per mesh.
+     *
+     * @return a one-line summary of the results
+     */
+    public String run(int iterations) {
+        StringBuilder result = new StringBuilder();
+
+        for (int triangles : TRIANGLE_COUNTS) {
+            SourceMesh source = createSource(triangles);
+            File file = new File(mContext.getContext().getCacheDir(),
+                    TAG + triangles + ".x3d");
+
+            try {
+                writeModel(source, file);
+
+                // Warm up all paths
+                parseTokenizer(source);
+                parseScanner(source);
+                load(file);
+
+                long tokenizer = 0;
+                long scanner = 0;
+                long load = 0;
+                for (int i = 0; i < iterations; ++i) {
+                    long start = System.nanoTime();
+                    parseTokenizer(source);
+                    tokenizer += System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    parseScanner(source);
+                    scanner += System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    load(file);
+                    load += System.nanoTime() - start;
+                }
+
+                if (result.length() > 0) {
+                    result.append("; ");
+                }
+                result.append(String.format(
+                        "%d triangles: tokenizer %.2f ms, scanner %.2f ms, load %.2f ms",
+                        triangles, tokenizer / 1e6 / iterations,
+                        scanner / 1e6 / iterations, load / 1e6 / iterations));
+            } catch (IOException e) {
+                Log.e(TAG, "cannot load %s: %s", file, e);
+            } finally {
+                file.delete();
+            }
+        }
+        return result.toString();
+    }
+
+    private void load(File file) throws IOException {
+        mContext.getAssetLoader().loadModel(new GVRAndroidResource(file),
+                GVRImportSettings.getRecommendedSettings(), false, null);
+    }
+
+    private static int parseScanner(SourceMesh source) {
+        X3DNumberScanner.IntArray indices = new X3DNumberScanner.IntArray();
+        X3DNumberScanner.FloatArray points = new X3DNumberScanner.FloatArray();
+        X3DNumberScanner.FloatArray texCoords = new X3DNumberScanner.FloatArray();
+
+        X3DNumberScanner.parseIndices(source.coordIndex, indices, 3);
+        X3DNumberScanner.parseFloats(source.points, points);
+        X3DNumberScanner.parseFloats(source.texCoords, texCoords);
+        return indices.size() + points.size() + texCoords.size();
+    }
+
+    /*
+     * The previous parsing of X3Dobject: one object per face, vertex or
+     * texture coordinate.
+     */
+    private static int parseTokenizer(SourceMesh source) throws IOException {
+        Vector<short[]> faces = new Vector<short[]>();
+        Vector<float[]> points = new Vector<float[]>();
+        Vector<float[]> texCoords = new Vector<float[]>();
+
+        StreamTokenizer st = new StreamTokenizer(new StringReader(source.coordIndex));
+        st.parseNumbers();
+        short[] face = new short[3];
+        int index = 0;
+        while (st.nextToken() != StreamTokenizer.TT_EOF) {
+            if ((st.ttype == StreamTokenizer.TT_NUMBER) && ((short) st.nval != -1)) {
+                face[index++] = (short) st.nval;
+                if (index == 3) {
+                    faces.add(face.clone());
+                    index = 0;
+                }
+            }
+        }
+        tokenize(source.points, 3, points);
+        tokenize(source.texCoords, 2, texCoords);
+        return faces.size() * 3 + points.size() * 3 + texCoords.size() * 2;
+    }
+
+    private static void tokenize(String text, int componentCount, Vector<float[]> out)
+            throws IOException {
+        StreamTokenizer st = new StreamTokenizer(new StringReader(text));
+        st.parseNumbers();
+        float[] component = new float[componentCount];
+        int index = 0;
+        while (st.nextToken() != StreamTokenizer.TT_EOF) {
+            if (st.ttype == StreamTokenizer.TT_NUMBER) {
+                component[index++] = (float) st.nval;
+                if (index == componentCount) {
+                    out.add(component.clone());
+                    index = 0;
+                }
+            }
+        }
+    }
+
+    private static void writeModel(SourceMesh source, File file) throws IOException {
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<X3D profile=\"Immersive\" version=\"3.3\">\n<Scene>\n<Shape>\n"
+                    + "<Appearance><Material diffuseColor=\"1 1 1\"/></Appearance>\n"
+                    + "<IndexedFaceSet coordIndex=\"");
+            writer.write(source.coordIndex);
+            writer.write("\">\n<Coordinate point=\"");
+            writer.write(source.points);
+            writer.write("\"/>\n<TextureCoordinate point=\"");
+            writer.write(source.texCoords);
+            writer.write("\"/>\n</IndexedFaceSet>\n</Shape>\n</Scene>\n</X3D>\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    /*
+     * A square grid with at least the given number of triangles.
+     */
+    private static SourceMesh createSource(int triangles) {
+        int quads = (int) Math.ceil(Math.sqrt(triangles / 2.0));
+        int side = quads + 1;
+        StringBuilder points = new StringBuilder();
+        StringBuilder texCoords = new StringBuilder();
+        StringBuilder indices = new StringBuilder();
+
+        for (int y = 0; y < side; ++y) {
+            for (int x = 0; x < side; ++x) {
+                float u = (float) x / quads;
+                float v = (float) y / quads;
+                points.append(u - 0.5f).append(' ').append(v - 0.5f).append(" 0, ");
+                texCoords.append(u).append(' ').append(v).append(", ");
+            }
+        }
+        for (int y = 0; y < quads; ++y) {
+            for (int x = 0; x < quads; ++x) {
+                int i = y * side + x;
+                indices.append(i).append(' ').append(i + 1).append(' ')
+                        .append(i + side).append(" -1 ");
+                indices.append(i + 1).append(' ').append(i + side + 1).append(' ')
+                        .append(i + side).append(" -1 ");
+            }
+        }
+
+        SourceMesh source = new SourceMesh();
+        source.coordIndex = indices.toString();
+        source.points = points.toString();
+        source.texCoords = texCoords.toString();
+        return source;
+    }
+}
@@ -0,0 +1,44 @@
+ #   
+ # Copyright 2015 Samsung Electronics Co., LTD
+ #
+ # Licensed under the Apache License, Version 2.0 (the "License");
+ # you may not use this file except in compliance with the License.
+ # You may obtain a copy of the License at
+ #
+ #     http://www.apache.org/licenses/LICENSE-2.0
+ #
+ # Unless required by applicable law or agreed to in writing, software
+ # distributed under the License is distributed on an "AS IS" BASIS,
+ # WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ # See the License for the specific language governing permissions and
+ # limitations under the License.
+ #
+# Native library of the render sort benchmark. It is only packaged into
+# the test APK and shares the render sorter with libgvrf.
+LOCAL_PATH := $(call my-dir)
+MAIN_PATH := $(LOCAL_PATH)/../../main/jni
+
+include $(CLEAR_VARS)
+
+LOCAL_MODULE := gvrf-sort-benchmark
+
+LOCAL_SRC_FILES := render_sort_benchmark_jni.cpp
+LOCAL_SRC_FILES += ../../main/jni/engine/renderer/render_sorter.cpp
+
+LOCAL_C_INCLUDES += $(MAIN_PATH)
+LOCAL_C_INCLUDES += $(MAIN_PATH)/contrib
+LOCAL_C_INCLUDES += $(MAIN_PATH)/util
+
+ifeq ($(TARGET_ARCH_ABI),$(filter $(TARGET_ARCH_ABI), armeabi-v7a x86))
+LOCAL_ARM_NEON  := true
+endif
+
+LOCAL_CPPFLAGS += -fexceptions -std=c++11 -D__GXX_EXPERIMENTAL_CXX0X__
+ifdef ARM64
+LOCAL_CPPFLAGS += -DARM64
+endif
+LOCAL_CFLAGS := -Wattributes
+
+LOCAL_LDLIBS += -llog
+
+include $(BUILD_SHARED_LIBRARY)
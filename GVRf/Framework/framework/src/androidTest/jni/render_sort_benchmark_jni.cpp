@@ -0,0 +1,218 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * JNI for the render sort micro-benchmark
+ ***************************************************************************/
+
+#include <algorithm>
+#include <climits>
+#include <random>
+#include <string>
+#include <vector>
+
+#include "engine/renderer/render_sorter.h"
+#include "objects/components/render_data.h"
+#include "util/gvr_jni.h"
+#include "util/gvr_time.h"
+
+namespace gvr {
+
+namespace {
+
+/*
+ * The fields of RenderData which take part in sorting.
+ */
+struct SyntheticRenderData {
+    int rendering_order;
+    int shader_type;
+    int pass_count;
+    const void* material;
+    bool cull_face;
+    std::string hash_code;
+    float camera_distance;
+    unsigned int sort_position;
+
+    // returns a copy like RenderData::getHashCode used to
+    std::string getHashCode() const {
+        return hash_code;
+    }
+};
+
+/*
+ * compareRenderDataByOrderShaderDistance on the synthetic render data.
+ */
+bool compareByOrderShaderDistance(const SyntheticRenderData* i, const SyntheticRenderData* j) {
+    if (i->rendering_order == j->rendering_order) {
+        if (i->shader_type == j->shader_type) {
+            if (i->rendering_order >= RenderData::Transparent
+                && i->rendering_order < RenderData::Overlay) {
+                return i->camera_distance > j->camera_distance;
+            }
+            if (i->pass_count == j->pass_count) {
+                if (i->material == j->material) {
+                    if (i->cull_face == j->cull_face) {
+                        if (i->getHashCode().compare(j->getHashCode()) == 0) {
+                            return i->camera_distance < j->camera_distance;
+                        }
+                        return i->getHashCode() < j->getHashCode();
+                    }
+                    return i->cull_face < j->cull_face;
+                }
+                return i->material < j->material;
+            }
+            return i->pass_count < j->pass_count;
+        }
+        return i->shader_type < j->shader_type;
+    }
+    return i->rendering_order < j->rendering_order;
+}
+
+/*
+ * A render list like the one of a scene with mostly opaque geometry, a
+ * few transparent objects and an overlay, in culling order.
+ */
+void createRenderList(int count, std::mt19937& random,
+        std::vector<SyntheticRenderData>& list) {
+    static const int MATERIALS = 64;
+    static const int BATCHES = 32;
+    static char materials[MATERIALS];
+    std::string hash_codes[BATCHES];
+    for (int i = 0; i < BATCHES; ++i) {
+        // about as long as real hash codes
+        hash_codes[i] = "1" + std::to_string(i % 4) + "0" + std::to_string(0x0302 + i)
+                + "1" + std::to_string(i % 3) + "0000" + std::to_string(1029 + i) + "771";
+    }
+
+    std::uniform_int_distribution<int> percent(0, 99);
+    std::uniform_int_distribution<int> material(0, MATERIALS - 1);
+    std::uniform_real_distribution<float> distance(1.0f, 1000.0f);
+    list.resize(count);
+    for (int i = 0; i < count; ++i) {
+        SyntheticRenderData& data = list[i];
+        int type = percent(random);
+        int m = material(random);
+        data.rendering_order = (type < 80) ? RenderData::Geometry
+                : (type < 95) ? RenderData::Transparent
+                : (type < 98) ? RenderData::Background : RenderData::Overlay;
+        data.shader_type = m % 8;
+        data.pass_count = (m % 16 == 0) ? 2 : 1;
+        data.material = &materials[m];
+        data.cull_face = (m % 5) == 0;
+        data.hash_code = hash_codes[m % BATCHES];
+        data.camera_distance = distance(random);
+        data.sort_position = UINT_MAX;
+    }
+}
+
+/*
+ * Moves every item a little, like a slowly moving camera does.
+ */
+void moveCamera(std::mt19937& random, std::vector<SyntheticRenderData>& list) {
+    std::uniform_real_distribution<float> jitter(0.99f, 1.01f);
+    for (auto it = list.begin(); it != list.end(); ++it) {
+        it->camera_distance *= jitter(random);
+    }
+}
+
+}
+
+extern "C" {
+JNIEXPORT jlongArray JNICALL
+Java_org_gearvrf_debug_NativeRenderSortBenchmark_run(JNIEnv * env,
+        jobject obj, jint count, jint frames);
+}
+
+/*
+ * Sorts a synthetic render list of count items once per frame, with the
+ * comparator and with packed keys, and returns the total nanoseconds
+ * of each. The keys are made in the order of the last sort, as
+ * Renderer::state_sort does.
+ */
+JNIEXPORT jlongArray JNICALL
+Java_org_gearvrf_debug_NativeRenderSortBenchmark_run(JNIEnv * env,
+        jobject obj, jint count, jint frames) {
+    std::mt19937 random(count);
+    std::vector<SyntheticRenderData> list;
+    createRenderList(count, random, list);
+
+    std::vector<const SyntheticRenderData*> sorted(count);
+    std::vector<SyntheticRenderData*> slots(count);
+    std::vector<RenderSorter::Item> items(count);
+    RenderSorter sorter;
+    long long comparatorNanos = 0;
+    long long keyNanos = 0;
+
+    for (int frame = 0; frame < frames; ++frame) {
+        moveCamera(random, list);
+
+        // the renderer starts every frame from the culled objects
+        long long start = getNanoTime();
+        for (int i = 0; i < count; ++i) {
+            sorted[i] = &list[i];
+        }
+        std::sort(sorted.begin(), sorted.end(), compareByOrderShaderDistance);
+        comparatorNanos += getNanoTime() - start;
+
+        start = getNanoTime();
+        unsigned int positions = count;
+        std::fill(slots.begin(), slots.end(), nullptr);
+        for (int i = 0; i < count; ++i) {
+            if (list[i].sort_position < positions) {
+                slots[list[i].sort_position] = &list[i];
+            }
+        }
+        int free_slot = 0;
+        for (int i = 0; i < count; ++i) {
+            if (list[i].sort_position < positions) {
+                continue;
+            }
+            while (slots[free_slot] != nullptr) {
+                ++free_slot;
+            }
+            slots[free_slot] = &list[i];
+        }
+
+        sorter.beginSort();
+        for (int i = 0; i < count; ++i) {
+            const SyntheticRenderData& data = *slots[i];
+            RenderSorter::Item& item = items[i];
+            item.data = slots[i];
+            if (data.rendering_order >= RenderData::Transparent
+                && data.rendering_order < RenderData::Overlay) {
+                item.key = RenderSorter::makeTransparentKey(data.rendering_order,
+                        data.shader_type, data.camera_distance);
+            } else {
+                item.key = RenderSorter::makeOpaqueKey(data.rendering_order, data.shader_type,
+                        data.pass_count, sorter.materialRank(data.material), data.cull_face,
+                        sorter.batchRank(data.hash_code), data.camera_distance);
+            }
+        }
+        sorter.sort(items);
+        for (int i = 0; i < count; ++i) {
+            SyntheticRenderData* data = static_cast<SyntheticRenderData*>(items[i].data);
+            data->sort_position = i;
+            sorted[i] = data;
+        }
+        keyNanos += getNanoTime() - start;
+    }
+
+    jlong results[2] = { comparatorNanos, keyNanos };
+    jlongArray array = env->NewLongArray(2);
+    env->SetLongArrayRegion(array, 0, 2, results);
+    return array;
+}
+
+}
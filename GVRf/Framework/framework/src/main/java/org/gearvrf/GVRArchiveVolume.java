@@ -0,0 +1,343 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.gearvrf.utility.ByteBufferInputStream;
+import org.gearvrf.utility.FileNameUtils;
+
+/**
+ * A volume backed by a zip archive, like an APK expansion (.obb) file.
+ * <p>
+ * The archive is memory-mapped once and its central directory is read into
+ * an index, so opening a file neither scans the archive nor reads the file
+ * through the Java heap. Files stored without compression are returned as
+ * slices of the mapping and read in place by assimp and the texture
+ * decoders; store models and their buffers uncompressed (e.g.
+ * {@code zip -0}) to get the most out of it. Compressed files are inflated
+ * into a direct buffer.
+ * <p>
+ * ZIP64 archives are not supported, so an archive must be smaller than
+ * 2 GB and have fewer than 65535 files.
+ *
+ * <pre>
+ * GVRArchiveVolume volume = new GVRArchiveVolume(gvrContext,
+ *         new File(obbDir, "main.1.com.example.obb"), "models/robot.fbx");
+ * gvrContext.getAssetLoader().loadModel(model, volume, scene);
+ * </pre>
+ */
+public class GVRArchiveVolume extends GVRResourceVolume {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int END_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int INFLATE_BUFFER_SIZE = 64 * 1024;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final class Entry {
+        final int method;
+        final int compressedSize;
+        final int size;
+        final int headerOffset;
+
+        Entry(int method, int compressedSize, int size, int headerOffset) {
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.headerOffset = headerOffset;
+        }
+    }
+
+    private final File archive;
+    private final MappedByteBuffer mapping;
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+    /**
+     * Constructor. Creates a volume for the files in an archive.
+     *
+     * @param gvrContext The GVR Context.
+     * @param archive The zip archive.
+     * @throws IOException if the archive cannot be read or is no zip archive.
+     */
+    public GVRArchiveVolume(GVRContext gvrContext, File archive) throws IOException {
+        this(gvrContext, archive, null);
+    }
+
+    /**
+     * Constructor. Creates a volume for the files in an archive, with a file
+     * to load.
+     *
+     * Files referenced by that file are resolved relative to its directory
+     * in the archive.
+     *
+     * @param gvrContext The GVR Context.
+     * @param archive The zip archive.
+     * @param filename Path of a file in the archive, like a model to load.
+     * @throws IOException if the archive cannot be read or is no zip archive.
+     * @see #getFileName()
+     */
+    public GVRArchiveVolume(GVRContext gvrContext, File archive, String filename)
+            throws IOException {
+        super(gvrContext, VolumeType.ARCHIVE,
+              (filename != null) ? FileNameUtils.getParentDirectory(filename) : null);
+        this.archive = archive;
+        if (filename != null) {
+            fileName = (defaultPath != null) ? filename.substring(defaultPath.length() + 1)
+                    : filename;
+        }
+
+        FileInputStream stream = new FileInputStream(archive);
+        try {
+            FileChannel channel = stream.getChannel();
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException(archive + " is too large");
+            }
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        } finally {
+            stream.close(); // the mapping stays valid
+        }
+        mapping.order(ByteOrder.LITTLE_ENDIAN);
+        readCentralDirectory();
+    }
+
+    /**
+     * @return the archive file of this volume
+     */
+    public File getArchive() {
+        return archive;
+    }
+
+    /**
+     * @return paths of all files in the archive
+     */
+    public Set<String> getFileNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Determines whether the archive has a file.
+     *
+     * @param filePath
+     *            File path, relative to the default path.
+     */
+    public boolean exists(String filePath) {
+        return entries.containsKey(resolve(filePath));
+    }
+
+    /**
+     * Gets the contents of a file.
+     *
+     * A file stored without compression is returned as a read-only slice of
+     * the memory-mapped archive. A compressed file is inflated into a new
+     * direct buffer.
+     *
+     * @param filePath
+     *            File path, relative to the default path.
+     * @return a buffer with the contents of the file from position 0 to its
+     *         limit
+     * @throws IOException
+     *             if the archive does not have the file or it cannot be read
+     */
+    public ByteBuffer getBuffer(String filePath) throws IOException {
+        String path = resolve(filePath);
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            throw new FileNotFoundException(path + " not found in " + archive);
+        }
+
+        ByteBuffer data = mapping.duplicate();
+        data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.getInt(entry.headerOffset) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("Bad local header for " + path + " in " + archive);
+        }
+        int start = entry.headerOffset + LOCAL_HEADER_SIZE
+                + (data.getShort(entry.headerOffset + 26) & 0xFFFF)
+                + (data.getShort(entry.headerOffset + 28) & 0xFFFF);
+        if (start + entry.compressedSize > data.capacity()) {
+            throw new IOException("Truncated data for " + path + " in " + archive);
+        }
+        data.limit(start + entry.compressedSize);
+        data.position(start);
+
+        switch (entry.method) {
+        case METHOD_STORED:
+            return data.slice().asReadOnlyBuffer();
+
+        case METHOD_DEFLATED:
+            return inflate(data, entry.size, path);
+
+        default:
+            throw new IOException(String.format(
+                    "Unsupported compression method %d for %s in %s",
+                    entry.method, path, archive));
+        }
+    }
+
+    /**
+     * Opens a file from the archive. The stream of the resource reads the
+     * buffer returned by {@link #getBuffer(String)}.
+     *
+     * @param filePath
+     *            File path of the resource to open, relative to the default
+     *            path.
+     *
+     * @throws IOException
+     */
+    @Override
+    public GVRAndroidResource openResource(String filePath) throws IOException {
+        // A new resource every time: the stream of a resource cannot be reopened
+        return new GVRAndroidResource(archive.getPath() + "!/" + resolve(filePath),
+                new ByteBufferInputStream(getBuffer(filePath)));
+    }
+
+    /*
+     * Resolves a path relative to the default path, to the name of a file
+     * in the archive.
+     */
+    private String resolve(String filePath) {
+        // Like GVRResourceVolume, a leading '/' is relative to the default path
+        String path = getFullPath(defaultPath, adaptFilePath(filePath));
+
+        Deque<String> names = new ArrayDeque<String>();
+        for (String name : path.split("/")) {
+            if (name.isEmpty() || name.equals(".")) {
+                continue;
+            }
+            if (name.equals("..")) {
+                names.pollLast();
+            } else {
+                names.addLast(name);
+            }
+        }
+        StringBuilder resolved = new StringBuilder(path.length());
+        for (String name : names) {
+            if (resolved.length() > 0) {
+                resolved.append('/');
+            }
+            resolved.append(name);
+        }
+        return resolved.toString();
+    }
+
+    private void readCentralDirectory() throws IOException {
+        int length = mapping.capacity();
+        int end = -1;
+        int min = Math.max(0, length - END_SIZE - MAX_COMMENT_SIZE);
+        for (int offset = length - END_SIZE; offset >= min; --offset) {
+            if (mapping.getInt(offset) == END_SIGNATURE) {
+                end = offset;
+                break;
+            }
+        }
+        if (end < 0) {
+            throw new IOException(archive + " is not a zip archive");
+        }
+
+        int count = mapping.getShort(end + 10) & 0xFFFF;
+        long directoryOffset = mapping.getInt(end + 16) & 0xFFFFFFFFL;
+        if ((count == 0xFFFF) || (directoryOffset == 0xFFFFFFFFL)) {
+            throw new IOException(archive + " is a ZIP64 archive");
+        }
+
+        int offset = (int) directoryOffset;
+        byte[] name = new byte[256];
+        for (int i = 0; i < count; ++i) {
+            if ((offset + CENTRAL_HEADER_SIZE > end)
+                    || (mapping.getInt(offset) != CENTRAL_HEADER_SIGNATURE)) {
+                throw new IOException("Bad central directory in " + archive);
+            }
+            int method = mapping.getShort(offset + 10) & 0xFFFF;
+            int compressedSize = mapping.getInt(offset + 20);
+            int size = mapping.getInt(offset + 24);
+            int nameLength = mapping.getShort(offset + 28) & 0xFFFF;
+            int extraLength = mapping.getShort(offset + 30) & 0xFFFF;
+            int commentLength = mapping.getShort(offset + 32) & 0xFFFF;
+            int headerOffset = mapping.getInt(offset + 42);
+
+            if (nameLength > name.length) {
+                name = new byte[nameLength];
+            }
+            ByteBuffer nameBuffer = mapping.duplicate();
+            nameBuffer.position(offset + CENTRAL_HEADER_SIZE);
+            nameBuffer.get(name, 0, nameLength);
+            String path = new String(name, 0, nameLength, UTF8);
+
+            if (!path.endsWith("/")) {
+                entries.put(path, new Entry(method, compressedSize, size, headerOffset));
+            }
+            offset += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+        }
+    }
+
+    private ByteBuffer inflate(ByteBuffer data, int size, String path) throws IOException {
+        ByteBuffer result = ByteBuffer.allocateDirect(size);
+        Inflater inflater = new Inflater(true);
+        byte[] input = new byte[Math.min(INFLATE_BUFFER_SIZE, Math.max(1, data.remaining()))];
+        byte[] output = new byte[Math.min(INFLATE_BUFFER_SIZE, Math.max(1, size))];
+        try {
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    int count = Math.min(input.length, data.remaining());
+                    if (count == 0) {
+                        break;
+                    }
+                    data.get(input, 0, count);
+                    inflater.setInput(input, 0, count);
+                }
+                int count = inflater.inflate(output);
+                if ((count == 0) && inflater.needsDictionary()) {
+                    throw new IOException("Cannot inflate " + path + " in " + archive);
+                }
+                if (count > result.remaining()) {
+                    throw new IOException("Bad size of " + path + " in " + archive);
+                }
+                result.put(output, 0, count);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Cannot inflate " + path + " in " + archive, e);
+        } finally {
+            inflater.end();
+        }
+        if (result.hasRemaining()) {
+            throw new IOException("Truncated data for " + path + " in " + archive);
+        }
+        result.flip();
+        return result;
+    }
+}
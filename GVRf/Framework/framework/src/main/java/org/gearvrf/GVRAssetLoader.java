@@ -27,6 +27,7 @@ import org.gearvrf.asynchronous.GVRCompressedTexture;
 import org.gearvrf.asynchronous.GVRCompressedTextureLoader;
 import org.gearvrf.jassimp.AiTexture;
 import org.gearvrf.jassimp.Jassimp;
+import org.gearvrf.jassimp.JassimpBufferIO;
 import org.gearvrf.jassimp.JassimpFileIO;
 import org.gearvrf.scene_objects.GVRModelSceneObject;
 import org.gearvrf.utility.FileNameUtils;
@@ -49,6 +50,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
@@ -84,7 +86,7 @@ public final class GVRAssetLoader {
      * called by GVRAssetLoader to get around the restriction that GVRContext
      * can only have a single listener for asset events.
      */
-    public static class AssetRequest implements IAssetEvents
+    public static class AssetRequest implements IAssetImportEvents
     {
         protected final GVRContext        mContext;
         protected final GVRScene          mScene;
@@ -239,6 +241,45 @@ public final class GVRAssetLoader {
          * @return GVRTexture made from embedded texture
          */
         public GVRTexture loadEmbeddedTexture(final TextureRequest request, final AiTexture aitex, final GVRTextureParameters texParams)
+        {
+            return loadEmbeddedTexture(request, aitex, null, texParams);
+        }
+
+        /**
+         * Load an embedded texture from the JASSIMP AiScene which has
+         * already been decoded with {@link #decodeEmbeddedTexture(AiTexture)}.
+         *
+         * @param request TextureRequest for the embedded texture reference.
+         * @param bitmap  decoded pixel data of the embedded texture
+         * @return GVRTexture made from embedded texture
+         */
+        GVRTexture loadEmbeddedTexture(final TextureRequest request, final Bitmap bitmap, final GVRTextureParameters texParams)
+        {
+            return loadEmbeddedTexture(request, null, bitmap, texParams);
+        }
+
+        /**
+         * Decode the pixel data of an embedded texture. This does not
+         * need the texture cache lock, so embedded textures can be
+         * decoded in parallel.
+         *
+         * @param aitex   Assimp texture containing the pixel data
+         * @return bitmap with the pixels of the texture
+         */
+        static Bitmap decodeEmbeddedTexture(AiTexture aitex)
+        {
+            if (aitex.getHeight() == 0)
+            {
+                ByteArrayInputStream input = new ByteArrayInputStream(aitex.getByteData());
+                return BitmapFactory.decodeStream(input);
+            }
+            Bitmap bmap = Bitmap.createBitmap(aitex.getWidth(), aitex.getHeight(), Bitmap.Config.ARGB_8888);
+            bmap.setPixels(aitex.getIntData(), 0, aitex.getWidth(), 0, 0, aitex.getWidth(), aitex.getHeight());
+            return bmap;
+        }
+
+        private GVRTexture loadEmbeddedTexture(final TextureRequest request, final AiTexture aitex,
+                                               final Bitmap bitmap, final GVRTextureParameters texParams)
         {
             GVRAndroidResource resource = null;
             GVRBitmapTexture bmapTex;
@@ -265,17 +306,7 @@ public final class GVRAssetLoader {
                 {
                     ++mNumTextures;
                 }
-                Bitmap bmap;
-                if (aitex.getHeight() == 0)
-                {
-                    ByteArrayInputStream input = new ByteArrayInputStream(aitex.getByteData());
-                    bmap = BitmapFactory.decodeStream(input);
-                }
-                else
-                {
-                    bmap = Bitmap.createBitmap(aitex.getWidth(), aitex.getHeight(), Bitmap.Config.ARGB_8888);
-                    bmap.setPixels(aitex.getIntData(), 0, aitex.getWidth(), 0, 0, aitex.getWidth(), aitex.getHeight());
-                }
+                Bitmap bmap = (bitmap != null) ? bitmap : decodeEmbeddedTexture(aitex);
                 bmapTex = new GVRBitmapTexture(mContext, bmap, texParams);
                 Log.d(TAG, "ASSET: loadEmbeddedTexture saved %s", resource.getResourceFilename());
                 texCache.put(request.TextureFile, bmapTex);
@@ -284,6 +315,26 @@ public final class GVRAssetLoader {
             return bmapTex;
         }
 
+        /**
+         * Called when a stage of importing a model has finished.
+         * @param context   GVRContext which loaded the model
+         * @param modelFile filename of model being imported
+         * @param stage     name of the stage
+         * @param count     number of items created by the stage
+         * @param nanos     duration of the stage in nanoseconds
+         */
+        public void onImportStage(GVRContext context, String modelFile, String stage, int count, long nanos)
+        {
+            Log.d(TAG, "ASSET: %s imported %d %s in %.2f ms", modelFile, count, stage, nanos / 1e6);
+            if (mUserHandler instanceof IAssetImportEvents)
+            {
+                ((IAssetImportEvents) mUserHandler).onImportStage(context, modelFile, stage, count, nanos);
+            }
+            mContext.getEventManager().sendEvent(mContext,
+                    IAssetImportEvents.class,
+                    "onImportStage", new Object[]{mContext, modelFile, stage, count, nanos});
+        }
+
         /**
          * Called when a model is successfully loaded.
          * @param context   GVRContext which loaded the model
@@ -559,16 +610,28 @@ public final class GVRAssetLoader {
         }
     }
 
+    /**
+     * Default memory budget of the texture cache in bytes.
+     * @see #getTextureCache()
+     */
+    public static final long DEFAULT_TEXTURE_CACHE_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Default memory budget of the mesh cache in bytes.
+     * @see #getMeshCache()
+     */
+    public static final long DEFAULT_MESH_CACHE_SIZE = 16 * 1024 * 1024;
+
     protected GVRContext mContext;
-    protected static ResourceCache<GVRTexture> mTextureCache = new ResourceCache<GVRTexture>();
+    protected static ResourceCache<GVRTexture> mTextureCache = new ResourceCache<GVRTexture>(DEFAULT_TEXTURE_CACHE_SIZE);
     protected static HashMap<String, GVRTexture> mEmbeddedCache = new HashMap<String, GVRTexture>();
-    protected static ResourceCache<GVRMesh> mMeshCache = new ResourceCache<GVRMesh>();
+    protected static ResourceCache<GVRMesh> mMeshCache = new ResourceCache<GVRMesh>(DEFAULT_MESH_CACHE_SIZE);
 
     protected static GVRTexture mDefaultTexture = null;
 
     /**
-     * When the application is restarted we recreate the texture cache
-     * since all of the GL textures have been deleted.
+     * When the application is restarted we recreate the texture and mesh
+     * caches since all of the GL textures and meshes have been deleted.
      */
     static
     {
@@ -576,7 +639,8 @@ public final class GVRAssetLoader {
 
             @Override
             public void run() {
-                mTextureCache = new ResourceCache<GVRTexture>();
+                mTextureCache = new ResourceCache<GVRTexture>(mTextureCache.getMaxSize());
+                mMeshCache = new ResourceCache<GVRMesh>(mMeshCache.getMaxSize());
                 mEmbeddedCache = new HashMap<String, GVRTexture>();
                 mDefaultTexture = null;
             }
@@ -604,6 +668,31 @@ public final class GVRAssetLoader {
         return mEmbeddedCache;
     }
 
+    /**
+     * Get the texture cache.
+     * Textures loaded with caching enabled are kept in memory, up to the
+     * cache's memory budget, even when the application no longer refers to
+     * them so that reloading them is immediate. Use
+     * {@link ResourceCache#setMaxSize(long)} to change the budget,
+     * {@link ResourceCache#pin(GVRAndroidResource)} to keep specific textures
+     * loaded and {@link ResourceCache#trim()} to release memory.
+     * @return texture cache shared by all asset loaders
+     */
+    public static ResourceCache<GVRTexture> getTextureCache()
+    {
+        return mTextureCache;
+    }
+
+    /**
+     * Get the mesh cache used by {@link #loadMesh(GVRAndroidResource)}.
+     * @return mesh cache shared by all asset loaders
+     * @see #getTextureCache()
+     */
+    public static ResourceCache<GVRMesh> getMeshCache()
+    {
+        return mMeshCache;
+    }
+
     private static GVRTexture getDefaultTexture(GVRContext ctx)
     {
         if (mDefaultTexture == null)
@@ -1219,6 +1308,39 @@ public final class GVRAssetLoader {
         }
     }
 
+    /*
+     * IO Handler for Jassimp which hands the files of an archive to assimp
+     * as slices of the memory-mapped archive, so they are not copied.
+     */
+    static class ArchiveVolumeIO implements JassimpBufferIO {
+        private final GVRArchiveVolume volume;
+
+        ArchiveVolumeIO(GVRArchiveVolume volume) {
+            this.volume = volume;
+        }
+
+        @Override
+        public ByteBuffer readBuffer(String path) {
+            try {
+                return volume.getBuffer(path);
+            } catch (IOException e) {
+                Log.e("GVRAssetLoader", path + " exception loading asset from " + e.getMessage());
+                return null;
+            }
+        }
+
+        @Override
+        public byte[] read(String path) {
+            ByteBuffer buffer = readBuffer(path);
+            if (buffer == null) {
+                return null;
+            }
+            byte[] data = new byte[buffer.remaining()];
+            buffer.get(data);
+            return data;
+        }
+    }
+
     /**
      * Loads a hierarchy of scene objects {@link GVRSceneObject} from a 3D model.
      * The model is not added to the current scene.
@@ -1892,9 +2014,11 @@ public final class GVRAssetLoader {
         GVRResourceVolume volume = request.getVolume();
         try
         {
+            JassimpFileIO fileIO = (volume instanceof GVRArchiveVolume)
+                    ? new ArchiveVolumeIO((GVRArchiveVolume) volume)
+                    : new CachedVolumeIO(new ResourceVolumeIO(volume));
             assimpScene = Jassimp.importFileEx(FileNameUtils.getFilename(filePath),
-                    jassimpAdapter.toJassimpSettings(settings),
-                    new CachedVolumeIO(new ResourceVolumeIO(volume)));
+                    jassimpAdapter.toJassimpSettings(settings), fileIO);
         }
         catch (IOException ex)
         {
@@ -70,6 +70,7 @@ public class GVRBitmapTexture extends GVRTexture {
         super(gvrContext, NativeBaseTexture.bareConstructor(textureParameters.getCurrentValuesArray()));
         NativeBaseTexture.setJavaOwner(getNative(), this);
         mBitmap = bitmap;
+        setBitmapMemoryEstimate(bitmap);
     }
 
     /**
@@ -171,6 +172,7 @@ public class GVRBitmapTexture extends GVRTexture {
         mWidth = width;
         mHeight = height;
         mGrayscaleData = grayscaleData;
+        setMemoryEstimate((long) width * height);
     }
 
     /**
@@ -249,6 +251,7 @@ public class GVRBitmapTexture extends GVRTexture {
      * @since 1.6.3
      */
     public Future<Boolean> update(int width, int height, byte[] grayscaleData) {
+        setMemoryEstimate((long) width * height);
         final int widthOnCall = width, heightOnCall = height;
         final byte[] grayscaleDataOnCall = grayscaleData;
         RunnableFuture<Boolean> updateTask = new GVRFutureOnGlThread<Boolean>(
@@ -320,6 +323,7 @@ public class GVRBitmapTexture extends GVRTexture {
      * @since 1.6.3
      */
     public Future<Boolean> update(Bitmap bitmap) {
+        setBitmapMemoryEstimate(bitmap);
         final Bitmap onCallBitmap = bitmap;
         RunnableFuture<Boolean> updateTask = new GVRFutureOnGlThread<Boolean>(
                 new Callable<Boolean>() {
@@ -336,6 +340,15 @@ public class GVRBitmapTexture extends GVRTexture {
         return updateTask;
     }
 
+    /*
+     * Bitmaps are uploaded with a full mip chain, which adds a third.
+     */
+    private void setBitmapMemoryEstimate(Bitmap bitmap) {
+        if (bitmap != null) {
+            setMemoryEstimate((long) bitmap.getRowBytes() * bitmap.getHeight() * 4 / 3);
+        }
+    }
+
     private static Bitmap getBitmap(GVRContext gvrContext, String pngAssetFilename) {
         try {
             return BitmapFactory.decodeStream(
@@ -365,6 +378,7 @@ public class GVRBitmapTexture extends GVRTexture {
      * pixels parameters. The buffer is not copied!
      */
     public void postBuffer(final int width, final int height, final int format, final int type, final Buffer pixels) {
+        setMemoryEstimate((long) width * height * 4);
         getGVRContext().runOnGlThread(new Runnable() {
             @Override
             public void run() {
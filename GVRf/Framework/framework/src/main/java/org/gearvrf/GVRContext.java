@@ -50,12 +50,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.ref.PhantomReference;
 import java.lang.ref.ReferenceQueue;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Like the Android {@link Context} class, {@code GVRContext} provides core
@@ -434,7 +441,9 @@ public abstract class GVRContext implements IEventReceiver {
      * made from the GL thread (aka the "GL context"). The callback queue is
      * processed before any registered
      * {@linkplain #registerDrawFrameListener(GVRDrawFrameListener) frame
-     * listeners}.
+     * listeners}, within the frame budget of the
+     * {@linkplain #getGLTaskScheduler() GL task scheduler}: callbacks which
+     * do not fit into a frame run in the next one, in order.
      * 
      * @param runnable
      *            A bit of code that must run on the GL thread
@@ -457,6 +466,15 @@ public abstract class GVRContext implements IEventReceiver {
      */
     public abstract void runOnGlThreadPostRender(int delayFrames, Runnable runnable);
 
+    /**
+     * Returns the scheduler which runs the callbacks of
+     * {@link #runOnGlThread(Runnable)} and
+     * {@link #runOnGlThreadPostRender(int, Runnable)}. Submit work to it
+     * directly to give it a {@linkplain GVRGLTaskScheduler.Priority priority}
+     * or a key, so that repeated updates of the same resource run once.
+     */
+    public abstract GVRGLTaskScheduler getGLTaskScheduler();
+
     /**
      * Subscribes a {@link GVRDrawFrameListener}.
      * 
@@ -811,20 +829,128 @@ public abstract class GVRContext implements IEventReceiver {
     /**
      * We need hard references to {@linkplain GVRReference our references} -
      * otherwise, the references get garbage collected (usually before their
-     * objects) and never get enqueued.
+     * objects) and never get enqueued. They are indexed by native pointer;
+     * several wrappers of one native object are chained through
+     * {@link GVRReference#mNext}.
      */
-    private final Set<GVRReference> mReferenceSet = new HashSet<GVRReference>();
+    private final Map<Long, GVRReference> mReferences = new HashMap<Long, GVRReference>();
+    private int mLiveObjects;
+    /** Finalized objects waiting to be released on the GL thread */
+    private final ArrayDeque<GVRReference> mPendingGLReleases = new ArrayDeque<GVRReference>();
+    private final AtomicInteger mPendingBackgroundReleases = new AtomicInteger();
+    private final AtomicLong mFreedObjects = new AtomicLong();
+    private volatile long mReleaseBudgetNanos = DEFAULT_RELEASE_BUDGET_NANOS;
+
+    private static final long DEFAULT_RELEASE_BUDGET_NANOS = 1000000;
+    private static ThreadPoolExecutor sReleaseExecutor;
 
+    /**
+     * Releases the native objects of unreachable {@link GVRHybridObject}s.
+     * Called once per frame on the GL thread.
+     * <p>
+     * Objects which do not need the GL thread to be released are handed to a
+     * background thread. The others are released until the
+     * {@linkplain #setNativeReleaseBudget(long) time budget} of the frame is
+     * used up; the rest waits for the next frame, so unloading a big scene
+     * does not stall a single frame.
+     */
     protected final void finalizeUnreachableObjects() {
         GVRReference reference;
+        List<GVRReference> background = null;
         while (null != (reference = (GVRReference)mReferenceQueue.poll())) {
-            reference.close();
+            if (reference.mNeedsGL) {
+                mPendingGLReleases.add(reference);
+            } else {
+                if (background == null) {
+                    background = new ArrayList<GVRReference>();
+                }
+                background.add(reference);
+            }
+        }
+        if (background != null) {
+            releaseInBackground(background);
+        }
+
+        if (!mPendingGLReleases.isEmpty()) {
+            // always release at least one object so the queue keeps moving
+            long deadline = System.nanoTime() + mReleaseBudgetNanos;
+            do {
+                mPendingGLReleases.poll().close();
+            } while (!mPendingGLReleases.isEmpty() && System.nanoTime() < deadline);
         }
     }
 
+    private void releaseInBackground(final List<GVRReference> references) {
+        mPendingBackgroundReleases.addAndGet(references.size());
+        getReleaseExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                for (GVRReference reference : references) {
+                    reference.close();
+                    mPendingBackgroundReleases.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    private static synchronized ThreadPoolExecutor getReleaseExecutor() {
+        if (sReleaseExecutor == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "GVRRelease");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            sReleaseExecutor = executor;
+        }
+        return sReleaseExecutor;
+    }
+
+    /**
+     * Sets how much time per frame the GL thread may spend releasing the
+     * native objects of garbage collected {@link GVRHybridObject}s.
+     *
+     * @param nanos time budget in nanoseconds; at least one object is
+     *              released per frame even if it is 0
+     */
+    public void setNativeReleaseBudget(long nanos) {
+        mReleaseBudgetNanos = Math.max(0, nanos);
+    }
+
+    /**
+     * @return number of native objects owned by {@link GVRHybridObject}s
+     *         which have not been released yet
+     */
+    public int getLiveNativeObjectCount() {
+        synchronized (mReferences) {
+            return mLiveObjects;
+        }
+    }
+
+    /**
+     * @return number of native objects whose owners have been garbage
+     *         collected and which wait to be released; approximate when
+     *         called off the GL thread
+     */
+    public int getPendingNativeObjectCount() {
+        return mPendingGLReleases.size() + mPendingBackgroundReleases.get();
+    }
+
+    /**
+     * @return total number of native objects released so far
+     */
+    public long getFreedNativeObjectCount() {
+        return mFreedObjects.get();
+    }
+
     final class GVRReference extends PhantomReference<GVRHybridObject> {
         private long mNativePointer;
         private final List<NativeCleanupHandler> mCleanupHandlers;
+        private final boolean mNeedsGL;
+        private GVRReference mNext;
 
         private GVRReference(GVRHybridObject object, long nativePointer,
                 List<NativeCleanupHandler> cleanupHandlers) {
@@ -832,49 +958,70 @@ public abstract class GVRContext implements IEventReceiver {
 
             mNativePointer = nativePointer;
             mCleanupHandlers = cleanupHandlers;
+            mNeedsGL = object.needsGLToRelease();
         }
 
         private void close() {
-            close(true);
-        }
+            long nativePointer;
+            synchronized (mReferences) {
+                nativePointer = mNativePointer;
+                if (nativePointer == 0) {
+                    return;
+                }
+                mNativePointer = 0;
+                unlink(nativePointer);
+                --mLiveObjects;
+            }
 
-        private void close(boolean removeFromSet) {
-            synchronized (mReferenceSet) {
-                if (mNativePointer != 0) {
-                    if (mCleanupHandlers != null) {
-                        for (NativeCleanupHandler handler : mCleanupHandlers) {
-                            handler.nativeCleanup(mNativePointer);
-                        }
-                    }
-                    NativeHybridObject.delete(mNativePointer);
-                    mNativePointer = 0;
+            // the native object is deleted outside of the lock, so a
+            // background release does not block registering new objects
+            if (mCleanupHandlers != null) {
+                for (NativeCleanupHandler handler : mCleanupHandlers) {
+                    handler.nativeCleanup(nativePointer);
                 }
+            }
+            NativeHybridObject.delete(nativePointer);
+            mFreedObjects.incrementAndGet();
+        }
 
-                if (removeFromSet) {
-                    mReferenceSet.remove(this);
+        private void unlink(long nativePointer) {
+            GVRReference head = mReferences.get(nativePointer);
+            if (head == this) {
+                if (mNext != null) {
+                    mReferences.put(nativePointer, mNext);
+                } else {
+                    mReferences.remove(nativePointer);
+                }
+            } else {
+                GVRReference previous = head;
+                while (previous != null && previous.mNext != this) {
+                    previous = previous.mNext;
+                }
+                if (previous != null) {
+                    previous.mNext = mNext;
                 }
             }
+            mNext = null;
         }
     }
 
     final void registerHybridObject(GVRHybridObject gvrHybridObject, long nativePointer, List<NativeCleanupHandler> cleanupHandlers) {
-        synchronized (mReferenceSet) {
-            mReferenceSet.add(new GVRReference(gvrHybridObject, nativePointer, cleanupHandlers));
+        GVRReference reference = new GVRReference(gvrHybridObject, nativePointer, cleanupHandlers);
+        synchronized (mReferences) {
+            reference.mNext = mReferences.put(nativePointer, reference);
+            ++mLiveObjects;
         }
     }
 
     /**
      * Explicitly close()ing an object is going to be relatively rare - most
      * native memory will be freed when the owner-objects are garbage collected.
-     * Doing a lookup in these rare cases means that we can avoid giving every @link
-     * {@link GVRHybridObject} a hard reference to its {@link GVRReference}.
+     * The references are indexed by native pointer, so the lookup does not
+     * depend on the number of live objects.
      */
     final GVRReference findReference(long nativePointer) {
-        for (GVRReference reference : mReferenceSet) {
-            if (reference.mNativePointer == nativePointer) {
-                return reference;
-            }
+        synchronized (mReferences) {
+            return mReferences.get(nativePointer);
         }
-        return null;
     }
 }
@@ -108,6 +108,10 @@ public final class GVRContextProxy extends GVRContext {
         mContext.get().runOnGlThreadPostRender(delayFrames, runnable);
     }
 
+    public GVRGLTaskScheduler getGLTaskScheduler() {
+        return mContext.get().getGLTaskScheduler();
+    }
+
     public void registerDrawFrameListener(GVRDrawFrameListener frameListener) {
         mContext.get().registerDrawFrameListener(frameListener);
     }
@@ -60,6 +60,13 @@ public class GVRCubemapTexture extends GVRTexture {
             GVRTextureParameters textureParameters) {
         super(gvrContext, NativeCubemapTexture.bitmapArrayConstructor(
                 bitmapArray, textureParameters.getCurrentValuesArray()));
+        long bytes = 0;
+        for (Bitmap bitmap : bitmapArray) {
+            if (bitmap != null) {
+                bytes += (long) bitmap.getRowBytes() * bitmap.getHeight();
+            }
+        }
+        setMemoryEstimate(bytes);
     }
 
     /**
@@ -0,0 +1,114 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes one event handler method of an {@link IEvents} interface on a
+ * target object.<p>
+ *
+ * {@link GVREventManager} resolves every (event interface, event name) pair
+ * once into an invoker and reuses it for all later events. Compiled invokers
+ * call the interface method directly, for example
+ *
+ * <pre>
+ * {@code
+ * new GVREventInvoker() {
+ *     public void invoke(Object target, Object arg0) {
+ *         ((ISensorEvents) target).onSensorEvent((SensorEvent) arg0);
+ *     }
+ *     public void invoke(Object target, Object[] args) {
+ *         invoke(target, args[0]);
+ *     }
+ * }
+ * }
+ * </pre>
+ *
+ * and can be registered with
+ * {@link GVREventManager#registerInvoker(Class, String, GVREventInvoker)}.
+ * The fixed-arity variants let {@link GVREventManager} deliver events with up
+ * to two parameters without allocating a parameter array. Events for which no
+ * compiled invoker is registered fall back to {@link Method#invoke}.
+ */
+public abstract class GVREventInvoker {
+    static final Object[] NO_ARGS = new Object[0];
+
+    /**
+     * Invokes the handler with an arbitrary number of parameters.
+     *
+     * @param target object implementing the event interface
+     * @param args   event parameters
+     * @throws Throwable whatever the handler throws. {@link GVREventManager}
+     *         rethrows a {@link RuntimeException} to the application and logs
+     *         anything else, so an invoker must not throw a
+     *         {@code RuntimeException} of its own.
+     */
+    public abstract void invoke(Object target, Object[] args) throws Throwable;
+
+    /**
+     * Invokes a handler without parameters.
+     */
+    public void invoke(Object target) throws Throwable {
+        invoke(target, NO_ARGS);
+    }
+
+    /**
+     * Invokes a handler with one parameter.
+     */
+    public void invoke(Object target, Object arg0) throws Throwable {
+        invoke(target, new Object[] { arg0 });
+    }
+
+    /**
+     * Invokes a handler with two parameters.
+     */
+    public void invoke(Object target, Object arg0, Object arg1) throws Throwable {
+        invoke(target, new Object[] { arg0, arg1 });
+    }
+
+    /**
+     * Creates an invoker which calls {@code method} through reflection.
+     *
+     * @param method interface method to invoke
+     * @return reflective invoker
+     */
+    public static GVREventInvoker reflective(Method method) {
+        return new ReflectiveInvoker(method);
+    }
+
+    private static final class ReflectiveInvoker extends GVREventInvoker {
+        private final Method mMethod;
+
+        ReflectiveInvoker(Method method) {
+            mMethod = method;
+        }
+
+        @Override
+        public void invoke(Object target, Object[] args) throws Throwable {
+            try {
+                mMethod.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } catch (IllegalArgumentException e) {
+                // Not thrown by the handler: report it as a checked exception,
+                // which GVREventManager logs instead of rethrowing
+                throw new Exception(e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -15,13 +15,10 @@
 
 package org.gearvrf;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.gearvrf.script.GVRScriptFile;
 import org.gearvrf.script.IScriptable;
@@ -54,13 +51,31 @@ import org.gearvrf.script.IScriptable;
  * end
  * }
  * </pre>
+ *
+ * Java handlers are resolved once per event interface and event name into a
+ * {@link GVREventInvoker}; the resolution cache is lock-free. Built-in
+ * per-frame events (script, pick and sensor events) use compiled invokers
+ * that call the interface method directly, and events with up to two
+ * parameters can be sent through the fixed-arity {@code sendEvent}
+ * overloads without allocating a parameter array.
  */
 public class GVREventManager {
     private static final String TAG = GVREventManager.class.getSimpleName();
     private GVRContext mGvrContext;
 
-    // Cache for Java handler methods; keys *must* be weakly referenced
-    private final WeakHashMap<Object, Map<String, Method>> mHandlerMethodCache;
+    /*
+     * Handlers resolved from the event interfaces, and compiled invokers
+     * registered for them. Both are shared by all event managers since they
+     * only depend on the interface.
+     */
+    private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, EventHandler>> sHandlerCache
+            = new ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, EventHandler>>();
+    private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, GVREventInvoker>> sCompiledInvokers
+            = new ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, GVREventInvoker>>();
+
+    static {
+        registerBuiltinInvokers();
+    }
 
     protected static final int SEND_MASK_OBJECT = 0x1;
     protected static final int SEND_MASK_LISTENERS = 0x2;
@@ -69,7 +84,38 @@ public class GVREventManager {
 
     GVREventManager(GVRContext gvrContext) {
         mGvrContext = gvrContext;
-        mHandlerMethodCache = new WeakHashMap<Object, Map<String, Method>>();
+    }
+
+    /**
+     * Registers a compiled invoker for an event. Events sent for
+     * {@code eventsClass} and {@code eventName} are delivered through
+     * {@code invoker} instead of reflection.
+     *
+     * @param eventsClass
+     *     The interface class object representing an event group.
+     * @param eventName
+     *     The name of the event. The interface must declare exactly one
+     *     method with this name.
+     * @param invoker
+     *     Invoker which calls the interface method on its target.
+     */
+    public static void registerInvoker(Class<? extends IEvents> eventsClass, String eventName,
+            GVREventInvoker invoker) {
+        ConcurrentHashMap<String, GVREventInvoker> invokers = sCompiledInvokers.get(eventsClass);
+        if (invokers == null) {
+            invokers = new ConcurrentHashMap<String, GVREventInvoker>();
+            ConcurrentHashMap<String, GVREventInvoker> prev = sCompiledInvokers.putIfAbsent(eventsClass, invokers);
+            if (prev != null) {
+                invokers = prev;
+            }
+        }
+        invokers.put(eventName, invoker);
+
+        // Drop a previously resolved handler so the invoker is picked up
+        ConcurrentHashMap<String, EventHandler> handlers = sHandlerCache.get(eventsClass);
+        if (handlers != null) {
+            handlers.remove(eventName);
+        }
     }
 
     /**
@@ -108,6 +154,36 @@ public class GVREventManager {
         return sendEventWithMask(SEND_MASK_ALL, target, eventsClass, eventName, params);
     }
 
+    /**
+     * Delivers an event without parameters. Equivalent to
+     * {@link #sendEvent(Object, Class, String, Object...)} but does not
+     * allocate a parameter array.
+     */
+    public boolean sendEvent(Object target, Class<? extends IEvents> eventsClass,
+            String eventName) {
+        return dispatch(SEND_MASK_ALL, target, eventsClass, eventName, 0, null, null, null);
+    }
+
+    /**
+     * Delivers an event with one parameter. Equivalent to
+     * {@link #sendEvent(Object, Class, String, Object...)} but does not
+     * allocate a parameter array.
+     */
+    public boolean sendEvent(Object target, Class<? extends IEvents> eventsClass,
+            String eventName, Object param0) {
+        return dispatch(SEND_MASK_ALL, target, eventsClass, eventName, 1, param0, null, null);
+    }
+
+    /**
+     * Delivers an event with two parameters. Equivalent to
+     * {@link #sendEvent(Object, Class, String, Object...)} but does not
+     * allocate a parameter array.
+     */
+    public boolean sendEvent(Object target, Class<? extends IEvents> eventsClass,
+            String eventName, Object param0, Object param1) {
+        return dispatch(SEND_MASK_ALL, target, eventsClass, eventName, 2, param0, param1, null);
+    }
+
     protected boolean sendEventWithMask(int sendMask, Object target, Class<? extends IEvents> eventsClass,
             String eventName, Object... params) {
         return sendEventWithMaskParamArray(sendMask, target, eventsClass, eventName, params);
@@ -115,15 +191,29 @@ public class GVREventManager {
 
     protected boolean sendEventWithMaskParamArray(int sendMask, Object target, Class<? extends IEvents> eventsClass,
             String eventName, Object[] params) {
+        if (params == null) {
+            params = GVREventInvoker.NO_ARGS;
+        }
+        return dispatch(sendMask, target, eventsClass, eventName, params.length,
+                params.length > 0 ? params[0] : null, params.length > 1 ? params[1] : null, params);
+    }
+
+    /*
+     * Common delivery path. params may be null if argc <= 2; in that case the
+     * arguments are passed in param0 and param1 and an array is only built if
+     * a script or a reflective handler needs one.
+     */
+    private boolean dispatch(int sendMask, Object target, Class<? extends IEvents> eventsClass,
+            String eventName, int argc, Object param0, Object param1, Object[] params) {
         // Set to true if an event is handled.
         boolean handledSuccessful = false;
 
         // Verify the event name and parameters (cached)
-        Method method = findHandlerMethod(target, eventsClass, eventName, params);
+        GVREventInvoker invoker = findInvoker(eventsClass, eventName, argc, param0, param1, params);
         if ((sendMask & SEND_MASK_OBJECT) != 0) {
             // Invoke the method if the target implements the interface
             if (eventsClass.isInstance(target)) {
-                invokeMethod(target, method, params);
+                invoke(target, invoker, argc, param0, param1, params);
                 handledSuccessful = true;
             }
         }
@@ -141,12 +231,9 @@ public class GVREventManager {
                     if (!eventsClass.isInstance(listener) || receiver.getOwner() != target)
                         continue;
 
-                    Method listenerMethod = findHandlerMethod(listener, eventsClass, eventName, params);
-                    if (listenerMethod != null) {
-                        // This may throw RuntimeException if the handler does so.
-                        invokeMethod(listener, listenerMethod, params);
-                        handledSuccessful = true;
-                    }
+                    // This may throw RuntimeException if the handler does so.
+                    invoke(listener, invoker, argc, param0, param1, params);
+                    handledSuccessful = true;
                 }
             }
         }
@@ -154,6 +241,9 @@ public class GVREventManager {
         if ((sendMask & SEND_MASK_SCRIPTS) != 0) {
             // Try invoking the handler in the script
             if (target instanceof IScriptable) {
+                if (params == null) {
+                    params = toArray(argc, param0, param1);
+                }
                 handledSuccessful |= tryInvokeScript((IScriptable)target, eventName, params);
             }
         }
@@ -161,64 +251,133 @@ public class GVREventManager {
         return handledSuccessful;
     }
 
+    private static Object[] toArray(int argc, Object param0, Object param1) {
+        switch (argc) {
+        case 0:
+            return GVREventInvoker.NO_ARGS;
+        case 1:
+            return new Object[] { param0 };
+        default:
+            return new Object[] { param0, param1 };
+        }
+    }
+
     /*
-     * Return the method in eventsClass by checking the signature.
-     * RuntimeException is thrown if the event is not found in the eventsClass interface,
-     * or the parameter types don't match.
+     * The handlers of one event name in one interface. Usually there is a
+     * single method; overloads are matched against the parameters on every
+     * call.
      */
-    private Method findHandlerMethod(Object target, Class<? extends IEvents> eventsClass,
-            String eventName, Object[] params) {
-        // Use cached method if available. Note: no further type checking is done if the
-        // method has been cached. It will be checked by JRE when the method is invoked.
-        Method cachedMethod = getCachedMethod(target, eventName);
-        if (cachedMethod != null) {
-            return cachedMethod;
+    private static final class EventHandler {
+        final Method[] methods;
+        final GVREventInvoker[] invokers;
+        final boolean overloaded;
+        final Class<?>[] types;
+        volatile boolean verified;
+
+        EventHandler(Method[] methods, GVREventInvoker[] invokers, boolean overloaded) {
+            this.methods = methods;
+            this.invokers = invokers;
+            this.overloaded = overloaded;
+            types = methods[0].getParameterTypes();
+        }
+    }
+
+    /*
+     * Returned by findInvoker() when the parameters of an event do not match
+     * its verified handler. The error is logged for every target, like the
+     * IllegalArgumentException of Method.invoke() was.
+     */
+    private static final GVREventInvoker MISMATCHED_INVOKER = new GVREventInvoker() {
+        @Override
+        public void invoke(Object target, Object[] args) {
+        }
+    };
+
+    private GVREventInvoker findInvoker(Class<? extends IEvents> eventsClass, String eventName,
+            int argc, Object param0, Object param1, Object[] params) {
+        ConcurrentHashMap<String, EventHandler> handlers = sHandlerCache.get(eventsClass);
+        if (handlers == null) {
+            handlers = new ConcurrentHashMap<String, EventHandler>();
+            ConcurrentHashMap<String, EventHandler> prev = sHandlerCache.putIfAbsent(eventsClass, handlers);
+            if (prev != null) {
+                handlers = prev;
+            }
+        }
+
+        EventHandler handler = handlers.get(eventName);
+        if (handler == null) {
+            handler = createHandler(eventsClass, eventName);
+            handlers.put(eventName, handler);
         }
 
-        // Check the event and params against the eventsClass interface object.
-        Method nameMatch = null;
-        Method signatureMatch = null;
+        // Fast path: single method whose signature has been checked once.
+        // The parameters are still checked here, before the invoker casts
+        // them, so any exception thrown by an invoker comes from the handler.
+        if (handler.verified && !handler.overloaded && handler.types.length == argc) {
+            Class<?>[] types = handler.types;
+            boolean matches = (params != null) ? matchesSignature(types, params)
+                    : (argc == 0 || isInstanceWithAutoboxing(types[0], param0))
+                            && (argc < 2 || isInstanceWithAutoboxing(types[1], param1));
+            return matches ? handler.invokers[0] : MISMATCHED_INVOKER;
+        }
+
+        if (params == null) {
+            params = toArray(argc, param0, param1);
+        }
+        for (int m = 0; m < handler.methods.length; ++m) {
+            if (matchesSignature(handler.methods[m], params)) {
+                handler.verified = true;
+                return handler.invokers[m];
+            }
+        }
+
+        throw new RuntimeException(String.format("The interface contains a method %s but "
+                + "parameters don't match", eventName));
+    }
+
+    private static EventHandler createHandler(Class<? extends IEvents> eventsClass, String eventName) {
+        List<Method> methods = new ArrayList<Method>();
         for (Method method : eventsClass.getMethods()) {
             // Match method name and event name
             if (method.getName().equals(eventName)) {
-                nameMatch = method;
-
-                // Check number of parameters
-                Class<?>[] types = method.getParameterTypes();
-                if (types.length != params.length)
-                    continue;
-
-                // Check parameter types
-                int i = 0;
-                boolean foundMatchedMethod = true;
-                for (Class<?> type : types) {
-                    Object param = params[i++];
-                    if (!isInstanceWithAutoboxing(type, param)) {
-                        foundMatchedMethod = false;
-                        break;
-                    }
-                }
-
-                if (foundMatchedMethod) {
-                    signatureMatch = method;
-                    break;
-                }
+                methods.add(method);
             }
         }
 
         // Error
-        if (nameMatch == null) {
+        if (methods.isEmpty()) {
             throw new RuntimeException(String.format("The interface contains no method %s", eventName));
-        } else if (signatureMatch == null ){
-            throw new RuntimeException(String.format("The interface contains a method %s but "
-                    + "parameters don't match", eventName));
         }
 
-        // Cache the method for the target, even if it doesn't implement the interface. This is
-        // to avoid always verifying the event.
-        addCachedMethod(target, eventName, signatureMatch);
+        ConcurrentHashMap<String, GVREventInvoker> compiled = sCompiledInvokers.get(eventsClass);
+        GVREventInvoker compiledInvoker = (compiled != null) ? compiled.get(eventName) : null;
+        boolean overloaded = methods.size() > 1;
+        GVREventInvoker[] invokers = new GVREventInvoker[methods.size()];
 
-        return signatureMatch;
+        for (int i = 0; i < invokers.length; ++i) {
+            // Compiled invokers are only used for unambiguous events
+            invokers[i] = (compiledInvoker != null && !overloaded)
+                    ? compiledInvoker : GVREventInvoker.reflective(methods.get(i));
+        }
+        return new EventHandler(methods.toArray(new Method[methods.size()]), invokers, overloaded);
+    }
+
+    private boolean matchesSignature(Method method, Object[] params) {
+        return matchesSignature(method.getParameterTypes(), params);
+    }
+
+    private boolean matchesSignature(Class<?>[] types, Object[] params) {
+        // Check number of parameters
+        if (types.length != params.length)
+            return false;
+
+        // Check parameter types
+        for (int i = 0; i < types.length; ++i) {
+            if (!isInstanceWithAutoboxing(types[i], params[i])) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private boolean isInstanceWithAutoboxing(Class<?> type, Object value) {
@@ -268,31 +427,6 @@ public class GVREventManager {
         return false;
     }
 
-    private Method getCachedMethod(Object target, String eventName) {
-        // Lock the whole cache for both first- and second-level lookup
-        synchronized (mHandlerMethodCache) {
-            Map<String, Method> targetCache = mHandlerMethodCache.get(target);
-            if (targetCache == null) {
-                return null;
-            }
-
-            return targetCache.get(eventName);
-        }
-    }
-
-    private void addCachedMethod(Object target, String eventName, Method method) {
-        // Lock the whole cache for both first- and second-level lookup
-        synchronized (mHandlerMethodCache) {
-            Map<String, Method> targetCache = mHandlerMethodCache.get(target);
-            if (targetCache == null) {
-                targetCache = new TreeMap<String, Method>();
-                mHandlerMethodCache.put(target, targetCache);
-            }
-
-            targetCache.put(eventName, method);
-        }
-    }
-
     private boolean tryInvokeScript(IScriptable target, String eventName,
             Object[] params) {
         GVRScriptFile script = mGvrContext.getScriptManager().getScriptFile(target);
@@ -302,24 +436,134 @@ public class GVREventManager {
         return script.invokeFunction(eventName, params);
     }
 
-    private void invokeMethod(Object target, Method method, Object[] params) {
-        try {
-            method.invoke(target, params);
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-            mGvrContext.logError(e.getMessage(), target);
-        } catch (IllegalArgumentException e) {
+    private void invoke(Object target, GVREventInvoker invoker, int argc,
+            Object param0, Object param1, Object[] params) {
+        if (invoker == MISMATCHED_INVOKER) {
+            IllegalArgumentException e = new IllegalArgumentException("argument type mismatch");
             e.printStackTrace();
             mGvrContext.logError(e.getMessage(), target);
-        } catch (InvocationTargetException e) {
-            Throwable throwable = e.getCause();
-            // rethrow the RuntimeException back to the application
-            if (throwable instanceof RuntimeException) {
-                throw (RuntimeException) throwable;
+            return;
+        }
+        try {
+            if (params != null) {
+                invoker.invoke(target, params);
+            } else if (argc == 0) {
+                invoker.invoke(target);
+            } else if (argc == 1) {
+                invoker.invoke(target, param0);
             } else {
-                e.printStackTrace();
-                mGvrContext.logError(e.getMessage(), target);
+                invoker.invoke(target, param0, param1);
             }
+        } catch (RuntimeException e) {
+            // The parameters have been checked, so this was thrown by the
+            // handler: rethrow the RuntimeException back to the application
+            throw e;
+        } catch (Throwable t) {
+            t.printStackTrace();
+            mGvrContext.logError(t.getMessage(), target);
         }
     }
+
+    private static void registerBuiltinInvokers() {
+        // Per-frame and per-pick events are delivered without reflection
+        registerInvoker(IScriptEvents.class, "onStep", new GVREventInvoker() {
+            @Override
+            public void invoke(Object target) {
+                ((IScriptEvents) target).onStep();
+            }
+
+            @Override
+            public void invoke(Object target, Object[] args) {
+                invoke(target);
+            }
+        });
+        registerInvoker(IScriptEvents.class, "onAfterInit", new GVREventInvoker() {
+            @Override
+            public void invoke(Object target) {
+                ((IScriptEvents) target).onAfterInit();
+            }
+
+            @Override
+            public void invoke(Object target, Object[] args) {
+                invoke(target);
+            }
+        });
+        registerInvoker(IScriptEvents.class, "onInit", new GVREventInvoker() {
+            @Override
+            public void invoke(Object target, Object arg0) throws Throwable {
+                ((IScriptEvents) target).onInit((GVRContext) arg0);
+            }
+
+            @Override
+            public void invoke(Object target, Object[] args) throws Throwable {
+                invoke(target, args[0]);
+            }
+        });
+        registerInvoker(IPickEvents.class, "onPick", new GVREventInvoker() {
+            @Override
+            public void invoke(Object target, Object arg0) {
+                ((IPickEvents) target).onPick((GVRPicker) arg0);
+            }
+
+            @Override
+            public void invoke(Object target, Object[] args) {
+                invoke(target, args[0]);
+            }
+        });
+        registerInvoker(IPickEvents.class, "onNoPick", new GVREventInvoker() {
+            @Override
+            public void invoke(Object target, Object arg0) {
+                ((IPickEvents) target).onNoPick((GVRPicker) arg0);
+            }
+
+            @Override
+            public void invoke(Object target, Object[] args) {
+                invoke(target, args[0]);
+            }
+        });
+        registerInvoker(IPickEvents.class, "onExit", new GVREventInvoker() {
+            @Override
+            public void invoke(Object target, Object arg0) {
+                ((IPickEvents) target).onExit((GVRSceneObject) arg0);
+            }
+
+            @Override
+            public void invoke(Object target, Object[] args) {
+                invoke(target, args[0]);
+            }
+        });
+        registerInvoker(IPickEvents.class, "onEnter", new GVREventInvoker() {
+            @Override
+            public void invoke(Object target, Object arg0, Object arg1) {
+                ((IPickEvents) target).onEnter((GVRSceneObject) arg0, (GVRPicker.GVRPickedObject) arg1);
+            }
+
+            @Override
+            public void invoke(Object target, Object[] args) {
+                invoke(target, args[0], args[1]);
+            }
+        });
+        registerInvoker(IPickEvents.class, "onInside", new GVREventInvoker() {
+            @Override
+            public void invoke(Object target, Object arg0, Object arg1) {
+                ((IPickEvents) target).onInside((GVRSceneObject) arg0, (GVRPicker.GVRPickedObject) arg1);
+            }
+
+            @Override
+            public void invoke(Object target, Object[] args) {
+                invoke(target, args[0], args[1]);
+            }
+        });
+        registerInvoker(ISensorEvents.class, "onSensorEvent", new GVREventInvoker() {
+            @Override
+            public void invoke(Object target, Object arg0) {
+                ((ISensorEvents) target).onSensorEvent((SensorEvent) arg0);
+            }
+
+            @Override
+            public void invoke(Object target, Object[] args) {
+                invoke(target, args[0]);
+            }
+        });
+    }
 }
@@ -0,0 +1,369 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.gearvrf.utility.Log;
+
+/**
+ * Schedules work which has to run on the GL thread, like the callbacks of
+ * {@link GVRContext#runOnGlThread(Runnable)} and
+ * {@link GVRContext#runOnGlThreadPostRender(int, Runnable)}.
+ * <p>
+ * Tasks run before the frame listeners of a frame, in the order of their
+ * {@link Priority} and, within a priority, in the order they were
+ * submitted. {@link Priority#HIGH} tasks all run in the next frame. The
+ * others run until the {@linkplain #setFrameBudget(long) frame budget} is
+ * used up and the rest is carried over to the next frame, so a burst of
+ * texture uploads or mesh creations is spread over several frames instead
+ * of dropping one. At least one task runs per frame.
+ * <p>
+ * A task may be submitted with a key. If a task with an equal key is still
+ * waiting, the new task replaces it, so repeatedly updating the same
+ * resource runs the update once, with the latest data. The replacement
+ * runs with the higher priority of the two tasks.
+ * <p>
+ * Tasks can be submitted from any thread.
+ */
+public final class GVRGLTaskScheduler {
+    private static final String TAG = Log.tag(GVRGLTaskScheduler.class);
+    private static final long DEFAULT_FRAME_BUDGET_NANOS = 4000000;
+
+    public enum Priority {
+        /** Runs in the next frame, regardless of the frame budget */
+        HIGH,
+        /** Default priority of {@link GVRContext#runOnGlThread(Runnable)} */
+        NORMAL,
+        /** Runs when no {@link #NORMAL} task is waiting */
+        LOW
+    }
+
+    private static final class Task {
+        final Object mKey;
+        Priority mPriority;
+        Runnable mRunnable;
+
+        Task(Object key, Priority priority, Runnable runnable) {
+            mKey = key;
+            mPriority = priority;
+            mRunnable = runnable;
+        }
+    }
+
+    private static final class PostRenderTask implements Comparable<PostRenderTask> {
+        final long mFrame;
+        final long mSequence;
+        final Runnable mRunnable;
+
+        PostRenderTask(long frame, long sequence, Runnable runnable) {
+            mFrame = frame;
+            mSequence = sequence;
+            mRunnable = runnable;
+        }
+
+        @Override
+        public int compareTo(PostRenderTask other) {
+            if (mFrame != other.mFrame) {
+                return mFrame < other.mFrame ? -1 : 1;
+            }
+            return mSequence < other.mSequence ? -1 : (mSequence == other.mSequence ? 0 : 1);
+        }
+    }
+
+    private final ArrayDeque<Task>[] mQueues;
+    private final Map<Object, Task> mKeyedTasks = new HashMap<Object, Task>();
+    private final PriorityQueue<PostRenderTask> mPostRenderTasks = new PriorityQueue<PostRenderTask>();
+    private int mQueueDepth;
+    private long mFrame;
+    private long mPostRenderSequence;
+
+    private volatile long mFrameBudgetNanos = DEFAULT_FRAME_BUDGET_NANOS;
+    private volatile long mLastFrameNanos;
+    private volatile int mLastFrameTasks;
+    private volatile long mTotalNanos;
+    private volatile long mTotalTasks;
+    private volatile long mCoalescedTasks;
+
+    @SuppressWarnings("unchecked")
+    GVRGLTaskScheduler() {
+        mQueues = new ArrayDeque[Priority.values().length];
+        for (int i = 0; i < mQueues.length; ++i) {
+            mQueues[i] = new ArrayDeque<Task>();
+        }
+    }
+
+    /**
+     * Runs a task on the GL thread with {@link Priority#NORMAL}.
+     */
+    public void submit(Runnable runnable) {
+        submit(Priority.NORMAL, null, runnable);
+    }
+
+    /**
+     * Runs a task on the GL thread.
+     */
+    public void submit(Priority priority, Runnable runnable) {
+        submit(priority, null, runnable);
+    }
+
+    /**
+     * Runs a task on the GL thread, replacing the waiting task with the
+     * same key, if there is one. The replaced task keeps its place in the
+     * queue, unless the new task has a higher priority: then it moves to
+     * the end of the queue of that priority, so an urgent update is not
+     * held back by an earlier one of lower priority.
+     *
+     * @param priority
+     *            Priority of the task
+     * @param key
+     *            Identifies the resource the task updates, or {@code null}
+     *            to never replace a waiting task
+     * @param runnable
+     *            A bit of code that must run on the GL thread
+     */
+    public void submit(Priority priority, Object key, Runnable runnable) {
+        synchronized (this) {
+            if (key != null) {
+                Task waiting = mKeyedTasks.get(key);
+                if (waiting != null) {
+                    waiting.mRunnable = runnable;
+                    if (priority.ordinal() < waiting.mPriority.ordinal()) {
+                        mQueues[waiting.mPriority.ordinal()].remove(waiting);
+                        mQueues[priority.ordinal()].add(waiting);
+                        waiting.mPriority = priority;
+                    }
+                    ++mCoalescedTasks;
+                    return;
+                }
+            }
+            Task task = new Task(key, priority, runnable);
+            if (key != null) {
+                mKeyedTasks.put(key, task);
+            }
+            mQueues[priority.ordinal()].add(task);
+            ++mQueueDepth;
+        }
+    }
+
+    /**
+     * Runs a task on the GL thread after a frame has been rendered.
+     *
+     * @param delayFrames
+     *            Number of frames to delay the task. 0 means current frame.
+     */
+    public void submitPostRender(int delayFrames, Runnable runnable) {
+        synchronized (this) {
+            mPostRenderTasks.add(new PostRenderTask(mFrame + Math.max(0, delayFrames),
+                    mPostRenderSequence++, runnable));
+        }
+    }
+
+    /**
+     * Sets how much time per frame the GL thread may spend on
+     * {@link Priority#NORMAL} and {@link Priority#LOW} tasks.
+     *
+     * @param nanos time budget in nanoseconds
+     */
+    public void setFrameBudget(long nanos) {
+        mFrameBudgetNanos = Math.max(0, nanos);
+    }
+
+    public long getFrameBudget() {
+        return mFrameBudgetNanos;
+    }
+
+    /**
+     * @return number of tasks waiting to run, not counting post-render tasks
+     */
+    public synchronized int getQueueDepth() {
+        return mQueueDepth;
+    }
+
+    /**
+     * @return number of tasks of a priority waiting to run
+     */
+    public synchronized int getQueueDepth(Priority priority) {
+        return mQueues[priority.ordinal()].size();
+    }
+
+    /**
+     * @return number of post-render tasks waiting to run
+     */
+    public synchronized int getPostRenderQueueDepth() {
+        return mPostRenderTasks.size();
+    }
+
+    /**
+     * @return time the GL thread spent on tasks in the last frame, in
+     *         nanoseconds
+     */
+    public long getLastFrameNanos() {
+        return mLastFrameNanos;
+    }
+
+    /**
+     * @return number of tasks run in the last frame
+     */
+    public int getLastFrameTaskCount() {
+        return mLastFrameTasks;
+    }
+
+    /**
+     * @return total time the GL thread spent on tasks, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return mTotalNanos;
+    }
+
+    /**
+     * @return total number of tasks run
+     */
+    public long getTotalTaskCount() {
+        return mTotalTasks;
+    }
+
+    /**
+     * @return number of tasks which replaced a waiting task with the same key
+     */
+    public long getCoalescedTaskCount() {
+        return mCoalescedTasks;
+    }
+
+    /*
+     * Runs the tasks of a frame, on the GL thread before the frame listeners.
+     */
+    void runFrame() {
+        long start = System.nanoTime();
+        long deadline = start + mFrameBudgetNanos;
+        int count = 0;
+        Task task;
+
+        // HIGH tasks waiting at the start of the frame run regardless of
+        // the budget; those submitted meanwhile wait for the next frame.
+        int high = getQueueDepth(Priority.HIGH);
+        while (high-- > 0 && (task = poll(Priority.HIGH)) != null) {
+            run(task.mRunnable);
+            ++count;
+        }
+        while ((count == 0 || System.nanoTime() < deadline) && (task = pollBudgeted()) != null) {
+            run(task.mRunnable);
+            ++count;
+        }
+        finishFrame(start, count);
+    }
+
+    /*
+     * Runs all waiting tasks, ignoring the budget.
+     */
+    void runAll() {
+        long start = System.nanoTime();
+        int count = 0;
+        Task task;
+        while ((task = poll(Priority.HIGH)) != null || (task = pollBudgeted()) != null) {
+            run(task.mRunnable);
+            ++count;
+        }
+        finishFrame(start, count);
+    }
+
+    /*
+     * Runs the post-render tasks which are due, on the GL thread after the
+     * frame has been rendered, and starts the next frame.
+     */
+    void runPostRender() {
+        long frame;
+        synchronized (this) {
+            frame = mFrame++;
+        }
+        long start = System.nanoTime();
+        int count = 0;
+        while (true) {
+            PostRenderTask task;
+            synchronized (this) {
+                task = mPostRenderTasks.peek();
+                if (task == null || task.mFrame > frame) {
+                    break;
+                }
+                mPostRenderTasks.poll();
+            }
+            run(task.mRunnable);
+            ++count;
+        }
+        if (count > 0) {
+            long nanos = System.nanoTime() - start;
+            mLastFrameNanos += nanos;
+            mLastFrameTasks += count;
+            mTotalNanos += nanos;
+            mTotalTasks += count;
+        }
+    }
+
+    synchronized void clear() {
+        for (ArrayDeque<Task> queue : mQueues) {
+            queue.clear();
+        }
+        mKeyedTasks.clear();
+        mPostRenderTasks.clear();
+        mQueueDepth = 0;
+    }
+
+    private synchronized Task poll(Priority priority) {
+        Task task = mQueues[priority.ordinal()].poll();
+        if (task != null) {
+            removeWaiting(task);
+        }
+        return task;
+    }
+
+    private synchronized Task pollBudgeted() {
+        Task task = mQueues[Priority.NORMAL.ordinal()].poll();
+        if (task == null) {
+            task = mQueues[Priority.LOW.ordinal()].poll();
+        }
+        if (task != null) {
+            removeWaiting(task);
+        }
+        return task;
+    }
+
+    private void removeWaiting(Task task) {
+        --mQueueDepth;
+        if (task.mKey != null) {
+            mKeyedTasks.remove(task.mKey);
+        }
+    }
+
+    private void finishFrame(long start, int count) {
+        long nanos = System.nanoTime() - start;
+        mLastFrameNanos = nanos;
+        mLastFrameTasks = count;
+        mTotalNanos += nanos;
+        mTotalTasks += count;
+    }
+
+    private static void run(Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (final Exception exc) {
+            Log.e(TAG, "Runnable-on-GL %s threw %s", runnable, exc.toString());
+            exc.printStackTrace();
+        }
+    }
+}
@@ -161,6 +161,22 @@ public abstract class GVRHybridObject {
      * Native memory management
      */
 
+    /**
+     * Whether the native object has to be deleted on the GL thread, because
+     * its destructor releases GL resources or the renderer may still use it.
+     * Components such as transforms are read by the renderer and pointed to
+     * by their owners, so they must keep the default.
+     * Objects returning {@code false} are deleted on a background thread
+     * after they have been garbage collected; their
+     * {@linkplain NativeCleanupHandler cleanup handlers} then run on that
+     * thread too.
+     * <p>
+     * Called from the constructor, so it must not depend on instance fields.
+     */
+    boolean needsGLToRelease() {
+        return true;
+    }
+
     /** Optional after-finalization callback to 'deregister' native pointers. */
     protected interface NativeCleanupHandler {
         /**
@@ -5,10 +5,10 @@ import android.graphics.BitmapFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.CharBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -16,6 +16,16 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import static java.lang.Math.max;
 
 import org.gearvrf.animation.GVRAnimation;
@@ -61,6 +71,103 @@ class GVRJassimpAdapter {
     private String mFileName;
     private static final int MAX_TEX_COORDS = JassimpConfig.MAX_NUMBER_TEXCOORDS;
     private static final int MAX_VERTEX_COLORS = JassimpConfig.MAX_NUMBER_COLORSETS;
+    private static final int MAX_IMPORT_THREADS = 4;
+    private static ExecutorService sImportPool;
+
+    // results of the parallel import stages, indexed like the AiScene lists
+    private GVRMesh[] mMeshes;
+    private Bitmap[] mEmbeddedBitmaps;
+    private int mNumNodes;
+
+    /*
+     * The tasks of one import stage, running on the import pool.
+     */
+    private static class ImportStage<T> {
+        private final String mName;
+        private final List<Future<T>> mTasks = new ArrayList<Future<T>>();
+        private final long mStartTime = System.nanoTime();
+        private long mEndTime = mStartTime;
+
+        ImportStage(String name) {
+            mName = name;
+        }
+
+        void submit(final Callable<T> task) {
+            mTasks.add(getImportPool().submit(new Callable<T>() {
+                public T call() throws Exception {
+                    T result = task.call();
+                    finished(System.nanoTime());
+                    return result;
+                }
+            }));
+        }
+
+        /*
+         * Waits for the result of a task, exceptions thrown by the task
+         * are rethrown.
+         */
+        T get(int index) {
+            try {
+                return mTasks.get(index).get();
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException(cause);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ex);
+            }
+        }
+
+        int size() {
+            return mTasks.size();
+        }
+
+        /*
+         * Reports the stage, call this once all results were retrieved.
+         */
+        void report(GVRAssetLoader.AssetRequest request, String fileName) {
+            long elapsed;
+            synchronized (this) {
+                elapsed = mEndTime - mStartTime;
+            }
+            request.onImportStage(request.getContext(), fileName, mName, mTasks.size(), elapsed);
+        }
+
+        private synchronized void finished(long time) {
+            mEndTime = max(mEndTime, time);
+        }
+    }
+
+    /*
+     * Pool shared by all imports. Its threads time out when no model is
+     * being imported.
+     */
+    private static synchronized ExecutorService getImportPool() {
+        if (sImportPool == null) {
+            int threads = max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                    MAX_IMPORT_THREADS));
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        private final AtomicInteger mCount = new AtomicInteger();
+
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable,
+                                    "GVRImport-" + mCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            sImportPool = pool;
+        }
+        return sImportPool;
+    }
 
 
     public interface INodeFactory {
@@ -82,58 +189,70 @@ class GVRJassimpAdapter {
         mNodeFactories.remove(factory);
     }
 
+    /**
+     * Creates a {@link GVRMesh} from an assimp mesh. The vertex attributes
+     * and indices are copied by native code straight from the direct
+     * buffers of the {@link AiMesh}, without intermediate Java arrays.
+     * Meshes with more than 65536 vertices get 32-bit indices.
+     */
     public GVRMesh createMesh(GVRContext ctx, AiMesh aiMesh) {
+        GVRMesh mesh = createMeshVertices(ctx, aiMesh);
+
+        // Bones
+        if (aiMesh.hasBones()) {
+            mesh.setBones(createBones(ctx, aiMesh));
+        }
+
+        return mesh;
+    }
+
+    /*
+     * Creates a mesh with the vertex attributes and indices of an assimp
+     * mesh but without its bones.
+     */
+    private GVRMesh createMeshVertices(GVRContext ctx, AiMesh aiMesh) {
         GVRMesh mesh = new GVRMesh(ctx);
+        int numVertices = aiMesh.getNumVertices();
 
         // Vertices
         FloatBuffer verticesBuffer = aiMesh.getPositionBuffer();
         if (verticesBuffer != null) {
-            float[] verticesArray = new float[verticesBuffer.capacity()];
-            verticesBuffer.get(verticesArray, 0, verticesBuffer.capacity());
-            mesh.setVertices(verticesArray);
+            mesh.setVertexBuffer("a_position", verticesBuffer, 3, 3, numVertices);
         }
 
         // Tangents
         FloatBuffer tangetsBuffer = aiMesh.getTangentBuffer();
         if(tangetsBuffer != null) {
-            float[] tangentsArray = new float[tangetsBuffer.capacity()];
-            tangetsBuffer.get(tangentsArray, 0, tangetsBuffer.capacity());
-            mesh.setVec3Vector("a_tangent", tangentsArray);
+            mesh.setVertexBuffer("a_tangent", tangetsBuffer, 3, 3, numVertices);
         }
 
         // Bitangents
         FloatBuffer bitangentsBuffer = aiMesh.getBitangentBuffer();
         if(bitangentsBuffer != null) {
-            float[] bitangentsArray = new float[bitangentsBuffer.capacity()];
-            bitangentsBuffer.get(bitangentsArray, 0, bitangentsBuffer.capacity());
-            mesh.setVec3Vector("a_bitangent", bitangentsArray);
+            mesh.setVertexBuffer("a_bitangent", bitangentsBuffer, 3, 3, numVertices);
         }
 
         // Normals
         FloatBuffer normalsBuffer = aiMesh.getNormalBuffer();
         if (normalsBuffer != null) {
-            float[] normalsArray = new float[normalsBuffer.capacity()];
-            normalsBuffer.get(normalsArray, 0, normalsBuffer.capacity());
-            mesh.setNormals(normalsArray);
+            mesh.setVertexBuffer("a_normal", normalsBuffer, 3, 3, numVertices);
         }
 
-        // TexCoords
+        // TexCoords, only u and v are used
         for(int texIndex=0; texIndex< MAX_TEX_COORDS; texIndex++) {
             FloatBuffer fbuf = aiMesh.getTexCoordBuffer(texIndex);
             if (fbuf != null) {
-                FloatBuffer coords = FloatBuffer.allocate(aiMesh.getNumVertices() * 2);
-                if (aiMesh.getNumUVComponents(texIndex) == 2) {
-                    FloatBuffer coordsSource = aiMesh.getTexCoordBuffer(texIndex);
-                    coords.put(coordsSource);
+                String name = (texIndex > 0) ? ("a_texcoord" + texIndex) : "a_texcoord";
+                int components = aiMesh.getNumUVComponents(texIndex);
+                if (components >= 2) {
+                    mesh.setVertexBuffer(name, fbuf, 2, components, numVertices);
                 } else {
-                    for (int i = 0; i < aiMesh.getNumVertices(); ++i) {
-                        float u = aiMesh.getTexCoordU(i, texIndex);
-                        float v = aiMesh.getTexCoordV(i, texIndex);
-                        coords.put(u);
-                        coords.put(v);
+                    float[] coords = new float[numVertices * 2];
+                    for (int i = 0; i < numVertices; ++i) {
+                        coords[i * 2] = fbuf.get(i);
                     }
+                    mesh.setTexCoords(coords, texIndex);
                 }
-                mesh.setTexCoords(coords.array(), texIndex);
             }
         }
 
@@ -141,40 +260,32 @@ class GVRJassimpAdapter {
         for(int c = 0; c < MAX_VERTEX_COLORS; c++) {
             FloatBuffer fbuf = aiMesh.getColorBuffer(c);
             if (fbuf != null) {
-                FloatBuffer coords = FloatBuffer.allocate(aiMesh.getNumVertices() * 4);
-                FloatBuffer source = aiMesh.getColorBuffer(c);
                 String name = "a_color";
 
                 if (c > 0) {
                     name += c;
                 }
-                coords.put(source);
-                mesh.setVec4Vector(name, coords.array());
+                mesh.setVertexBuffer(name, fbuf, 4, 4, numVertices);
             }
         }
 
         // Triangles
         IntBuffer indexBuffer = aiMesh.getIndexBuffer();
         if (indexBuffer != null) {
-            CharBuffer triangles = CharBuffer.allocate(indexBuffer.capacity());
-            for (int i = 0; i < indexBuffer.capacity(); ++i) {
-                triangles.put((char)indexBuffer.get());
-            }
-            mesh.setIndices(triangles.array());
-        }
-
-        // Bones
-        if (aiMesh.hasBones()) {
-            List<GVRBone> bones = new ArrayList<GVRBone>();
-            for (AiBone bone : aiMesh.getBones()) {
-                bones.add(createBone(ctx, bone));
-            }
-            mesh.setBones(bones);
+            mesh.setIndexBuffer(indexBuffer);
         }
 
         return mesh;
     }
 
+    private List<GVRBone> createBones(GVRContext ctx, AiMesh aiMesh) {
+        List<GVRBone> bones = new ArrayList<GVRBone>();
+        for (AiBone bone : aiMesh.getBones()) {
+            bones.add(createBone(ctx, bone));
+        }
+        return bones;
+    }
+
     private GVRBone createBone(GVRContext ctx, AiBone aiBone) {
         float[] mtx = aiBone.getOffsetMatrix(sWrapperProvider);
         GVRBone bone = new GVRBone(ctx);
@@ -320,6 +431,15 @@ class GVRJassimpAdapter {
         }
     }
 
+    /**
+     * Converts an assimp scene into a scene graph below {@code model}.
+     * <p>
+     * Meshes, bones with their weights, embedded textures and keyframe
+     * channels are created in parallel on a bounded pool of worker threads
+     * while this thread imports the camera and lights. The results are
+     * then attached to the scene graph on this thread. The duration of
+     * each stage is reported to {@link IAssetImportEvents}.
+     */
     public void processScene(GVRAssetLoader.AssetRequest request, GVRSceneObject model, AiScene scene, GVRResourceVolume volume, boolean startAnimations)
     {
         List<AiLight> aiLights = scene.getLights();
@@ -328,39 +448,140 @@ class GVRJassimpAdapter {
 
         mScene = scene;
         mContext = model.getGVRContext();
+
+        List<AiMesh> aiMeshes = scene.getMeshes();
+        List<AiAnimation> animations = scene.getAnimations();
+        ImportStage<GVRMesh> meshStage = new ImportStage<GVRMesh>(IAssetImportEvents.STAGE_MESHES);
+        ImportStage<List<GVRBone>> boneStage = new ImportStage<List<GVRBone>>(IAssetImportEvents.STAGE_BONES);
+        ImportStage<Bitmap> textureStage = new ImportStage<Bitmap>(IAssetImportEvents.STAGE_TEXTURES);
+        ImportStage<GVRAnimationChannel> channelStage = new ImportStage<GVRAnimationChannel>(IAssetImportEvents.STAGE_ANIMATIONS);
+
+        for (final AiMesh aiMesh : aiMeshes)
+        {
+            meshStage.submit(new Callable<GVRMesh>()
+            {
+                public GVRMesh call()
+                {
+                    return createMeshVertices(mContext, aiMesh);
+                }
+            });
+            if (aiMesh.hasBones())
+            {
+                boneStage.submit(new Callable<List<GVRBone>>()
+                {
+                    public List<GVRBone> call()
+                    {
+                        return createBones(mContext, aiMesh);
+                    }
+                });
+            }
+        }
+        int[] textureIndices = submitEmbeddedTextures(textureStage);
+        for (AiAnimation aiAnim : animations)
+        {
+            for (final AiNodeAnim aiNodeAnim : aiAnim.getChannels())
+            {
+                channelStage.submit(new Callable<GVRAnimationChannel>()
+                {
+                    public GVRAnimationChannel call()
+                    {
+                        return createAnimChannel(aiNodeAnim);
+                    }
+                });
+            }
+        }
+
         camera = makeCamera();
         if (camera != null)
         {
             model.addChildObject(camera);
         }
         importLights(aiLights, lightList);
-        if (scene != null)
+
+        mMeshes = new GVRMesh[aiMeshes.size()];
+        for (int i = 0; i < mMeshes.length; ++i)
         {
-            recurseAssimpNodes(request, model, scene.getSceneRoot(sWrapperProvider), lightList);
-            List<AiAnimation> animations = scene.getAnimations();
-            if (animations.size() > 0)
+            mMeshes[i] = meshStage.get(i);
+        }
+        meshStage.report(request, mFileName);
+        for (int i = 0, b = 0; i < mMeshes.length; ++i)
+        {
+            if (aiMeshes.get(i).hasBones())
+            {
+                mMeshes[i].setBones(boneStage.get(b++));
+            }
+        }
+        boneStage.report(request, mFileName);
+        mEmbeddedBitmaps = new Bitmap[scene.getTextures().size()];
+        for (int i = 0; i < textureIndices.length; ++i)
+        {
+            mEmbeddedBitmaps[textureIndices[i]] = textureStage.get(i);
+        }
+        textureStage.report(request, mFileName);
+
+        long sceneStart = System.nanoTime();
+        mNumNodes = 0;
+        recurseAssimpNodes(request, model, scene.getSceneRoot(sWrapperProvider), lightList);
+        request.onImportStage(mContext, mFileName, IAssetImportEvents.STAGE_SCENE, mNumNodes,
+                System.nanoTime() - sceneStart);
+        mMeshes = null;
+        mEmbeddedBitmaps = null;
+
+        if (animations.size() > 0)
+        {
+            GVRAnimator animator = new GVRAnimator(mContext, startAnimations);
+            model.attachComponent(animator);
+            int channelIndex = 0;
+            for (AiAnimation aiAnim : animations)
             {
-                GVRAnimator animator = new GVRAnimator(mContext, startAnimations);
-                model.attachComponent(animator);
-                for (AiAnimation aiAnim : scene.getAnimations())
+                GVRKeyFrameAnimation animation = new GVRKeyFrameAnimation(aiAnim.getName(), model,
+                        (float) aiAnim.getDuration(), (float) aiAnim.getTicksPerSecond());
+                for (int i = 0; i < aiAnim.getChannels().size(); ++i)
                 {
-                    GVRAnimation animation = createAnimation(aiAnim, model);
-                    GVRModelSceneObject modelRoot = null;
-                    if (GVRModelSceneObject.class.isAssignableFrom(model.getClass()))
-                    {
-                        modelRoot = (GVRModelSceneObject) model;
-                    }
-                    if (animation != null)
-                    {
-                        animator.addAnimation(animation);
-                        if (modelRoot != null)
-                        {
-                            modelRoot.getAnimations().add(animation);
-                        }
-                    }
+                    animation.addChannel(channelStage.get(channelIndex++));
+                }
+                animation.prepare();
+                animator.addAnimation(animation);
+                if (model instanceof GVRModelSceneObject)
+                {
+                    ((GVRModelSceneObject) model).getAnimations().add(animation);
                 }
             }
         }
+        channelStage.report(request, mFileName);
+    }
+
+    /*
+     * Decodes the embedded textures which are not cached yet.
+     * Returns the indices of the submitted textures.
+     */
+    private int[] submitEmbeddedTextures(ImportStage<Bitmap> stage)
+    {
+        List<AiTexture> textures = mScene.getTextures();
+        Map<String, GVRTexture> texCache = GVRAssetLoader.getEmbeddedTextureCache();
+        int[] indices = new int[textures.size()];
+        int count = 0;
+
+        for (int i = 0; i < textures.size(); ++i)
+        {
+            synchronized (texCache)
+            {
+                if (texCache.containsKey(mFileName + "*" + i))
+                {
+                    continue;
+                }
+            }
+            final AiTexture tex = textures.get(i);
+            stage.submit(new Callable<Bitmap>()
+            {
+                public Bitmap call()
+                {
+                    return GVRAssetLoader.AssetRequest.decodeEmbeddedTexture(tex);
+                }
+            });
+            indices[count++] = i;
+        }
+        return Arrays.copyOf(indices, count);
     }
 
     private GVRSceneObject makeCamera()
@@ -398,19 +619,19 @@ class GVRJassimpAdapter {
         final GVRSceneObject sceneObject;
         final GVRContext context = mContext;
 
+        ++mNumNodes;
         if (node.getNumMeshes() == 0) {
             sceneObject = createSceneObject(mContext, node);
             parentSceneObject.addChildObject(sceneObject);
         } else if (node.getNumMeshes() == 1) {
             // add the scene object to the scene graph
-            AiMesh aiMesh = mScene.getMeshes().get(node.getMeshes()[0]);
-            sceneObject = createSubSceneObject(request, parentSceneObject, node, aiMesh);
+            int meshIndex = node.getMeshes()[0];
+            sceneObject = createSubSceneObject(request, parentSceneObject, node, meshIndex);
         } else {
             sceneObject = createSceneObject(mContext, node);
             parentSceneObject.addChildObject(sceneObject);
             for (int i = 0; i < node.getNumMeshes(); i++) {
-                AiMesh aiMesh = mScene.getMeshes().get(node.getMeshes()[i]);
-                GVRSceneObject childSceneObject = createSubSceneObject(request, sceneObject, node, aiMesh);
+                GVRSceneObject childSceneObject = createSubSceneObject(request, sceneObject, node, node.getMeshes()[i]);
             }
         }
 
@@ -457,8 +678,8 @@ class GVRJassimpAdapter {
      *            A reference to the AiNode for which we want to recurse all its
      *            children and meshes.
      *
-     * @param aiMesh
-     *            The assimp mesh
+     * @param meshIndex
+     *            Index of the assimp mesh in the scene
      **
      * @return The new {@link GVRSceneObject} with the input mesh for the node {@link node}
      *
@@ -469,9 +690,10 @@ class GVRJassimpAdapter {
             GVRAssetLoader.AssetRequest assetRequest,
             GVRSceneObject parent,
             AiNode node,
-            AiMesh aiMesh)
+            int meshIndex)
     {
-        FutureWrapper<GVRMesh> futureMesh = new FutureWrapper<GVRMesh>(createMesh(mContext, aiMesh));
+        AiMesh aiMesh = mScene.getMeshes().get(meshIndex);
+        FutureWrapper<GVRMesh> futureMesh = new FutureWrapper<GVRMesh>(mMeshes[meshIndex]);
         AiMaterial material = mScene.getMaterials().get(aiMesh.getMaterialIndex());
         final GVRMaterial meshMaterial = new GVRMaterial(mContext, GVRMaterial.GVRShaderType.BeingGenerated.ID);
 
@@ -580,21 +802,26 @@ class GVRJassimpAdapter {
         texParams.setWrapTType(wrapModeMap.get(aimtl.getTextureMapModeV(texType, texIndex)));
         if (texFileName.startsWith("*"))
         {
-            AiTexture tex = null;
             try
             {
                 int embeddedIndex = parseInt(texFileName.substring(1));
-
-                tex = mScene.getTextures().get(embeddedIndex);
+                AiTexture tex = mScene.getTextures().get(embeddedIndex);
+                Bitmap bitmap = (mEmbeddedBitmaps != null) ? mEmbeddedBitmaps[embeddedIndex] : null;
                 GVRAssetLoader.TextureRequest texRequest = new GVRAssetLoader.MaterialTextureRequest(assetRequest, mFileName + texFileName, gvrmtl, textureKey, texParams);
-                assetRequest.loadEmbeddedTexture(texRequest, tex, texParams);
+
+                if (bitmap != null)
+                {
+                    assetRequest.loadEmbeddedTexture(texRequest, bitmap, texParams);
+                }
+                else
+                {
+                    assetRequest.loadEmbeddedTexture(texRequest, tex, texParams);
+                }
             }
             catch (NumberFormatException | IndexOutOfBoundsException ex)
             {
                 assetRequest.onModelError(mContext, ex.getMessage(), mFileName);
             }
-            GVRAssetLoader.TextureRequest texRequest = new GVRAssetLoader.MaterialTextureRequest(assetRequest, mFileName + texFileName, gvrmtl, textureKey, texParams);
-            assetRequest.loadEmbeddedTexture(texRequest, tex, texParams);
         }
         else
         {
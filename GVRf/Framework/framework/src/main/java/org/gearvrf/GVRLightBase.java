@@ -57,6 +57,10 @@ public class GVRLightBase extends GVRComponent implements GVRDrawFrameListener
     protected String mVertexDescriptor = null;
     protected boolean mCastShadow = false;
     static protected GVRMaterial sShadowMaterial = null;
+    private static final int sEnabledSlot = GVRMaterial.getUniformSlot("enabled");
+    private static final int sWorldDirectionSlot = GVRMaterial.getUniformSlot("world_direction");
+    private static final int sWorldPositionSlot = GVRMaterial.getUniformSlot("world_position");
+    private final float[] mVec3 = new float[3];
 
     public GVRLightBase(GVRContext gvrContext, GVRSceneObject parent)
     {
@@ -427,6 +431,62 @@ public class GVRLightBase extends GVRComponent implements GVRDrawFrameListener
         return matrix;
     }
 
+    /**
+     * Returns the slot of a uniform name. Lights and materials share the
+     * same slots.
+     * 
+     * @see GVRMaterial#getUniformSlot(String)
+     */
+    public static int getUniformSlot(String key)
+    {
+        return GVRMaterial.getUniformSlot(key);
+    }
+
+    /**
+     * Sets the value of a floating uniform by slot.
+     * 
+     * @param slot
+     *            slot of uniform, from {@link #getUniformSlot(String)}
+     * @param value
+     *            floating point value of uniform
+     * @throws IllegalArgumentException
+     *             if the slot was not returned by {@link #getUniformSlot(String)}
+     */
+    public void setFloat(int slot, float value)
+    {
+        GVRMaterial.checkUniformSlot(slot);
+        checkFloatNotNaNOrInfinity("value", value);
+        NativeLight.setFloatSlot(getNative(), slot, value);
+    }
+
+    /**
+     * Sets the value of a vec3 uniform by slot.
+     * 
+     * @param slot
+     *            slot of uniform, from {@link #getUniformSlot(String)}
+     * @throws IllegalArgumentException
+     *             if the slot was not returned by {@link #getUniformSlot(String)}
+     */
+    public void setVec3(int slot, float x, float y, float z)
+    {
+        GVRMaterial.checkUniformSlot(slot);
+        NativeLight.setVec3Slot(getNative(), slot, x, y, z);
+    }
+
+    /**
+     * Sets the value of a vec4 uniform by slot.
+     * 
+     * @param slot
+     *            slot of uniform, from {@link #getUniformSlot(String)}
+     * @throws IllegalArgumentException
+     *             if the slot was not returned by {@link #getUniformSlot(String)}
+     */
+    public void setVec4(int slot, float x, float y, float z, float w)
+    {
+        GVRMaterial.checkUniformSlot(slot);
+        NativeLight.setVec4Slot(getNative(), slot, x, y, z, w);
+    }
+
     /**
      * Get the default orientation of the light when there is no transformation
      * applied.
@@ -463,18 +523,15 @@ public class GVRLightBase extends GVRComponent implements GVRDrawFrameListener
  */
     public void onDrawFrame(float frameTime)
     {     
-        if (!isEnabled() || (getFloat("enabled") <= 0.0f) || (owner == null)) { return; }
-        float[] odir = getVec3("world_direction");
-        float[] opos = getVec3("world_position");
+        if (!isEnabled() || (owner == null)
+                || (NativeLight.getFloatSlot(getNative(), sEnabledSlot) <= 0.0f)) { return; }
         GVRSceneObject parent = owner;
         Matrix4f worldmtx = parent.getTransform().getModelMatrix4f();
 
-        mOldDir.x = odir[0];
-        mOldDir.y = odir[1];
-        mOldDir.z = odir[2];
-        mOldPos.x = opos[0];
-        mOldPos.y = opos[1];
-        mOldPos.z = opos[2];
+        NativeLight.getVec3Slot(getNative(), sWorldDirectionSlot, mVec3);
+        mOldDir.set(mVec3[0], mVec3[1], mVec3[2]);
+        NativeLight.getVec3Slot(getNative(), sWorldPositionSlot, mVec3);
+        mOldPos.set(mVec3[0], mVec3[1], mVec3[2]);
         mNewDir.x = 0.0f;
         mNewDir.y = 0.0f;
         mNewDir.z = -1.0f;
@@ -483,11 +540,11 @@ public class GVRLightBase extends GVRComponent implements GVRDrawFrameListener
         worldmtx.transformDirection(mNewDir);
         if ((mOldDir.x != mNewDir.x) || (mOldDir.y != mNewDir.y) || (mOldDir.z != mNewDir.z))
         {
-            setVec3("world_direction", mNewDir.x, mNewDir.y, mNewDir.z);
+            setVec3(sWorldDirectionSlot, mNewDir.x, mNewDir.y, mNewDir.z);
         }
         if ((mOldPos.x != mNewPos.x) || (mOldPos.y != mNewPos.y) || (mOldPos.z != mNewPos.z))
         {
-            setVec3("world_position", mNewPos.x, mNewPos.y, mNewPos.z);
+            setVec3(sWorldPositionSlot, mNewPos.x, mNewPos.y, mNewPos.z);
         }
     }
 
@@ -518,4 +575,14 @@ class NativeLight
     static native void getMat4(long light, String key, float[] matrix);
     
     static native void setMat4(long light, String key, float[] matrix);
+
+    static native float getFloatSlot(long light, int slot);
+
+    static native void setFloatSlot(long light, int slot, float value);
+
+    static native boolean getVec3Slot(long light, int slot, float[] vector);
+
+    static native void setVec3Slot(long light, int slot, float x, float y, float z);
+
+    static native void setVec4Slot(long light, int slot, float x, float y, float z, float w);
 }
@@ -76,6 +76,8 @@ public class GVRMaterial extends GVRHybridObject implements GVRShaders {
     };
 
     private static final String TAG = Log.tag(GVRHybridObject.class);
+    /** Number of uniform slots when last fetched, see checkUniformSlot */
+    private static volatile int sUniformSlotCount;
 
     private int mShaderFeatureSet;
     private GVRShaderId shaderId;
@@ -799,6 +801,133 @@ public class GVRMaterial extends GVRHybridObject implements GVRShaders {
     	return NativeMaterial.hasUniform(getNative(), name);
     }
 
+    /**
+     * Returns the names of the uniforms defined by this material, in the
+     * order they were first set.
+     * 
+     * @return names of the uniforms
+     */
+    public String[] getUniformNames() {
+        return NativeMaterial.getUniformNames(getNative());
+    }
+
+    /**
+     * Returns the values of a uniform of any type: one float for a
+     * {@code float} up to sixteen for a {@code mat4}.
+     * 
+     * @param key
+     *            Name of the shader uniform
+     * @return the values, or {@code null} if the uniform is not defined
+     */
+    public float[] getUniform(String key) {
+        checkStringNotNullOrEmpty("key", key);
+        return NativeMaterial.getUniform(getNative(), key);
+    }
+
+    /**
+     * Returns the slot of a uniform name.
+     * 
+     * Slots are the same for all materials and lights and do not change, so
+     * a slot can be looked up once and kept. Setting a uniform by slot does
+     * not pass its name to native code, and shaders read the value by slot
+     * when drawing.
+     * 
+     * @param key
+     *            Name of the shader uniform
+     * @return slot of the uniform
+     */
+    public static int getUniformSlot(String key) {
+        checkStringNotNullOrEmpty("key", key);
+        return NativeMaterial.getUniformSlot(key);
+    }
+
+    /*
+     * Throws if a slot was not handed out by getUniformSlot(), in Java or
+     * native code. The number of slots only grows, so it is only fetched
+     * again for slots above the last count.
+     */
+    static void checkUniformSlot(int slot) {
+        if (slot >= 0 && slot >= sUniformSlotCount) {
+            sUniformSlotCount = NativeMaterial.getUniformSlotCount();
+        }
+        if (slot < 0 || slot >= sUniformSlotCount) {
+            throw new IllegalArgumentException("Unknown uniform slot " + slot);
+        }
+    }
+
+    /**
+     * Sets a {@code float} uniform by slot.
+     * 
+     * @param slot
+     *            Slot of the uniform, from {@link #getUniformSlot(String)}
+     * @throws IllegalArgumentException
+     *             if the slot was not returned by {@link #getUniformSlot(String)}
+     * @see #setFloat(String, float)
+     */
+    public void setFloat(int slot, float value) {
+        checkUniformSlot(slot);
+        checkFloatNotNaNOrInfinity("value", value);
+        NativeMaterial.setFloatSlot(getNative(), slot, value);
+    }
+
+    /**
+     * Sets a {@code vec2} uniform by slot.
+     * 
+     * @param slot
+     *            Slot of the uniform, from {@link #getUniformSlot(String)}
+     * @throws IllegalArgumentException
+     *             if the slot was not returned by {@link #getUniformSlot(String)}
+     */
+    public void setVec2(int slot, float x, float y) {
+        checkUniformSlot(slot);
+        NativeMaterial.setVec2Slot(getNative(), slot, x, y);
+    }
+
+    /**
+     * Sets a {@code vec3} uniform by slot.
+     * 
+     * @param slot
+     *            Slot of the uniform, from {@link #getUniformSlot(String)}
+     * @throws IllegalArgumentException
+     *             if the slot was not returned by {@link #getUniformSlot(String)}
+     */
+    public void setVec3(int slot, float x, float y, float z) {
+        checkUniformSlot(slot);
+        NativeMaterial.setVec3Slot(getNative(), slot, x, y, z);
+    }
+
+    /**
+     * Sets a {@code vec4} uniform by slot.
+     * 
+     * @param slot
+     *            Slot of the uniform, from {@link #getUniformSlot(String)}
+     * @throws IllegalArgumentException
+     *             if the slot was not returned by {@link #getUniformSlot(String)}
+     */
+    public void setVec4(int slot, float x, float y, float z, float w) {
+        checkUniformSlot(slot);
+        NativeMaterial.setVec4Slot(getNative(), slot, x, y, z, w);
+    }
+
+    /**
+     * Sets a {@code mat4} uniform by slot.
+     * 
+     * @param slot
+     *            Slot of the uniform, from {@link #getUniformSlot(String)}
+     * @param matrix
+     *            16 floats, in column-major order
+     * @throws IllegalArgumentException
+     *             if the slot was not returned by {@link #getUniformSlot(String)}
+     */
+    public void setMat4(int slot, float[] matrix) {
+        checkUniformSlot(slot);
+        checkNotNull("matrix", matrix);
+        if (matrix.length < 16) {
+            throw new IllegalArgumentException("matrix needs 16 floats");
+        }
+        NativeMaterial.setMat4Slot(getNative(), slot, matrix);
+    }
+
     /**
      * Return the list of texture keys for this material.
      * @return set of unique texture names.
@@ -867,4 +996,24 @@ class NativeMaterial {
     static native void setShaderFeatureSet(long material, int featureSet);
 
     static native boolean hasUniform(long material, String key);
+
+    static native String[] getUniformNames(long material);
+
+    static native float[] getUniform(long material, String key);
+
+    static native int getUniformSlot(String key);
+
+    static native int getUniformSlotCount();
+
+    static native void setFloatSlot(long material, int slot, float value);
+
+    static native void setVec2Slot(long material, int slot, float x, float y);
+
+    static native void setVec3Slot(long material, int slot, float x, float y,
+            float z);
+
+    static native void setVec4Slot(long material, int slot, float x, float y,
+            float z, float w);
+
+    static native void setMat4Slot(long material, int slot, float[] matrix);
 }
@@ -134,4 +134,6 @@ class NativeShaderManager {
             String fragmentShader);
 
     static native long getCustomShader(long shaderManager, int id);
+
+    static native void setProgramCacheDirectory(String directory);
 }
@@ -17,9 +17,17 @@ package org.gearvrf;
 
 import static org.gearvrf.utility.Assert.*;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.gearvrf.utility.Exceptions;
@@ -74,8 +82,13 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
      *            Array containing the packed vertex data.
      */
     public void setVertices(float[] vertices) {
+        if (setInterleavedAttribute("a_position", vertices, 3)) {
+            return;
+        }
         checkValidFloatArray("vertices", vertices, 3);
         mAttributeKeys.add("a_position");
+        mAttributeBytes.put("a_position", vertices.length * 4);
+        mAttributeViews.remove("a_position");
         NativeMesh.setVertices(getNative(), vertices);
     }
 
@@ -101,8 +114,13 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
      *            Array containing the packed normal data.
      */
     public void setNormals(float[] normals) {
+        if (setInterleavedAttribute("a_normal", normals, 3)) {
+            return;
+        }
         checkValidFloatArray("normals", normals, 3);
         mAttributeKeys.add("a_normal");
+        mAttributeBytes.put("a_normal", normals.length * 4);
+        mAttributeViews.remove("a_normal");
         NativeMesh.setNormals(getNative(), normals);
     }
 
@@ -135,8 +153,13 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
     public void setTexCoords(float [] texCoords, int index){
 
         String key = (index > 0) ? ("a_texcoord" +index) : "a_texcoord";
+        if (setInterleavedAttribute(key, texCoords, 2)) {
+            return;
+        }
         checkValidFloatArray(key, texCoords, 2);
         mAttributeKeys.add(key);
+        mAttributeBytes.put(key, texCoords.length * 4);
+        mAttributeViews.remove(key);
         NativeMesh.setVec2Vector(getNative(),key,texCoords);
     }
 
@@ -172,6 +195,7 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
      */
     public void setTriangles(char[] triangles) {
         checkDivisibleDataLength("triangles", triangles, 3);
+        mIndexBytes = triangles.length * 2;
         NativeMesh.setTriangles(getNative(), triangles);
     }
 
@@ -193,9 +217,82 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
      *            Array containing the packed index data.
      */
     public void setIndices(char[] indices) {
+        mIndexBytes = (indices != null) ? indices.length * 2 : 0;
         NativeMesh.setIndices(getNative(), indices);
     }
 
+    /**
+     * Get the vertex indices of the mesh as {@code int}s. Unlike
+     * {@link #getIndices()} this also returns the indices of meshes with
+     * more than 65536 vertices.
+     *
+     * @return Array with the packed index data.
+     */
+    public int[] getIntIndices() {
+        return NativeMesh.getIntIndices(getNative());
+    }
+
+    /**
+     * Sets the vertex indices of the mesh from a direct buffer, without
+     * copying them into a Java array first. The indices are stored with
+     * 16 bits if all of them fit, otherwise with 32 bits so meshes can
+     * have more than 65536 vertices.
+     *
+     * @param indices
+     *            Direct buffer with the packed index data, read from index
+     *            0 up to its limit.
+     */
+    public void setIndexBuffer(IntBuffer indices) {
+        checkDirectBuffer("indices", indices);
+        int count = indices.limit();
+        mIndexBytes = count * NativeMesh.setIndexBuffer(getNative(), indices, count);
+    }
+
+    /**
+     * Copies a vertex attribute from a direct buffer straight into the
+     * native mesh, without copying it into a Java array first. Each vertex
+     * takes the first {@code size} floats out of every {@code stride}
+     * floats of the buffer, so data with unused components (like 3D
+     * texture coordinates bound to a 2D attribute) does not have to be
+     * repacked.
+     * <p>
+     * {@code a_position} and {@code a_normal} set the vertices and normals,
+     * all other keys are bound to the shader attribute of that name.
+     *
+     * @param key
+     *            Name of the shader attribute
+     * @param data
+     *            Direct buffer with the vertex data, read from index 0
+     * @param size
+     *            Number of components of the attribute, 1 to 4
+     * @param stride
+     *            Number of floats per vertex in {@code data}, at least
+     *            {@code size}
+     * @param numVertices
+     *            Number of vertices to copy
+     */
+    public void setVertexBuffer(String key, FloatBuffer data, int size, int stride,
+            int numVertices) {
+        checkDirectBuffer(key, data);
+        if (mInterleavedBuffer != null) {
+            throw new IllegalStateException("mesh has an interleaved vertex layout, use getInterleavedBuffer()");
+        }
+        if ((size < 1) || (size > 4) || (stride < size)) {
+            throw Exceptions.IllegalArgument("Invalid size %d or stride %d for %s",
+                    size, stride, key);
+        }
+        if ((numVertices > 0) && (data.capacity() < (numVertices - 1) * stride + size)) {
+            throw Exceptions.IllegalArgument("%s has %d floats, %d vertices need %d",
+                    key, data.capacity(), numVertices, (numVertices - 1) * stride + size);
+        }
+        if (!NativeMesh.setVertexBuffer(getNative(), key, data, size, stride, numVertices)) {
+            throw Exceptions.IllegalArgument("Cannot set %s with %d components", key, size);
+        }
+        mAttributeKeys.add(key);
+        mAttributeBytes.put(key, numVertices * size * 4);
+        mAttributeViews.remove(key);
+    }
+
     /**
      * Get the array of {@code float} scalars bound to the shader attribute
      * {@code key}.
@@ -218,8 +315,13 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
      *            Data to bind to the shader attribute.
      */
     public void setFloatVector(String key, float[] floatVector) {
+        if (setInterleavedAttribute(key, floatVector, 1)) {
+            return;
+        }
         checkValidFloatVector("key", key, "floatVector", floatVector, 1);
         mAttributeKeys.add(key);
+        mAttributeBytes.put(key, floatVector.length * 4);
+        mAttributeViews.remove(key);
         NativeMesh.setFloatVector(getNative(), key, floatVector);
     }
 
@@ -246,8 +348,13 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
      *            attribute.
      */
     public void setVec2Vector(String key, float[] vec2Vector) {
+        if (setInterleavedAttribute(key, vec2Vector, 2)) {
+            return;
+        }
         checkValidFloatVector("key", key, "vec2Vector", vec2Vector, 2);
         mAttributeKeys.add(key);
+        mAttributeBytes.put(key, vec2Vector.length * 4);
+        mAttributeViews.remove(key);
         NativeMesh.setVec2Vector(getNative(), key, vec2Vector);
     }
 
@@ -274,8 +381,13 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
      *            shader attribute.
      */
     public void setVec3Vector(String key, float[] vec3Vector) {
+        if (setInterleavedAttribute(key, vec3Vector, 3)) {
+            return;
+        }
         checkValidFloatVector("key", key, "vec3Vector", vec3Vector, 3);
         mAttributeKeys.add(key);
+        mAttributeBytes.put(key, vec3Vector.length * 4);
+        mAttributeViews.remove(key);
         NativeMesh.setVec3Vector(getNative(), key, vec3Vector);
     }
 
@@ -302,8 +414,13 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
      *            attribute.
      */
     public void setVec4Vector(String key, float[] vec4Vector) {
+        if (setInterleavedAttribute(key, vec4Vector, 4)) {
+            return;
+        }
         checkValidFloatVector("key", key, "vec4Vector", vec4Vector, 4);
         mAttributeKeys.add(key);
+        mAttributeBytes.put(key, vec4Vector.length * 4);
+        mAttributeViews.remove(key);
         NativeMesh.setVec4Vector(getNative(), key, vec4Vector);
     }
     
@@ -323,6 +440,21 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
         return mAttributeKeys;    
     }
     
+    /**
+     * Estimate the amount of memory used by the vertex and index data of this
+     * mesh. Only data set from Java is accounted for; resource caches use
+     * this to stay within their memory budget.
+     *
+     * @return approximate size of the mesh data in bytes
+     */
+    public long getMemoryEstimate() {
+        long bytes = mIndexBytes + mInterleavedBytes;
+        for (Integer attributeBytes : mAttributeBytes.values()) {
+            bytes += attributeBytes;
+        }
+        return bytes;
+    }
+
     /**
      * Calculate a bounding sphere from the mesh vertices.
      * @param sphere        float[4] array to get center of sphere and radius;
@@ -341,6 +473,180 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
     	return NativeMesh.hasAttribute(getNative(), key);
     }
     
+    /**
+     * Returns a direct buffer sharing the storage of a vertex attribute
+     * with the native mesh, so it can be modified in place without copying
+     * the whole attribute in and out of Java. Call
+     * {@link #markDirty(int, int)} with the range of vertices that changed
+     * to have them uploaded again.<p>
+     *
+     * The buffer stays valid until the attribute is replaced with one of
+     * the setters or the vertex layout is changed, and only as long as this
+     * mesh is referenced. For meshes with an interleaved vertex layout use
+     * {@link #getInterleavedBuffer()} instead.
+     *
+     * @param key name of the shader attribute, e.g. "a_position"
+     * @return buffer with the attribute data, or {@code null} if the mesh
+     *         does not have the attribute
+     */
+    public FloatBuffer getAttributeBuffer(String key) {
+        checkStringNotNullOrEmpty("key", key);
+        if (mInterleavedBuffer != null) {
+            throw new IllegalStateException("mesh has an interleaved vertex layout, use getInterleavedBuffer()");
+        }
+        FloatBuffer view = mAttributeViews.get(key);
+        if (view == null) {
+            ByteBuffer bytes = NativeMesh.getAttributeBuffer(getNative(), key);
+            if (bytes == null) {
+                return null;
+            }
+            view = bytes.order(ByteOrder.nativeOrder()).asFloatBuffer();
+            mAttributeViews.put(key, view);
+        }
+        return view;
+    }
+
+    /**
+     * Stores the vertex attributes of the mesh in one interleaved array
+     * with the declared layout and returns it as a direct buffer shared with
+     * the native mesh. The vertex buffer is uploaded straight from this
+     * array, without gathering the attributes first.<p>
+     *
+     * The layout lists the attributes in order with their types, for example
+     * {@code "float3 a_position, float3 a_normal, float2 a_texcoord"}.
+     * Supported types are {@code float}, {@code float2}, {@code float3} and
+     * {@code float4}. Existing attribute data is copied into the new array;
+     * the setters and getters keep working and see the interleaved data.
+     * Setting an attribute that is not in the layout throws
+     * {@link IllegalStateException}. After modifying the buffer, call {@link #markDirty(int, int)}.
+     *
+     * @param layout      attribute types and names
+     * @param numVertices number of vertices
+     * @return the interleaved buffer, {@link #getVertexStride()} floats per
+     *         vertex
+     */
+    public FloatBuffer setVertexLayout(String layout, int numVertices) {
+        checkStringNotNullOrEmpty("layout", layout);
+        Map<String, Integer> sizes = new LinkedHashMap<String, Integer>();
+        String[] tokens = layout.trim().split("[\\s,;]+");
+        if ((tokens.length % 2) != 0) {
+            throw Exceptions.IllegalArgument("vertex layout %s is not a list of type and name pairs", layout);
+        }
+        for (int i = 0; i < tokens.length; i += 2) {
+            String type = tokens[i];
+            int size;
+            if (type.equals("float")) {
+                size = 1;
+            } else if (type.matches("float[234]")) {
+                size = type.charAt(5) - '0';
+            } else {
+                throw Exceptions.IllegalArgument("unsupported type %s in vertex layout %s", type, layout);
+            }
+            sizes.put(tokens[i + 1], size);
+        }
+
+        String[] names = sizes.keySet().toArray(new String[sizes.size()]);
+        int[] sizeArray = new int[names.length];
+        Map<String, int[]> attributes = new HashMap<String, int[]>();
+        int stride = 0;
+        for (int i = 0; i < names.length; ++i) {
+            sizeArray[i] = sizes.get(names[i]);
+            attributes.put(names[i], new int[] { sizeArray[i], stride });
+            stride += sizeArray[i];
+        }
+        ByteBuffer bytes = NativeMesh.setInterleavedLayout(getNative(), names, sizeArray, numVertices);
+        if (bytes == null) {
+            throw Exceptions.IllegalArgument("invalid vertex layout %s for %d vertices", layout, numVertices);
+        }
+
+        mAttributeViews.clear();
+        mInterleavedLayout = attributes;
+        mVertexStride = stride;
+        mInterleavedBuffer = bytes.order(ByteOrder.nativeOrder()).asFloatBuffer();
+        mInterleavedBytes = 4 * stride * numVertices;
+        for (String name : names) {
+            mAttributeKeys.add(name);
+            mAttributeBytes.put(name, 4 * sizes.get(name) * numVertices);
+        }
+        return mInterleavedBuffer;
+    }
+
+    /**
+     * Returns the interleaved vertex array set up by
+     * {@link #setVertexLayout(String, int)}.
+     *
+     * @return the interleaved buffer or {@code null} if the mesh stores its
+     *         attributes separately
+     */
+    public FloatBuffer getInterleavedBuffer() {
+        return mInterleavedBuffer;
+    }
+
+    /**
+     * Returns the number of floats per vertex in the interleaved buffer.
+     *
+     * @return the vertex stride or 0 if the mesh stores its attributes
+     *         separately
+     */
+    public int getVertexStride() {
+        return mVertexStride;
+    }
+
+    /**
+     * Returns where an attribute starts within a vertex of the interleaved
+     * buffer.
+     *
+     * @param key name of the shader attribute
+     * @return offset in floats or -1 if the attribute is not in the layout
+     */
+    public int getVertexOffset(String key) {
+        int[] attribute = (mInterleavedLayout != null) ? mInterleavedLayout.get(key) : null;
+        return (attribute != null) ? attribute[1] : -1;
+    }
+
+    /**
+     * Tells the mesh that vertices were modified in place through
+     * {@link #getAttributeBuffer(String)} or {@link #getInterleavedBuffer()}.
+     * Only the vertices in the dirty ranges are uploaded again before the
+     * mesh is next drawn; ranges marked in the same frame are merged.
+     *
+     * @param firstVertex index of the first modified vertex
+     * @param vertexCount number of modified vertices
+     */
+    public void markDirty(int firstVertex, int vertexCount) {
+        NativeMesh.markDirty(getNative(), firstVertex, vertexCount);
+    }
+
+    /*
+     * Copies attribute data set through the array setters into the
+     * interleaved buffer, if the mesh has one. Attributes outside the
+     * layout are refused: the vertex buffer is uploaded from the
+     * interleaved array only, so they would never reach the shader.
+     */
+    private boolean setInterleavedAttribute(String key, float[] data, int size) {
+        if (mInterleavedLayout == null) {
+            return false;
+        }
+        int[] attribute = mInterleavedLayout.get(key);
+        if (attribute == null) {
+            throw new IllegalStateException(key + " is not in the interleaved vertex layout");
+        }
+        int numVertices = mInterleavedBuffer.capacity() / mVertexStride;
+        if ((attribute[0] != size) || (data.length != size * numVertices)) {
+            throw Exceptions.IllegalArgument(
+                    "%s should have %d %d-component elements to match the vertex layout",
+                    key, numVertices, attribute[0]);
+        }
+        FloatBuffer buffer = mInterleavedBuffer;
+        for (int v = 0, src = 0, dst = attribute[1]; v < numVertices; ++v, dst += mVertexStride) {
+            for (int k = 0; k < size; ++k) {
+                buffer.put(dst + k, data[src++]);
+            }
+        }
+        markDirty(0, numVertices);
+        return true;
+    }
+
     /**
      * Constructs a {@link GVRMesh mesh} that contains this mesh.
      * 
@@ -453,6 +759,12 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
                 expectedComponents);
     }
 
+    private void checkDirectBuffer(String parameterName, Buffer data) {
+        if (data == null || !data.isDirect()) {
+            throw Exceptions.IllegalArgument("%s must be a direct buffer", parameterName);
+        }
+    }
+
     private void checkValidFloatArray(String parameterName, float[] data,
             int expectedComponents) {
         checkDivisibleDataLength(parameterName, data, expectedComponents);
@@ -474,6 +786,13 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
     private List<GVRBone> mBones = new ArrayList<GVRBone>();
     private GVRVertexBoneData mVertexBoneData;
     private Set<String> mAttributeKeys;
+    private final Map<String, Integer> mAttributeBytes = new HashMap<String, Integer>();
+    private int mIndexBytes;
+    private final Map<String, FloatBuffer> mAttributeViews = new HashMap<String, FloatBuffer>();
+    private FloatBuffer mInterleavedBuffer;
+    private Map<String, int[]> mInterleavedLayout;
+    private int mVertexStride;
+    private int mInterleavedBytes;
 }
 
 class NativeMesh {
@@ -522,4 +841,18 @@ class NativeMesh {
     static native void getSphereBound(long mesh, float[] sphere);
     
     static native boolean hasAttribute(long mesh, String key);
+
+    static native ByteBuffer getAttributeBuffer(long mesh, String key);
+
+    static native ByteBuffer setInterleavedLayout(long mesh, String[] names, int[] sizes,
+            int numVertices);
+
+    static native void markDirty(long mesh, int first, int count);
+
+    static native boolean setVertexBuffer(long mesh, String key, FloatBuffer data, int size,
+            int stride, int numVertices);
+
+    static native int setIndexBuffer(long mesh, IntBuffer data, int count);
+
+    static native int[] getIntIndices(long mesh);
 }
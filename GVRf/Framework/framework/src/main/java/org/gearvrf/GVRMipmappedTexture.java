@@ -0,0 +1,227 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import static android.opengl.GLES20.GL_LINEAR_MIPMAP_NEAREST;
+import static android.opengl.GLES20.GL_RGBA;
+import static android.opengl.GLES20.GL_TEXTURE_2D;
+import static android.opengl.GLES20.GL_TEXTURE_MIN_FILTER;
+import static android.opengl.GLES20.GL_UNSIGNED_BYTE;
+import static android.opengl.GLES20.glBindTexture;
+import static android.opengl.GLES20.glTexImage2D;
+import static android.opengl.GLES20.glTexParameteri;
+import static android.opengl.GLES20.glTexSubImage2D;
+import static android.opengl.GLES30.GL_TEXTURE_BASE_LEVEL;
+
+import java.nio.ByteBuffer;
+
+import android.graphics.Bitmap;
+
+import org.gearvrf.GVRGLTaskScheduler.Priority;
+import org.gearvrf.utility.BitmapPool;
+
+/**
+ * A bitmap texture whose mip levels were generated off the GL thread, and
+ * which is uploaded a slice at a time.
+ * <p>
+ * The pixels of all levels are in one buffer of RGBA bytes, level 0 first,
+ * as {@code GVRBitmapDecoder} in {@code org.gearvrf.asynchronous} generates
+ * them. When the texture is created on the GL thread, storage for all
+ * levels is allocated and the pixels are then copied by
+ * {@linkplain GVRContext#getGLTaskScheduler() GL tasks} of at most
+ * {@link #UPLOAD_SLICE_SIZE} bytes each, so a large texture takes a few
+ * frames instead of stalling one. The smallest levels are uploaded first and
+ * the base level follows the upload, so the texture shows a blurry version
+ * of the image right away and sharpens while the larger levels arrive.
+ * <p>
+ * When the upload is done, the buffer is returned to the
+ * {@link BitmapPool} it came from, if any.
+ */
+public class GVRMipmappedTexture extends GVRBitmapTexture {
+    /** Largest number of bytes uploaded by one GL task */
+    public static final int UPLOAD_SLICE_SIZE = 256 * 1024;
+
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final int mWidth;
+    private final int mHeight;
+    private final int mLevels;
+    private final BitmapPool mPool;
+    private volatile ByteBuffer mPixels;
+
+    // Upload progress, only used on the GL thread
+    private int mLevel;
+    private int mRow;
+
+    /**
+     * Constructs a texture from a mip chain.
+     *
+     * @param gvrContext
+     *            Current {@link GVRContext}
+     * @param pixels
+     *            RGBA pixels of all levels, level 0 first, from position 0;
+     *            the buffer must not be changed afterwards
+     * @param width
+     *            Width of level 0, in pixels
+     * @param height
+     *            Height of level 0, in pixels
+     * @param levels
+     *            Number of levels in {@code pixels}
+     * @param pool
+     *            Pool to return {@code pixels} to after the upload, or
+     *            {@code null}
+     * @param textureParameters
+     *            User defined object for {@link GVRTextureParameters} which may
+     *            also contain default values.
+     * @throws IllegalArgumentException
+     *             If {@code pixels} is smaller than the levels
+     */
+    public GVRMipmappedTexture(GVRContext gvrContext, ByteBuffer pixels, int width, int height,
+            int levels, BitmapPool pool, GVRTextureParameters textureParameters) {
+        super(gvrContext, (Bitmap) null, textureParameters);
+        if (width <= 0 || height <= 0 || levels <= 0 || pixels == null
+                || pixels.limit() < getByteCount(width, height, levels)) {
+            throw new IllegalArgumentException();
+        }
+        mPixels = pixels;
+        mWidth = width;
+        mHeight = height;
+        mLevels = levels;
+        mPool = pool;
+        setMemoryEstimate(getByteCount(width, height, levels));
+    }
+
+    /**
+     * @return width of level 0, in pixels
+     */
+    public int getWidth() {
+        return mWidth;
+    }
+
+    /**
+     * @return height of level 0, in pixels
+     */
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public int getLevelCount() {
+        return mLevels;
+    }
+
+    /**
+     * @return {@code true} once all levels have been uploaded
+     */
+    public boolean isUploaded() {
+        return mPixels == null;
+    }
+
+    /**
+     * @return number of levels of a full mip chain, down to 1x1
+     */
+    public static int getLevelCount(int width, int height) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(width, height));
+    }
+
+    /**
+     * @return size of a level, in pixels
+     */
+    public static int getLevelSize(int size, int level) {
+        return Math.max(1, size >> level);
+    }
+
+    /**
+     * @return offset of a level in the pixel buffer, in bytes
+     */
+    public static int getLevelOffset(int width, int height, int level) {
+        int offset = 0;
+        for (int i = 0; i < level; ++i) {
+            offset += getLevelSize(width, i) * getLevelSize(height, i) * BYTES_PER_PIXEL;
+        }
+        return offset;
+    }
+
+    /**
+     * @return size of the pixel buffer of a mip chain, in bytes
+     */
+    public static int getByteCount(int width, int height, int levels) {
+        return getLevelOffset(width, height, levels);
+    }
+
+    @Override
+    protected void idAvailable(final int id) {
+        super.idAvailable(id);
+
+        glBindTexture(GL_TEXTURE_2D, id);
+        for (int level = 0; level < mLevels; ++level) {
+            glTexImage2D(GL_TEXTURE_2D, level, GL_RGBA, getLevelSize(mWidth, level),
+                    getLevelSize(mHeight, level), 0, GL_RGBA, GL_UNSIGNED_BYTE, null);
+        }
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR_MIPMAP_NEAREST);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_BASE_LEVEL, mLevels - 1);
+        glBindTexture(GL_TEXTURE_2D, 0);
+
+        mLevel = mLevels - 1;
+        mRow = 0;
+        uploadSlice();
+    }
+
+    /*
+     * Uploads rows until UPLOAD_SLICE_SIZE bytes are copied, from the
+     * smallest level to level 0, and submits itself again until all levels
+     * are uploaded.
+     */
+    private void uploadSlice() {
+        if (mPixels == null) {
+            return;
+        }
+        glBindTexture(GL_TEXTURE_2D, mTextureId);
+        int budget = UPLOAD_SLICE_SIZE;
+        while (mLevel >= 0 && budget > 0) {
+            int width = getLevelSize(mWidth, mLevel);
+            int height = getLevelSize(mHeight, mLevel);
+            int rowBytes = width * BYTES_PER_PIXEL;
+            int rows = Math.min(height - mRow, Math.max(1, budget / rowBytes));
+
+            mPixels.position(getLevelOffset(mWidth, mHeight, mLevel) + mRow * rowBytes);
+            glTexSubImage2D(GL_TEXTURE_2D, mLevel, 0, mRow, width, rows, GL_RGBA,
+                    GL_UNSIGNED_BYTE, mPixels);
+            budget -= rows * rowBytes;
+            mRow += rows;
+
+            if (mRow == height) {
+                glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_BASE_LEVEL, mLevel);
+                --mLevel;
+                mRow = 0;
+            }
+        }
+        glBindTexture(GL_TEXTURE_2D, 0);
+
+        if (mLevel >= 0) {
+            getGVRContext().getGLTaskScheduler().submit(Priority.NORMAL, new Runnable() {
+                @Override
+                public void run() {
+                    uploadSlice();
+                }
+            });
+        } else {
+            if (mPool != null) {
+                mPool.putBuffer(mPixels);
+            }
+            mPixels = null;
+        }
+    }
+}
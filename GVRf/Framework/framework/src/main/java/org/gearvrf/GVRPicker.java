@@ -16,8 +16,10 @@
 package org.gearvrf;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -73,6 +75,23 @@ public class GVRPicker extends GVRBehavior {
     protected GVRScene mScene;
     protected GVRPickedObject[] mPicked = null;
 
+    /*
+     * Layout of one hit in the pick buffer: collider pointer,
+     * hit distance and hit position.
+     */
+    static final int HIT_SIZE = 24;
+    static final int HIT_DISTANCE = 8;
+    static final int HIT_POSITION = 12;
+    private static final int INITIAL_HIT_CAPACITY = 16;
+
+    private boolean mReusePickedObjects = false;
+    private boolean mInsideEvents = true;
+    private ByteBuffer mHitBuffer = null;
+    private GVRPickedObject[] mHitScratch = null;
+    private final IdentityHashMap<GVRCollider, GVRPickedObject> mPickedColliders
+            = new IdentityHashMap<GVRCollider, GVRPickedObject>();
+    private int mPickFrame = 0;
+
     /**
      * Construct a picker which picks from a given scene.
      * Instantiating the picker will cause it to scan the scene
@@ -190,6 +209,67 @@ public class GVRPicker extends GVRBehavior {
         mRayDirection.z = dz;
     }
     
+    /**
+     * Selects how the picker collects its pick list every frame.
+     * <p/>
+     * By default each frame produces a new array of newly allocated
+     * {@link GVRPickedObject}s. If reuse is enabled, the native layer
+     * writes the hits into a direct buffer owned by the picker and each
+     * collider keeps the same {@link GVRPickedObject} for as long as it is
+     * picked. Its fields keep the hit of the frame in which the collider
+     * was first picked, while {@link GVRPickedObject#getHitDistance()} and
+     * the hit location getters return the hit of the latest frame, so
+     * they are only valid until the next pick.
+     * The array returned by {@link #getPicked()} is only replaced when the
+     * number of picked objects changes, otherwise it is updated in place.
+     * Enter and exit events are found by identity instead of comparing
+     * the old and new pick lists, so a steady selection does not generate
+     * any garbage.
+     *
+     * @param reuse true to reuse picked objects across frames
+     * @see #setInsideEvents(boolean)
+     */
+    public void setReusePickedObjects(boolean reuse)
+    {
+        if (mReusePickedObjects != reuse)
+        {
+            mReusePickedObjects = reuse;
+            mPickedColliders.clear();
+            mPicked = null;
+        }
+    }
+
+    /**
+     * @return true if picked objects are reused across frames
+     * @see #setReusePickedObjects(boolean)
+     */
+    public boolean getReusePickedObjects()
+    {
+        return mReusePickedObjects;
+    }
+
+    /**
+     * Enables or disables the {@link IPickEvents#onInside} events sent every
+     * frame for every object which stays picked. Listeners which only care
+     * about enter and exit can turn them off to avoid the per frame event
+     * dispatch. They are enabled by default.
+     *
+     * @param enable true to send onInside events, false to suppress them
+     */
+    public void setInsideEvents(boolean enable)
+    {
+        mInsideEvents = enable;
+    }
+
+    /**
+     * @return true if onInside events are sent
+     * @see #setInsideEvents(boolean)
+     */
+    public boolean getInsideEvents()
+    {
+        return mInsideEvents;
+    }
+
     public void onDrawFrame(float frameTime)
     {
         if (isEnabled())
@@ -210,6 +290,11 @@ public class GVRPicker extends GVRBehavior {
     {
         GVRSceneObject owner = getOwnerObject();
         GVRTransform trans = (owner != null) ? owner.getTransform() : null;
+        if (mReusePickedObjects)
+        {
+            generatePickEvents(pickIntoBuffer(trans));
+            return;
+        }
         GVRPickedObject[] picked = pickObjects(mScene, trans,
                 mRayOrigin.x, mRayOrigin.y, mRayOrigin.z,
                 mRayDirection.x, mRayDirection.y, mRayDirection.z);
@@ -262,7 +347,7 @@ public class GVRPicker extends GVRBehavior {
                 getGVRContext().getEventManager().sendEvent(mScene, IPickEvents.class, "onEnter", collider.getOwnerObject(), collision);
                 selectionChanged = true;
             }
-            else
+            else if (mInsideEvents)
             {
                 getGVRContext().getEventManager().sendEvent(mScene, IPickEvents.class, "onInside", collider.getOwnerObject(), collision);
             }
@@ -282,6 +367,150 @@ public class GVRPicker extends GVRBehavior {
         }
     }
 
+    /*
+     * Casts the pick ray into the scene, letting the native layer write
+     * the hits into the pick buffer. Grows the buffer and picks again
+     * if there are more hits than fit.
+     */
+    private int pickIntoBuffer(GVRTransform trans)
+    {
+        long nativeTrans = (trans != null) ? trans.getNative() : 0L;
+        if (mHitBuffer == null)
+        {
+            allocateHitBuffer(INITIAL_HIT_CAPACITY);
+        }
+        sFindObjectsLock.lock();
+        try
+        {
+            while (true)
+            {
+                int capacity = mHitBuffer.capacity() / HIT_SIZE;
+                int count = NativePicker.pickObjectsIntoBuffer(mScene.getNative(), nativeTrans,
+                        mRayOrigin.x, mRayOrigin.y, mRayOrigin.z,
+                        mRayDirection.x, mRayDirection.y, mRayDirection.z,
+                        mHitBuffer, capacity);
+                if (count <= capacity)
+                {
+                    return count;
+                }
+                allocateHitBuffer(count * 2);
+            }
+        }
+        finally
+        {
+            sFindObjectsLock.unlock();
+        }
+    }
+
+    private void allocateHitBuffer(int capacity)
+    {
+        mHitBuffer = ByteBuffer.allocateDirect(capacity * HIT_SIZE).order(ByteOrder.nativeOrder());
+        mHitScratch = new GVRPickedObject[capacity];
+    }
+
+    /*
+     * Generates the pick events from the hits in the pick buffer.
+     * Each picked collider maps to the same GVRPickedObject for as long as
+     * it stays picked, so objects which were hit before are found by
+     * identity and the objects which are not hit anymore are the ones
+     * whose pick frame was not updated.
+     */
+    private void generatePickEvents(int hitCount)
+    {
+        GVREventManager eventManager = getGVRContext().getEventManager();
+        boolean selectionChanged = false;
+        int pickedCount = 0;
+
+        ++mPickFrame;
+        for (int i = 0; i < hitCount; ++i)
+        {
+            int offset = i * HIT_SIZE;
+            GVRCollider collider = GVRCollider.lookup(mHitBuffer.getLong(offset));
+            if (collider == null)
+            {
+                continue;
+            }
+            float distance = mHitBuffer.getFloat(offset + HIT_DISTANCE);
+            float x = mHitBuffer.getFloat(offset + HIT_POSITION);
+            float y = mHitBuffer.getFloat(offset + HIT_POSITION + 4);
+            float z = mHitBuffer.getFloat(offset + HIT_POSITION + 8);
+            GVRPickedObject hit = mPickedColliders.get(collider);
+            if (hit == null)
+            {
+                hit = new GVRPickedObject(collider, new float[] { x, y, z }, distance);
+                hit.enterFrame = mPickFrame;
+                mPickedColliders.put(collider, hit);
+            }
+            else
+            {
+                hit.setHit(distance, x, y, z);
+            }
+            hit.pickFrame = mPickFrame;
+            mHitScratch[pickedCount++] = hit;
+        }
+
+        /*
+         * Send "onExit" events for colliders that were picked but
+         * are not picked anymore.
+         */
+        if (mPicked != null)
+        {
+            for (GVRPickedObject collision : mPicked)
+            {
+                if (collision.pickFrame != mPickFrame)
+                {
+                    mPickedColliders.remove(collision.hitCollider);
+                    eventManager.sendEvent(mScene, IPickEvents.class, "onExit", collision.hitObject);
+                    selectionChanged = true;
+                }
+            }
+        }
+
+        /*
+         * Send "onEnter" events for colliders that were picked for the first time.
+         * Send "onInside" events for colliders that were already picked.
+         */
+        for (int i = 0; i < pickedCount; ++i)
+        {
+            GVRPickedObject collision = mHitScratch[i];
+            if (collision.enterFrame == mPickFrame)
+            {
+                eventManager.sendEvent(mScene, IPickEvents.class, "onEnter", collision.hitObject, collision);
+                selectionChanged = true;
+            }
+            else if (mInsideEvents)
+            {
+                eventManager.sendEvent(mScene, IPickEvents.class, "onInside", collision.hitObject, collision);
+            }
+        }
+
+        if (pickedCount == 0)
+        {
+            mPicked = null;
+        }
+        else if ((mPicked != null) && (mPicked.length == pickedCount))
+        {
+            System.arraycopy(mHitScratch, 0, mPicked, 0, pickedCount);
+        }
+        else
+        {
+            mPicked = Arrays.copyOf(mHitScratch, pickedCount);
+        }
+        Arrays.fill(mHitScratch, 0, pickedCount, null);
+
+        if (selectionChanged)
+        {
+            if (pickedCount > 0)
+            {
+                eventManager.sendEvent(mScene, IPickEvents.class, "onPick", this);
+            }
+            else
+            {
+                eventManager.sendEvent(mScene, IPickEvents.class, "onNoPick", this);
+            }
+        }
+    }
+
     private boolean hasCollider(GVRPickedObject[] pickList, GVRCollider findme)
     {
         if (pickList == null)
@@ -638,6 +867,9 @@ public class GVRPicker extends GVRBehavior {
      * <p/>
      * When a pick request is performed, each collision is
      * described as a GVRPickedObject.
+     * <p/>
+     * A picker which reuses picked objects across frames updates the hit
+     * returned by the getters every frame, but never changes the fields.
      * 
      * @since 1.6.6
      * @see GVRPicker#pickObjects(GVRScene, float, float, float, float, float, float)
@@ -649,6 +881,16 @@ public class GVRPicker extends GVRBehavior {
         public final float[] hitLocation;
         public final float hitDistance;
 
+        // hit of the latest frame, which differs from the fields only for
+        // pickers which reuse picked objects
+        private float[] mLocation;
+        private float mDistance;
+
+        // frames in which the collider was last picked and first picked,
+        // used by pickers which reuse picked objects
+        int pickFrame;
+        int enterFrame;
+
         /**
          * Creates a new instance of {@link GVRPickedObject}.
          *
@@ -667,6 +909,22 @@ public class GVRPicker extends GVRBehavior {
             this.hitDistance = hitDistance;
             this.hitCollider = hitCollider;
             this.hitLocation = hitLocation;
+            mLocation = hitLocation;
+            mDistance = hitDistance;
+        }
+
+        /*
+         * Updates the hit of a reused picked object, leaving the fields
+         * at the hit it was created with.
+         */
+        void setHit(float distance, float x, float y, float z) {
+            if (mLocation == hitLocation) {
+                mLocation = new float[3];
+            }
+            mDistance = distance;
+            mLocation[0] = x;
+            mLocation[1] = y;
+            mLocation[2] = z;
         }
 
         /**
@@ -698,29 +956,29 @@ public class GVRPicker extends GVRBehavior {
          *         {@link GVRPickedObject picked object's} hit data.
          */
         public float[] getHitLocation() {
-            return Arrays.copyOf(hitLocation, hitLocation.length);
+            return Arrays.copyOf(mLocation, mLocation.length);
         }
         
         /**
          * The distance from the origin of the pick ray
          */
         public float getHitDistance() {
-            return hitDistance;
+            return mDistance;
         }
 
         /** The x coordinate of the hit location */
         public float getHitX() {
-            return hitLocation[0];
+            return mLocation[0];
         }
 
         /** The y coordinate of the hit location */
         public float getHitY() {
-            return hitLocation[1];
+            return mLocation[1];
         }
 
         /** The z coordinate of the hit location */
         public float getHitZ() {
-            return hitLocation[2];
+            return mLocation[2];
         }
     }
 
@@ -738,6 +996,9 @@ final class NativePicker {
 
     static native GVRPicker.GVRPickedObject[] pickVisible(long scene);
 
+    static native int pickObjectsIntoBuffer(long scene, long transform, float ox, float oy, float oz,
+            float dx, float dy, float dz, ByteBuffer hits, int maxHits);
+
     static native boolean pickSceneObjectAgainstBoundingBox(long sceneObject,
             float ox, float oy, float oz, float dx, float dy, float dz, ByteBuffer readbackBuffer);
 }
@@ -353,6 +353,14 @@ public class GVRRenderData extends GVRComponent implements PrettyPrint {
         NativeRenderData.addPass(getNative(), pass.getNative());
     }
     
+    /**
+     * @return the number of render {@link GVRRenderPass passes}, including
+     *         the first one which is always present
+     */
+    public int getPassCount() {
+        return mRenderPassList.size();
+    }
+
     /**
      * Get a Rendering {@link GVRRenderPass Pass} for this Mesh
      * @param passIndex The index of the RenderPass to get.
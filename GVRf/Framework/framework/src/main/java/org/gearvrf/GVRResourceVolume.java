@@ -40,7 +40,8 @@ public class GVRResourceVolume {
         ANDROID_SDCARD ("sdcard", "/"),
         LINUX_FILESYSTEM ("linux", "/"),
         NETWORK ("url", "/"),
-        INPUT_STREAM ("stream", "/");
+        INPUT_STREAM ("stream", "/"),
+        ARCHIVE ("archive", "/");
 
         private String name;
         private String separator;
@@ -342,6 +342,31 @@ public class GVRScene extends GVRHybridObject implements PrettyPrint, IScriptabl
         }
     }
 
+    /**
+     * Returns the number of scene objects which passed the last culling
+     * pass of the renderer, for profiling. With frustum culling disabled
+     * these are all enabled objects.
+     */
+    public int getNumberVisibleObjects() {
+        return NativeScene.getNumberVisibleObjects(getNative());
+    }
+
+    /**
+     * Returns the number of scene objects rejected by the last frustum
+     * culling pass of the renderer, for profiling.
+     */
+    public int getNumberCulledObjects() {
+        return NativeScene.getNumberCulledObjects(getNative());
+    }
+
+    /**
+     * Returns how long the last culling pass of the renderer took, in
+     * nanoseconds, for profiling. The pass runs once per eye.
+     */
+    public long getCullTimeNanos() {
+        return NativeScene.getCullTimeNanos(getNative());
+    }
+
     void resetStats() {
         updateStatsEnabled();
         if (mStatsEnabled) {
@@ -354,9 +379,17 @@ public class GVRScene extends GVRHybridObject implements PrettyPrint, IScriptabl
         if (mStatsEnabled) {
             int numberDrawCalls = NativeScene.getNumberDrawCalls(getNative());
             int numberTriangles = NativeScene.getNumberTriangles(getNative());
+            int numberCullNodes = NativeScene.getNumberCullNodes(getNative());
+            int numberVisibleObjects = NativeScene.getNumberVisibleObjects(getNative());
+            int numberCulledObjects = NativeScene.getNumberCulledObjects(getNative());
+            long cullTimeNanos = NativeScene.getCullTimeNanos(getNative());
 
             mStatsConsole.writeLine("Draw Calls: %d", numberDrawCalls);
             mStatsConsole.writeLine("Triangles: %d", numberTriangles);
+            mStatsConsole.writeLine("Cull nodes: %d", numberCullNodes);
+            mStatsConsole.writeLine("Visible: %d Culled: %d", numberVisibleObjects,
+                    numberCulledObjects);
+            mStatsConsole.writeLine("Cull time: %.2f ms", cullTimeNanos / 1e6);
 
             if (mStatMessage.length() > 0) {
                 String lines[] = mStatMessage.toString().split(System.lineSeparator());
@@ -741,6 +774,14 @@ class NativeScene {
 
     public static native int getNumberTriangles(long scene);
 
+    public static native int getNumberCullNodes(long scene);
+
+    public static native int getNumberVisibleObjects(long scene);
+
+    public static native int getNumberCulledObjects(long scene);
+
+    public static native long getCullTimeNanos(long scene);
+
     public static native void exportToFile(long scene, String file_path);
 
     static native boolean addLight(long scene, long light);
@@ -18,21 +18,32 @@ import static android.opengl.GLES20.GL_EXTENSIONS;
 import static android.opengl.GLES20.glGetString;
 
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.gearvrf.utility.Threads;
 import org.gearvrf.utility.VrAppSettings;
 
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
 import android.os.Environment;
 import android.util.Log;
 
@@ -57,7 +68,12 @@ import android.util.Log;
  * shader. Otherwise, it will not be defined.
  * 
  * Each shader variant generated has a unique signature so that the same variant
- * will not be generated twice.
+ * will not be generated twice. The vertex and fragment templates are parsed
+ * once into literal text and the few slots which differ between variants.
+ * Generated variants are also saved in the application's cache directory,
+ * keyed by signature, and the linked GL programs are cached as program
+ * binaries, so later launches of the application neither generate nor
+ * compile the shaders again. See {@link #setShaderCacheDirectory(File)}.
  *
  * The shader template also defines a uniform descriptor which contains the
  * names and types of all the uniforms in the material used by the shader. Each
@@ -83,6 +99,38 @@ public class GVRShaderTemplate
         GVRShaderId ShaderID;
     };
 
+    /*
+     * A master template parsed into literal text and the slots which are
+     * filled in for each variant. References to other segments and
+     * @ShaderName are resolved when the template is parsed.
+     */
+    private static class ParsedTemplate
+    {
+        static final int LIGHTSOURCES = 0;
+        static final int TEXCOORDS = 1;
+
+        final List<String> Text = new ArrayList<String>();
+        final List<Integer> Slots = new ArrayList<Integer>();
+        final List<String> SegmentNames = new ArrayList<String>();
+        StringBuilder Pending = new StringBuilder();
+        int Length;
+
+        void addSlot(int slot)
+        {
+            Text.add(Pending.toString());
+            Length += Pending.length();
+            Pending.setLength(0);
+            Slots.add(slot);
+        }
+
+        void finish()
+        {
+            Text.add(Pending.toString());
+            Length += Pending.length();
+            Pending = null;
+        }
+    };
+
     protected class LightClass
     {
         public LightClass()
@@ -159,6 +207,8 @@ public class GVRShaderTemplate
     public void setSegment(String segmentName, String shaderSource)
     {
         mShaderSegments.put(segmentName, shaderSource);
+        mParsedTemplates.clear();
+        mTemplateHash = 0;
         if (shaderSource == null)
             throw new java.lang.IllegalArgumentException("Shader source is null for segment " + segmentName + " of shader");
         Pattern pattern = Pattern.compile("HAS_([a-zA-Z0-9_]+)");
@@ -201,29 +251,52 @@ public class GVRShaderTemplate
      */
     public String generateSignature(HashMap<String, Integer> defined, GVRLightBase[] lightlist)
     {
-        String sig = getClass().getSimpleName() + "$";
-        HashMap<Class<? extends GVRLightBase>, Integer> lightCount = new HashMap<Class<? extends GVRLightBase>, Integer>();
+        StringBuilder sig = new StringBuilder(64);
+        String[] names = new String[defined.size()];
+        int n = 0;
 
+        sig.append(getClass().getSimpleName()).append('$');
         for (HashMap.Entry<String, Integer> entry : defined.entrySet())
         {
             if (entry.getValue() != 0)
-                sig += "$" + entry.getKey();
+                names[n++] = entry.getKey();
         }
-        if (lightlist != null)
+        // Sorted so the signature does not depend on hash order and can key the disk cache
+        Arrays.sort(names, 0, n);
+        for (int i = 0; i < n; ++i)
         {
+            sig.append('$').append(names[i]);
+        }
+        if ((lightlist != null) && (lightlist.length > 0))
+        {
+            String[] lightNames = new String[lightlist.length];
+
+            for (int i = 0; i < lightlist.length; ++i)
+                lightNames[i] = lightlist[i].getClass().getSimpleName();
+            Arrays.sort(lightNames);
+            for (int i = 0; i < lightNames.length; )
+            {
+                int j = i + 1;
+                while ((j < lightNames.length) && lightNames[j].equals(lightNames[i]))
+                    ++j;
+                sig.append('$').append(lightNames[i]).append(j - i);
+                i = j;
+            }
+            // The generated light code uses the ID and the shader source of each light
             for (GVRLightBase light : lightlist)
             {
-                Integer n = lightCount.get(light.getClass());
-
-                if (n == null)
-                    lightCount.put(light.getClass(), 1);
-                else
-                    lightCount.put(light.getClass(), ++n);
+                long hash = hashString(0xcbf29ce484222325L, light.getClass().getName());
+                String source = light.getVertexShaderSource();
+                if (source != null)
+                    hash = hashString(hash, source);
+                hash = hashString(hash, "\0");
+                source = light.getFragmentShaderSource();
+                if (source != null)
+                    hash = hashString(hash, source);
+                sig.append('$').append(light.getLightID()).append('=').append(Long.toHexString(hash));
             }
-            for (Map.Entry<Class<? extends GVRLightBase>, Integer> entry : lightCount.entrySet())
-                sig += "$" + entry.getKey().getSimpleName() + entry.getValue().toString();
         }
-        return sig;
+        return sig.toString();
     }
 
     /**
@@ -279,18 +352,17 @@ public class GVRShaderTemplate
      */
     private String generateShaderVariant(String type, HashMap<String, Integer> definedNames, GVRLightBase[] lightlist, Map<String, LightClass> lightClasses, GVRMaterial material)
     {
-        String template = getSegment(type + "Template");
-        String defines = "";
-
-        if (template == null)
-        {
-            throw new IllegalArgumentException(
-                type + "Template segment missing - cannot make shader");
-        }
-        String combinedSource = template;
+        ParsedTemplate template = getParsedTemplate(type);
+        StringBuilder defines = new StringBuilder(256);
         boolean useLights = (lightlist != null) && (lightlist.length > 0);
         String lightShaderSource = "";
+        String texcoordSource = "";
+        boolean isVertex = type.equals("Vertex");
 
+        if (mGLSLVersion > 100)
+        {
+            defines.append("#version ").append(mGLSLVersion).append(" es\n");
+        }
         if (definedNames.containsKey("LIGHTSOURCES") &&
             definedNames.get("LIGHTSOURCES") == 0)
         {
@@ -298,7 +370,7 @@ public class GVRShaderTemplate
         }
         if (useLights)
         {
-            if (type.equals("Vertex"))
+            if (isVertex)
             {
                 lightShaderSource = generateLightVertexShader(lightlist, lightClasses);
             }
@@ -306,45 +378,142 @@ public class GVRShaderTemplate
             {
                 lightShaderSource = generateLightFragmentShader(lightlist, lightClasses);
             }
-            defines += "#define HAS_LIGHTSOURCES 1\n";
+            defines.append("#define HAS_LIGHTSOURCES 1\n");
         }
-
-        for (Map.Entry<String, String> entry : mShaderSegments.entrySet())
+        for (String key : template.SegmentNames)
         {
-            String key = entry.getKey();
-            if (key.startsWith(type))
+            Integer value = definedNames.get(key);
+            if ((value == null) || (value != 0))
             {
-                String segmentSource = entry.getValue();
-                if (segmentSource == null)
-                    segmentSource = "";
-                if (!definedNames.containsKey(key) ||
-                    (definedNames.get(key) != 0)) {
-                    defines += "#define HAS_" + key + " 1;\n";
-                }
-                combinedSource = combinedSource.replace("@" + key, segmentSource);
+                defines.append("#define HAS_").append(key).append(" 1;\n");
             }
         }
-        combinedSource = combinedSource.replace("@ShaderName", getClass().getSimpleName());
-        combinedSource = combinedSource.replace("@LIGHTSOURCES", lightShaderSource);
-        if (type.equals("Vertex"))
+        if (isVertex)
         {
-            String texcoordSource = assignTexcoords(material);
+            texcoordSource = assignTexcoords(material);
             if (texcoordSource.length() > 0)
             {
-                defines += "#define HAS_TEXCOORDS 1\n";
+                defines.append("#define HAS_TEXCOORDS 1\n");
             }
-            combinedSource = combinedSource.replace("@TEXCOORDS", texcoordSource);
         }
         for (Map.Entry<String, Integer> entry : definedNames.entrySet())
         {
             if (entry.getValue() != 0)
-                defines += "#define HAS_" + entry.getKey() + " 1\n";
+                defines.append("#define HAS_").append(entry.getKey()).append(" 1\n");
         }
-        if (mGLSLVersion > 100)
+
+        StringBuilder source = new StringBuilder(defines.length() + template.Length
+                + lightShaderSource.length() + texcoordSource.length());
+        source.append(defines);
+        for (int i = 0; i < template.Slots.size(); ++i)
         {
-            defines = "#version " + mGLSLVersion.toString() + " es\n" + defines;
+            source.append(template.Text.get(i));
+            if (template.Slots.get(i) == ParsedTemplate.LIGHTSOURCES)
+                source.append(lightShaderSource);
+            else
+                source.append(texcoordSource);
         }
-        return defines + combinedSource;
+        source.append(template.Text.get(template.Text.size() - 1));
+        return source.toString();
+    }
+
+    /*
+     * Returns the "Vertex" or "Fragment" master template, parsed on first use.
+     */
+    private ParsedTemplate getParsedTemplate(String type)
+    {
+        ParsedTemplate parsed = mParsedTemplates.get(type);
+        if (parsed != null)
+        {
+            return parsed;
+        }
+        String template = getSegment(type + "Template");
+        if (template == null)
+        {
+            throw new IllegalArgumentException(
+                type + "Template segment missing - cannot make shader");
+        }
+        parsed = new ParsedTemplate();
+        for (String key : mShaderSegments.keySet())
+        {
+            if (key.startsWith(type))
+                parsed.SegmentNames.add(key);
+        }
+        parseSegment(parsed, type, template, new HashSet<String>());
+        parsed.finish();
+        mParsedTemplates.put(type, parsed);
+        return parsed;
+    }
+
+    /*
+     * Appends shader source to a parsed template, replacing every "@name"
+     * with the segment attached as "name" (parsed recursively), the shader
+     * class name or a variant slot. Where names overlap the longest one is
+     * used.
+     */
+    private void parseSegment(ParsedTemplate parsed, String type, String source, Set<String> expanding)
+    {
+        int start = 0;
+        int at;
+
+        while ((at = source.indexOf('@', start)) >= 0)
+        {
+            int end = at + 1;
+            while ((end < source.length()) &&
+                   (Character.isLetterOrDigit(source.charAt(end)) || (source.charAt(end) == '_')))
+                ++end;
+            String name = matchSlotName(type, source.substring(at + 1, end));
+
+            if ((name == null) || expanding.contains(name))
+            {
+                parsed.Pending.append(source, start, at + 1);
+                start = at + 1;
+                continue;
+            }
+            parsed.Pending.append(source, start, at);
+            start = at + 1 + name.length();
+            if (name.equals("ShaderName"))
+            {
+                parsed.Pending.append(getClass().getSimpleName());
+            }
+            else if (name.equals("LIGHTSOURCES"))
+            {
+                parsed.addSlot(ParsedTemplate.LIGHTSOURCES);
+            }
+            else if (name.equals("TEXCOORDS"))
+            {
+                parsed.addSlot(ParsedTemplate.TEXCOORDS);
+            }
+            else
+            {
+                String segment = mShaderSegments.get(name);
+                expanding.add(name);
+                parseSegment(parsed, type, (segment != null) ? segment : "", expanding);
+                expanding.remove(name);
+            }
+        }
+        parsed.Pending.append(source, start, source.length());
+    }
+
+    private String matchSlotName(String type, String identifier)
+    {
+        String match = null;
+
+        for (String key : mShaderSegments.keySet())
+        {
+            if (key.startsWith(type) && identifier.startsWith(key) &&
+                ((match == null) || (key.length() > match.length())))
+                match = key;
+        }
+        if (match != null)
+            return match;
+        if (identifier.startsWith("ShaderName"))
+            return "ShaderName";
+        if (identifier.startsWith("LIGHTSOURCES"))
+            return "LIGHTSOURCES";
+        if (type.equals("Vertex") && identifier.startsWith("TEXCOORDS"))
+            return "TEXCOORDS";
+        return null;
     }
 
     private String generateShaderSource(String type)
@@ -442,6 +611,10 @@ public class GVRShaderTemplate
                 return;
             }
         }
+        else if ((variant = loadVariant(context, signature)) != null)
+        {
+            mShaderVariants.put(signature, variant);
+        }
         else
         {
             Map<String, LightClass> lightClasses = scanLights(lightlist);
@@ -455,6 +628,7 @@ public class GVRShaderTemplate
                 writeShader(context, "F-" + signature + ".glsl", variant.FragmentShaderSource);
             }
             mShaderVariants.put(signature, variant);
+            saveVariant(context, signature, variant);
         }
         GVRShaderManagers shaderManager = context.getMaterialShaderManager();
         if (variant.ShaderID == null)
@@ -490,6 +664,217 @@ public class GVRShaderTemplate
 
     }
 
+    /**
+     * Set the directory in which generated shader variants and linked program
+     * binaries are kept between runs of the application. By default they are
+     * kept in the application's cache directory and discarded whenever the
+     * application is updated. Call this before any shaders are bound.
+     *
+     * @param directory
+     *            cache directory, or null to disable the shader cache
+     */
+    public static synchronized void setShaderCacheDirectory(File directory)
+    {
+        sShaderCacheInitialized = true;
+        sShaderCacheDirectory = null;
+        if (directory != null)
+        {
+            File programDirectory = new File(directory, "programs");
+            if (programDirectory.isDirectory() || programDirectory.mkdirs())
+            {
+                sShaderCacheDirectory = directory;
+                NativeShaderManager.setProgramCacheDirectory(programDirectory.getAbsolutePath());
+                return;
+            }
+            Log.w(TAG, "Cannot create shader cache in " + directory);
+        }
+        NativeShaderManager.setProgramCacheDirectory(null);
+    }
+
+    private static synchronized File getShaderCacheDirectory(GVRContext context)
+    {
+        if (!sShaderCacheInitialized)
+        {
+            Context appContext = context.getContext();
+            File root = new File(appContext.getCacheDir(), "gvrf_shaders");
+            String stamp = "0";
+
+            try
+            {
+                PackageInfo info = appContext.getPackageManager().getPackageInfo(appContext.getPackageName(), 0);
+                stamp = info.versionCode + "_" + info.lastUpdateTime;
+            }
+            catch (PackageManager.NameNotFoundException ex)
+            {
+            }
+            // Shaders cached by an older version of the application may be
+            // stale; they are deleted in the background, not on the GL thread
+            final File[] cached = root.listFiles();
+            if (cached != null)
+            {
+                final String current = stamp;
+                Threads.spawnLow(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        for (File file : cached)
+                        {
+                            if (!file.getName().equals(current))
+                                deleteRecursively(file);
+                        }
+                    }
+                });
+            }
+            setShaderCacheDirectory(new File(root, stamp));
+        }
+        return sShaderCacheDirectory;
+    }
+
+    private static void deleteRecursively(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (File child : children)
+                deleteRecursively(child);
+        }
+        file.delete();
+    }
+
+    /*
+     * Variants are stored under a hash of their signature and of the
+     * template segments, so editing a template never picks up stale code.
+     */
+    private File getVariantFile(GVRContext context, String signature)
+    {
+        File directory = getShaderCacheDirectory(context);
+        if (directory == null)
+        {
+            return null;
+        }
+        if (mTemplateHash == 0)
+        {
+            long hash = hashString(0xcbf29ce484222325L, mGLSLVersion.toString());
+            for (Map.Entry<String, String> entry : new TreeMap<String, String>(mShaderSegments).entrySet())
+            {
+                hash = hashString(hash, entry.getKey());
+                hash = hashString(hash, entry.getValue());
+            }
+            mTemplateHash = hash;
+        }
+        long hash = hashString(mTemplateHash, signature);
+        return new File(directory, String.format("%016x.glsl", hash));
+    }
+
+    private static long hashString(long hash, String s)
+    {
+        // 64-bit FNV-1a over UTF-16 code units
+        for (int i = 0; i < s.length(); ++i)
+        {
+            hash ^= s.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private ShaderVariant loadVariant(GVRContext context, String signature)
+    {
+        File file = getVariantFile(context, signature);
+        if ((file == null) || !file.exists())
+        {
+            return null;
+        }
+        DataInputStream stream = null;
+        try
+        {
+            stream = new DataInputStream(new FileInputStream(file));
+            if (!stream.readUTF().equals(signature))
+            {
+                return null;
+            }
+            ShaderVariant variant = new ShaderVariant();
+            variant.VertexShaderSource = readSource(stream);
+            variant.FragmentShaderSource = readSource(stream);
+            Log.d("gvrf", "SHADER: Loaded cached variant " + signature);
+            return variant;
+        }
+        catch (IOException ex)
+        {
+            Log.w(TAG, "Cannot read cached shader " + file + ", deleting it");
+            file.delete();
+            return null;
+        }
+        finally
+        {
+            closeQuietly(stream);
+        }
+    }
+
+    private void saveVariant(GVRContext context, final String signature, final ShaderVariant variant)
+    {
+        final File file = getVariantFile(context, signature);
+        if (file == null)
+        {
+            return;
+        }
+        Threads.spawn(new Runnable()
+        {
+            public void run()
+            {
+                File temp = new File(file.getPath() + ".tmp");
+                DataOutputStream stream = null;
+                try
+                {
+                    stream = new DataOutputStream(new FileOutputStream(temp));
+                    stream.writeUTF(signature);
+                    writeSource(stream, variant.VertexShaderSource);
+                    writeSource(stream, variant.FragmentShaderSource);
+                    stream.close();
+                    stream = null;
+                    if (!temp.renameTo(file))
+                    {
+                        temp.delete();
+                    }
+                }
+                catch (IOException ex)
+                {
+                    Log.w(TAG, "Cannot cache shader " + signature);
+                    closeQuietly(stream);
+                    temp.delete();
+                }
+            }
+        });
+    }
+
+    private static String readSource(DataInputStream stream) throws IOException
+    {
+        byte[] bytes = new byte[stream.readInt()];
+        stream.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    private static void writeSource(DataOutputStream stream, String source) throws IOException
+    {
+        byte[] bytes = source.getBytes("UTF-8");
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+    }
+
+    private static void closeQuietly(java.io.Closeable stream)
+    {
+        if (stream != null)
+        {
+            try
+            {
+                stream.close();
+            }
+            catch (IOException ex)
+            {
+            }
+        }
+    }
+
     /**
      * Select the specific vertex and fragment shader to use with this material.
      * 
@@ -525,12 +910,17 @@ public class GVRShaderTemplate
                 return;
             }
         }
+        else if ((variant = loadVariant(context, signature)) != null)
+        {
+            mShaderVariants.put(signature, variant);
+        }
         else
         {
             variant = new ShaderVariant();
             variant.VertexShaderSource = generateShaderVariant("Vertex", variantDefines, null, null, material);
             variant.FragmentShaderSource = generateShaderVariant("Fragment", variantDefines, null, null, material);
-            mShaderVariants.put(signature, variant);            
+            mShaderVariants.put(signature, variant);
+            saveVariant(context, signature, variant);
         }
         GVRShaderManagers shaderManager = context.getMaterialShaderManager();
         if (variant.ShaderID == null)
@@ -903,4 +1293,10 @@ public class GVRShaderTemplate
     protected Map<String, ShaderVariant> mShaderVariants;
     protected Set<String> mShaderDefines;
     protected String mUniformDescriptor;
+    private final Map<String, ParsedTemplate> mParsedTemplates = new HashMap<String, ParsedTemplate>();
+    private long mTemplateHash;
+
+    private static final String TAG = "GVRShaderTemplate";
+    private static File sShaderCacheDirectory;
+    private static boolean sShaderCacheInitialized;
 }
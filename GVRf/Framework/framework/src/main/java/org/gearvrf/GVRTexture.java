@@ -30,6 +30,7 @@ public class GVRTexture extends GVRHybridObject {
     private List<GVRAtlasInformation> mAtlasInformation = null;
     private String mVertexTexCoord = null;
     private String mShaderTexCoord = null;
+    private volatile long mMemoryEstimate = 0;
 
     protected GVRTexture(GVRContext gvrContext, long ptr) {
         super(gvrContext, ptr);
@@ -111,6 +112,26 @@ public class GVRTexture extends GVRHybridObject {
         mAtlasInformation = atlasInformation;
     }
 
+    /**
+     * Estimate the amount of GPU memory used by this texture. Resource caches
+     * use this to stay within their memory budget.
+     *
+     * @return approximate size of the texture data in bytes, or 0 if the
+     *         texture has no data yet
+     */
+    public long getMemoryEstimate() {
+        return mMemoryEstimate;
+    }
+
+    /**
+     * Called by derived classes whenever new texture data is supplied.
+     *
+     * @param bytes approximate size of the texture data in bytes
+     */
+    protected void setMemoryEstimate(long bytes) {
+        mMemoryEstimate = bytes;
+    }
+
     /**
      * Inform if the texture is a large image containing "atlas" of sub-images
      * with a list of {@link GVRAtlasInformation} necessary to map it to the
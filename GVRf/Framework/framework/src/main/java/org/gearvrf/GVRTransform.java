@@ -17,6 +17,9 @@ package org.gearvrf;
 
 import org.joml.Matrix4f;
 
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
 /**
  * One of the key GVRF classes: Encapsulates a 4x4 matrix that controls how GL
  * draws a mesh.
@@ -594,4 +597,10 @@ class NativeTransform {
             float quatX, float quatY, float quatZ, float pivotX, float pivotY,
             float pivotZ);
 
+    static native void setTRSBatch(ByteBuffer transforms, FloatBuffer trs, int count);
+
+    static native void getTRSBatch(ByteBuffer transforms, FloatBuffer trs, int count);
+
+    static native void getModelMatrixBatch(ByteBuffer transforms, FloatBuffer matrices,
+            int count);
 }
@@ -0,0 +1,201 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.util.List;
+
+/**
+ * Updates many {@link GVRTransform}s with a single native call.<p>
+ *
+ * Every {@link GVRTransform} setter is a separate JNI call, which
+ * dominates the frame when thousands of transforms change every frame
+ * (crowds, particles driven from Java, physics). A batch shares two direct
+ * buffers with native code instead:
+ * <ul>
+ * <li>the TRS buffer holds {@link #TRS_STRIDE} floats per transform:
+ * position (x, y, z), rotation quaternion (w, x, y, z) and scale (x, y, z).
+ * {@link #apply()} copies it into the transforms, {@link #read()} fills it
+ * from them.</li>
+ * <li>the matrix buffer receives {@link #MATRIX_STRIDE} floats per
+ * transform, the column-major world matrix as returned by
+ * {@link GVRTransform#getModelMatrix()}, when
+ * {@link #readModelMatrices()} is called.</li>
+ * </ul>
+ * The buffers are allocated once and neither call allocates, so
+ *
+ * <pre>
+ * {@code
+ * GVRTransformBatch batch = new GVRTransformBatch(transforms);
+ * ...
+ * for (int i = 0; i < batch.size(); ++i) {
+ *     batch.setPosition(i, x[i], y[i], z[i]);
+ * }
+ * batch.apply();
+ * }
+ * </pre>
+ *
+ * updates the whole crowd with one JNI call. The batch keeps references to
+ * its transforms, so they stay alive as long as the batch does.
+ */
+public final class GVRTransformBatch {
+    /** Number of floats per transform in the TRS buffer. */
+    public static final int TRS_STRIDE = 10;
+    /** Number of floats per transform in the matrix buffer. */
+    public static final int MATRIX_STRIDE = 16;
+
+    private static final int POSITION_OFFSET = 0;
+    private static final int ROTATION_OFFSET = 3;
+    private static final int SCALE_OFFSET = 7;
+
+    private final GVRTransform[] mTransforms;
+    private final ByteBuffer mNativeTransforms;
+    private final FloatBuffer mTRS;
+    private FloatBuffer mMatrices;
+
+    /**
+     * Creates a batch for the given transforms. The TRS buffer is
+     * initialized with their current values.
+     *
+     * @param transforms transforms updated by this batch
+     */
+    public GVRTransformBatch(GVRTransform[] transforms) {
+        mTransforms = transforms.clone();
+        mNativeTransforms = ByteBuffer.allocateDirect(8 * mTransforms.length)
+                .order(ByteOrder.nativeOrder());
+        LongBuffer pointers = mNativeTransforms.asLongBuffer();
+        for (GVRTransform transform : mTransforms) {
+            pointers.put(transform.getNative());
+        }
+        mTRS = ByteBuffer.allocateDirect(4 * TRS_STRIDE * mTransforms.length)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        read();
+    }
+
+    /**
+     * Creates a batch for the given transforms.
+     *
+     * @param transforms transforms updated by this batch
+     */
+    public GVRTransformBatch(List<GVRTransform> transforms) {
+        this(transforms.toArray(new GVRTransform[transforms.size()]));
+    }
+
+    /**
+     * @return the number of transforms in the batch
+     */
+    public int size() {
+        return mTransforms.length;
+    }
+
+    /**
+     * @return the transform at {@code index}
+     */
+    public GVRTransform getTransform(int index) {
+        return mTransforms[index];
+    }
+
+    /**
+     * Returns the buffer shared with native code holding position,
+     * rotation and scale of every transform, {@link #TRS_STRIDE} floats
+     * each. Write it with absolute puts; the position of the buffer is
+     * ignored.
+     *
+     * @return the TRS buffer
+     */
+    public FloatBuffer getTRSBuffer() {
+        return mTRS;
+    }
+
+    /**
+     * Returns the buffer which {@link #readModelMatrices()} fills with one
+     * world matrix per transform, {@link #MATRIX_STRIDE} floats each.
+     *
+     * @return the matrix buffer
+     */
+    public FloatBuffer getMatrixBuffer() {
+        if (mMatrices == null) {
+            mMatrices = ByteBuffer.allocateDirect(4 * MATRIX_STRIDE * mTransforms.length)
+                    .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }
+        return mMatrices;
+    }
+
+    /**
+     * Sets the position of one transform in the TRS buffer. Takes effect
+     * on the next {@link #apply()}.
+     */
+    public void setPosition(int index, float x, float y, float z) {
+        int offset = index * TRS_STRIDE + POSITION_OFFSET;
+        mTRS.put(offset, x);
+        mTRS.put(offset + 1, y);
+        mTRS.put(offset + 2, z);
+    }
+
+    /**
+     * Sets the rotation quaternion of one transform in the TRS buffer.
+     * Takes effect on the next {@link #apply()}.
+     */
+    public void setRotation(int index, float w, float x, float y, float z) {
+        int offset = index * TRS_STRIDE + ROTATION_OFFSET;
+        mTRS.put(offset, w);
+        mTRS.put(offset + 1, x);
+        mTRS.put(offset + 2, y);
+        mTRS.put(offset + 3, z);
+    }
+
+    /**
+     * Sets the scale of one transform in the TRS buffer. Takes effect on
+     * the next {@link #apply()}.
+     */
+    public void setScale(int index, float x, float y, float z) {
+        int offset = index * TRS_STRIDE + SCALE_OFFSET;
+        mTRS.put(offset, x);
+        mTRS.put(offset + 1, y);
+        mTRS.put(offset + 2, z);
+    }
+
+    /**
+     * Copies position, rotation and scale from the TRS buffer into all
+     * transforms of the batch with one native call.
+     */
+    public void apply() {
+        NativeTransform.setTRSBatch(mNativeTransforms, mTRS, mTransforms.length);
+    }
+
+    /**
+     * Fills the TRS buffer with the current position, rotation and scale of
+     * all transforms of the batch with one native call.
+     */
+    public void read() {
+        NativeTransform.getTRSBatch(mNativeTransforms, mTRS, mTransforms.length);
+    }
+
+    /**
+     * Fills the matrix buffer with the world matrices of all transforms of
+     * the batch with one native call.
+     *
+     * @return the matrix buffer
+     */
+    public FloatBuffer readModelMatrices() {
+        FloatBuffer matrices = getMatrixBuffer();
+        NativeTransform.getModelMatrixBatch(mNativeTransforms, matrices, mTransforms.length);
+        return matrices;
+    }
+}
@@ -25,6 +25,16 @@ public final class GVRVertexBoneData implements PrettyPrint {
         NativeVertexBoneData.normalizeWeights(getNative());
     }
 
+    /**
+     * Sets the final transforms of all bones of the mesh at once.
+     *
+     * @param palette packed column-major 4x4 matrices, 16 floats per bone,
+     *                in the order of {@link GVRMesh#getBones()}
+     */
+    public void setFinalBoneTransforms(float[] palette) {
+        NativeVertexBoneData.setFinalBoneTransforms(getNative(), palette);
+    }
+
     @Override
     public void prettyPrint(StringBuffer sb, int indent) {        
     }
@@ -39,4 +49,5 @@ class NativeVertexBoneData {
     static native int getFreeBoneSlot(long nativePtr, int vertexId);
     static native void setVertexBoneWeight(long nativePtr, int vertexId, int boneSlot, int boneId, float boneWeight);
     static native void normalizeWeights(long nativePtr);
+    static native void setFinalBoneTransforms(long nativePtr, float[] palette);
 }
\ No newline at end of file
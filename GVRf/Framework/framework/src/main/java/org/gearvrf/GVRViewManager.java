@@ -34,13 +34,8 @@ import org.gearvrf.utility.VrAppSettings.EyeBufferParams.DepthFormat;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.locks.ReentrantLock;
 
 abstract class GVRViewManager extends GVRContext {
@@ -74,8 +69,7 @@ abstract class GVRViewManager extends GVRContext {
         mScriptManager.destroy();
 
         mFrameListeners.clear();
-        mRunnables.clear();
-        mRunnablesPostRender.clear();
+        mGLTaskScheduler.clear();
     }
 
     public GVREventManager getEventManager() {
@@ -242,15 +236,7 @@ abstract class GVRViewManager extends GVRContext {
          * Without the sensor data, can't draw a scene properly.
          */
         if (!(mSensoredScene == null || !mMainScene.equals(mSensoredScene))) {
-            Runnable runnable;
-            while ((runnable = mRunnables.poll()) != null) {
-                try {
-                    runnable.run();
-                } catch (final Exception exc) {
-                    Log.e(TAG, "Runnable-on-GL %s threw %s", runnable, exc.toString());
-                    exc.printStackTrace();
-                }
-            }
+            mGLTaskScheduler.runFrame();
 
             final List<GVRDrawFrameListener> frameListeners = mFrameListeners;
             for (GVRDrawFrameListener listener : frameListeners) {
@@ -310,17 +296,7 @@ abstract class GVRViewManager extends GVRContext {
             // execute pending runnables now so any necessary gl calls
             // are done before onInit().  As an example the request to
             // get the GL_MAX_TEXTURE_SIZE needs to be fulfilled.
-            synchronized (mRunnables) {
-                Runnable runnable = null;
-                while ((runnable = mRunnables.poll()) != null) {
-                    try {
-                        runnable.run();
-                    } catch (final Exception exc) {
-                        Log.e(TAG, "Runnable-on-GL %s threw %s", runnable, exc.toString());
-                        exc.printStackTrace();
-                    }
-                }
-            }
+            mGLTaskScheduler.runAll();
 
             runOnTheFrameworkThread(new Runnable() {
                 @Override
@@ -474,15 +450,18 @@ abstract class GVRViewManager extends GVRContext {
         if (mGLThreadID == Thread.currentThread().getId()) {
             runnable.run();
         } else {
-            mRunnables.add(runnable);
+            mGLTaskScheduler.submit(runnable);
         }
     }
 
     @Override
     public void runOnGlThreadPostRender(int delayFrames, Runnable runnable) {
-        synchronized (mRunnablesPostRender) {
-            mRunnablesPostRender.put(runnable, delayFrames);
-        }
+        mGLTaskScheduler.submitPostRender(delayFrames, runnable);
+    }
+
+    @Override
+    public GVRGLTaskScheduler getGLTaskScheduler() {
+        return mGLTaskScheduler;
     }
 
     protected void beforeDrawEyes() {
@@ -499,18 +478,7 @@ abstract class GVRViewManager extends GVRContext {
     protected void afterDrawEyes() {
         // Execute post-rendering tasks (after drawing eyes, but
         // before afterDrawEyes handlers)
-        synchronized (mRunnablesPostRender) {
-            for (Iterator<Map.Entry<Runnable, Integer>> it = mRunnablesPostRender.entrySet().iterator(); it
-                    .hasNext();) {
-                Map.Entry<Runnable, Integer> entry = it.next();
-                if (entry.getValue() <= 0) {
-                    entry.getKey().run();
-                    it.remove();
-                } else {
-                    entry.setValue(entry.getValue() - 1);
-                }
-            }
-        }
+        mGLTaskScheduler.runPostRender();
 
         mFrameHandler.afterDrawEyes();
         finalizeUnreachableObjects();
@@ -776,8 +744,7 @@ abstract class GVRViewManager extends GVRContext {
     protected FrameHandler mFrameHandler = firstFrame;
 
     protected List<GVRDrawFrameListener> mFrameListeners = new CopyOnWriteArrayList<GVRDrawFrameListener>();
-    protected final Queue<Runnable> mRunnables = new LinkedBlockingQueue<Runnable>();
-    protected final Map<Runnable, Integer> mRunnablesPostRender = new HashMap<Runnable, Integer>();
+    protected final GVRGLTaskScheduler mGLTaskScheduler = new GVRGLTaskScheduler();
 
     protected GVRScene mMainScene;
     protected GVRScene mPendingMainScene;
@@ -0,0 +1,52 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gearvrf;
+
+/**
+ * Asset load events which also report how long the stages of importing
+ * a model took. Implement this instead of {@link IAssetEvents} to
+ * profile model loading.
+ * <p>
+ * Models loaded through assimp are imported in stages, most of them
+ * running in parallel on a pool of worker threads:
+ * <ul>
+ * <li>{@link #STAGE_MESHES} creates the meshes</li>
+ * <li>{@link #STAGE_BONES} creates the bones and bone weights</li>
+ * <li>{@link #STAGE_TEXTURES} decodes the embedded textures</li>
+ * <li>{@link #STAGE_ANIMATIONS} creates the keyframe channels</li>
+ * <li>{@link #STAGE_SCENE} builds the scene graph from the results</li>
+ * </ul>
+ * All stages are reported before {@link #onModelLoaded}.
+ */
+public interface IAssetImportEvents extends IAssetEvents
+{
+    public static final String STAGE_MESHES = "meshes";
+    public static final String STAGE_BONES = "bones";
+    public static final String STAGE_TEXTURES = "textures";
+    public static final String STAGE_ANIMATIONS = "animations";
+    public static final String STAGE_SCENE = "scene";
+
+    /**
+     * Called when a stage of importing a model has finished.
+     * @param context   GVRContext used to load the model
+     * @param filePath  File path or URL of the model.
+     * @param stage     name of the stage, one of the STAGE constants
+     * @param count     number of items created by the stage
+     * @param nanos     time from the start of the stage until its last
+     *                  item was done, in nanoseconds
+     */
+    public void onImportStage(GVRContext context, String filePath, String stage,
+                              int count, long nanos);
+}
@@ -104,6 +104,7 @@ public abstract class GVRAnimation {
     private int mRepeatMode = GVRRepeatMode.ONCE;
     private int mRepeatCount = DEFAULT_REPEAT_COUNT;
     private GVROnFinish mOnFinish = null;
+    private GVRAnimationGroup mGroup = null;
 
     /**
      * This is derived from {@link #mOnFinish}. Doing the {@code instanceof}
@@ -118,6 +119,10 @@ public abstract class GVRAnimation {
     
     private boolean isFinished = false;
 
+    // Engine bookkeeping, only touched on the GL thread
+    boolean mRunning = false;
+    boolean mStopRequested = false;
+
     /**
      * Base constructor.
      * 
@@ -282,6 +287,33 @@ public abstract class GVRAnimation {
         return this;
     }
 
+    /**
+     * Set the group of this animation.
+     * 
+     * The {@linkplain GVRAnimationEngine animation engine} scales the frame
+     * time of the animation by the {@linkplain GVRAnimationGroup#getTimeScale()
+     * time scale} of its group, and does not advance it while the group is
+     * {@linkplain GVRAnimationGroup#pause() paused.}
+     * 
+     * @param group
+     *            The group, or {@code null} for no group
+     * @return {@code this}, so you can chain setProperty() calls.
+     */
+    public GVRAnimation setGroup(GVRAnimationGroup group) {
+        mGroup = group;
+        return this;
+    }
+
+    /**
+     * Get the group of this animation.
+     * 
+     * @return The group set by {@link #setGroup(GVRAnimationGroup)}, or
+     *         {@code null}
+     */
+    public GVRAnimationGroup getGroup() {
+        return mGroup;
+    }
+
     /**
      * Start the animation.
      * 
@@ -15,8 +15,9 @@
 
 package org.gearvrf.animation;
 
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRDrawFrameListener;
@@ -44,6 +45,15 @@ import org.gearvrf.GVRSceneObject;
  * {@linkplain GVROnRepeat callback,} which allows you to terminate the
  * animation before the next loop.
  * </ul>
+ * 
+ * <p>
+ * {@link #start(GVRAnimation)} and {@link #stop(GVRAnimation)} may be called
+ * from any thread. They are queued and applied once per frame, before the
+ * running animations are advanced; animations that finish or are stopped are
+ * removed by compacting the list in the same pass, so the per-frame cost is
+ * linear in the number of running animations. Frame time can be scaled, and
+ * animations paused, globally ({@link #setTimeScale(float)},
+ * {@link #pause()}) or per {@linkplain GVRAnimationGroup group.}
  */
 public class GVRAnimationEngine {
 
@@ -59,9 +69,38 @@ public class GVRAnimationEngine {
         });
     }
 
-    private final List<GVRAnimation> mAnimations = new CopyOnWriteArrayList<GVRAnimation>();
+    /*
+     * Only touched on the GL thread. Entries [0, mActiveCount) are running;
+     * mRunning tracks membership so duplicate starts and stale stops are
+     * cheap to detect.
+     */
+    private GVRAnimation[] mAnimations = new GVRAnimation[64];
+    private int mActiveCount = 0;
+
+    /*
+     * Starts and stops requested since the last frame, in order. A stop is
+     * queued as a StopRequest, a start as the animation itself.
+     */
+    private final Queue<Object> mPending = new ConcurrentLinkedQueue<Object>();
     private final GVRDrawFrameListener mOnDrawFrame = new DrawFrame();
 
+    private volatile float mTimeScale = 1f;
+    private volatile boolean mPaused = false;
+
+    // Per-frame counters
+    private volatile int mStartedLastFrame = 0;
+    private volatile int mFinishedLastFrame = 0;
+    private volatile int mActiveLastFrame = 0;
+    private volatile long mLastFrameNanos = 0;
+
+    private static final class StopRequest {
+        final GVRAnimation animation;
+
+        StopRequest(GVRAnimation animation) {
+            this.animation = animation;
+        }
+    }
+
     protected GVRAnimationEngine(GVRContext gvrContext) {
         gvrContext.registerDrawFrameListener(mOnDrawFrame);
     }
@@ -112,7 +151,7 @@ public class GVRAnimationEngine {
     public GVRAnimation start(GVRAnimation animation) {
         if (animation.getRepeatCount() != 0) {
             animation.reset();
-            mAnimations.add(animation);
+            mPending.add(animation);
         }
         return animation;
     }
@@ -138,18 +177,158 @@ public class GVRAnimationEngine {
      *            an animation
      */
     public void stop(GVRAnimation animation) {
-        mAnimations.remove(animation);
+        mPending.add(new StopRequest(animation));
+    }
+
+    /**
+     * Scale the frame time of all animations. 1 is normal speed, 0.5 is half
+     * speed and 2 is double speed. The global time scale is multiplied with
+     * the time scale of an animation's {@linkplain GVRAnimationGroup group.}
+     * 
+     * @param timeScale
+     *            non-negative time scale
+     */
+    public void setTimeScale(float timeScale) {
+        if (timeScale < 0) {
+            throw new IllegalArgumentException("time scale must not be negative");
+        }
+        mTimeScale = timeScale;
+    }
+
+    /**
+     * @return the global time scale
+     */
+    public float getTimeScale() {
+        return mTimeScale;
+    }
+
+    /**
+     * Pause all animations. Starts and stops are still applied while the
+     * engine is paused.
+     */
+    public void pause() {
+        mPaused = true;
+    }
+
+    /**
+     * Resume all animations after {@link #pause()}.
+     */
+    public void resume() {
+        mPaused = false;
+    }
+
+    /**
+     * @return {@code true} if the engine is paused
+     */
+    public boolean isPaused() {
+        return mPaused;
+    }
+
+    /**
+     * @return number of animations that were running at the end of the
+     *         last frame
+     */
+    public int getActiveCount() {
+        return mActiveLastFrame;
+    }
+
+    /**
+     * @return number of animations added to the running set in the last
+     *         frame
+     */
+    public int getStartedLastFrame() {
+        return mStartedLastFrame;
+    }
+
+    /**
+     * @return number of animations that finished or were stopped in the last
+     *         frame
+     */
+    public int getFinishedLastFrame() {
+        return mFinishedLastFrame;
+    }
+
+    /**
+     * @return time the engine spent in the last frame, in nanoseconds,
+     *         including the time spent in animation callbacks
+     */
+    public long getLastFrameNanos() {
+        return mLastFrameNanos;
+    }
+
+    private int applyPending() {
+        int started = 0;
+        Object request;
+
+        while ((request = mPending.poll()) != null) {
+            if (request instanceof StopRequest) {
+                GVRAnimation animation = ((StopRequest) request).animation;
+                if (animation.mRunning) {
+                    animation.mStopRequested = true;
+                }
+                continue;
+            }
+
+            GVRAnimation animation = (GVRAnimation) request;
+            animation.mStopRequested = false;
+            if (animation.mRunning) {
+                continue;
+            }
+            if (mActiveCount == mAnimations.length) {
+                mAnimations = Arrays.copyOf(mAnimations, mActiveCount * 2);
+            }
+            animation.mRunning = true;
+            mAnimations[mActiveCount++] = animation;
+            ++started;
+        }
+        return started;
     }
 
     private final class DrawFrame implements GVRDrawFrameListener {
 
         @Override
         public void onDrawFrame(float frameTime) {
-            for (GVRAnimation animation : mAnimations) {
-                if (animation.onDrawFrame(frameTime) == false) {
-                    mAnimations.remove(animation);
+            final long startTime = System.nanoTime();
+            final int started = applyPending();
+            final GVRAnimation[] animations = mAnimations;
+            final int count = mActiveCount;
+            final boolean paused = mPaused;
+            final float scaledTime = frameTime * mTimeScale;
+            int kept = 0;
+
+            for (int i = 0; i < count; ++i) {
+                GVRAnimation animation = animations[i];
+                boolean keep;
+
+                if (animation.mStopRequested) {
+                    keep = false;
+                } else if (paused) {
+                    keep = true;
+                } else {
+                    GVRAnimationGroup group = animation.getGroup();
+                    if (group == null) {
+                        keep = animation.onDrawFrame(scaledTime);
+                    } else if (group.isPaused()) {
+                        keep = true;
+                    } else {
+                        keep = animation.onDrawFrame(scaledTime * group.getTimeScale());
+                    }
+                }
+
+                if (keep) {
+                    animations[kept++] = animation;
+                } else {
+                    animation.mRunning = false;
+                    animation.mStopRequested = false;
                 }
             }
+            Arrays.fill(animations, kept, count, null);
+            mActiveCount = kept;
+
+            mStartedLastFrame = started;
+            mFinishedLastFrame = count - kept;
+            mActiveLastFrame = kept;
+            mLastFrameNanos = System.nanoTime() - startTime;
         }
     }
 }
@@ -0,0 +1,101 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.animation;
+
+/**
+ * A set of animations that share a time scale and a pause state.
+ *
+ * Assign animations to a group with
+ * {@link GVRAnimation#setGroup(GVRAnimationGroup)} before starting them.
+ * The {@linkplain GVRAnimationEngine engine} multiplies the frame time of
+ * every animation in the group by the group's time scale (and by the
+ * engine's global time scale) and skips the group entirely while it is
+ * paused. For example, all UI animations can share one group so they keep
+ * running while the group holding gameplay animations is paused.
+ */
+public class GVRAnimationGroup {
+    private final String mName;
+    private volatile float mTimeScale = 1f;
+    private volatile boolean mPaused = false;
+
+    /**
+     * Constructor.
+     *
+     * @param name
+     *            name of the group, for debugging
+     */
+    public GVRAnimationGroup(String name) {
+        mName = name;
+    }
+
+    /**
+     * @return the name passed to the constructor
+     */
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Set the time scale of this group. 1 is normal speed, 0.5 is half
+     * speed and 2 is double speed.
+     *
+     * @param timeScale
+     *            non-negative time scale
+     * @return {@code this}, so you can chain calls
+     */
+    public GVRAnimationGroup setTimeScale(float timeScale) {
+        if (timeScale < 0) {
+            throw new IllegalArgumentException("time scale must not be negative");
+        }
+        mTimeScale = timeScale;
+        return this;
+    }
+
+    /**
+     * @return the time scale of this group
+     */
+    public float getTimeScale() {
+        return mTimeScale;
+    }
+
+    /**
+     * Pause all animations of this group. They keep their current state
+     * and continue where they left off after {@link #resume()}.
+     */
+    public void pause() {
+        mPaused = true;
+    }
+
+    /**
+     * Resume all animations of this group.
+     */
+    public void resume() {
+        mPaused = false;
+    }
+
+    /**
+     * @return {@code true} if this group is paused
+     */
+    public boolean isPaused() {
+        return mPaused;
+    }
+
+    @Override
+    public String toString() {
+        return "GVRAnimationGroup [name=" + mName + ", timeScale=" + mTimeScale
+                + ", paused=" + mPaused + "]";
+    }
+}
@@ -20,116 +20,6 @@ import org.joml.Vector3f;
  * scaling, rotation, translation.
  */
 public final class GVRAnimationChannel implements PrettyPrint {
-    private static final String TAG = GVRAnimationChannel.class.getSimpleName();
-    protected static interface ValueInterpolator<T> {
-        T interpolate(T begin, T end, float factor);
-    }
-
-    protected static ValueInterpolator<Vector3f> sInterpolatorVector3f = new ValueInterpolator<Vector3f>() {
-        public Vector3f interpolate(Vector3f begin, Vector3f end, float factor) {
-            return new Vector3f().set(end).sub(begin).mul(factor).add(begin);
-        }
-    };
-
-    protected static ValueInterpolator<Quaternionf> sInterpolatorQuaternion = new ValueInterpolator<Quaternionf>() {
-        public Quaternionf interpolate(Quaternionf begin, Quaternionf end, float factor) {
-            return new Quaternionf().set(begin).slerp(end, factor);
-        }
-    };
-
-    protected class KeyFrameInterplator<T> {
-        GVRKeyFrame<T>[] keys;
-        ValueInterpolator<T> interpolator;
-
-        private int lastKeyIndex;
-
-        KeyFrameInterplator(GVRKeyFrame<T>[] keys, ValueInterpolator<T> interpolator) {
-            this.keys = keys;
-            this.interpolator = interpolator;
-            lastKeyIndex = -1;
-        }
-
-        protected T interpolate(float time) {
-            int index = getKeyIndex(time);
-            int nextIndex = index + 1;
-
-            if (index != -1 && keys[index].getTime() <= time && time < keys[nextIndex].getTime()) {
-                // interpolate
-                float deltaTime = (float)(keys[nextIndex].getTime() - keys[index].getTime());
-                float factor = (float)((time - keys[index].getTime()) / deltaTime);
-
-                T start = keys[index].getValue();
-                T end = keys[nextIndex].getValue();
-
-                return interpolator.interpolate(start, end, factor);
-            } else {
-                // time is out of range of animation time frame
-                float firstFrameTime = keys[0].getTime();
-                float lastFrameTime = keys[keys.length - 1].getTime();
-                T firstFrameValue = keys[0].getValue();
-                T lastFrameValue = keys[keys.length - 1].getValue();
-
-                if (time <= firstFrameTime) {
-                    return firstFrameValue;
-                } else if (time >= lastFrameTime) {
-                    return lastFrameValue;
-                } else {
-                    // Shouldn't happen
-                    return lastFrameValue;
-                }
-            }
-        }
-
-        protected int getKeyIndex(float time) {
-            // Try cached key first
-            if (lastKeyIndex != -1) {
-                if (keys[lastKeyIndex].getTime() <= time && time < keys[lastKeyIndex + 1].getTime()) {
-                    return lastKeyIndex;
-                }
-
-                // Try neighboring keys
-                if (lastKeyIndex + 2 < keys.length &&
-                        keys[lastKeyIndex + 1].getTime() <= time && time < keys[lastKeyIndex + 2].getTime()) {
-                    return ++lastKeyIndex;
-                }
-
-                if (lastKeyIndex >= 1 &&
-                        keys[lastKeyIndex - 1].getTime() <= time && time < keys[lastKeyIndex].getTime()) {
-                    return --lastKeyIndex;
-                }
-            }
-
-            // Binary search for the interval
-            // Each of the index i represents an interval I(i) = [time(i), time(i + 1)).
-            int low = 0, high = keys.length - 2;
-            // invariant: I(low)...I(high) contains time if time can be found
-            // post-condition: |high - low| <= 1, only need to check I(low) and I(low + 1)
-            while (high - low > 1) {
-                int mid = (low + high) / 2;
-                if (time < keys[mid].getTime()) {
-                    high = mid;
-                } else if (time >= keys[mid + 1].getTime()) {
-                    low = mid + 1;
-                } else {
-                    // time in I(mid) by definition
-                    return lastKeyIndex = mid;
-                }
-            }
-
-            if (keys[low].getTime() <= time && time < keys[low + 1].getTime()) {
-                return lastKeyIndex = low;
-            }
-
-            if (low + 2 < keys.length &&
-                    keys[low + 1].getTime() <= time && time < keys[low + 2].getTime()) {
-                return lastKeyIndex = low + 1;
-            }
-
-            Log.v(TAG, "Warning: interpolation failed at time " + time);
-            return lastKeyIndex = -1;
-        }
-    }
-
     /**
      * Constructor.
      * 
@@ -144,16 +34,12 @@ public final class GVRAnimationChannel implements PrettyPrint {
             int numScaleKeys, GVRAnimationBehavior preBehavior, GVRAnimationBehavior postBehavior) {
 
         m_nodeName = nodeName;
-        mPositionKeys = new GVRPositionKey[numPosKeys];
-        mRotationKeys = new GVRRotationKey[numRotKeys];
-        mScaleKeys = new GVRScaleKey[numScaleKeys];
+        mPositionKeys = new GVRKeyFrameSampler(numPosKeys, 3);
+        mRotationKeys = new GVRKeyFrameSampler(numRotKeys, 4);
+        mScaleKeys = new GVRKeyFrameSampler(numScaleKeys, 3);
         mPreState = preBehavior;
         mPostState = postBehavior;
 
-        mPositionInterpolator = new KeyFrameInterplator<Vector3f>(mPositionKeys, sInterpolatorVector3f);
-        mRotationInterpolator = new KeyFrameInterplator<Quaternionf>(mRotationKeys, sInterpolatorQuaternion);
-        mScaleInterpolator = new KeyFrameInterplator<Vector3f>(mScaleKeys, sInterpolatorVector3f);
-
         mCurrentTransform = new Matrix4f();
     }
 
@@ -176,7 +62,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the number of position keys
      */
     public int getNumPosKeys() {
-        return mPositionKeys.length;
+        return mPositionKeys.getNumKeys();
     }
     
     /**
@@ -186,7 +72,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the time component
      */
     public double getPosKeyTime(int keyIndex) {
-        return mPositionKeys[keyIndex].getTime();
+        return mPositionKeys.getTime(keyIndex);
     }
 
     /**
@@ -197,11 +83,11 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the position as vector
      */
     public Vector3f getPosKeyVector(int keyIndex) {
-        return mPositionKeys[keyIndex].getValue();
+        return mPositionKeys.getKey(keyIndex, new Vector3f());
     }
 
     public void setPosKeyVector(int keyIndex, float time, final float x, final float y, final float z) {
-        mPositionKeys[keyIndex] = new GVRPositionKey(time, x, y, z);
+        mPositionKeys.setKey(keyIndex, time, x, y, z);
     }
 
     /** 
@@ -210,7 +96,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the number of rotation keys
      */
     public int getNumRotKeys() {
-       return mRotationKeys.length;
+       return mRotationKeys.getNumKeys();
     }
 
 
@@ -221,7 +107,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the time component
      */
     public double getRotKeyTime(int keyIndex) {
-        return mRotationKeys[keyIndex].getTime();
+        return mRotationKeys.getTime(keyIndex);
     }
 
 
@@ -234,11 +120,11 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the rotation as quaternion
      */
     public Quaternionf getRotKeyQuaternion(int keyIndex) {
-        return mRotationKeys[keyIndex].getValue();
+        return mRotationKeys.getKey(keyIndex, new Quaternionf());
     } 
 
     public void setRotKeyQuaternion(int keyIndex, float time, Quaternionf rot) {
-        mRotationKeys[keyIndex] = new GVRRotationKey(time, rot.x, rot.y, rot.z, rot.w);
+        mRotationKeys.setKey(keyIndex, time, rot.x, rot.y, rot.z, rot.w);
     }
 
     /** 
@@ -247,7 +133,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the number of scaling keys
      */
     public int getNumScaleKeys() {
-        return mScaleKeys.length;
+        return mScaleKeys.getNumKeys();
     }
 
 
@@ -258,7 +144,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the time component
      */
     public double getScaleKeyTime(int keyIndex) {
-        return mRotationKeys[keyIndex].getTime();
+        return mScaleKeys.getTime(keyIndex);
     }
 
 
@@ -270,11 +156,11 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the scaling factor as vector
      */
     public Vector3f getScaleKeyVector(int keyIndex) {
-        return mScaleKeys[keyIndex].getValue();
+        return mScaleKeys.getKey(keyIndex, new Vector3f());
     }
 
     public void setScaleKeyVector(int keyIndex, float time, final float x, final float y, final float z) {
-        mScaleKeys[keyIndex] = new GVRScaleKey(time, x, y, z);
+        mScaleKeys.setKey(keyIndex, time, x, y, z);
     }
 
     /** 
@@ -308,55 +194,76 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * 
      * @param animationTime The time in animation.
      * 
-     * @return The transform.
+     * @return The transform. The returned matrix is owned by the channel
+     *         and is overwritten by the next call.
      */
     public Matrix4f animate(float animationTime) {
-        Vector3f scale = getScale(animationTime);
-        Vector3f pos = getPosition(animationTime);
-        Quaternionf rot = getRotation(animationTime);
+        return animate(animationTime, mCurrentTransform);
+    }
 
-        // Allocation-free
-        Matrix4f mat = mCurrentTransform.set(rot);
+    /**
+     * Computes the transform for a specific time in animation without
+     * allocating.
+     *
+     * @param animationTime The time in animation.
+     * @param dest Receives the transform.
+     *
+     * @return {@code dest}
+     */
+    public Matrix4f animate(float animationTime, Matrix4f dest) {
+        Vector3f scale = getScale(animationTime, mCurrentScale);
+        Vector3f pos = getPosition(animationTime, mCurrentPosition);
+        Quaternionf rot = getRotation(animationTime, mCurrentRotation);
 
-        mat.scale(scale).setTranslation(pos);
+        return dest.translationRotateScale(pos, rot, scale);
+    }
 
-        return mat;
+    /**
+     * Returns the packed position keys of this channel.
+     *
+     * @return sampler holding the position keys
+     */
+    public GVRKeyFrameSampler getPositionKeys() {
+        return mPositionKeys;
     }
 
-    protected Vector3f getPosition(float time) {
-        Vector3f defaultPosition = new Vector3f();
-        
-        if (mPositionKeys.length == 0) {
-            return defaultPosition;
-        } else if (mPositionKeys.length == 1) {
-            return mPositionKeys[0].getValue();
-        }
+    /**
+     * Returns the packed rotation keys of this channel.
+     *
+     * @return sampler holding the rotation keys
+     */
+    public GVRKeyFrameSampler getRotationKeys() {
+        return mRotationKeys;
+    }
 
-        return mPositionInterpolator.interpolate(time);
+    /**
+     * Returns the packed scale keys of this channel.
+     *
+     * @return sampler holding the scale keys
+     */
+    public GVRKeyFrameSampler getScaleKeys() {
+        return mScaleKeys;
     }
 
-    protected Vector3f getScale(float time) {
-        Vector3f defaultScale = new Vector3f(1f, 1f, 1f);
-        
-        if (mScaleKeys.length == 0) {
-            return defaultScale;
-        } else if (mScaleKeys.length == 1) {
-            return mScaleKeys[0].getValue();
+    protected Vector3f getPosition(float time, Vector3f dest) {
+        if (mPositionKeys.getNumKeys() == 0) {
+            return dest.set(0, 0, 0);
         }
-
-        return mScaleInterpolator.interpolate(time);
+        return mPositionKeys.sample(time, dest);
     }
 
-    protected Quaternionf getRotation(float time) {
-        Quaternionf defaultRotation = new Quaternionf();
-
-        if (mRotationKeys.length == 0) {
-            return defaultRotation;
-        } else if (mRotationKeys.length == 1) {
-            return mRotationKeys[0].getValue();
+    protected Vector3f getScale(float time, Vector3f dest) {
+        if (mScaleKeys.getNumKeys() == 0) {
+            return dest.set(1, 1, 1);
         }
+        return mScaleKeys.sample(time, dest);
+    }
 
-        return mRotationInterpolator.interpolate(time);
+    protected Quaternionf getRotation(float time, Quaternionf dest) {
+        if (mRotationKeys.getNumKeys() == 0) {
+            return dest.identity();
+        }
+        return mRotationKeys.sample(time, dest);
     }
 
     @Override
@@ -364,9 +271,9 @@ public final class GVRAnimationChannel implements PrettyPrint {
         sb.append(Log.getSpaces(indent));
         sb.append(GVRAnimationChannel.class.getSimpleName());
         sb.append(" [nodeName=" + m_nodeName + ", positionKeys="
-                + mPositionKeys.length + ", rotationKeys="
-                + mRotationKeys.length + ", scaleKeys="
-                + mScaleKeys.length + ", m_preState=" + mPreState
+                + mPositionKeys.getNumKeys() + ", rotationKeys="
+                + mRotationKeys.getNumKeys() + ", scaleKeys="
+                + mScaleKeys.getNumKeys() + ", m_preState=" + mPreState
                 + ", m_postState=" + mPostState + "]");
         sb.append(System.lineSeparator());
     }
@@ -383,15 +290,14 @@ public final class GVRAnimationChannel implements PrettyPrint {
      */
     private final String m_nodeName;
 
-    private final GVRPositionKey[] mPositionKeys;
-    private final GVRRotationKey[] mRotationKeys;
-    private final GVRScaleKey[] mScaleKeys;
-
-    private final KeyFrameInterplator<Vector3f> mPositionInterpolator;
-    private final KeyFrameInterplator<Quaternionf> mRotationInterpolator;
-    private final KeyFrameInterplator<Vector3f> mScaleInterpolator;
+    private final GVRKeyFrameSampler mPositionKeys;
+    private final GVRKeyFrameSampler mRotationKeys;
+    private final GVRKeyFrameSampler mScaleKeys;
 
     protected Matrix4f mCurrentTransform;
+    private final Vector3f mCurrentPosition = new Vector3f();
+    private final Vector3f mCurrentScale = new Vector3f();
+    private final Quaternionf mCurrentRotation = new Quaternionf();
 
     /**
      * Pre-animation behavior.
@@ -123,10 +123,13 @@ public class GVRKeyFrameAnimation extends GVRAnimation implements PrettyPrint {
         mSkinningController.animate(getDuration() * ratio);
     }
 
+    /**
+     * Samples every channel at {@code animationTime}. The returned array is
+     * reused between calls, so sampling does not allocate.
+     */
     protected Matrix4f[] getTransforms(float animationTime) {
-        int i = 0;
-        for (GVRAnimationChannel channel : mChannels) {
-            mTransforms[i++].set(channel.animate(animationTime));
+        for (int i = 0; i < mTransforms.length; ++i) {
+            mChannels.get(i).animate(animationTime, mTransforms[i]);
         }
         return mTransforms;
     }
@@ -0,0 +1,223 @@
+package org.gearvrf.animation.keyframe;
+
+import org.gearvrf.utility.Log;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * Packed keyframe storage for one component of an animation channel.<p>
+ *
+ * Key times are kept in one {@code float[]} and key values in another,
+ * {@link #getStride()} floats per key (3 for positions and scales,
+ * 4 for rotation quaternions). Sampling writes into caller-supplied
+ * objects and never allocates, so a whole {@link GVRKeyFrameAnimation}
+ * can be evaluated every frame without producing garbage.
+ */
+public final class GVRKeyFrameSampler {
+    private static final String TAG = GVRKeyFrameSampler.class.getSimpleName();
+
+    private final float[] mTimes;
+    private final float[] mValues;
+    private final int mStride;
+    private int mLastKeyIndex;
+
+    // Scratch storage used by quaternion interpolation
+    private final Quaternionf mStart = new Quaternionf();
+    private final Quaternionf mEnd = new Quaternionf();
+
+    /**
+     * Constructor.
+     *
+     * @param numKeys number of keys
+     * @param stride number of floats per key value
+     */
+    public GVRKeyFrameSampler(int numKeys, int stride) {
+        mTimes = new float[numKeys];
+        mValues = new float[numKeys * stride];
+        mStride = stride;
+        mLastKeyIndex = -1;
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return the number of keys
+     */
+    public int getNumKeys() {
+        return mTimes.length;
+    }
+
+    /**
+     * Returns the number of floats stored per key value.
+     *
+     * @return 3 for vector keys, 4 for quaternion keys
+     */
+    public int getStride() {
+        return mStride;
+    }
+
+    /**
+     * Returns the time of the specified key.
+     *
+     * @param keyIndex the index of the key
+     * @return the key time in ticks
+     */
+    public float getTime(int keyIndex) {
+        return mTimes[keyIndex];
+    }
+
+    /**
+     * Returns the packed key times. The array is not copied.
+     *
+     * @return array of key times, one per key
+     */
+    public float[] getTimes() {
+        return mTimes;
+    }
+
+    /**
+     * Returns the packed key values. The array is not copied.
+     *
+     * @return array of key values, {@link #getStride()} floats per key
+     */
+    public float[] getValues() {
+        return mValues;
+    }
+
+    /**
+     * Sets a vector key.
+     */
+    public void setKey(int keyIndex, float time, float x, float y, float z) {
+        int offset = keyIndex * mStride;
+        mTimes[keyIndex] = time;
+        mValues[offset] = x;
+        mValues[offset + 1] = y;
+        mValues[offset + 2] = z;
+        mLastKeyIndex = -1;
+    }
+
+    /**
+     * Sets a quaternion key. The sampler must have a stride of 4.
+     */
+    public void setKey(int keyIndex, float time, float x, float y, float z, float w) {
+        int offset = keyIndex * mStride;
+        mTimes[keyIndex] = time;
+        mValues[offset] = x;
+        mValues[offset + 1] = y;
+        mValues[offset + 2] = z;
+        mValues[offset + 3] = w;
+        mLastKeyIndex = -1;
+    }
+
+    /**
+     * Copies the value of a vector key into {@code dest}.
+     *
+     * @return {@code dest}
+     */
+    public Vector3f getKey(int keyIndex, Vector3f dest) {
+        int offset = keyIndex * mStride;
+        return dest.set(mValues[offset], mValues[offset + 1], mValues[offset + 2]);
+    }
+
+    /**
+     * Copies the value of a quaternion key into {@code dest}.
+     *
+     * @return {@code dest}
+     */
+    public Quaternionf getKey(int keyIndex, Quaternionf dest) {
+        int offset = keyIndex * mStride;
+        return dest.set(mValues[offset], mValues[offset + 1], mValues[offset + 2], mValues[offset + 3]);
+    }
+
+    /**
+     * Linearly interpolates a vector value at {@code time}. Times before the
+     * first key or after the last key are clamped.
+     *
+     * @param time time in ticks
+     * @param dest receives the interpolated value
+     * @return {@code dest}
+     */
+    public Vector3f sample(float time, Vector3f dest) {
+        int index = findInterval(time);
+        if (index < 0) {
+            return getKey(clampIndex(time), dest);
+        }
+
+        int start = index * mStride;
+        int end = start + mStride;
+        float factor = getFactor(index, time);
+        return dest.set(mValues[start] + (mValues[end] - mValues[start]) * factor,
+                mValues[start + 1] + (mValues[end + 1] - mValues[start + 1]) * factor,
+                mValues[start + 2] + (mValues[end + 2] - mValues[start + 2]) * factor);
+    }
+
+    /**
+     * Spherically interpolates a quaternion value at {@code time}. Times
+     * before the first key or after the last key are clamped.
+     *
+     * @param time time in ticks
+     * @param dest receives the interpolated value
+     * @return {@code dest}
+     */
+    public Quaternionf sample(float time, Quaternionf dest) {
+        int index = findInterval(time);
+        if (index < 0) {
+            return getKey(clampIndex(time), dest);
+        }
+
+        getKey(index, mStart);
+        getKey(index + 1, mEnd);
+        return mStart.slerp(mEnd, getFactor(index, time), dest);
+    }
+
+    private float getFactor(int index, float time) {
+        return (time - mTimes[index]) / (mTimes[index + 1] - mTimes[index]);
+    }
+
+    private int clampIndex(float time) {
+        return (time <= mTimes[0]) ? 0 : mTimes.length - 1;
+    }
+
+    /*
+     * Returns the index i such that time is in [time(i), time(i + 1)),
+     * or -1 if time is outside of the key range.
+     */
+    private int findInterval(float time) {
+        final float[] times = mTimes;
+        final int last = times.length - 1;
+
+        if (last < 1 || time < times[0] || time >= times[last]) {
+            return -1;
+        }
+
+        // Try cached key first, then its neighbours
+        int cached = mLastKeyIndex;
+        if (cached != -1) {
+            if (times[cached] <= time && time < times[cached + 1]) {
+                return cached;
+            }
+            if (cached + 2 <= last && times[cached + 1] <= time && time < times[cached + 2]) {
+                return mLastKeyIndex = cached + 1;
+            }
+            if (cached >= 1 && times[cached - 1] <= time && time < times[cached]) {
+                return mLastKeyIndex = cached - 1;
+            }
+        }
+
+        // Binary search for the interval
+        int low = 0, high = last - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (time < times[mid]) {
+                high = mid - 1;
+            } else if (time >= times[mid + 1]) {
+                low = mid + 1;
+            } else {
+                return mLastKeyIndex = mid;
+            }
+        }
+
+        Log.v(TAG, "Warning: interpolation failed at time " + time);
+        return mLastKeyIndex = -1;
+    }
+}
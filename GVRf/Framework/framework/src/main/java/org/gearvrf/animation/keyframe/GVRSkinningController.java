@@ -5,18 +5,24 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.TreeMap;
 
 import org.gearvrf.GVRBone;
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRMesh;
 import org.gearvrf.GVRSceneObject;
+import org.gearvrf.GVRVertexBoneData;
 import org.gearvrf.utility.Log;
 import org.joml.Matrix4f;
 
 /**
- * Controls skeletal animation (skinning). 
+ * Controls skeletal animation (skinning).
+ *
+ * The skeleton is compiled once at construction into a topologically
+ * ordered set of arrays (parent index, channel index, local and global
+ * matrices). Each frame the globals are evaluated in order and the bone
+ * palette of every skinned mesh is written into a packed {@code float[]}
+ * which is sent to {@link GVRVertexBoneData} with a single native call.
  */
 public class GVRSkinningController extends GVRAnimationController {
     private static final String TAG = GVRSkinningController.class.getSimpleName();
@@ -28,6 +34,48 @@ public class GVRSkinningController extends GVRAnimationController {
     protected Map<String, SceneAnimNode> nodeByName;
     protected Map<GVRSceneObject, List<GVRBone>> boneMap;
 
+    /*
+     * Compiled skeleton, in pre-order so that a parent is always
+     * evaluated before its children.
+     */
+    protected GVRSceneObject[] mNodes;
+    protected int[] mParentIndex;
+    protected int[] mChannelIds;
+    protected Matrix4f[] mLocalTransforms;
+    protected Matrix4f[] mGlobalTransforms;
+
+    protected List<SkinnedMesh> mSkinnedMeshes;
+    private final Matrix4f mTempMatrix = new Matrix4f();
+
+    /**
+     * Bone palette of one skinned mesh.
+     */
+    protected static class SkinnedMesh {
+        static final int NOT_ANIMATED = -1;
+        static final int UNRESOLVED = -2;
+
+        final GVRMesh mesh;
+        final GVRSceneObject owner;
+        /*
+         * Index into the compiled skeleton for each bone, NOT_ANIMATED if the
+         * bone stays at its bind pose or UNRESOLVED if its node was not found
+         */
+        final int[] boneNodes;
+        /* Bone offset matrix, premultiplied by the bind pose if the bone is not animated */
+        final Matrix4f[] boneOffsets;
+        final float[] palette;
+        final Matrix4f inverseModel = new Matrix4f();
+
+        SkinnedMesh(GVRMesh mesh, GVRSceneObject owner) {
+            int numBones = mesh.getBones().size();
+            this.mesh = mesh;
+            this.owner = owner;
+            boneNodes = new int[numBones];
+            boneOffsets = new Matrix4f[numBones];
+            palette = new float[numBones * 16];
+        }
+    }
+
     protected class SceneAnimNode {
         GVRSceneObject sceneObject;
         SceneAnimNode parent;
@@ -59,8 +107,11 @@ public class GVRSkinningController extends GVRAnimationController {
         nodeByName = new TreeMap<String, SceneAnimNode>();
         boneMap = new HashMap<GVRSceneObject, List<GVRBone>>();
 
+        mSkinnedMeshes = new ArrayList<SkinnedMesh>();
+
         animRoot = createAnimationTree(sceneRoot, null);
         pruneTree(animRoot);
+        compileSkeleton();
     }
 
     protected SceneAnimNode createAnimationTree(GVRSceneObject node, SceneAnimNode parent) {
@@ -95,6 +146,9 @@ public class GVRSkinningController extends GVRAnimationController {
         GVRMesh mesh;
         if (node.getRenderData() != null && (mesh = node.getRenderData().getMesh()) != null) {
             Log.v(TAG, "setupBone checking mesh with %d vertices", mesh.getVertices().length / 3);
+            if (!mesh.getBones().isEmpty()) {
+                mSkinnedMeshes.add(new SkinnedMesh(mesh, node));
+            }
             for (GVRBone bone : mesh.getBones()) {
                 bone.setSceneObject(node);
 
@@ -116,48 +170,119 @@ public class GVRSkinningController extends GVRAnimationController {
     }
 
     /**
-     * Update bone transforms for the specified tick.
+     * Flattens the pruned animation tree into arrays and resolves every
+     * bone of every skinned mesh to an index in those arrays.
      */
-    @Override
-    protected void animateImpl(float animationTick) {
-        Matrix4f[] animationTransform = animation.getTransforms(animationTick);
-
-        updateTransforms(animRoot, new Matrix4f(), animationTransform);
+    protected void compileSkeleton() {
+        List<SceneAnimNode> ordered = new ArrayList<SceneAnimNode>();
+        flattenTree(animRoot, ordered);
+
+        int numNodes = ordered.size();
+        Map<SceneAnimNode, Integer> indexOf = new HashMap<SceneAnimNode, Integer>();
+        mNodes = new GVRSceneObject[numNodes];
+        mParentIndex = new int[numNodes];
+        mChannelIds = new int[numNodes];
+        mLocalTransforms = new Matrix4f[numNodes];
+        mGlobalTransforms = new Matrix4f[numNodes];
+
+        for (int i = 0; i < numNodes; ++i) {
+            SceneAnimNode node = ordered.get(i);
+            Integer parent = (node.parent != null) ? indexOf.get(node.parent) : null;
+
+            indexOf.put(node, i);
+            mNodes[i] = node.sceneObject;
+            mParentIndex[i] = (parent != null) ? parent : -1;
+            mChannelIds[i] = node.channelId;
+            mLocalTransforms[i] = node.localTransform;
+            mGlobalTransforms[i] = node.globalTransform;
+        }
 
-        for (Entry<GVRSceneObject, List<GVRBone>> ent : boneMap.entrySet()) {
-            // Transform all bone splits (a bone can be split into multiple instances if they influence
-            // different meshes)
-            SceneAnimNode node = nodeByName.get(ent.getKey().getName());
-            for (GVRBone bone : ent.getValue()) {
-                updateBoneMatrices(bone, node);
+        for (SkinnedMesh skin : mSkinnedMeshes) {
+            List<GVRBone> bones = skin.mesh.getBones();
+            for (int b = 0; b < bones.size(); ++b) {
+                GVRBone bone = bones.get(b);
+                SceneAnimNode node = nodeByName.get(bone.getName());
+                Integer index = (node != null) ? indexOf.get(node) : null;
+
+                skin.boneOffsets[b] = bone.getOffsetMatrix();
+                if (node == null) {
+                    Log.w(TAG, "cannot find the skeletal node for bone: %s", bone.getName());
+                    skin.boneNodes[b] = SkinnedMesh.UNRESOLVED;
+                } else if (index != null) {
+                    skin.boneNodes[b] = index;
+                } else {
+                    // Pruned from the skeleton: the global transform stays at the bind pose
+                    skin.boneNodes[b] = SkinnedMesh.NOT_ANIMATED;
+                    node.globalTransform.mul(skin.boneOffsets[b], skin.boneOffsets[b]);
+                }
             }
         }
     }
 
-    protected void updateTransforms(SceneAnimNode node, Matrix4f parentTransform, Matrix4f[] animationTransform) {
-        if (node.channelId != -1) {
-            node.localTransform.set(animationTransform[node.channelId]);
-        } else {
-            // Default local transform
-            node.localTransform.set(node.sceneObject.getTransform().getLocalModelMatrix4f());
+    private void flattenTree(SceneAnimNode node, List<SceneAnimNode> ordered) {
+        ordered.add(node);
+        for (SceneAnimNode child : node.children) {
+            flattenTree(child, ordered);
         }
+    }
 
-        parentTransform.mul(node.localTransform, node.globalTransform);
+    /**
+     * Update bone transforms for the specified tick.
+     */
+    @Override
+    protected void animateImpl(float animationTick) {
+        Matrix4f[] animationTransform = animation.getTransforms(animationTick);
 
-        for (SceneAnimNode child : node.children) {
-            updateTransforms(child, node.globalTransform, animationTransform);
+        updateTransforms(animationTransform);
+
+        for (int i = 0; i < mSkinnedMeshes.size(); ++i) {
+            updateBoneMatrices(mSkinnedMeshes.get(i));
         }
     }
 
-    protected void updateBoneMatrices(GVRBone bone, SceneAnimNode node) {
-        Matrix4f finalMatrix = new Matrix4f().set(bone.getOffsetMatrix());
+    protected void updateTransforms(Matrix4f[] animationTransform) {
+        for (int i = 0; i < mNodes.length; ++i) {
+            Matrix4f local = mLocalTransforms[i];
+            int channelId = mChannelIds[i];
+            int parent = mParentIndex[i];
+
+            if (channelId != -1) {
+                local.set(animationTransform[channelId]);
+            } else {
+                // Default local transform
+                local.set(mNodes[i].getTransform().getLocalModelMatrix());
+            }
 
-        node.globalTransform.mul(finalMatrix, finalMatrix);
+            if (parent != -1) {
+                mGlobalTransforms[parent].mul(local, mGlobalTransforms[i]);
+            } else {
+                mGlobalTransforms[i].set(local);
+            }
+        }
+    }
 
-        Matrix4f globalInverse = new Matrix4f().set(bone.getSceneObject().getTransform().getModelMatrix4f()).invert();
-        globalInverse.mul(finalMatrix, finalMatrix);
+    /**
+     * Computes the bone palette of one mesh and sends it to native code
+     * in a single call.
+     */
+    protected void updateBoneMatrices(SkinnedMesh skin) {
+        Matrix4f inverseModel = skin.inverseModel.set(skin.owner.getTransform().getModelMatrix()).invert();
+        Matrix4f finalMatrix = mTempMatrix;
+
+        for (int b = 0; b < skin.boneNodes.length; ++b) {
+            int node = skin.boneNodes[b];
+            if (node >= 0) {
+                mGlobalTransforms[node].mul(skin.boneOffsets[b], finalMatrix);
+                inverseModel.mul(finalMatrix, finalMatrix);
+            } else if (node == SkinnedMesh.NOT_ANIMATED) {
+                inverseModel.mul(skin.boneOffsets[b], finalMatrix);
+            } else {
+                finalMatrix.identity();
+            }
+            finalMatrix.get(skin.palette, b * 16);
+        }
 
-        bone.setFinalTransformMatrix(finalMatrix);
+        skin.mesh.getVertexBoneData().setFinalBoneTransforms(skin.palette);
     }
 
     /* Returns true if the subtree should be kept */
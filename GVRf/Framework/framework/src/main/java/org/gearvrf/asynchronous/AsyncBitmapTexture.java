@@ -33,7 +33,9 @@ import org.gearvrf.GVRBitmapTexture;
 import org.gearvrf.GVRContext;
 import org.gearvrf.asynchronous.Throttler.AsyncLoader;
 import org.gearvrf.asynchronous.Throttler.AsyncLoaderFactory;
+import org.gearvrf.asynchronous.GVRBitmapDecoder.Image;
 import org.gearvrf.asynchronous.Throttler.GlConverter;
+import org.gearvrf.utility.BitmapPool;
 import org.gearvrf.utility.Exceptions;
 import org.gearvrf.utility.Log;
 import org.gearvrf.utility.RecycleBin;
@@ -65,6 +67,12 @@ import android.content.pm.ApplicationInfo;
  * settings are very conservative, and will usually give much smaller textures
  * than necessary.
  * 
+ * <p>
+ * Textures are decoded by a {@link GVRBitmapDecoder}, which reuses bitmaps
+ * and pixel buffers across loads and generates the mip levels on the loader
+ * thread; the resulting {@link org.gearvrf.GVRMipmappedTexture} is uploaded
+ * over several frames.
+ * 
  * @since 1.6.1
  */
 class AsyncBitmapTexture {
@@ -96,9 +104,9 @@ class AsyncBitmapTexture {
 
     private AsyncBitmapTexture() {
         AsyncManager.get().registerDatatype(TEXTURE_CLASS,
-                new AsyncLoaderFactory<GVRBitmapTexture, Bitmap>() {
+                new AsyncLoaderFactory<GVRBitmapTexture, Image>() {
             @Override
-            AsyncLoader<GVRBitmapTexture, Bitmap> threadProc(GVRContext gvrContext,
+            AsyncLoader<GVRBitmapTexture, Image> threadProc(GVRContext gvrContext,
                     GVRAndroidResource request,
                     CancelableCallback<GVRBitmapTexture> callback,
                     int priority) {
@@ -142,6 +150,12 @@ class AsyncBitmapTexture {
      */
     private static final float MAXIMUM_IMAGE_FACTOR = 0.625f;
 
+    /**
+     * Most memory the {@link #bitmapPool} keeps between decodes, as a multiple
+     * of the "memory class"
+     */
+    private static final float BITMAP_POOL_FACTOR = 0.125f;
+
     /**
      * When {@link #fractionalDecode(FractionalDecodeShim, Options, int, int)}
      * reads large bitmaps one 'stripe' at a time, this is the maximum number of
@@ -194,6 +208,7 @@ class AsyncBitmapTexture {
         int heapSize = Memory.getMemoryClass();
         maxImageSize = (int) (heapSize * sizePolicy.getMaximumImageFactor());
         Log.d(TAG, "Set maxImageSize == %, d", maxImageSize);
+        bitmapPool.setMaxBytes((long) (heapSize * BITMAP_POOL_FACTOR));
 
         gvrContext.runOnGlThread(new Runnable() {
 
@@ -326,14 +341,19 @@ class AsyncBitmapTexture {
      * Asynchronous loader
      */
 
+    /**
+     * Bitmaps are decoded into a mip chain on the loader thread; the texture
+     * uploads it a slice at a time on the GL thread.
+     */
     private static class AsyncLoadTextureResource extends
-            AsyncLoader<GVRBitmapTexture, Bitmap> {
+            AsyncLoader<GVRBitmapTexture, Image> {
 
-        private static final GlConverter<GVRBitmapTexture, Bitmap> sConverter = new GlConverter<GVRBitmapTexture, Bitmap>() {
+        private static final GlConverter<GVRBitmapTexture, Image> sConverter = new GlConverter<GVRBitmapTexture, Image>() {
 
             @Override
-            public GVRBitmapTexture convert(GVRContext gvrContext, Bitmap bitmap) {
-                return new GVRBitmapTexture(gvrContext, bitmap);
+            public GVRBitmapTexture convert(GVRContext gvrContext, Image image) {
+                return image.createTexture(gvrContext,
+                        gvrContext.DEFAULT_TEXTURE_PARAMETERS);
             }
         };
 
@@ -344,19 +364,25 @@ class AsyncBitmapTexture {
         }
 
         @Override
-        protected Bitmap loadResource() throws IOException {
-            Bitmap bitmap;
+        protected Image loadResource() throws IOException {
             String resourceName = resource.getResourceFilename();
-            if (resourceName.toLowerCase().endsWith("tga")) {
-                // decodeStream for sure do not support tga
-                bitmap = decodeStreamTGA(resource.getStream());
-            } else {
-                bitmap = decodeStream(resource.getStream(),
-                        glMaxTextureSize, glMaxTextureSize, true, null, false);
+            try {
+                if (resourceName.toLowerCase().endsWith("tga")) {
+                    // decodeStream for sure do not support tga
+                    Bitmap bitmap = decodeStreamTGA(resource.getStream());
+                    if (bitmap == null) {
+                        return null;
+                    }
+                    Image image = decoder.createMipChain(bitmap);
+                    bitmapPool.putBitmap(bitmap);
+                    return image;
+                } else {
+                    return decoder.decode(resource.getStream(),
+                            glMaxTextureSize, glMaxTextureSize, maxImageSize);
+                }
+            } finally {
+                resource.closeStream();
             }
-
-            resource.closeStream();
-            return bitmap;
         }
     }
 
@@ -1071,6 +1097,14 @@ class AsyncBitmapTexture {
     private static RecycleBin<byte[]> bufferBin = RecycleBin.<byte[]> soft()
             .synchronize();
 
+    /**
+     * Bitmaps and pixel buffers reused by the {@link #decoder}; sized by
+     * {@link #setup(GVRContext, ImageSizePolicy)}.
+     */
+    private static final BitmapPool bitmapPool = new BitmapPool(maxImageSize);
+
+    private static final GVRBitmapDecoder decoder = new GVRBitmapDecoder(bitmapPool);
+
     /*
      * Image size policy
      */
@@ -65,6 +65,49 @@ public class AsyncManager {
         mFactories.put(textureClass, asyncLoaderFactory);
     }
 
+    /**
+     * Gets the number of loads the default scheduler has queued. Requests for a
+     * resource which is already being loaded are not counted here.
+     * @return The number of loads queued so far.
+     */
+    public long getQueuedCount() {
+        return Throttler.get().getQueuedCount();
+    }
+
+    /**
+     * Gets the number of requests the default scheduler has satisfied by
+     * joining a load which was already pending.
+     * @return The number of coalesced requests.
+     */
+    public long getCoalescedCount() {
+        return Throttler.get().getCoalescedCount();
+    }
+
+    /**
+     * Gets the number of loads the default scheduler has completed.
+     * @return The number of decoded resources.
+     */
+    public long getDecodedCount() {
+        return Throttler.get().getDecodedCount();
+    }
+
+    /**
+     * Gets the number of loads the default scheduler has failed.
+     * @return The number of failed loads.
+     */
+    public long getFailedCount() {
+        return Throttler.get().getFailedCount();
+    }
+
+    /**
+     * Gets the number of loads the default scheduler has canceled because
+     * no callback wanted the resource any more.
+     * @return The number of canceled loads.
+     */
+    public long getCanceledCount() {
+        return Throttler.get().getCanceledCount();
+    }
+
     Map<Class<? extends GVRHybridObject>, AsyncLoaderFactory<? extends GVRHybridObject, ?>> getFactories() {
         return mFactories;
     }
@@ -0,0 +1,504 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.asynchronous;
+
+import java.io.BufferedInputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRMipmappedTexture;
+import org.gearvrf.GVRTextureParameters;
+import org.gearvrf.utility.BitmapPool;
+import org.gearvrf.utility.Log;
+import org.gearvrf.utility.RecycleBin;
+
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.Config;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapFactory.Options;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.Rect;
+
+/**
+ * Decodes images into the mip chains of {@link GVRMipmappedTexture}s, on a
+ * background thread.
+ * <p>
+ * An image is scaled to fit a maximum size: it is decoded with the largest
+ * power-of-two {@code inSampleSize} that keeps it at least that size, and
+ * then filtered down to the exact size. When the sampled image is large,
+ * it is decoded one tile at a time by a {@link BitmapRegionDecoder} and each
+ * tile is drawn into the result, so a photo of many megapixels never has to
+ * be in memory at once. The mip levels are then generated from the result,
+ * each by filtering the previous level down to half its size, and copied
+ * into one buffer of RGBA bytes, ready to be uploaded.
+ * <p>
+ * All bitmaps and the buffer come from a {@link BitmapPool}, and the bitmaps
+ * go back to it as soon as they have been copied, so decoding a series of
+ * images hardly allocates after the first few. A decoder can be used by
+ * several threads at once.
+ */
+public class GVRBitmapDecoder {
+    private static final String TAG = Log.tag(GVRBitmapDecoder.class);
+
+    /**
+     * Sampled images with more pixels than this are decoded one tile at a
+     * time.
+     */
+    private static final int TILED_DECODE_THRESHOLD = 1024 * 1024;
+
+    /** Width and height of a tile, in sampled pixels */
+    private static final int TILE_SIZE = 512;
+
+    private static final int DECODE_BUFFER_SIZE = 1024 * 16;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /** Smallest image we retry at, after running out of memory */
+    private static final int MIN_RETRY_BYTES = 64 * 64 * BYTES_PER_PIXEL;
+
+    /**
+     * A decoded image: the RGBA pixels of all its mip levels.
+     */
+    public static final class Image {
+        private final ByteBuffer mPixels;
+        private final int mWidth;
+        private final int mHeight;
+        private final int mLevels;
+        private final BitmapPool mPool;
+
+        private Image(ByteBuffer pixels, int width, int height, int levels, BitmapPool pool) {
+            mPixels = pixels;
+            mWidth = width;
+            mHeight = height;
+            mLevels = levels;
+            mPool = pool;
+        }
+
+        /**
+         * @return pixels of all levels, level 0 first, as laid out by
+         *         {@link GVRMipmappedTexture#getLevelOffset(int, int, int)}
+         */
+        public ByteBuffer getPixels() {
+            return mPixels;
+        }
+
+        public int getWidth() {
+            return mWidth;
+        }
+
+        public int getHeight() {
+            return mHeight;
+        }
+
+        public int getLevelCount() {
+            return mLevels;
+        }
+
+        /**
+         * Creates a texture which uploads the image, and returns its buffer
+         * to the pool after the upload. Do not use the image afterwards.
+         */
+        public GVRMipmappedTexture createTexture(GVRContext gvrContext,
+                GVRTextureParameters textureParameters) {
+            return new GVRMipmappedTexture(gvrContext, mPixels, mWidth, mHeight, mLevels,
+                    mPool, textureParameters);
+        }
+
+        /**
+         * Returns the buffer to the pool, for an image that is not going to
+         * be uploaded. Do not use the image afterwards.
+         */
+        public void recycle() {
+            mPool.putBuffer(mPixels);
+        }
+    }
+
+    private final BitmapPool mPool;
+
+    /**
+     * @param pool
+     *            Pool for the bitmaps and buffers of the decoder
+     */
+    public GVRBitmapDecoder(BitmapPool pool) {
+        mPool = pool;
+    }
+
+    public BitmapPool getPool() {
+        return mPool;
+    }
+
+    /**
+     * Decodes an image, scaled down to fit a maximum size, and generates its
+     * mip levels. Does not close the stream.
+     *
+     * @param stream
+     *            Image stream
+     * @param maxWidth
+     *            Largest width of level 0, in pixels
+     * @param maxHeight
+     *            Largest height of level 0, in pixels
+     * @param maxBytes
+     *            Largest size of level 0, in bytes, or 0 for no limit. Halved
+     *            (in both dimensions) as long as decoding runs out of memory.
+     * @return the decoded image, or {@code null} if the stream cannot be
+     *         decoded
+     * @throws IOException
+     *             if the stream cannot be read
+     */
+    public Image decode(InputStream stream, int maxWidth, int maxHeight, int maxBytes)
+            throws IOException {
+        Options options = new Options();
+        options.inDither = false;
+        options.inMutable = true;
+        options.inPreferredConfig = Config.ARGB_8888;
+        options.inTempStorage = sBufferBin.get();
+        if (options.inTempStorage == null) {
+            options.inTempStorage = new byte[DECODE_BUFFER_SIZE];
+        }
+
+        try {
+            Source source = (stream instanceof FileInputStream
+                    && ((FileInputStream) stream).getChannel().position() == 0)
+                    ? new DescriptorSource(((FileInputStream) stream).getFD())
+                    : new StreamSource(stream);
+
+            options.inJustDecodeBounds = true;
+            source.decode(options);
+            options.inJustDecodeBounds = false;
+            source.rewind();
+            // Decoding overwrites the bounds with the decoded size
+            final int width = options.outWidth;
+            final int height = options.outHeight;
+            if (width <= 0 || height <= 0) {
+                return null;
+            }
+
+            while (true) {
+                try {
+                    Bitmap bitmap = decode(source, options, width, height,
+                            maxWidth, maxHeight, maxBytes);
+                    return (bitmap != null) ? createMipChain(bitmap, true) : null;
+                } catch (OutOfMemoryError e) {
+                    mPool.clear();
+                    if (maxBytes <= 0) {
+                        maxBytes = (int) Math.min(Integer.MAX_VALUE,
+                                (long) width * height * BYTES_PER_PIXEL);
+                    }
+                    maxBytes /= 4;
+                    if (maxBytes < MIN_RETRY_BYTES) {
+                        throw e;
+                    }
+                    Log.w(TAG, "Out of memory decoding %dx%d image, retrying at %d bytes",
+                            width, height, maxBytes);
+                    source.rewind();
+                }
+            }
+        } finally {
+            sBufferBin.put(options.inTempStorage);
+        }
+    }
+
+    /**
+     * Generates the mip levels of a bitmap.
+     *
+     * @param bitmap
+     *            Level 0; not changed
+     * @return the mip chain of the bitmap
+     */
+    public Image createMipChain(Bitmap bitmap) {
+        return createMipChain(bitmap, false);
+    }
+
+    /*
+     * Decodes level 0: the image, sampled and scaled to fit the maximum
+     * size.
+     */
+    private Bitmap decode(Source source, Options options, int width, int height,
+            int maxWidth, int maxHeight, int maxBytes) throws IOException {
+        float scale = Math.min(1.0f,
+                Math.min((float) maxWidth / width, (float) maxHeight / height));
+        if (maxBytes > 0) {
+            scale = Math.min(scale, (float) Math.sqrt(
+                    (double) maxBytes / ((double) width * height * BYTES_PER_PIXEL)));
+        }
+        int targetWidth = Math.max(1, (int) (width * scale));
+        int targetHeight = Math.max(1, (int) (height * scale));
+
+        // The largest power of two which still decodes at least the target size
+        int sampleSize = Math.max(1, Integer.highestOneBit((int) (1.0f / scale)));
+        int sampledWidth = (width + sampleSize - 1) / sampleSize;
+        int sampledHeight = (height + sampleSize - 1) / sampleSize;
+        options.inSampleSize = sampleSize;
+
+        if (sampledWidth <= targetWidth && sampledHeight <= targetHeight) {
+            // Sampling alone gives the target size
+            return decodeInto(source, options, sampledWidth, sampledHeight);
+        }
+
+        BitmapRegionDecoder regionDecoder = null;
+        if (sampledWidth * sampledHeight > TILED_DECODE_THRESHOLD) {
+            regionDecoder = source.newRegionDecoder();
+            if (regionDecoder == null) {
+                source.rewind();
+            }
+        }
+        if (regionDecoder != null) {
+            try {
+                return decodeTiles(regionDecoder, options, targetWidth, targetHeight);
+            } finally {
+                regionDecoder.recycle();
+            }
+        }
+
+        Bitmap sampled = decodeInto(source, options, sampledWidth, sampledHeight);
+        if (sampled == null) {
+            return null;
+        }
+        try {
+            Bitmap target = mPool.getBitmap(targetWidth, targetHeight, Config.ARGB_8888);
+            draw(sampled, null, target, new Rect(0, 0, targetWidth, targetHeight));
+            return target;
+        } finally {
+            mPool.putBitmap(sampled);
+        }
+    }
+
+    /*
+     * Decodes the whole image into a pooled bitmap.
+     */
+    private Bitmap decodeInto(Source source, Options options, int width, int height)
+            throws IOException {
+        Bitmap pooled = mPool.getBitmap(width, height, Config.ARGB_8888);
+        options.inBitmap = pooled;
+        Bitmap bitmap;
+        try {
+            bitmap = source.decode(options);
+        } catch (IllegalArgumentException e) {
+            // The decoder could not reuse the bitmap
+            options.inBitmap = null;
+            source.rewind();
+            bitmap = source.decode(options);
+        } finally {
+            options.inBitmap = null;
+        }
+        if (bitmap != pooled) {
+            mPool.putBitmap(pooled);
+        }
+        return bitmap;
+    }
+
+    /*
+     * Decodes the image one tile at a time into a bitmap of the target size.
+     */
+    private Bitmap decodeTiles(BitmapRegionDecoder decoder, Options options,
+            int targetWidth, int targetHeight) {
+        final int width = decoder.getWidth();
+        final int height = decoder.getHeight();
+        final int sampleSize = options.inSampleSize;
+        final int rawTileSize = TILE_SIZE * sampleSize;
+
+        Bitmap target = mPool.getBitmap(targetWidth, targetHeight, Config.ARGB_8888);
+        Bitmap tile = mPool.getBitmap(TILE_SIZE, TILE_SIZE, Config.ARGB_8888);
+        Rect region = new Rect();
+        Rect source = new Rect();
+        Rect destination = new Rect();
+        try {
+            for (int top = 0; top < height; top += rawTileSize) {
+                for (int left = 0; left < width; left += rawTileSize) {
+                    region.set(left, top, Math.min(left + rawTileSize, width),
+                            Math.min(top + rawTileSize, height));
+
+                    // The decoder draws into the top left corner of the tile
+                    options.inBitmap = tile;
+                    Bitmap decoded = decoder.decodeRegion(region, options);
+                    if (decoded == null) {
+                        mPool.putBitmap(target);
+                        return null;
+                    }
+                    if (decoded != tile) {
+                        mPool.putBitmap(tile);
+                        tile = decoded;
+                    }
+
+                    source.set(0, 0,
+                            Math.min(tile.getWidth(), (region.width() + sampleSize - 1) / sampleSize),
+                            Math.min(tile.getHeight(), (region.height() + sampleSize - 1) / sampleSize));
+                    // Adjacent tiles round their shared edge the same way
+                    destination.set(scale(region.left, targetWidth, width),
+                            scale(region.top, targetHeight, height),
+                            scale(region.right, targetWidth, width),
+                            scale(region.bottom, targetHeight, height));
+                    draw(tile, source, target, destination);
+                }
+            }
+        } finally {
+            options.inBitmap = null;
+            mPool.putBitmap(tile);
+        }
+        return target;
+    }
+
+    private static int scale(int value, int target, int size) {
+        return (int) (((long) value * target + size / 2) / size);
+    }
+
+    /*
+     * Copies the mip levels of a bitmap into a pooled buffer. Level 0 goes
+     * back to the pool if recycle is true.
+     */
+    private Image createMipChain(Bitmap bitmap, boolean recycle) {
+        final int width = bitmap.getWidth();
+        final int height = bitmap.getHeight();
+        final int levels = GVRMipmappedTexture.getLevelCount(width, height);
+
+        Bitmap level = bitmap;
+        if (bitmap.getConfig() != Config.ARGB_8888) {
+            level = mPool.getBitmap(width, height, Config.ARGB_8888);
+            draw(bitmap, null, level, new Rect(0, 0, width, height));
+            if (recycle) {
+                mPool.putBitmap(bitmap);
+            }
+            recycle = true;
+        }
+
+        ByteBuffer pixels = mPool.getBuffer(GVRMipmappedTexture.getByteCount(width, height, levels));
+        Rect destination = new Rect();
+        for (int i = 0;; ++i) {
+            pixels.position(GVRMipmappedTexture.getLevelOffset(width, height, i));
+            level.copyPixelsToBuffer(pixels);
+            if (i + 1 == levels) {
+                break;
+            }
+
+            int levelWidth = GVRMipmappedTexture.getLevelSize(width, i + 1);
+            int levelHeight = GVRMipmappedTexture.getLevelSize(height, i + 1);
+            Bitmap next = mPool.getBitmap(levelWidth, levelHeight, Config.ARGB_8888);
+            destination.set(0, 0, levelWidth, levelHeight);
+            draw(level, null, next, destination);
+            if (level != bitmap || recycle) {
+                mPool.putBitmap(level);
+            }
+            level = next;
+        }
+        if (level != bitmap || recycle) {
+            mPool.putBitmap(level);
+        }
+
+        pixels.position(0);
+        return new Image(pixels, width, height, levels, mPool);
+    }
+
+    /*
+     * Filters a bitmap, or part of it, into a rectangle of another one,
+     * replacing its pixels.
+     */
+    private static void draw(Bitmap bitmap, Rect source, Bitmap target, Rect destination) {
+        Canvas canvas = new Canvas(target);
+        canvas.drawBitmap(bitmap, source, destination, sPaint);
+        canvas.setBitmap(null);
+    }
+
+    private static final Paint sPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    static {
+        sPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC));
+    }
+
+    /**
+     * A soft referenced set of <code>byte[DECODE_BUFFER_SIZE]</code> arrays.
+     */
+    private static final RecycleBin<byte[]> sBufferBin = RecycleBin.<byte[]> soft()
+            .synchronize();
+
+    /*
+     * Decodes either an InputStream or a FileDescriptor.
+     */
+    private interface Source {
+        Bitmap decode(Options options);
+
+        /**
+         * @return a region decoder, or {@code null} if the image format
+         *         cannot be decoded by region
+         */
+        BitmapRegionDecoder newRegionDecoder();
+
+        void rewind() throws IOException;
+    }
+
+    private static class StreamSource implements Source {
+        private final InputStream mStream;
+
+        StreamSource(InputStream stream) {
+            mStream = stream.markSupported() ? stream
+                    : new BufferedInputStream(stream, DECODE_BUFFER_SIZE);
+            mStream.mark(Integer.MAX_VALUE);
+        }
+
+        @Override
+        public Bitmap decode(Options options) {
+            return BitmapFactory.decodeStream(mStream, null, options);
+        }
+
+        @Override
+        public BitmapRegionDecoder newRegionDecoder() {
+            try {
+                return BitmapRegionDecoder.newInstance(mStream, false);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void rewind() throws IOException {
+            mStream.reset();
+        }
+    }
+
+    /*
+     * BitmapFactory leaves the position of the descriptor alone.
+     */
+    private static class DescriptorSource implements Source {
+        private final FileDescriptor mDescriptor;
+
+        DescriptorSource(FileDescriptor descriptor) {
+            mDescriptor = descriptor;
+        }
+
+        @Override
+        public Bitmap decode(Options options) {
+            return BitmapFactory.decodeFileDescriptor(mDescriptor, null, options);
+        }
+
+        @Override
+        public BitmapRegionDecoder newRegionDecoder() {
+            try {
+                return BitmapRegionDecoder.newInstance(mDescriptor, false);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void rewind() {
+        }
+    }
+}
@@ -24,6 +24,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.gearvrf.GVRAndroidResource;
 import org.gearvrf.GVRAndroidResource.Callback;
@@ -33,10 +35,8 @@ import org.gearvrf.GVRHybridObject;
 import org.gearvrf.GVRMesh;
 import org.gearvrf.utility.Exceptions;
 import org.gearvrf.utility.Log;
-import org.gearvrf.utility.RuntimeAssertion;
 import org.gearvrf.utility.Threads;
 import org.gearvrf.utility.Threads.Cancelable;
-import org.gearvrf.utility.Threads.ThreadLimiter;
 import org.gearvrf.utility.Threads.ThreadPolicyProvider;
 
 import android.graphics.Bitmap;
@@ -258,6 +258,31 @@ class Throttler implements Scheduler {
     // be wrong ....
     private final PendingRequests requests = new PendingRequests();
 
+    /** Number of loads handed to the loader pool */
+    long getQueuedCount() {
+        return requests.queuedCount.get();
+    }
+
+    /** Number of requests which joined a load that was already pending */
+    long getCoalescedCount() {
+        return requests.coalescedCount.get();
+    }
+
+    /** Number of loads which delivered a resource */
+    long getDecodedCount() {
+        return requests.decodedCount.get();
+    }
+
+    /** Number of loads which failed */
+    long getFailedCount() {
+        return requests.failedCount.get();
+    }
+
+    /** Number of loads canceled before they ran */
+    long getCanceledCount() {
+        return requests.canceledCount.get();
+    }
+
     /**
      * This is the 'heart' of the throttler.
      * 
@@ -266,6 +291,12 @@ class Throttler implements Scheduler {
      * pending load, the callback is simply added to the list. When a resource
      * is loaded, the object is passed to each callback on the list.
      * 
+     * There is no global lock: the map of pending requests is only updated
+     * with atomic operations, and each {@link PendingRequest} guards its own
+     * callback list. Once a request has delivered its result (or failed, or
+     * been canceled) it is closed and no longer accepts callbacks; a request
+     * that arrives at that point replaces it with a new load.
+     * 
      * TODO No longer *needs* to be a nested class ... not clear the change is
      * worth the effort, though.
      */
@@ -273,18 +304,20 @@ class Throttler implements Scheduler {
 
         private static final String TAG = Log.tag(PendingRequests.class);
 
-        private final Map<GVRAndroidResource, PendingRequest<? extends GVRHybridObject, ?>> pendingRequests =
+        private final ConcurrentHashMap<GVRAndroidResource, PendingRequest<? extends GVRHybridObject, ?>> pendingRequests =
                 new ConcurrentHashMap<GVRAndroidResource, PendingRequest<? extends GVRHybridObject, ?>>();
 
+        private final AtomicLong queuedCount = new AtomicLong();
+        private final AtomicLong coalescedCount = new AtomicLong();
+        private final AtomicLong decodedCount = new AtomicLong();
+        private final AtomicLong failedCount = new AtomicLong();
+        private final AtomicLong canceledCount = new AtomicLong();
+
         private Map<Class<? extends GVRHybridObject>, AsyncLoaderFactory<? extends GVRHybridObject, ?>> getFactories() {
             return AsyncManager.get().getFactories();
         }
 
-        private final ThreadLimiter<PriorityCancelable> deviceThreadLimiter = new ThreadLimiter<PriorityCancelable>(
-                DECODE_THREAD_LIMIT,
-                new PriorityCancelingLifoThreadPolicyProvider(),
-                /* Don't exceed DECODE_THREAD_LIMIT when a download gets wedged */
-                Integer.MAX_VALUE);
+        private final LoaderPool loaderPool = new LoaderPool(DECODE_THREAD_LIMIT);
 
         <OUTPUT extends GVRHybridObject, INTER> void registerCallback(GVRContext gvrContext,
                 Class<OUTPUT> outClass,
@@ -304,25 +337,33 @@ class Throttler implements Scheduler {
                 }
             }
 
-            ThreadLimiter<PriorityCancelable> threadLimiter = deviceThreadLimiter;
-
-            synchronized (pendingRequests) {
+            while (true) {
+                @SuppressWarnings("unchecked")
                 PendingRequest<OUTPUT, INTER> pending = (PendingRequest<OUTPUT, INTER>) pendingRequests
                         .get(request);
 
-                if (pending != null) {
-                    // There is already a request for this resource: add
-                    // callback, and reschedule
-                    pending.addCallback(callback, priority);
+                if (pending != null && pending.addCallback(callback, priority)) {
+                    // There is already a request for this resource: we added
+                    // our callback, now reschedule
                     if (VERBOSE_SCHEDULING) {
                         Log.d(TAG, "Thread %d: rescheduling %s for request %s",
                                 threadId(), pending, request);
                     }
-                    threadLimiter.reschedule(pending);
-                } else {
-                    // There is no current request for this resource. Create a
-                    // new PendingRequest, using a threadFactory to create the
-                    // appropriate AsyncLoader.
+                    coalescedCount.incrementAndGet();
+                    loaderPool.reschedule(pending);
+                    return;
+                }
+
+                // There is no open request for this resource. Create a new
+                // PendingRequest, using a threadFactory to create the
+                // appropriate AsyncLoader, and try to install it. If another
+                // thread beat us to it, join its request instead.
+                PendingRequest<OUTPUT, INTER> created = new PendingRequest<OUTPUT, INTER>(gvrContext,
+                        request, callback, priority, outClass);
+                boolean installed = (pending == null)
+                        ? pendingRequests.putIfAbsent(request, created) == null
+                        : pendingRequests.replace(request, pending, created);
+                if (installed) {
                     try
                     {
                         request.openStream();
@@ -331,16 +372,14 @@ class Throttler implements Scheduler {
                     {
                         callback.failed(ex, request);
                     }
-                    pending = new PendingRequest<OUTPUT, INTER>(gvrContext,
-                            request, callback, priority, outClass);
-
-                    pendingRequests.put(request, pending);
 
                     if (VERBOSE_SCHEDULING) {
                         Log.d(TAG, "Thread %d: spawning %s for request %s",
-                                threadId(), pending, request);
+                                threadId(), created, request);
                     }
-                    threadLimiter.spawn(pending);
+                    queuedCount.incrementAndGet();
+                    loaderPool.spawn(created);
+                    return;
                 }
             }
         }
@@ -352,11 +391,16 @@ class Throttler implements Scheduler {
 
             private final int EMPTY_LIST = GVRContext.LOWEST_PRIORITY - 1;
 
+            private static final int QUEUED = 0;
+            private static final int RUNNING = 1;
+            private static final int CLOSED = 2;
+
             private final GVRAndroidResource request;
             private final List<CancelableCallback<OUTPUT>> callbacks = new ArrayList<CancelableCallback<OUTPUT>>(1);
             private final Cancelable cancelable;
-            private int priority = EMPTY_LIST;
-            private int highestPriority = priority;
+            private final AtomicInteger state = new AtomicInteger(QUEUED);
+            private volatile int priority = EMPTY_LIST;
+            private volatile int highestPriority = priority;
 
             public PendingRequest(GVRContext gvrContext,
                     GVRAndroidResource request,
@@ -374,12 +418,48 @@ class Throttler implements Scheduler {
                         gvrContext, request, PendingRequest.this, priority);
             }
 
-            public void addCallback(CancelableCallback<OUTPUT> callback,
+            /**
+             * Adds a callback to an open request.
+             * 
+             * @return {@code false} if the request has already been closed
+             */
+            public synchronized boolean addCallback(CancelableCallback<OUTPUT> callback,
                     int priority) {
+                if (state.get() == CLOSED) {
+                    return false;
+                }
                 callbacks.add(callback);
                 if (priority > this.highestPriority) {
                     this.highestPriority = priority;
                 }
+                return true;
+            }
+
+            /*
+             * Closes the request and returns the callbacks to notify. Any
+             * request that comes in after this will not join this one.
+             */
+            private synchronized List<CancelableCallback<OUTPUT>> close() {
+                state.set(CLOSED);
+                List<CancelableCallback<OUTPUT>> listeners = new ArrayList<CancelableCallback<OUTPUT>>(callbacks);
+                callbacks.clear();
+                if (listeners.isEmpty()) {
+                    if (VERBOSE_SCHEDULING) {
+                        Log.d(TAG, "ready(), thread %d: no callbacks for request %s",
+                                threadId(), request);
+                    }
+                }
+                return listeners;
+            }
+
+            private void remove() {
+                if (VERBOSE_SCHEDULING) {
+                    Log.d(TAG,
+                            "ready(), thread %d: clearing pending request for request %s",
+                            threadId(), request);
+                }
+                // Only removes the entry if it has not already been replaced
+                pendingRequests.remove(request, this);
             }
 
             @Override
@@ -391,106 +471,60 @@ class Throttler implements Scheduler {
                             request);
                 }
 
+                List<CancelableCallback<OUTPUT>> listeners = close();
+
                 // gvrResource may be null, if we caught an exception in
                 // AsyncLoadImage.run)
-                synchronized (pendingRequests) {
-                    if (gvrResource != null) {
-                        List<CancelableCallback<OUTPUT>> listeners = new ArrayList<CancelableCallback<OUTPUT>>();
+                if (gvrResource != null) {
+                    decodedCount.incrementAndGet();
+                    for (CancelableCallback<OUTPUT> callback : listeners) {
                         /*
-                         * Copy the list of listeners then clear it, so any
-                         * requests that come in after we leave the sync block
-                         * but before return will not spawn a new thread. We
-                         * only delete the pendingRequests entry once we've
-                         * notified everybody.
+                         * Each callback in its own exception frame,
+                         * to minimize the damage.
                          */
-                        listeners.clear();
-                        if (callbacks.isEmpty()) {
-                            if (VERBOSE_SCHEDULING) {
-                                Log.d(TAG,
-                                        "ready(), thread %d: no callbacks for request %s",
-                                        threadId(), request);
-                            }
-                        }
-                        listeners.addAll(callbacks);
-                        callbacks.clear();
-
-                        for (CancelableCallback<OUTPUT> callback : listeners) {
-                            /*
-                             * Each callback in its own exception frame,
-                             * to minimize the damage.
-                             */
-                            try {
-                                // Inform handler the resource has been
-                                // loaded.
-                                callback.loaded(gvrResource, androidResource);
-                            } catch (Exception e) {
-                                e.printStackTrace();
-                            }
-                        }
-                    }
-
-                    if (VERBOSE_SCHEDULING) {
-                        Log.d(TAG,
-                                "ready(), thread %d: clearing pending request for request %s",
-                                threadId(), request);
-                    }
-
-                    @SuppressWarnings("unchecked")
-                    PendingRequest<OUTPUT, INTER> removed = (PendingRequest<OUTPUT, INTER>) pendingRequests
-                            .remove(request);
-
-                    if (RUNTIME_ASSERTIONS) {
-                        if (removed != PendingRequest.this) {
-                            throw new RuntimeAssertion(
-                                    "pendingRequests.remove(%s, parameters) removed %s, not %s",
-                                    request, removed, this);
+                        try {
+                            // Inform handler the resource has been
+                            // loaded.
+                            callback.loaded(gvrResource, androidResource);
+                        } catch (Exception e) {
+                            e.printStackTrace();
                         }
                     }
                 }
+
+                // We only delete the pendingRequests entry once we've
+                // notified everybody.
+                remove();
             }
 
             @Override
             public void failed(Throwable t, GVRAndroidResource androidResource) {
-                synchronized (pendingRequests) {
-                    List<CancelableCallback<OUTPUT>> listeners = new ArrayList<CancelableCallback<OUTPUT>>();
+                List<CancelableCallback<OUTPUT>> listeners = close();
+
+                failedCount.incrementAndGet();
+                for (CancelableCallback<OUTPUT> callback : listeners) {
                     /*
-                     * Copy the list of listeners then clear it, so any
-                     * requests that come in after we leave the sync block
-                     * but before return will not spawn a new thread. We
-                     * only delete the pendingRequests entry once we've
-                     * notified everybody.
+                     * Each callback in its own exception frame,
+                     * to minimize the damage.
                      */
-                    listeners.clear();
-                    if (callbacks.isEmpty()) {
-                        if (VERBOSE_SCHEDULING) {
-                            Log.d(TAG, "ready(), thread %d: no callbacks for request %s",
-                                    threadId(), request);
-                        }
-                    }
-                    listeners.addAll(callbacks);
-                    callbacks.clear();
-                    for (CancelableCallback<OUTPUT> callback : listeners) {
-                        /*
-                         * Each callback in its own exception frame,
-                         * to minimize the damage.
-                         */
-                        try {
-                            // Inform handler the resource failed
-                            callback.failed(t, androidResource);
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
+                    try {
+                        // Inform handler the resource failed
+                        callback.failed(t, androidResource);
+                    } catch (Exception e) {
+                        e.printStackTrace();
                     }
-
-                    @SuppressWarnings("unchecked")
-                    PendingRequest<OUTPUT, INTER> removed = (PendingRequest<OUTPUT, INTER>) pendingRequests
-                            .remove(request);
                 }
+
+                remove();
             }
 
             @Override
             public boolean stillWanted(GVRAndroidResource request) {
-                for (CancelableCallback<OUTPUT> callback : callbacks) {
+                List<CancelableCallback<OUTPUT>> listeners;
+                synchronized (this) {
+                    listeners = new ArrayList<CancelableCallback<OUTPUT>>(callbacks);
+                }
+                for (CancelableCallback<OUTPUT> callback : listeners) {
                     if (callback.stillWanted(request)) {
                         return true;
                     }
@@ -504,37 +538,37 @@ class Throttler implements Scheduler {
 
             @Override
             public void run() {
-                cancelable.run();
+                // A canceled request may still be picked up by a worker
+                if (state.compareAndSet(QUEUED, RUNNING)) {
+                    cancelable.run();
+                }
             }
 
             @Override
             public boolean stillWanted() {
-                List<CancelableCallback<OUTPUT>> canceled = new ArrayList<CancelableCallback<OUTPUT>>(
-                        callbacks.size());
-                for (CancelableCallback<OUTPUT> callback : callbacks) {
-                    if (callback.stillWanted(request) != true) {
-                        canceled.add(callback);
+                synchronized (this) {
+                    if (state.get() != QUEUED) {
+                        return state.get() == RUNNING;
                     }
-                }
-                callbacks.removeAll(canceled);
 
-                boolean cancel = callbacks.size() == 0;
-
-                if (cancel) {
-                    if (VERBOSE_SCHEDULING) {
-                        Log.d(TAG, "Canceling %s, request %s", this, request);
+                    for (int i = callbacks.size() - 1; i >= 0; --i) {
+                        if (callbacks.get(i).stillWanted(request) != true) {
+                            callbacks.remove(i);
+                        }
                     }
-                    @SuppressWarnings("unchecked")
-                    PendingRequest<OUTPUT, INTER> removed = (PendingRequest<OUTPUT, INTER>) pendingRequests
-                            .remove(request);
-                    if (removed != this) {
-                        throw new RuntimeAssertion("removed = %s, this = %s",
-                                removed, this);
+
+                    if (callbacks.size() > 0) {
+                        return true;
                     }
+                    state.set(CLOSED);
                 }
 
-                return cancel != true;
-
+                if (VERBOSE_SCHEDULING) {
+                    Log.d(TAG, "Canceling %s, request %s", this, request);
+                }
+                canceledCount.incrementAndGet();
+                remove();
+                return false;
             }
 
             @Override
@@ -619,6 +653,11 @@ class Throttler implements Scheduler {
             addGroup(priority, newGroup);
         }
 
+        boolean contains(PriorityCancelable procedure) {
+            PriorityGroup group = groups.get(procedure.getPriority());
+            return group != null && group.content.contains(procedure);
+        }
+
         @Override
         public boolean isEmpty() {
             while (queue.size() > 0) {
@@ -686,4 +725,122 @@ class Throttler implements Scheduler {
             }
         }
     }
+
+    /**
+     * Runs loads on up to {@code workers} background threads.
+     * 
+     * Each worker has its own stripe: a
+     * {@link PriorityCancelingLifoThreadPolicyProvider} with its own lock.
+     * New requests are dealt round-robin to the stripes, so threads queueing
+     * requests and workers taking them rarely contend for the same lock. A
+     * worker which has emptied its own stripe steals from the others before
+     * going idle, so a single slow load does not hold up the requests queued
+     * behind it. Priority order is kept within each stripe.
+     */
+    private static class LoaderPool {
+        private final Stripe[] stripes;
+        private final AtomicInteger nextStripe = new AtomicInteger();
+
+        private static class Stripe {
+            final PriorityCancelingLifoThreadPolicyProvider policy = new PriorityCancelingLifoThreadPolicyProvider();
+            // Is a worker running for this stripe? Guarded by the stripe.
+            boolean active;
+        }
+
+        LoaderPool(int workers) {
+            stripes = new Stripe[workers];
+            for (int i = 0; i < workers; ++i) {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        void spawn(PriorityCancelable threadProc) {
+            int index = (nextStripe.getAndIncrement() & Integer.MAX_VALUE) % stripes.length;
+            Stripe stripe = stripes[index];
+            boolean busy;
+            synchronized (stripe) {
+                stripe.policy.put(threadProc);
+                busy = stripe.active;
+                stripe.active = true;
+            }
+            if (!busy) {
+                startWorker(index);
+                return;
+            }
+
+            // The stripe's own worker is busy: wake an idle worker to steal
+            for (int i = 1; i < stripes.length; ++i) {
+                int other = (index + i) % stripes.length;
+                synchronized (stripes[other]) {
+                    if (stripes[other].active) {
+                        continue;
+                    }
+                    stripes[other].active = true;
+                }
+                startWorker(other);
+                return;
+            }
+        }
+
+        void reschedule(PriorityCancelable threadProc) {
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    if (stripe.policy.contains(threadProc)) {
+                        stripe.policy.reschedule(threadProc);
+                        return;
+                    }
+                }
+            }
+            if (VERBOSE_SCHEDULING) {
+                Log.d(TAG,
+                        "reschedule() didn't find %s - it must be running (or have already run)",
+                        threadProc);
+            }
+        }
+
+        private void startWorker(final int index) {
+            if (VERBOSE_SCHEDULING) {
+                Log.d(TAG, "Thread %d: starting loader worker %d", threadId(), index);
+            }
+            Threads.spawn(new Runnable() {
+                @Override
+                public void run() {
+                    work(index);
+                }
+            });
+        }
+
+        private void work(int index) {
+            Stripe home = stripes[index];
+            while (true) {
+                Runnable threadProc = poll(home);
+                for (int i = 1; threadProc == null && i < stripes.length; ++i) {
+                    threadProc = poll(stripes[(index + i) % stripes.length]);
+                }
+
+                if (threadProc == null) {
+                    synchronized (home) {
+                        if (home.policy.isEmpty()) {
+                            home.active = false;
+                            return;
+                        }
+                    }
+                    continue;
+                }
+
+                try {
+                    threadProc.run();
+                } catch (Exception e) {
+                    Log.e(TAG, "Exception in loader thread: %s", e);
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private static Runnable poll(Stripe stripe) {
+            synchronized (stripe) {
+                return stripe.policy.isEmpty() ? null : stripe.policy.get();
+            }
+        }
+    }
 }
@@ -0,0 +1,31 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.jassimp;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link JassimpFileIO} which can return the contents of a file as a
+ * buffer. Assimp reads a direct buffer in place instead of copying it, so
+ * slices of a memory-mapped file are imported without going through the
+ * Java heap.
+ */
+public interface JassimpBufferIO extends JassimpFileIO {
+    /**
+     * @return the contents of the file, or {@code null} if it cannot be read
+     */
+    ByteBuffer readBuffer(String path);
+}
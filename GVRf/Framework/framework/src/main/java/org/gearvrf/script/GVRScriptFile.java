@@ -25,6 +25,7 @@ import java.util.Set;
 import java.util.TreeMap;
 
 import javax.script.Bindings;
+import javax.script.Invocable;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
@@ -65,6 +66,7 @@ public abstract class GVRScriptFile {
     private String mLastError = null;
 
     private Bindings localBindings = null;
+    private volatile boolean mDirectInvocation = true;
 
 
     static {
@@ -179,6 +181,10 @@ public abstract class GVRScriptFile {
             return false;
         }
 
+        if (mDirectInvocation && (mLocalEngine instanceof Invocable)) {
+            return invokeDirect(funcName, params);
+        }
+
         String statement = getInvokeStatementCached(funcName, params);
 
         synchronized (mEngineLock) {
@@ -205,6 +211,61 @@ public abstract class GVRScriptFile {
         return true;
     }
 
+    /*
+     * Calls the function defined by the script through the engine,
+     * passing the parameters as they are instead of evaluating an
+     * invocation statement with the parameters bound to names.
+     */
+    private boolean invokeDirect(String funcName, Object[] params) {
+        if (localBindings == null) {
+            synchronized (mEngineLock) {
+                localBindings = mLocalEngine.getBindings(ScriptContext.ENGINE_SCOPE);
+            }
+        }
+        try {
+            ((Invocable) mLocalEngine).invokeFunction(funcName, params);
+        } catch (NoSuchMethodException e) {
+            addBadFunction(funcName);
+            mLastError = funcName + " is not defined";
+            return false;
+        } catch (ScriptException e) {
+            // The function throws, avoid invoking it later
+            addBadFunction(funcName);
+            mLastError = e.getMessage();
+            return false;
+        } catch (RuntimeException e) {
+            // Engines such as JNLua do not wrap runtime errors of the script
+            addBadFunction(funcName);
+            mLastError = e.getMessage();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Selects how {@link #invokeFunction(String, Object[])} calls into the
+     * script. By default functions are invoked directly through the
+     * {@link Invocable} interface of the script engine, which resolves the
+     * function defined by the script and passes the parameters without
+     * parsing anything. If disabled, or if the engine does not support it,
+     * an invocation statement is evaluated with the parameters bound to
+     * the names {@code arg0}, {@code arg1}, ...
+     *
+     * @param direct true to invoke functions directly, false to evaluate
+     *               invocation statements
+     */
+    public void setDirectInvocation(boolean direct) {
+        mDirectInvocation = direct;
+    }
+
+    /**
+     * @return true if functions are invoked directly
+     * @see #setDirectInvocation(boolean)
+     */
+    public boolean isDirectInvocation() {
+        return mDirectInvocation;
+    }
+
     /**
      * Access to values modified during invoking of Script file
      * Enables X3D to get values script modifies..
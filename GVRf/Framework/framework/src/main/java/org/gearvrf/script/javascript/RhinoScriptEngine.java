@@ -72,6 +72,11 @@ public class RhinoScriptEngine extends AbstractScriptEngine
     private ScriptEngineFactory factory;
     private InterfaceImplementor implementor;
 
+    /* scope created for the last ScriptContext passed to getRuntimeScope */
+    private ScriptContext runtimeScopeContext;
+    private Bindings runtimeScopeBindings;
+    private Scriptable runtimeScope;
+
     /*
     // in Phobos we want to support all javascript features
     static {
@@ -298,6 +303,26 @@ public class RhinoScriptEngine extends AbstractScriptEngine
             throw new NullPointerException("null script context");
         }
 
+        // The scope only forwards to the bindings of the context, so it
+        // can be reused for as long as the same context and engine bindings
+        // are passed in. This keeps invokeFunction from re-evaluating the
+        // print function on every call.
+        Bindings engineBindings = ctxt.getBindings(ScriptContext.ENGINE_SCOPE);
+        synchronized (this) {
+            if ((ctxt == runtimeScopeContext) && (engineBindings == runtimeScopeBindings)) {
+                return runtimeScope;
+            }
+        }
+        Scriptable newScope = createRuntimeScope(ctxt);
+        synchronized (this) {
+            runtimeScopeContext = ctxt;
+            runtimeScopeBindings = engineBindings;
+            runtimeScope = newScope;
+        }
+        return newScope;
+    }
+
+    private Scriptable createRuntimeScope(ScriptContext ctxt) {
         // we create a scope for the given ScriptContext
         Scriptable newScope = new ExternalScriptable(ctxt, indexedProps);
 
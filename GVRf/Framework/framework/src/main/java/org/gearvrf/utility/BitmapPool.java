@@ -0,0 +1,249 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.utility;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.Config;
+
+/**
+ * A pool of mutable bitmaps and direct pixel buffers, so decoding a series
+ * of images reuses the memory of the previous ones instead of allocating
+ * (and collecting) a new bitmap per image.
+ * <p>
+ * Bitmaps are kept by {@link Config} and allocation size. A bitmap is
+ * reused for any width and height that fit its allocation, by
+ * {@link Bitmap#reconfigure(int, int, Config)}, which also makes it
+ * suitable as {@link android.graphics.BitmapFactory.Options#inBitmap}.
+ * Neither bitmaps nor buffers are handed out for a request of less than
+ * half their size, so a small image does not pin a large allocation.
+ * <p>
+ * The pool holds at most {@linkplain #setMaxBytes(long) a number of bytes};
+ * the largest items are dropped first. The pool is thread-safe.
+ */
+public class BitmapPool {
+    private final Map<Config, TreeMap<Integer, ArrayDeque<Bitmap>>> mBitmaps =
+            new EnumMap<Config, TreeMap<Integer, ArrayDeque<Bitmap>>>(Config.class);
+    private final TreeMap<Integer, ArrayDeque<ByteBuffer>> mBuffers =
+            new TreeMap<Integer, ArrayDeque<ByteBuffer>>();
+    private long mMaxBytes;
+    private long mBytes;
+    private long mHits;
+    private long mMisses;
+
+    /**
+     * @param maxBytes
+     *            Largest number of bytes the pool keeps
+     */
+    public BitmapPool(long maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Gets a mutable bitmap of a size and config, reusing a pooled one if
+     * there is one. The contents of a reused bitmap are undefined.
+     */
+    public Bitmap getBitmap(int width, int height, Config config) {
+        int size = width * height * getBytesPerPixel(config);
+        synchronized (this) {
+            TreeMap<Integer, ArrayDeque<Bitmap>> sizes = mBitmaps.get(config);
+            Bitmap bitmap = (sizes != null) ? remove(sizes, size) : null;
+            if (bitmap != null) {
+                mBytes -= bitmap.getAllocationByteCount();
+                ++mHits;
+                bitmap.reconfigure(width, height, config);
+                bitmap.setHasAlpha(true);
+                bitmap.setPremultiplied(true);
+                return bitmap;
+            }
+            ++mMisses;
+        }
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    /**
+     * Returns a bitmap to the pool. The caller must not use it afterwards.
+     * Immutable and recycled bitmaps are ignored.
+     */
+    public void putBitmap(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()
+                || bitmap.getConfig() == null) {
+            return;
+        }
+        int size = bitmap.getAllocationByteCount();
+        synchronized (this) {
+            if (size > mMaxBytes) {
+                return;
+            }
+            TreeMap<Integer, ArrayDeque<Bitmap>> sizes = mBitmaps.get(bitmap.getConfig());
+            if (sizes == null) {
+                sizes = new TreeMap<Integer, ArrayDeque<Bitmap>>();
+                mBitmaps.put(bitmap.getConfig(), sizes);
+            }
+            add(sizes, size, bitmap);
+            mBytes += size;
+            trim(mMaxBytes);
+        }
+    }
+
+    /**
+     * Gets a direct buffer in native byte order, reusing a pooled one if
+     * there is one. The buffer's position is 0 and its limit is
+     * {@code size}; its capacity may be larger.
+     */
+    public ByteBuffer getBuffer(int size) {
+        synchronized (this) {
+            ByteBuffer buffer = remove(mBuffers, size);
+            if (buffer != null) {
+                mBytes -= buffer.capacity();
+                ++mHits;
+                buffer.clear();
+                buffer.limit(size);
+                return buffer;
+            }
+            ++mMisses;
+        }
+        return ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Returns a buffer from {@link #getBuffer(int)} to the pool. The caller
+     * must not use it afterwards.
+     */
+    public void putBuffer(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        int size = buffer.capacity();
+        synchronized (this) {
+            if (size > mMaxBytes) {
+                return;
+            }
+            add(mBuffers, size, buffer);
+            mBytes += size;
+            trim(mMaxBytes);
+        }
+    }
+
+    /**
+     * Sets the largest number of bytes the pool keeps, dropping pooled items
+     * if it holds more.
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        mMaxBytes = maxBytes;
+        trim(maxBytes);
+    }
+
+    public synchronized long getMaxBytes() {
+        return mMaxBytes;
+    }
+
+    /**
+     * @return number of bytes of the bitmaps and buffers in the pool
+     */
+    public synchronized long getPooledBytes() {
+        return mBytes;
+    }
+
+    /**
+     * @return number of requests served from the pool
+     */
+    public synchronized long getHitCount() {
+        return mHits;
+    }
+
+    /**
+     * @return number of requests which allocated a new bitmap or buffer
+     */
+    public synchronized long getMissCount() {
+        return mMisses;
+    }
+
+    /**
+     * Drops all pooled bitmaps and buffers.
+     */
+    public synchronized void clear() {
+        trim(0);
+    }
+
+    private static int getBytesPerPixel(Config config) {
+        switch (config) {
+        case ALPHA_8:
+            return 1;
+        case RGB_565:
+        case ARGB_4444:
+            return 2;
+        default:
+            return 4;
+        }
+    }
+
+    private static <T> T remove(TreeMap<Integer, ArrayDeque<T>> sizes, int size) {
+        Map.Entry<Integer, ArrayDeque<T>> entry = sizes.ceilingEntry(size);
+        if (entry == null || entry.getKey() / 2 > size) {
+            return null;
+        }
+        T item = entry.getValue().poll();
+        if (entry.getValue().isEmpty()) {
+            sizes.remove(entry.getKey());
+        }
+        return item;
+    }
+
+    private static <T> void add(TreeMap<Integer, ArrayDeque<T>> sizes, int size, T item) {
+        ArrayDeque<T> items = sizes.get(size);
+        if (items == null) {
+            items = new ArrayDeque<T>();
+            sizes.put(size, items);
+        }
+        items.add(item);
+    }
+
+    /*
+     * Drops the largest items until the pool holds at most maxBytes.
+     */
+    private void trim(long maxBytes) {
+        while (mBytes > maxBytes) {
+            TreeMap<Integer, ? extends ArrayDeque<?>> largest = mBuffers.isEmpty() ? null : mBuffers;
+            for (TreeMap<Integer, ArrayDeque<Bitmap>> sizes : mBitmaps.values()) {
+                if (!sizes.isEmpty()
+                        && (largest == null || sizes.lastKey() > largest.lastKey())) {
+                    largest = sizes;
+                }
+            }
+            if (largest == null) {
+                mBytes = 0;
+                return;
+            }
+
+            Map.Entry<Integer, ? extends ArrayDeque<?>> entry = largest.lastEntry();
+            Object item = entry.getValue().poll();
+            if (entry.getValue().isEmpty()) {
+                largest.remove(entry.getKey());
+            }
+            mBytes -= entry.getKey();
+            if (item instanceof Bitmap) {
+                ((Bitmap) item).recycle();
+            }
+        }
+    }
+}
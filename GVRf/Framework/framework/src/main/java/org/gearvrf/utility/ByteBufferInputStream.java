@@ -0,0 +1,83 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.utility;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link InputStream} which reads a {@link ByteBuffer}, from its position
+ * to its limit. It supports {@link #mark(int)} and {@link #reset()}.
+ */
+public class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer mBuffer;
+    private int mMark;
+
+    /**
+     * @param buffer
+     *            The buffer to read. The stream reads a duplicate, so the
+     *            position of {@code buffer} does not change.
+     */
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        mBuffer = buffer.duplicate();
+        mMark = mBuffer.position();
+    }
+
+    @Override
+    public int read() {
+        return mBuffer.hasRemaining() ? (mBuffer.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] buffer, int byteOffset, int byteCount) {
+        if (byteCount == 0) {
+            return 0;
+        }
+        if (!mBuffer.hasRemaining()) {
+            return -1;
+        }
+        int count = Math.min(byteCount, mBuffer.remaining());
+        mBuffer.get(buffer, byteOffset, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long byteCount) {
+        int count = (int) Math.max(0, Math.min(byteCount, mBuffer.remaining()));
+        mBuffer.position(mBuffer.position() + count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return mBuffer.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(int readLimit) {
+        mMark = mBuffer.position();
+    }
+
+    @Override
+    public void reset() {
+        mBuffer.position(mMark);
+    }
+}
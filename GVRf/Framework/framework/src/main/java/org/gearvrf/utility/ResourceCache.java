@@ -21,6 +21,7 @@ import org.gearvrf.GVRAndroidResource.CompressedTextureCallback;
 import org.gearvrf.GVRHybridObject;
 import org.gearvrf.GVRAndroidResource.Callback;
 import org.gearvrf.GVRAndroidResource.CancelableCallback;
+import org.gearvrf.GVRMesh;
 import org.gearvrf.GVRTexture;
 
 /**
@@ -33,11 +34,30 @@ import org.gearvrf.GVRTexture;
  * Passing the descriptor for a cached mesh to a get-texture call would return
  * the mesh ....
  * 
+ * Textures and meshes are sized by their
+ * {@linkplain GVRTexture#getMemoryEstimate() memory estimates} when the cache
+ * has a memory budget.
+ * 
  * @since 2.0.2
  */
-public class ResourceCache<T extends GVRHybridObject> extends ResourceCacheBase {
+public class ResourceCache<T extends GVRHybridObject> extends ResourceCacheBase<T> {
     private static final String TAG = Log.tag(ResourceCache.class);
 
+    /** Create a cache which only holds weak references */
+    public ResourceCache() {
+        super();
+    }
+
+    /**
+     * Create a cache which also keeps recently used resources in memory.
+     *
+     * @param maxSize
+     *            memory budget in bytes; 0 disables the strong cache
+     */
+    public ResourceCache(long maxSize) {
+        super(maxSize);
+    }
+
     /** Save a weak reference to the resource */
     public void put(GVRAndroidResource androidResource, T resource) {
         Log.d(TAG, "put resource %s to cache", androidResource);
@@ -47,7 +67,17 @@ public class ResourceCache<T extends GVRHybridObject> extends ResourceCacheBase
 
     /** Get the cached resource, or {@code null} */
     public T get(GVRAndroidResource androidResource) {
-        return (T) super.get(androidResource);
+        return super.get(androidResource);
+    }
+
+    @Override
+    protected long sizeOf(T resource) {
+        if (resource instanceof GVRTexture) {
+            return ((GVRTexture) resource).getMemoryEstimate();
+        } else if (resource instanceof GVRMesh) {
+            return ((GVRMesh) resource).getMemoryEstimate();
+        }
+        return 0;
     }
 
     /**
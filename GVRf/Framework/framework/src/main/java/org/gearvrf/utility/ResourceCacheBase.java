@@ -18,6 +18,8 @@ package org.gearvrf.utility;
 import org.gearvrf.GVRAndroidResource;
 
 import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -27,6 +29,14 @@ import java.util.concurrent.ConcurrentHashMap;
  * Keeps system from reloading resources, so long as a previous copy is still in
  * memory.
  *
+ * A cache constructed with a memory budget also holds strong references to the
+ * most recently used resources, up to the budget, so they survive garbage
+ * collection when nothing else refers to them. The size of each resource is
+ * given by {@link #sizeOf(Object)}; least recently used resources are released
+ * first, except those which are {@linkplain #pin(GVRAndroidResource) pinned}.
+ * Released resources stay reachable through the weak cache for as long as
+ * they are referenced elsewhere.
+ *
  * @since 2.0.2
  */
 public class ResourceCacheBase<T> {
@@ -35,30 +45,264 @@ public class ResourceCacheBase<T> {
     private final Map<GVRAndroidResource, WeakReference<T>> cache //
             = new ConcurrentHashMap<GVRAndroidResource, WeakReference<T>>();
 
+    /*
+     * Strongly held, access-ordered entries. All access is synchronized on
+     * the map itself.
+     */
+    private final LinkedHashMap<GVRAndroidResource, Entry<T>> recent //
+            = new LinkedHashMap<GVRAndroidResource, Entry<T>>(16, 0.75f, true);
+    private long maxSize;
+    private long size;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    private static class Entry<T> {
+        final T resource;
+        long size;
+        int pinCount;
+
+        Entry(T resource) {
+            this.resource = resource;
+        }
+    }
+
+    /**
+     * Create a cache which only holds weak references.
+     */
+    public ResourceCacheBase() {
+        this(0);
+    }
+
+    /**
+     * Create a cache which also keeps recently used resources in memory.
+     *
+     * @param maxSize
+     *            memory budget in bytes, as measured by {@link #sizeOf(Object)};
+     *            0 disables the strong cache
+     */
+    public ResourceCacheBase(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
     /** Save a weak reference to the resource */
     public void put(GVRAndroidResource androidResource, T resource) {
         Log.d(TAG, "put resource %s to cache", androidResource);
 
         cache.put(androidResource, new WeakReference<T>(resource));
+        if (maxSize > 0) {
+            retain(androidResource, resource);
+        }
     }
 
     /** Get the cached resource, or {@code null} */
     public T get(GVRAndroidResource androidResource) {
-        WeakReference<T> reference = cache.get(androidResource);
-        if (reference == null) {
-            // Not in map
-            // Log.d(TAG, "get(%s) returning %s", androidResource, null);
-            return null;
-        }
-        T cached = reference.get();
+        T cached = getRecent(androidResource);
         if (cached == null) {
-            // In map, but not in memory
-            cache.remove(androidResource);
-        } else {
+            WeakReference<T> reference = cache.get(androidResource);
+            if (reference != null) {
+                cached = reference.get();
+                if (cached == null) {
+                    // In map, but not in memory
+                    cache.remove(androidResource);
+                } else if (maxSize > 0) {
+                    // Still referenced elsewhere: make it recent again
+                    retain(androidResource, cached);
+                }
+            }
+        }
+
+        synchronized (recent) {
+            if (cached == null) {
+                ++missCount;
+            } else {
+                ++hitCount;
+            }
+        }
+        if (cached != null) {
             // No one will ever read this stream
             androidResource.closeStream();
         }
         // Log.d(TAG, "get(%s) returning %s", androidResource, cached);
         return cached;
     }
+
+    /**
+     * Keep the resource in memory regardless of the memory budget until
+     * {@link #unpin(GVRAndroidResource)} is called. Pins nest.
+     *
+     * @return {@code true} if the resource is in the cache and was pinned
+     */
+    public boolean pin(GVRAndroidResource androidResource) {
+        synchronized (recent) {
+            Entry<T> entry = recent.get(androidResource);
+            if (entry == null) {
+                WeakReference<T> reference = cache.get(androidResource);
+                T resource = (reference != null) ? reference.get() : null;
+                if (resource == null) {
+                    return false;
+                }
+                entry = new Entry<T>(resource);
+                entry.size = sizeOf(resource);
+                size += entry.size;
+                recent.put(androidResource, entry);
+            }
+            ++entry.pinCount;
+            return true;
+        }
+    }
+
+    /**
+     * Release a pin taken with {@link #pin(GVRAndroidResource)}. The resource
+     * becomes subject to the memory budget again once all pins are released.
+     */
+    public void unpin(GVRAndroidResource androidResource) {
+        synchronized (recent) {
+            Entry<T> entry = recent.get(androidResource);
+            if (entry != null && entry.pinCount > 0) {
+                --entry.pinCount;
+                trimToSize(maxSize);
+            }
+        }
+    }
+
+    /**
+     * Release all strong references which are not pinned. Resources stay
+     * available through the weak cache while they are referenced elsewhere.
+     */
+    public void trim() {
+        synchronized (recent) {
+            trimToSize(0);
+        }
+    }
+
+    /**
+     * Change the memory budget, releasing resources if the cache is now over
+     * budget.
+     *
+     * @param maxSize
+     *            memory budget in bytes; 0 disables the strong cache
+     */
+    public void setMaxSize(long maxSize) {
+        synchronized (recent) {
+            this.maxSize = maxSize;
+            trimToSize(maxSize);
+        }
+    }
+
+    /** The memory budget in bytes */
+    public long getMaxSize() {
+        synchronized (recent) {
+            return maxSize;
+        }
+    }
+
+    /** The estimated size of the strongly held resources in bytes */
+    public long getSize() {
+        synchronized (recent) {
+            return size;
+        }
+    }
+
+    /** Number of {@link #get(GVRAndroidResource)} calls which found a resource */
+    public long getHitCount() {
+        synchronized (recent) {
+            return hitCount;
+        }
+    }
+
+    /** Number of {@link #get(GVRAndroidResource)} calls which returned {@code null} */
+    public long getMissCount() {
+        synchronized (recent) {
+            return missCount;
+        }
+    }
+
+    /** Number of resources released to stay within the memory budget */
+    public long getEvictionCount() {
+        synchronized (recent) {
+            return evictionCount;
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (recent) {
+            return String.format("%s[size=%d, maxSize=%d, entries=%d, hits=%d, misses=%d, evictions=%d]",
+                    getClass().getSimpleName(), size, maxSize, recent.size(),
+                    hitCount, missCount, evictionCount);
+        }
+    }
+
+    /**
+     * Returns the size of a resource in bytes. The size is measured again
+     * each time the resource is used, so resources whose data arrives after
+     * they are cached are accounted for correctly. The default implementation
+     * returns 0: such resources never count against the budget.
+     */
+    protected long sizeOf(T resource) {
+        return 0;
+    }
+
+    private T getRecent(GVRAndroidResource androidResource) {
+        synchronized (recent) {
+            Entry<T> entry = recent.get(androidResource);
+            if (entry == null) {
+                return null;
+            }
+            resize(entry);
+            trimToSize(maxSize);
+            return entry.resource;
+        }
+    }
+
+    private void retain(GVRAndroidResource androidResource, T resource) {
+        synchronized (recent) {
+            Entry<T> entry = recent.get(androidResource);
+            if (entry == null || entry.resource != resource) {
+                Entry<T> replacement = new Entry<T>(resource);
+                if (entry != null) {
+                    size -= entry.size;
+                    replacement.pinCount = entry.pinCount;
+                }
+                entry = replacement;
+                recent.put(androidResource, entry);
+            }
+            resize(entry);
+            trimToSize(maxSize);
+        }
+    }
+
+    private void resize(Entry<T> entry) {
+        long newSize = sizeOf(entry.resource);
+        size += newSize - entry.size;
+        entry.size = newSize;
+    }
+
+    /*
+     * Releases least recently used, unpinned entries until the cache fits
+     * in limit bytes. The most recently used entry is kept even if it alone
+     * exceeds a non-zero limit, so it is not released before its caller
+     * gets to use it.
+     */
+    private void trimToSize(long limit) {
+        if (size <= limit && limit > 0) {
+            return;
+        }
+        Iterator<Map.Entry<GVRAndroidResource, Entry<T>>> iterator = recent.entrySet().iterator();
+        int remaining = recent.size();
+        while (iterator.hasNext() && (size > limit || limit == 0)) {
+            Entry<T> entry = iterator.next().getValue();
+            if (--remaining == 0 && limit > 0) {
+                break;
+            }
+            if (entry.pinCount > 0) {
+                continue;
+            }
+            iterator.remove();
+            size -= entry.size;
+            ++evictionCount;
+        }
+    }
 }
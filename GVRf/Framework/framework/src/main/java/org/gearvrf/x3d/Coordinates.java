@@ -1,5 +1,11 @@
 package org.gearvrf.x3d;
 
+/**
+ * @deprecated The X3D parser no longer creates an object per value, it
+ *             scans the face indices into primitive arrays with
+ *             {@link X3DNumberScanner}.
+ */
+@Deprecated
 public class Coordinates
 {
   private short[] coords = new short[3];
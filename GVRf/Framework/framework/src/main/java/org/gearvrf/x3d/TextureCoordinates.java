@@ -20,6 +20,12 @@ package org.gearvrf.x3d;
  * @author m1.williams Used for the texture coordinate values in an array list
  *         Can also construct texture coordinates for X3D via coding.
  */
+/**
+ * @deprecated The X3D parser no longer creates an object per value, it
+ *             scans the texture coordinate indices into primitive arrays with
+ *             {@link X3DNumberScanner}.
+ */
+@Deprecated
 public class TextureCoordinates
 {
   public short[] coords = new short[3];
@@ -19,6 +19,12 @@ package org.gearvrf.x3d;
 /**
  * Holds a single x, y texture coordinate
  */
+/**
+ * @deprecated The X3D parser no longer creates an object per value, it
+ *             scans the texture coordinates into primitive arrays with
+ *             {@link X3DNumberScanner}.
+ */
+@Deprecated
 public class TextureValues
 {
   public float[] coord =
@@ -15,6 +15,12 @@
 
 package org.gearvrf.x3d;
 
+/**
+ * @deprecated The X3D parser no longer creates an object per value, it
+ *             scans the vertices into primitive arrays with
+ *             {@link X3DNumberScanner}.
+ */
+@Deprecated
 public class Vertex
 {
   private float[] point =
@@ -0,0 +1,324 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.x3d;
+
+import java.util.Arrays;
+
+/**
+ * Scans the numbers of X3D attribute values such as {@code coordIndex},
+ * {@code point} or {@code vector} straight into growable primitive arrays.
+ * <p>
+ * Numbers are separated by white space and commas. Floats may have a sign,
+ * a fraction and an exponent ({@code 1.5e-3}, as exported by 3DS Max).
+ * A stray word is skipped up to the next separator, but a sign or decimal
+ * point without digits is an error.
+ * Unlike {@link java.io.StreamTokenizer} the scanner works on the
+ * attribute string directly and allocates nothing per number.
+ */
+public final class X3DNumberScanner {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // more digits than this do not change a float
+    private static final int MAX_DIGITS = 18;
+
+    private final String mText;
+    private final int mLength;
+    private int mPosition;
+
+    /**
+     * Growable array of {@code float}s.
+     */
+    public static final class FloatArray {
+        private float[] mData = new float[16];
+        private int mSize;
+
+        public int size() {
+            return mSize;
+        }
+
+        public float get(int index) {
+            return mData[index];
+        }
+
+        public void add(float value) {
+            if (mSize == mData.length) {
+                mData = Arrays.copyOf(mData, mSize * 2);
+            }
+            mData[mSize++] = value;
+        }
+
+        public void clear() {
+            mSize = 0;
+        }
+
+        /**
+         * @return the backing array, valid up to {@link #size()}
+         */
+        public float[] array() {
+            return mData;
+        }
+
+        public float[] toArray() {
+            return Arrays.copyOf(mData, mSize);
+        }
+    }
+
+    /**
+     * Growable array of {@code int}s.
+     */
+    public static final class IntArray {
+        private int[] mData = new int[16];
+        private int mSize;
+
+        public int size() {
+            return mSize;
+        }
+
+        public int get(int index) {
+            return mData[index];
+        }
+
+        public void add(int value) {
+            if (mSize == mData.length) {
+                mData = Arrays.copyOf(mData, mSize * 2);
+            }
+            mData[mSize++] = value;
+        }
+
+        public void clear() {
+            mSize = 0;
+        }
+
+        /**
+         * Shrinks the array to its first {@code size} elements.
+         */
+        public void truncate(int size) {
+            mSize = Math.min(mSize, size);
+        }
+
+        /**
+         * @return the backing array, valid up to {@link #size()}
+         */
+        public int[] array() {
+            return mData;
+        }
+
+        public int[] toArray() {
+            return Arrays.copyOf(mData, mSize);
+        }
+    }
+
+    public X3DNumberScanner(String text) {
+        mText = text;
+        mLength = text.length();
+    }
+
+    /**
+     * Appends all numbers of {@code text} to {@code out}.
+     */
+    public static void parseFloats(String text, FloatArray out) {
+        X3DNumberScanner scanner = new X3DNumberScanner(text);
+        while (scanner.hasNext()) {
+            out.add(scanner.nextFloat());
+        }
+    }
+
+    /**
+     * Appends the indices of an X3D index list like {@code coordIndex} to
+     * {@code out}, in groups of {@code groupSize}. The {@code -1} face
+     * terminators are dropped, as is an incomplete group at the end.
+     */
+    public static void parseIndices(String text, IntArray out, int groupSize) {
+        X3DNumberScanner scanner = new X3DNumberScanner(text);
+        int start = out.size();
+        while (scanner.hasNext()) {
+            int index = scanner.nextInt();
+            if (index != -1) {
+                out.add(index);
+            }
+        }
+        out.truncate(out.size() - (out.size() - start) % groupSize);
+    }
+
+    /**
+     * Skips separators and anything that cannot start a number.
+     *
+     * @return true if another number follows
+     */
+    public boolean hasNext() {
+        while (mPosition < mLength) {
+            char c = mText.charAt(mPosition);
+            if (isNumberStart(c)) {
+                return true;
+            }
+            if (isSeparator(c)) {
+                ++mPosition;
+            } else {
+                skipToken();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the next number as a float. Call {@link #hasNext()} first.
+     *
+     * @throws NumberFormatException
+     *             if the number has no digits, like a lone {@code "-"}
+     */
+    public float nextFloat() {
+        int start = mPosition;
+        boolean negative = false;
+        char c = mText.charAt(mPosition);
+        if (c == '-' || c == '+') {
+            negative = (c == '-');
+            ++mPosition;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+        while (mPosition < mLength && isDigit(c = mText.charAt(mPosition))) {
+            seenDigit = true;
+            if (digits < MAX_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    ++digits;
+                }
+            } else {
+                ++exponent;
+            }
+            ++mPosition;
+        }
+        if (mPosition < mLength && mText.charAt(mPosition) == '.') {
+            ++mPosition;
+            while (mPosition < mLength && isDigit(c = mText.charAt(mPosition))) {
+                seenDigit = true;
+                if (digits < MAX_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) {
+                        ++digits;
+                    }
+                    --exponent;
+                }
+                ++mPosition;
+            }
+        }
+        if (!seenDigit) {
+            throw invalidNumber(start);
+        }
+        if (mPosition < mLength && ((c = mText.charAt(mPosition)) == 'e' || c == 'E')) {
+            int mark = mPosition++;
+            boolean negativeExponent = false;
+            if (mPosition < mLength && ((c = mText.charAt(mPosition)) == '-' || c == '+')) {
+                negativeExponent = (c == '-');
+                ++mPosition;
+            }
+            if (mPosition < mLength && isDigit(mText.charAt(mPosition))) {
+                int value = 0;
+                while (mPosition < mLength && isDigit(c = mText.charAt(mPosition))) {
+                    if (value < 10000) {
+                        value = value * 10 + (c - '0');
+                    }
+                    ++mPosition;
+                }
+                exponent += negativeExponent ? -value : value;
+            } else {
+                mPosition = mark;
+                skipToken();
+            }
+        }
+
+        double result = mantissa;
+        if (exponent != 0 && mantissa != 0) {
+            if (exponent > 0) {
+                result *= (exponent < POWERS_OF_TEN.length) ?
+                        POWERS_OF_TEN[exponent] : Math.pow(10, exponent);
+            } else {
+                result /= (-exponent < POWERS_OF_TEN.length) ?
+                        POWERS_OF_TEN[-exponent] : Math.pow(10, -exponent);
+            }
+        }
+        return (float) (negative ? -result : result);
+    }
+
+    /**
+     * Reads the next number as an int, a fraction is truncated. Call
+     * {@link #hasNext()} first.
+     *
+     * @throws NumberFormatException
+     *             if the number has no digits, like a lone {@code "-"}
+     */
+    public int nextInt() {
+        int start = mPosition;
+        boolean negative = false;
+        char c = mText.charAt(mPosition);
+        if (c == '-' || c == '+') {
+            negative = (c == '-');
+            ++mPosition;
+        }
+        long value = 0;
+        boolean seenDigit = false;
+        while (mPosition < mLength && isDigit(c = mText.charAt(mPosition))) {
+            seenDigit = true;
+            if (value <= Integer.MAX_VALUE) {
+                value = value * 10 + (c - '0');
+            }
+            ++mPosition;
+        }
+        if (mPosition < mLength && isFloatChar(mText.charAt(mPosition))) {
+            // not a plain integer
+            mPosition = start;
+            return (int) nextFloat();
+        }
+        if (!seenDigit) {
+            throw invalidNumber(start);
+        }
+        value = Math.min(value, Integer.MAX_VALUE);
+        return (int) (negative ? -value : value);
+    }
+
+    private NumberFormatException invalidNumber(int start) {
+        skipToken();
+        return new NumberFormatException("Invalid number \""
+                + mText.substring(start, mPosition) + "\" at offset " + start);
+    }
+
+    private void skipToken() {
+        while (mPosition < mLength && !isSeparator(mText.charAt(mPosition))) {
+            ++mPosition;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isNumberStart(char c) {
+        return isDigit(c) || c == '-' || c == '+' || c == '.';
+    }
+
+    private static boolean isFloatChar(char c) {
+        return c == '.' || c == 'e' || c == 'E';
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == ',' || c == '\n' || c == '\r' || c == '\t';
+    }
+}
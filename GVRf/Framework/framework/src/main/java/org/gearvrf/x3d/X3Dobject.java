@@ -28,10 +28,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StreamTokenizer;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Vector;
 import java.util.concurrent.Future;
 
@@ -111,12 +112,6 @@ public class X3Dobject {
     private static int animationCount = 1;
 
 
-    private final static int verticesComponent = 1;
-    private final static int normalsComponent = 2;
-    private final static int textureCoordComponent = 3;
-    private final static int indexedFaceSetComponent = 4;
-    private final static int normalIndexComponent = 5;
-    private final static int textureIndexComponent = 6;
     private final static int interpolatorKeyComponent = 7;
     private final static int interpolatorKeyValueComponent = 8;
     private final static int LODComponent = 9;
@@ -178,15 +173,15 @@ public class X3Dobject {
     private GVRTextureParameters gvrTextureParameters = null;
     private Future<GVRTexture> gvrTexture = null;
 
-    private Vector<Vertex> vertices = new Vector<Vertex>(); // vertices
-    private Vector<VertexNormal> vertexNormal = new Vector<VertexNormal>();
-    private Vector<TextureValues> textureCoord = new Vector<TextureValues>();
+    // geometry of the current IndexedFaceSet, 3 floats per point or vector,
+    // 2 per texture coordinate and 3 indices per triangle
+    private X3DNumberScanner.FloatArray coordPoints = new X3DNumberScanner.FloatArray();
+    private X3DNumberScanner.FloatArray normalVectors = new X3DNumberScanner.FloatArray();
+    private X3DNumberScanner.FloatArray texCoordPoints = new X3DNumberScanner.FloatArray();
 
-    private Vector<Coordinates> indexedFaceSet = new Vector<Coordinates>();
-    private Vector<Coordinates> indexedVertexNormals = new Vector<Coordinates>();
-    private Vector<TextureCoordinates> indexedTextureCoord = new Vector<TextureCoordinates>();
-    private ArrayList<Integer> texcoordIndices = new ArrayList<Integer>();
-    private ArrayList<Integer> normalIndices = new ArrayList<Integer>();
+    private X3DNumberScanner.IntArray coordIndices = new X3DNumberScanner.IntArray();
+    private X3DNumberScanner.IntArray normalIndices = new X3DNumberScanner.IntArray();
+    private X3DNumberScanner.IntArray texCoordIndices = new X3DNumberScanner.IntArray();
     private ArrayList<ScriptObject> scriptObjects = new ArrayList<ScriptObject>();
 
     private Vector<Key> keys = new Vector<Key>();
@@ -298,59 +293,6 @@ public class X3Dobject {
     }
 
 
-    private void AddVertex(float[] values)
-
-    {
-        Vertex newVertex = new Vertex(values);
-        vertices.add(newVertex);
-    }
-
-
-    private void AddVertexNormal(float[] vn)
-
-    {
-        VertexNormal newVertex = new VertexNormal(vn);
-        vertexNormal.add(newVertex);
-    }
-
-
-    private void AddTextureCoord(float[] tc)
-
-    {
-        TextureValues newTextureCoord = new TextureValues(tc);
-        textureCoord.add(newTextureCoord);
-    }
-
-
-    private void AddIndexedFaceSet(short[] coord) {
-        Coordinates newCoordinates = new Coordinates(coord);
-        indexedFaceSet.add(newCoordinates);
-    }
-
-    private void AddTextureCoordinateSet(short[] tc) {
-        TextureCoordinates newCoordinates = new TextureCoordinates(tc);
-        indexedTextureCoord.add(newCoordinates);
-    }
-
-    private TextureCoordinates GetTexturedCoordSet(int index)
-
-    {
-        return indexedTextureCoord.get(index);
-    }
-
-
-    private void AddIndexedVertexNormals(short[] normalIndex) {
-        Coordinates newCoordinates = new Coordinates(normalIndex);
-        indexedVertexNormals.add(newCoordinates);
-    }
-
-    private Coordinates GetIndexedVertexNormals(int index)
-
-    {
-        return indexedVertexNormals.get(index);
-    }
-
-
     /**
      * @author m1.williams
      *         Java SAX parser interface
@@ -361,64 +303,20 @@ public class X3Dobject {
 
         private float[] parseFixedLengthFloatString(String numberString,
                                                     int componentCount, boolean constrained0to1, boolean zeroOrGreater) {
-            StringReader sr = new StringReader(numberString);
-            StreamTokenizer st = new StreamTokenizer(sr);
-            st.parseNumbers();
-            int tokenType;
+            X3DNumberScanner scanner = new X3DNumberScanner(numberString);
             float componentFloat[] = new float[componentCount];
-            try {
-                for (int i = 0; i < componentCount; i++) {
-                    if ((tokenType = st.nextToken()) == StreamTokenizer.TT_NUMBER) {
-                        componentFloat[i] = (float) st.nval;
-                    } else { // check for an exponent 'e'
-                        if (tokenType == StreamTokenizer.TT_WORD) {
-                            String word = st.sval;
-                            if (word.startsWith("e-")) { // negative exponent
-                                String exponentString = word.substring(2, word.length());
-                                try {
-                                    --i; // with this exponent, we are still working with the
-                                    // previous number
-                                    Integer exponentInt = Integer.parseInt(exponentString);
-                                    componentFloat[i] *= (float) Math
-                                            .pow(10, -exponentInt.intValue());
-                                } catch (NumberFormatException e) {
-                                    Log.e(TAG,
-                                            "parsing fixed length string, exponent number conversion error: "
-                                                    + exponentString);
-                                }
-                            } else if (word.equalsIgnoreCase("e")) { // exponent with plus sign
-                                tokenType = st.nextToken();
-                                if (tokenType == 43) { // "+" plus sign
-                                    if ((tokenType = st.nextToken()) == StreamTokenizer.TT_NUMBER) {
-                                        --i; // with this exponent, we are still working with the
-                                        // previous number
-                                        float exponent = (float) st.nval;
-                                        componentFloat[i] *= (float) Math.pow(10, exponent);
-                                    } else {
-                                        st.pushBack();
-                                        Log.e(TAG,
-                                                "Error: exponent in X3D parser with fixed length float");
-                                    }
-                                } else
-                                    st.pushBack();
-                            } else
-                                st.pushBack();
-                        }
-                    } // end check for 'e' exponent
-                    if (constrained0to1) {
-                        if (componentFloat[i] < 0)
-                            componentFloat[i] = 0;
-                        else if (componentFloat[i] > 1)
-                            componentFloat[i] = 1;
-                    } else if (zeroOrGreater) {
-                        if (componentFloat[i] < 0)
-                            componentFloat[i] = 0;
-                    }
-                } // end for-loop
-            } // end 'try'
-            catch (IOException e) {
-                Log.d(TAG, "Error parsing fixed length float string: " + e);
-            }
+            for (int i = 0; (i < componentCount) && scanner.hasNext(); i++) {
+                componentFloat[i] = scanner.nextFloat();
+                if (constrained0to1) {
+                    if (componentFloat[i] < 0)
+                        componentFloat[i] = 0;
+                    else if (componentFloat[i] > 1)
+                        componentFloat[i] = 1;
+                } else if (zeroOrGreater) {
+                    if (componentFloat[i] < 0)
+                        componentFloat[i] = 0;
+                }
+            } // end for-loop
             return componentFloat;
         } // end parseFixedLengthFloatString
 
@@ -482,101 +380,28 @@ public class X3Dobject {
 
         private void parseNumbersString(String numberString, int componentType,
                                         int componentCount) {
-            StringReader sr = new StringReader(numberString);
-            StreamTokenizer st = new StreamTokenizer(sr);
-            st.parseNumbers();
-            int tokenType;
-            short componentShort[] = new short[componentCount];
+            X3DNumberScanner scanner = new X3DNumberScanner(numberString);
             float componentFloat[] = new float[componentCount];
-            try {
-                int index = 0;
-                while ((tokenType = st.nextToken()) != StreamTokenizer.TT_EOF) {
-                    if (tokenType == StreamTokenizer.TT_NUMBER) {
-
-                        // first componentType's parse for short values
-                        // (integers) and will have no exponents
-
-                        if (componentType == X3Dobject.indexedFaceSetComponent) {
-                            if ((short) st.nval != -1) {
-                                componentShort[index] = (short) st.nval;
-                                index++;
-                                if (index == componentCount) {
-                                    AddIndexedFaceSet(componentShort);
-                                    index = 0;
-                                }
-                            }
-                        } else if (componentType == X3Dobject.textureIndexComponent) {
-                            if ((short) st.nval != -1) {
-                                componentShort[index] = (short) st.nval;
-                                index++;
-                                if (index == componentCount) {
-                                    AddTextureCoordinateSet(componentShort);
-                                    index = 0;
-                                }
-                            }
-                        } else if (componentType == X3Dobject.normalIndexComponent) {
-                            if ((short) st.nval != -1) {
-                                componentShort[index] = (short) st.nval;
-                                index++;
-                                if (index == componentCount) {
-                                    AddIndexedVertexNormals(componentShort);
-                                    index = 0;
-                                }
-                            }
-                        }
-
-                        // The rest of these will be parsing floats that could
-                        // have 'e' exponent value.  3DSMax will export X3D/VRML
-                        // with the 'e' exponent
-                        //TODO: check for 'e' exponent values.
-
-                        else if (componentType == X3Dobject.verticesComponent) {
-                            componentFloat[index] = (float) (st.nval);
-                            index++;
-                            if (index == componentCount) {
-                                AddVertex(componentFloat);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.textureCoordComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            index++;
-                            if (index == componentCount) {
-                                AddTextureCoord(componentFloat);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.normalsComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            index++;
-                            if (index == componentCount) {
-                                AddVertexNormal(componentFloat);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.interpolatorKeyComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            index++;
-                            if (index == componentCount) {
-                                AddKeys(componentFloat[0]);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.interpolatorKeyValueComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            index++;
-                            if (index == componentCount) {
-                                AddKeyValues(componentFloat);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.LODComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            AddKeys(componentFloat[0]);
-                        } else if (componentType == X3Dobject.elevationGridHeight) {
-                            floatArray.add(new Float((float) st.nval));
-                        }
-
-                    } // end if token = number
-                } // end while loop
-            } // end try statement
-            catch (IOException e) {
-                Log.e(TAG, "Error: parseNumbersString - " + e);
+            int index = 0;
+            while (scanner.hasNext()) {
+                componentFloat[index] = scanner.nextFloat();
+                if (componentType == X3Dobject.interpolatorKeyComponent) {
+                    index++;
+                    if (index == componentCount) {
+                        AddKeys(componentFloat[0]);
+                        index = 0;
+                    }
+                } else if (componentType == X3Dobject.interpolatorKeyValueComponent) {
+                    index++;
+                    if (index == componentCount) {
+                        AddKeyValues(componentFloat);
+                        index = 0;
+                    }
+                } else if (componentType == X3Dobject.LODComponent) {
+                    AddKeys(componentFloat[0]);
+                } else if (componentType == X3Dobject.elevationGridHeight) {
+                    floatArray.add(new Float(componentFloat[0]));
+                }
             }
         } // parseNumbersString
 
@@ -1153,31 +978,18 @@ public class X3Dobject {
                     }
                     String coordIndexAttribute = attributes.getValue("coordIndex");
                     if (coordIndexAttribute != null) {
-                        parseNumbersString(coordIndexAttribute,
-                                X3Dobject.indexedFaceSetComponent, 3);
-
-                        char[] ifs = new char[indexedFaceSet.size() * 3];
-
-                        for (int i = 0; i < indexedFaceSet.size(); i++) {
-
-                            Coordinates coordinate = indexedFaceSet.get(i);
-                            for (int j = 0; j < 3; j++) {
-                                ifs[i * 3 + j] = (char) coordinate.getCoordinate(j);
-
-                            }
-                        }
-                        gvrMesh.setIndices(ifs);
+                        // the mesh is built once all the geometry is known,
+                        // at the end of the IndexedFaceSet
+                        X3DNumberScanner.parseIndices(coordIndexAttribute, coordIndices, 3);
                         reorganizeVerts = true;
                     }
                     String normalIndexAttribute = attributes.getValue("normalIndex");
                     if (normalIndexAttribute != null) {
-                        parseNumbersString(normalIndexAttribute,
-                                X3Dobject.normalIndexComponent, 3);
+                        X3DNumberScanner.parseIndices(normalIndexAttribute, normalIndices, 3);
                     }
                     String texCoordIndexAttribute = attributes.getValue("texCoordIndex");
                     if (texCoordIndexAttribute != null) {
-                        parseNumbersString(texCoordIndexAttribute,
-                                X3Dobject.textureIndexComponent, 3);
+                        X3DNumberScanner.parseIndices(texCoordIndexAttribute, texCoordIndices, 3);
                     }
                 }
 
@@ -1216,18 +1028,7 @@ public class X3Dobject {
                     }
                     String pointAttribute = attributes.getValue("point");
                     if (pointAttribute != null) {
-                        parseNumbersString(pointAttribute, X3Dobject.verticesComponent, 3);
-
-                        float[] vertexList = new float[vertices.size() * 3];
-                        for (int i = 0; i < vertices.size(); i++) {
-                            Vertex vertex = vertices.get(i);
-                            for (int j = 0; j < 3; j++) {
-
-                                vertexList[i * 3 + j] = vertex.getVertexCoord(j);
-
-                            }
-                        }
-                        gvrMesh.setVertices(vertexList);
+                        X3DNumberScanner.parseFloats(pointAttribute, coordPoints);
                     }
                 } // end NOT a USE Coordinates condition
 
@@ -1270,33 +1071,10 @@ public class X3Dobject {
                     // upside down
                     String pointAttribute = attributes.getValue("point");
                     if (pointAttribute != null) {
-                        parseNumbersString(pointAttribute, X3Dobject.textureCoordComponent, 2);
-                        // initialize the list
-                        // Reorganize the order of the texture coordinates if there
-                        // isn't a 1-to-1 match of coordinates, and texture coordinates.
-
-                        // check if an indexedTextureCoordinat list is present
-                        texcoordIndices.clear();
-                        if (indexedTextureCoord.size() != 0) {
-                            // current indexedFaceSet has a textureCoordIndex.
-                            texcoordIndices.ensureCapacity(indexedTextureCoord.size() * 3);
-                            for (int i = 0; i < indexedTextureCoord.size(); i++) {
-                                TextureCoordinates tcIndex = GetTexturedCoordSet(i);
-
-                                for (int j = 0; j < 3; j++) {
-                                    texcoordIndices.add((int) tcIndex.coords[j]);
-                                }
-                            }
-                        } else {
-                            // use the coordIndex if there is no indexedTextureCoord.
-                            texcoordIndices.ensureCapacity(indexedFaceSet.size() * 3);
-                            for (int i = 0; i < indexedFaceSet.size(); i++) {
-                                Coordinates coordinate = indexedFaceSet.get(i);
-                                for (int j = 0; j < 3; j++) {
-                                    texcoordIndices.add((int) coordinate.getCoordinate(j));
-                                }
-                            }
-                        }
+                        // Reorganized together with the coordinates at the end of the
+                        // IndexedFaceSet, the coordIndex is used if there is no
+                        // texCoordIndex.
+                        X3DNumberScanner.parseFloats(pointAttribute, texCoordPoints);
                     }
 
                 } // end NOT a USE TextureCoordinate condition
@@ -1338,37 +1116,8 @@ public class X3Dobject {
                     }
                     String vectorAttribute = attributes.getValue("vector");
                     if (vectorAttribute != null) {
-                        parseNumbersString(vectorAttribute, X3Dobject.normalsComponent, 3);
-
-                        // initialize the list
-                        char[] ifs = gvrMesh.getIndices();
-
-                        float[] normalVectorList = new float[ifs.length * 3];
-
-
-                        // check if an indexedVertexNormals list is present
-                        normalIndices.clear();
-                        if (indexedVertexNormals.size() != 0) {
-                            // current indexedFaceSet has a normalIndex.
-                            // We may need to reorganize the order of the texture coordinates
-
-                            normalIndices.ensureCapacity(indexedVertexNormals.size() * 3);
-                            for (int i = 0; i < indexedVertexNormals.size(); i++) {
-                                Coordinates vnIndex = GetIndexedVertexNormals(i);
-                                for (int j = 0; j < 3; j++) {
-                                    normalIndices.add((int) vnIndex.getCoordinate(j));
-                                }
-                            }
-                        } else {
-                            // use the coordIndex if there is no normalIndex.
-                            normalIndices.ensureCapacity(indexedFaceSet.size() * 3);
-                            for (int i = 0; i < indexedFaceSet.size(); i++) {
-                                Coordinates coordinate = indexedFaceSet.get(i);
-                                for (int j = 0; j < 3; j++) {
-                                    normalIndices.add((int) coordinate.getCoordinate(j));
-                                }
-                            }
-                        }
+                        // the coordIndex is used if there is no normalIndex
+                        X3DNumberScanner.parseFloats(vectorAttribute, normalVectors);
                     }
                 } // end NOT a USE Normals condition
             } // end <Normal> node
@@ -3221,23 +2970,29 @@ public class X3Dobject {
                 if (reorganizeVerts) {
                     organizeVertices(gvrMesh);
                     reorganizeVerts = false;
+                } else {
+                    // attributes shared with USE were copied into the mesh already
+                    if (coordPoints.size() > 0) {
+                        gvrMesh.setVertices(coordPoints.toArray());
+                    }
+                    if (coordIndices.size() > 0) {
+                        setMeshIndices(gvrMesh, coordIndices.array(), coordIndices.size());
+                    }
                 }
                 gvrRenderData.setMesh(gvrMesh);
                 gvrMesh = null;
-                indexedFaceSet.clear(); // clean up this Vector<coordinates> list.
-                indexedVertexNormals.clear(); // clean up this Vector<coordinates> list
-                indexedTextureCoord.clear(); // clean up this Vector<textureCoordinates>
-                texcoordIndices.clear();
+                coordIndices.clear();
                 normalIndices.clear();
-                vertices.clear();
-                vertexNormal.clear();
-                textureCoord.clear();
+                texCoordIndices.clear();
+                coordPoints.clear();
+                normalVectors.clear();
+                texCoordPoints.clear();
             } else if (qName.equalsIgnoreCase("Coordinate")) {
-                // vertices.clear(); // clean up this Vector<Vertex> list.
+                ;
             } else if (qName.equalsIgnoreCase("TextureCoordinate")) {
-                // textureCoord.clear(); // clean up this Vector<TextureValues> list.
+                ;
             } else if (qName.equalsIgnoreCase("Normal")) {
-                // vertexNormal.clear(); // clean up this Vector<VertexNormal> list.
+                ;
             } else if (qName.equalsIgnoreCase("DirectionalLight")) {
                 ;
             } else if (qName.equalsIgnoreCase("PointLight")) {
@@ -3375,196 +3130,206 @@ public class X3Dobject {
         // 2 lines of the polygon.  Second, for each vertex, sum the polygon
         // normals shared by this vertex
         private void generateNormals() {
-            try {
-                Vector3f[] polygonNormal = new Vector3f[indexedFaceSet.size()];
-                for (int i = 0; i < polygonNormal.length; i++) {
-                    polygonNormal[i] = new Vector3f();
-                }
-                Coordinates[] polygonVertices = new Coordinates[3];
-                short[] polygonIFS = new short[3];
-                try {
-                    Vertex[] polygonVertex = new Vertex[3];
-                    for (int f = 0; f < indexedFaceSet.size(); f++) {
-                        Coordinates coordinate = indexedFaceSet.get(f);
-                        polygonIFS = coordinate.getCoordinates();
-                        for (int i = 0; i < 3; i++) {
-                            polygonVertex[i] = vertices.get(polygonIFS[i]);
-                        }
-                        // get the sides of 2 lines of this polygons
-                        Vector3f side0 = new Vector3f();
-                        Vector3f side1 = new Vector3f();
-                        ;
-                        for (int i = 0; i < 3; i++) {
-                            side0.setComponent(i, (polygonVertex[0].getVertexCoord(i) - polygonVertex[1].getVertexCoord(i)));
-                            side1.setComponent(i, (polygonVertex[1].getVertexCoord(i) - polygonVertex[2].getVertexCoord(i)));
-                        }
-                        side0.cross(side1, polygonNormal[f]);
-                        polygonNormal[f].normalize();
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, e.toString());
-                }
-                // Calculate the vertex normals by summing & normalizing all the
-                // polygon normals who share this vertex.
-                Vector3f[] vertexNormals = new Vector3f[vertices.size()];
-                try {
-                    for (int i = 0; i < vertexNormals.length; i++) {
-                        vertexNormals[i] = new Vector3f();
-                        try {
-                            for (char f = 0; f < indexedFaceSet.size(); f++) {
-                                Coordinates coordinate = indexedFaceSet.get(f);
-                                polygonIFS = coordinate.getCoordinates();
-                                for (int j = 0; j < 3; j++) {
-                                    if (i == polygonIFS[j]) {
-                                        // this polygon touches the currentvertex
-                                        //   we are finding the normal
-                                        vertexNormals[i].add(polygonNormal[f]);
-                                    }
-                                }
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, e.toString());
-                        }
-                        vertexNormals[i].normalize();
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, e.toString());
-                }
-                // Calculate the vertex normals by summing & normalizing all the
-                // Add the vertex normals to the existing 'vertexNormal' array list
-                //   and add the normal indices to the IndexedFaceSet
-                for (Vector3f vns : vertexNormals) {
-                    float[] vn = new float[]{vns.x, vns.y, vns.z};
-                    AddVertexNormal(vn);
+            float[] points = coordPoints.array();
+            int[] coordIndex = coordIndices.array();
+            float[] vertexNormals = new float[coordPoints.size()];
+
+            for (int f = 0; f < coordIndices.size(); f += 3) {
+                int i0 = coordIndex[f] * 3;
+                int i1 = coordIndex[f + 1] * 3;
+                int i2 = coordIndex[f + 2] * 3;
+                // get the sides of 2 lines of this polygons
+                float ax = points[i0] - points[i1];
+                float ay = points[i0 + 1] - points[i1 + 1];
+                float az = points[i0 + 2] - points[i1 + 2];
+                float bx = points[i1] - points[i2];
+                float by = points[i1 + 1] - points[i2 + 1];
+                float bz = points[i1 + 2] - points[i2 + 2];
+                float nx = ay * bz - az * by;
+                float ny = az * bx - ax * bz;
+                float nz = ax * by - ay * bx;
+                float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+                if (length > 0) {
+                    nx /= length;
+                    ny /= length;
+                    nz /= length;
                 }
-                for (char f = 0; f < indexedFaceSet.size(); f++) {
-                    Coordinates coordinate = indexedFaceSet.get(f);
-                    polygonIFS = coordinate.getCoordinates();
-                    for (int i = 0; i < 3; i++) {
-                        normalIndices.add((int) polygonIFS[i]);
-                    }
+                addNormal(vertexNormals, i0, nx, ny, nz);
+                addNormal(vertexNormals, i1, nx, ny, nz);
+                addNormal(vertexNormals, i2, nx, ny, nz);
+            }
+            // normalize the sums, the normals are indexed like the coordinates
+            normalVectors.clear();
+            normalIndices.clear();
+            for (int i = 0; i < vertexNormals.length; i += 3) {
+                float nx = vertexNormals[i];
+                float ny = vertexNormals[i + 1];
+                float nz = vertexNormals[i + 2];
+                float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+                if (length > 0) {
+                    nx /= length;
+                    ny /= length;
+                    nz /= length;
                 }
-            } catch (Exception e) {
-                Log.e(TAG, e.toString());
+                normalVectors.add(nx);
+                normalVectors.add(ny);
+                normalVectors.add(nz);
             }
         }  //  end generateNormals
 
+        private void addNormal(float[] normals, int index, float nx, float ny, float nz) {
+            normals[index] += nx;
+            normals[index + 1] += ny;
+            normals[index + 2] += nz;
+        }
+
+        // Builds the mesh of the current IndexedFaceSet. Every distinct
+        // combination of coordinate, normal and texture coordinate index
+        // becomes one vertex of the mesh.
         private void organizeVertices(GVRMesh mesh) {
-            boolean hasNormals = normalIndices.size() > 0;
-            boolean hasTexcoords = texcoordIndices.size() > 0;
-            Map<String, Integer> vertexMap = new LinkedHashMap<String, Integer>();
-            char[] newIndices = new char[indexedFaceSet.size() * 3];
-            List<Float> gvrVerts = new ArrayList<Float>();
-            List<Float> gvrNormals = new ArrayList<Float>();
-            List<Float> gvrTexcoords = new ArrayList<Float>();
-            float minYtextureCoordinate = Float.MAX_VALUE;
-            float maxYtextureCoordinate = Float.MIN_VALUE;
+            int numIndices = coordIndices.size();
+            int[] coordIndex = coordIndices.array();
+            checkIndices(coordIndices, numIndices, coordPoints.size() / 3, "coordIndex");
 
-            if (!hasNormals) {
+            if (normalVectors.size() == 0) {
                 generateNormals();
-                hasNormals = true;
             }
+            boolean hasTexcoords = texCoordPoints.size() > 0;
+            // the coordIndex is used if there is no normalIndex or texCoordIndex
+            int[] normalIndex = coordIndex;
+            if (normalIndices.size() > 0) {
+                checkIndices(normalIndices, numIndices, normalVectors.size() / 3, "normalIndex");
+                normalIndex = normalIndices.array();
+            } else {
+                checkIndices(coordIndices, numIndices, normalVectors.size() / 3, "coordIndex");
+            }
+            int[] texCoordIndex = coordIndex;
+            if (hasTexcoords) {
+                if (texCoordIndices.size() > 0) {
+                    checkIndices(texCoordIndices, numIndices, texCoordPoints.size() / 2,
+                            "texCoordIndex");
+                    texCoordIndex = texCoordIndices.array();
+                } else {
+                    checkIndices(coordIndices, numIndices, texCoordPoints.size() / 2,
+                            "coordIndex");
+                }
+            }
+
             //
-            // Scan all the faces and compose the set of unique vertices
+            // Scan all the faces and compose the set of unique vertices,
+            // using an open addressing hash table of their index triples
             //
-            for (char f = 0; f < indexedFaceSet.size(); f++) {
-                Coordinates coordinate = indexedFaceSet.get(f);
-                float x;
-                float y;
-                float z;
-                float nx = 0;
-                float ny = 0;
-                float nz = 0;
-                float u = 0;
-                float v = 0;
-
-                for (char j = 0; j < 3; j++) {
-                    int findex = f * 3 + j;
-                    int vindex = coordinate.getCoordinate(j);
-                    Vertex srcVert = vertices.get(vindex);
-                    String key = "";
-
-                    x = srcVert.getVertexCoord(0);
-                    y = srcVert.getVertexCoord(1);
-                    z = srcVert.getVertexCoord(2);
-                    key += String.valueOf(x) + String.valueOf(y) + String.valueOf(z);
-                    if (hasNormals) {
-                        int nindex = normalIndices.get(findex);
-                        VertexNormal nml = vertexNormal.get(nindex);
-                        nx = nml.getVertexNormalCoord(0);
-                        ny = nml.getVertexNormalCoord(1);
-                        nz = nml.getVertexNormalCoord(2);
-                        key += String.valueOf(nx) + String.valueOf(ny) + String.valueOf(nz);
-                    }
-                    if (hasTexcoords) {
-                        int tindex = texcoordIndices.get(findex);
-                        TextureValues tv = textureCoord.get(tindex);
-                        u = tv.coord[0];
-                        v = tv.coord[1];
-                        key += String.valueOf(u) + String.valueOf(v);
-                    }
-                    Integer newindex = vertexMap.get(key);
-                    if (newindex == null) {
-                        newindex = vertexMap.size();
-                        vertexMap.put(key, newindex);
-                        gvrVerts.add(x);
-                        gvrVerts.add(y);
-                        gvrVerts.add(z);
-                        if (hasNormals) {
-                            gvrNormals.add(nx);
-                            gvrNormals.add(ny);
-                            gvrNormals.add(nz);
-                        }
-                        if (hasTexcoords) {
-                            gvrTexcoords.add(u);
-                            gvrTexcoords.add(v);
-                            if (v < minYtextureCoordinate) {
-                                minYtextureCoordinate = v;
-                            }
-                            if (u > maxYtextureCoordinate) {
-                                maxYtextureCoordinate = u;
-                            }
-                        }
-                    }
-                    newIndices[findex] = (char) (int) newindex;
+            int tableSize = 16;
+            while (tableSize < numIndices * 2) {
+                tableSize <<= 1;
+            }
+            int[] table = new int[tableSize]; // new index + 1, 0 if empty
+            int[] uniqueIndices = new int[numIndices * 3];
+            int[] newIndices = new int[numIndices];
+            int nverts = 0;
+
+            for (int i = 0; i < numIndices; ++i) {
+                int vindex = coordIndex[i];
+                int nindex = normalIndex[i];
+                int tindex = hasTexcoords ? texCoordIndex[i] : 0;
+                int hash = (vindex * 0x9E3779B1) ^ (nindex * 0x85EBCA77) ^ (tindex * 0xC2B2AE3D);
+                int slot = (hash ^ (hash >>> 16)) & (tableSize - 1);
+                int newindex = -1;
+
+                while (table[slot] != 0) {
+                    int u = (table[slot] - 1) * 3;
+                    if ((uniqueIndices[u] == vindex) && (uniqueIndices[u + 1] == nindex)
+                            && (uniqueIndices[u + 2] == tindex)) {
+                        newindex = table[slot] - 1;
+                        break;
+                    }
+                    slot = (slot + 1) & (tableSize - 1);
+                }
+                if (newindex < 0) {
+                    newindex = nverts++;
+                    table[slot] = newindex + 1;
+                    uniqueIndices[newindex * 3] = vindex;
+                    uniqueIndices[newindex * 3 + 1] = nindex;
+                    uniqueIndices[newindex * 3 + 2] = tindex;
                 }
+                newIndices[i] = newindex;
             }
+
             //
             // Copy the new vertex data into the GVRMesh
             //
-            int nverts = gvrVerts.size() / 3;
+            float[] points = coordPoints.array();
+            float[] vectors = normalVectors.array();
+            float[] texCoords = texCoordPoints.array();
             float[] newVertices = new float[nverts * 3];
-            float[] newNormals = hasNormals ? new float[nverts * 3] : null;
+            float[] newNormals = new float[nverts * 3];
             float[] newTexcoords = hasTexcoords ? new float[nverts * 2] : null;
-            int maxMinDiff = (int) Math.round((float) Math
-                    .ceil(maxYtextureCoordinate - minYtextureCoordinate));
+            float minYtextureCoordinate = Float.MAX_VALUE;
+            float maxYtextureCoordinate = Float.MIN_VALUE;
 
             for (int i = 0; i < nverts; ++i) {
-                int t = 3 * i;
-                newVertices[t] = gvrVerts.get(t++);
-                newVertices[t] = gvrVerts.get(t++);
-                newVertices[t] = gvrVerts.get(t++);
-                if (hasNormals) {
-                    t = 3 * i;
-                    newNormals[t] = gvrNormals.get(t++);
-                    newNormals[t] = gvrNormals.get(t++);
-                    newNormals[t] = gvrNormals.get(t++);
+                int v = uniqueIndices[i * 3] * 3;
+                int n = uniqueIndices[i * 3 + 1] * 3;
+                int t = i * 3;
+                newVertices[t] = points[v];
+                newVertices[t + 1] = points[v + 1];
+                newVertices[t + 2] = points[v + 2];
+                newNormals[t] = vectors[n];
+                newNormals[t + 1] = vectors[n + 1];
+                newNormals[t + 2] = vectors[n + 2];
+                if (hasTexcoords) {
+                    int tc = uniqueIndices[i * 3 + 2] * 2;
+                    float u = texCoords[tc];
+                    float tv = texCoords[tc + 1];
+                    newTexcoords[i * 2] = u;
+                    newTexcoords[i * 2 + 1] = tv;
+                    if (tv < minYtextureCoordinate) {
+                        minYtextureCoordinate = tv;
+                    }
+                    if (u > maxYtextureCoordinate) {
+                        maxYtextureCoordinate = u;
+                    }
                 }
-                if (hasTexcoords) // flip the Y texture coordinate
-                {
-                    t = 2 * i;
-                    newTexcoords[t] = gvrTexcoords.get(t++);
-                    newTexcoords[t] = maxMinDiff - gvrTexcoords.get(t);
+            }
+            if (hasTexcoords) // flip the Y texture coordinate
+            {
+                int maxMinDiff = (int) Math.round((float) Math
+                        .ceil(maxYtextureCoordinate - minYtextureCoordinate));
+                for (int i = 1; i < newTexcoords.length; i += 2) {
+                    newTexcoords[i] = maxMinDiff - newTexcoords[i];
                 }
             }
             mesh.setVertices(newVertices);
-            if (newNormals != null) {
-                mesh.setNormals(newNormals);
-            }
+            mesh.setNormals(newNormals);
             if (newTexcoords != null) {
                 mesh.setTexCoords(newTexcoords);
             }
-            mesh.setIndices(newIndices);
+            setMeshIndices(mesh, newIndices, numIndices);
+        }
+
+        private void checkIndices(X3DNumberScanner.IntArray indices, int count, int limit,
+                                  String name) {
+            if (indices.size() < count) {
+                throw new IndexOutOfBoundsException(name + " has " + indices.size()
+                        + " indices, " + count + " expected");
+            }
+            int[] index = indices.array();
+            for (int i = 0; i < count; ++i) {
+                if ((index[i] < 0) || (index[i] >= limit)) {
+                    throw new IndexOutOfBoundsException(name + " " + index[i]
+                            + " out of range, " + limit + " values");
+                }
+            }
+        }
+
+        // indices are stored with 32 bits if the mesh has more than
+        // 65536 vertices
+        private void setMeshIndices(GVRMesh mesh, int[] indices, int count) {
+            IntBuffer buffer = ByteBuffer.allocateDirect(count * 4)
+                    .order(ByteOrder.nativeOrder()).asIntBuffer();
+            buffer.put(indices, 0, count);
+            buffer.flip();
+            mesh.setIndexBuffer(buffer);
         }
 
         @Override
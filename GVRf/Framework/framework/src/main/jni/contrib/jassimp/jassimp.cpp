@@ -1636,6 +1636,25 @@ struct FileOpsData {
 	JNIEnv *env;
 };
 
+/*
+ * Wraps a buffer as a memory-backed file. The buffer is either malloc'ed
+ * or owned by a direct ByteBuffer, which is then kept by a global reference.
+ */
+static aiFile* wrapMemoryFile(unsigned char* buf, size_t len, jobject buffer) {
+	aiFile *file = (aiFile *)calloc(1, sizeof(aiFile));
+	MemoryFileData *fileData = (MemoryFileData *)calloc(1, sizeof(MemoryFileData));
+	fileData->buf = buf;
+	fileData->size = len;
+	fileData->buffer = buffer;
+
+	lprintf("ASSIMP before memcpy");
+	memcpy(file, &memoryFilePrototype, sizeof(memoryFilePrototype));
+	file->UserData = reinterpret_cast<char*>(fileData);
+	lprintf("ASSIMP after memcpy");
+
+	return file;
+}
+
 static aiFile* aiFileOpen(C_STRUCT aiFileIO* fio, const char* name, const char* mode) {
 	FileOpsData &opsData(*reinterpret_cast<FileOpsData*>(fio->UserData));
 	JNIEnv *env = opsData.env;
@@ -1646,6 +1665,30 @@ static aiFile* aiFileOpen(C_STRUCT aiFileIO* fio, const char* name, const char*
 	jvalue readParams[1];
 	readParams[0].l = jNameString;
 
+	// A JassimpBufferIO may return a direct buffer, like a slice of a
+	// memory-mapped file, which is read in place instead of copied
+	jclass bufferIOClass = env->FindClass("org/gearvrf/jassimp/JassimpBufferIO");
+	SmartLocalRef refBufferIOClass(env, bufferIOClass);
+	if (bufferIOClass && env->IsInstanceOf(opsData.jFileIO, bufferIOClass)) {
+		jobject jBuffer = callj(opsData.env, opsData.jFileIO, "org/gearvrf/jassimp/JassimpBufferIO", "readBuffer",
+								"(Ljava/lang/String;)Ljava/nio/ByteBuffer;", readParams);
+		SmartLocalRef refBuffer(env, jBuffer);
+
+		if (!jBuffer) {
+			lprintf("JassimpBufferIO.readBuffer returns null");
+			return nullptr;
+		}
+		void* address = env->GetDirectBufferAddress(jBuffer);
+		jlong capacity = env->GetDirectBufferCapacity(jBuffer);
+		if (address && capacity >= 0) {
+			return wrapMemoryFile(static_cast<unsigned char*>(address), capacity,
+								  env->NewGlobalRef(jBuffer));
+		}
+		// not a direct buffer, read it as byte array
+	} else {
+		env->ExceptionClear();
+	}
+
 	jbyteArray jByteArray = static_cast<jbyteArray>(callj(opsData.env, opsData.jFileIO, "org/gearvrf/jassimp/JassimpFileIO", "read",
 														  "(Ljava/lang/String;)[B", readParams));
 	SmartLocalRef refByteArray(env, jByteArray);
@@ -1659,23 +1702,17 @@ static aiFile* aiFileOpen(C_STRUCT aiFileIO* fio, const char* name, const char*
 	unsigned char* buf = (unsigned char*)malloc(len);
 	env->GetByteArrayRegion(jByteArray, 0, len, reinterpret_cast<jbyte*>(buf));
 
-	// Wrap data as a memory-backed file
-	aiFile *file = (aiFile *)calloc(1, sizeof(aiFile));
-	MemoryFileData *fileData = (MemoryFileData *)calloc(1, sizeof(MemoryFileData));
-	fileData->buf = buf;
-	fileData->size = len;
-
-	lprintf("ASSIMP before memcpy");
-	memcpy(file, &memoryFilePrototype, sizeof(memoryFilePrototype));
-	file->UserData = reinterpret_cast<char*>(fileData);
-	lprintf("ASSIMP after memcpy");
-
-	return file;
+	return wrapMemoryFile(buf, len, NULL);
 }
 
 static void aiFileClose(C_STRUCT aiFileIO* fio, C_STRUCT aiFile* file) {
 	MemoryFileData *fileData(reinterpret_cast<MemoryFileData *>(file->UserData));
-	free(fileData->buf);
+	if (fileData->buffer) {
+		FileOpsData &opsData(*reinterpret_cast<FileOpsData*>(fio->UserData));
+		opsData.env->DeleteGlobalRef(static_cast<jobject>(fileData->buffer));
+	} else {
+		free(fileData->buf);
+	}
 	free(file->UserData);
 	free(file);
 }
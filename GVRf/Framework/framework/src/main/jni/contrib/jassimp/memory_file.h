@@ -28,6 +28,9 @@ struct MemoryFileData {
     unsigned char *buf;
     size_t size;
     size_t pos;
+    // global reference to the direct buffer which owns buf, or NULL if
+    // buf was allocated with malloc
+    void *buffer;
 };
 
 extern aiFile memoryFilePrototype;
@@ -49,27 +49,40 @@ void Picker::pickScene(Scene* scene, std::vector<ColliderData>& picklist, Transf
          float ox, float oy, float oz, float dx, float dy, float dz) {
     glm::vec3 ray_start(ox, oy, oz);
     glm::vec3 ray_dir(dx, dy, dz);
-    const std::vector<Component*>& colliders = scene->lockColliders();
     const glm::mat4& model_matrix = t->getModelMatrix();
 
     Collider::transformRay(model_matrix, ray_start, ray_dir);
-    for (auto it = colliders.begin(); it != colliders.end(); ++it) {
-        Collider* collider = reinterpret_cast<Collider*>(*it);
-        SceneObject* owner = collider->owner_object();
-        if (collider->enabled() && (owner != NULL) && owner->enabled()) {
-            ColliderData data = collider->isHit(ray_start, ray_dir);
-            if ((collider->pick_distance() > 0) && (collider->pick_distance() < data.Distance)) {
-                data.IsHit = false;
-            }
-             if (data.IsHit) {
-                picklist.push_back(data);
-            }
+    if (!scene->getPickVisible()) {
+        // only hit test the colliders whose bounds the ray passes through
+        std::vector<SceneObject*> candidates;
+        scene->getBVH().intersect(ray_start, ray_dir, candidates);
+        for (auto it = candidates.begin(); it != candidates.end(); ++it) {
+            pickCollider((*it)->collider(), ray_start, ray_dir, picklist);
+        }
+    } else {
+        const std::vector<Component*>& colliders = scene->lockColliders();
+        for (auto it = colliders.begin(); it != colliders.end(); ++it) {
+            pickCollider(reinterpret_cast<Collider*>(*it), ray_start, ray_dir, picklist);
         }
+        scene->unlockColliders();
     }
     std::sort(picklist.begin(), picklist.end(), compareColliderData);
-    scene->unlockColliders();
  }
 
+void Picker::pickCollider(Collider* collider, const glm::vec3& ray_start, const glm::vec3& ray_dir,
+        std::vector<ColliderData>& picklist) {
+    SceneObject* owner = collider->owner_object();
+    if (collider->enabled() && (owner != NULL) && owner->enabled()) {
+        ColliderData data = collider->isHit(ray_start, ray_dir);
+        if ((collider->pick_distance() > 0) && (collider->pick_distance() < data.Distance)) {
+            data.IsHit = false;
+        }
+        if (data.IsHit) {
+            picklist.push_back(data);
+        }
+    }
+}
+
 void Picker::pickScene(Scene* scene, std::vector<ColliderData>& pickList) {
     Transform* t = scene->main_camera_rig()->getHeadTransform();
     pickScene(scene, pickList, t, 0, 0, 0, 0, 0, -1.0f);
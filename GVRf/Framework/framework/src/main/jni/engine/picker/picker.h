@@ -37,6 +37,8 @@ class Picker {
 private:
     Picker();
     ~Picker();
+    static void pickCollider(Collider* collider, const glm::vec3& ray_start,
+            const glm::vec3& ray_dir, std::vector<ColliderData>& pickList);
 
 public:
     static void pickVisible(Scene* scene, Transform* t, std::vector<ColliderData>& pickList);
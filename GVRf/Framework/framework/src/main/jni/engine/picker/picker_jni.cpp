@@ -44,8 +44,23 @@ extern "C" {
     JNIEXPORT jobjectArray JNICALL
     Java_org_gearvrf_NativePicker_pickVisible(JNIEnv * env,
             jobject obj, jlong jscene);
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_NativePicker_pickObjectsIntoBuffer(JNIEnv * env,
+            jobject obj, jlong jscene, jlong jtransform, jfloat ox, jfloat oy, jfloat oz, jfloat dx,
+            jfloat dy, jfloat dz, jobject jhits, jint maxHits);
 }
 
+/*
+ * Layout of one hit in the buffer filled by pickObjectsIntoBuffer,
+ * must match GVRPicker.HIT_SIZE
+ */
+struct PickHit {
+    jlong collider;
+    jfloat distance;
+    jfloat position[3];
+};
+static_assert(sizeof(PickHit) == 24, "PickHit must match GVRPicker.HIT_SIZE");
+
 JNIEXPORT jlongArray JNICALL
 Java_org_gearvrf_NativePicker_pickScene(JNIEnv * env,
         jobject obj, jlong jscene, jfloat ox, jfloat oy, jfloat oz, jfloat dx,
@@ -172,4 +187,40 @@ Java_org_gearvrf_NativePicker_pickVisible(JNIEnv * env,
     return pickList;
 }
 
+/*
+ * Picks into a direct buffer instead of allocating Java objects.
+ * Returns the number of hits. If it is larger than maxHits nothing
+ * is written and the caller should retry with a larger buffer.
+ */
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativePicker_pickObjectsIntoBuffer(JNIEnv * env,
+        jobject obj, jlong jscene, jlong jtransform, jfloat ox, jfloat oy, jfloat oz, jfloat dx,
+        jfloat dy, jfloat dz, jobject jhits, jint maxHits)
+{
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    PickHit* hits = reinterpret_cast<PickHit*>(env->GetDirectBufferAddress(jhits));
+    std::vector<ColliderData> colliders;
+    Transform* t = reinterpret_cast<Transform*>(jtransform);
+
+    if (t == NULL) {
+        t = scene->main_camera_rig()->getHeadTransform();
+    }
+    Picker::pickScene(scene, colliders, t, ox, oy, oz, dx, dy, dz);
+
+    int size = colliders.size();
+    if ((hits != NULL) && (size <= maxHits))
+    {
+        for (auto it = colliders.begin(); it != colliders.end(); ++it, ++hits)
+        {
+            const ColliderData& data = *it;
+            hits->collider = reinterpret_cast<jlong>(data.ColliderHit);
+            hits->distance = data.Distance;
+            hits->position[0] = data.HitPosition.x;
+            hits->position[1] = data.HitPosition.y;
+            hits->position[2] = data.HitPosition.z;
+        }
+    }
+    return size;
+}
+
 }
@@ -645,8 +645,8 @@ namespace gvr
         //there is no program associated with EXTERNAL_RENDERER_SHADER
         if (-1 != programId) {
             glBindVertexArray(mesh->getVAOId(programId));
-            if (mesh->indices().size() > 0) {
-                glDrawElements(render_data->draw_mode(), mesh->indices().size(), GL_UNSIGNED_SHORT, 0);
+            if (mesh->getIndexCount() > 0) {
+                glDrawElements(render_data->draw_mode(), mesh->getIndexCount(), mesh->getIndexType(), 0);
 
             } else {
                 glDrawArrays(render_data->draw_mode(), 0, mesh->vertices().size());
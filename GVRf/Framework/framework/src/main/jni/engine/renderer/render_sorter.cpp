@@ -0,0 +1,135 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <algorithm>
+
+#include "render_sorter.h"
+
+namespace gvr {
+
+static const int RADIX_BITS = 8;
+static const int RADIX_SIZE = 1 << RADIX_BITS;
+static const int RADIX_PASSES = 64 / RADIX_BITS;
+// below this size insertion sort beats the radix passes
+static const size_t INSERTION_SORT_SIZE = 64;
+
+void RenderSorter::beginSort() {
+    if (material_ranks_.size() >= MAX_MATERIAL_RANKS - 1) {
+        material_ranks_.clear();
+    }
+    if (batch_ranks_.size() >= MAX_BATCH_RANKS - 1) {
+        batch_ranks_.clear();
+    }
+}
+
+uint32_t RenderSorter::materialRank(const void* material) {
+    auto it = material_ranks_.find(material);
+    if (it != material_ranks_.end()) {
+        return it->second;
+    }
+    // the last rank is shared by the materials seen after the ranks ran
+    // out, they get ranks of their own after the next reset
+    uint32_t rank = material_ranks_.size();
+    if (rank >= MAX_MATERIAL_RANKS - 1) {
+        return MAX_MATERIAL_RANKS - 1;
+    }
+    material_ranks_.emplace(material, rank);
+    return rank;
+}
+
+uint32_t RenderSorter::batchRank(const std::string& hash_code) {
+    auto it = batch_ranks_.find(hash_code);
+    if (it != batch_ranks_.end()) {
+        return it->second;
+    }
+    uint32_t rank = batch_ranks_.size();
+    if (rank >= MAX_BATCH_RANKS - 1) {
+        return MAX_BATCH_RANKS - 1;
+    }
+    batch_ranks_.emplace(hash_code, rank);
+    return rank;
+}
+
+void RenderSorter::sort(std::vector<Item>& items) {
+    size_t count = items.size();
+
+    // Most frames draw the same items from about the same position as
+    // the frame before, so their keys often are still in order
+    bool sorted = true;
+    for (size_t i = 1; i < count; ++i) {
+        if (items[i].key < items[i - 1].key) {
+            sorted = false;
+            break;
+        }
+    }
+    if (sorted) {
+        return;
+    }
+    if (count <= INSERTION_SORT_SIZE) {
+        insertionSort(items);
+        return;
+    }
+
+    // Least significant digit first radix sort. One pass over the keys
+    // counts all digits; digits which are the same for all items, like
+    // the rendering order of most frames, are skipped.
+    histograms_.assign(RADIX_PASSES * RADIX_SIZE, 0);
+    uint32_t* histograms = histograms_.data();
+    for (size_t i = 0; i < count; ++i) {
+        uint64_t key = items[i].key;
+        for (int pass = 0; pass < RADIX_PASSES; ++pass) {
+            ++histograms[pass * RADIX_SIZE + ((key >> (pass * RADIX_BITS)) & (RADIX_SIZE - 1))];
+        }
+    }
+
+    scratch_.resize(count);
+    Item* source = items.data();
+    Item* target = scratch_.data();
+    for (int pass = 0; pass < RADIX_PASSES; ++pass) {
+        uint32_t* histogram = histograms + pass * RADIX_SIZE;
+        int shift = pass * RADIX_BITS;
+        if (histogram[(source[0].key >> shift) & (RADIX_SIZE - 1)] == count) {
+            continue;
+        }
+
+        uint32_t offset = 0;
+        for (int digit = 0; digit < RADIX_SIZE; ++digit) {
+            uint32_t size = histogram[digit];
+            histogram[digit] = offset;
+            offset += size;
+        }
+        for (size_t i = 0; i < count; ++i) {
+            target[histogram[(source[i].key >> shift) & (RADIX_SIZE - 1)]++] = source[i];
+        }
+        std::swap(source, target);
+    }
+    if (source != items.data()) {
+        std::memcpy(items.data(), source, count * sizeof(Item));
+    }
+}
+
+void RenderSorter::insertionSort(std::vector<Item>& items) {
+    for (size_t i = 1; i < items.size(); ++i) {
+        Item item = items[i];
+        size_t j = i;
+        while (j > 0 && items[j - 1].key > item.key) {
+            items[j] = items[j - 1];
+            --j;
+        }
+        items[j] = item;
+    }
+}
+
+}
@@ -0,0 +1,141 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Sorts render items by packed 64-bit keys.
+ ***************************************************************************/
+
+#ifndef RENDER_SORTER_H_
+#define RENDER_SORTER_H_
+
+#include <cstdint>
+#include <cstring>
+#include <string>
+#include <unordered_map>
+#include <vector>
+
+namespace gvr {
+
+/*
+ * Sorts the render items of a frame in the order of
+ * compareRenderDataByOrderShaderDistance without calling back into the
+ * render data: every item gets a 64-bit key once per frame and the keys
+ * are radix sorted.
+ *
+ * Key layout, from the most significant bit:
+ *   14 bits  rendering order, offset so that negative orders sort first
+ *   10 bits  shader type
+ * transparent items (Transparent <= order < Overlay):
+ *    8 bits  zero
+ *   32 bits  camera distance, inverted to draw back to front
+ * all other items:
+ *    3 bits  pass count - 1
+ *   12 bits  material rank
+ *    1 bit   cull face
+ *   11 bits  batch rank, from the render data hash code
+ *   13 bits  camera distance, quantized, to draw front to back
+ *
+ * Materials and hash codes are replaced by small ranks that stay the same
+ * from frame to frame, so the keys of a static scene do not change and
+ * the sort finds them already in order when the items are passed in the
+ * order of the last sort. Items which only differ in a field wider than
+ * its bits fall back to being grouped by material, which is what batching
+ * needs.
+ *
+ * Not thread safe; the renderer uses one sorter on the GL thread.
+ */
+class RenderSorter {
+public:
+    struct Item {
+        uint64_t key;
+        void* data;
+    };
+
+    static uint64_t makeTransparentKey(int rendering_order, int shader_type, float distance) {
+        return makeQueueKey(rendering_order, shader_type)
+                | (0xFFFFFFFFULL - floatBits(distance));
+    }
+
+    static uint64_t makeOpaqueKey(int rendering_order, int shader_type, int pass_count,
+            uint32_t material_rank, bool cull_face, uint32_t batch_rank, float distance) {
+        uint64_t passes = clamp(pass_count - 1, 7);
+        return makeQueueKey(rendering_order, shader_type)
+                | (passes << 37)
+                | (static_cast<uint64_t>(material_rank & 0xFFF) << 25)
+                | (static_cast<uint64_t>(cull_face ? 1 : 0) << 24)
+                | (static_cast<uint64_t>(batch_rank & 0x7FF) << 13)
+                | (floatBits(distance) >> 18);
+    }
+
+    /*
+     * Called before the keys of a sort are made. Resets the ranks if they
+     * ran out, so ranks only change between sorts and the map of ranks
+     * does not keep growing with materials which no longer exist.
+     */
+    void beginSort();
+
+    /*
+     * Small number identifying a material. Materials keep their rank
+     * until more than 4095 have been seen; materials seen after that
+     * share the last rank until the next beginSort().
+     */
+    uint32_t materialRank(const void* material);
+
+    /*
+     * Small number identifying render data which can be batched
+     * together, from their hash code. Runs out like the material ranks.
+     */
+    uint32_t batchRank(const std::string& hash_code);
+
+    /*
+     * Sorts the items by key. Items with equal keys keep their order.
+     */
+    void sort(std::vector<Item>& items);
+
+private:
+    static const uint32_t MAX_MATERIAL_RANKS = 1 << 12;
+    static const uint32_t MAX_BATCH_RANKS = 1 << 11;
+
+    static uint64_t clamp(int value, int max) {
+        return static_cast<uint64_t>(value < 0 ? 0 : (value > max ? max : value));
+    }
+
+    static uint64_t makeQueueKey(int rendering_order, int shader_type) {
+        return (clamp(rendering_order + 0x2000, 0x3FFF) << 50)
+                | (clamp(shader_type + 1, 0x3FF) << 40);
+    }
+
+    /*
+     * The bits of a non-negative float compare like the float.
+     */
+    static uint64_t floatBits(float value) {
+        uint32_t bits;
+        if (!(value > 0.0f)) {
+            return 0;
+        }
+        std::memcpy(&bits, &value, sizeof(bits));
+        return bits;
+    }
+
+    void insertionSort(std::vector<Item>& items);
+
+    std::unordered_map<const void*, uint32_t> material_ranks_;
+    std::unordered_map<std::string, uint32_t> batch_ranks_;
+    std::vector<Item> scratch_;
+    std::vector<uint32_t> histograms_;
+};
+
+}
+#endif
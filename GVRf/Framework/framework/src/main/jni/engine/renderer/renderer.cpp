@@ -25,6 +25,7 @@
 #include "objects/textures/render_texture.h"
 #include "shaders/shader_manager.h"
 #include "shaders/post_effect_shader_manager.h"
+#include "util/gvr_time.h"
 
 #include "gl_renderer.h"
 #include "vulkan_renderer.h"
@@ -56,69 +57,57 @@ Renderer* Renderer::getInstance(const char* type){
     }
     return instance;
 }
-Renderer::Renderer():numberDrawCalls(0), numberTriangles(0), batch_manager(nullptr) {
+Renderer::Renderer():numberDrawCalls(0), numberTriangles(0), numberCullNodes(0),
+        numberVisibleObjects(0), numberCulledObjects(0), cullTimeNanos(0), batch_manager(nullptr) {
     if(do_batching && !gRenderer->isVulkanInstace()) {
         batch_manager = new BatchManager(BATCH_SIZE, MAX_INDICES);
     }
 }
-void Renderer::frustum_cull(glm::vec3 camera_position, SceneObject *object,
-        float frustum[6][4], std::vector<SceneObject*>& scene_objects,
-        bool need_cull, int planeMask) {
-
-    // frustumCull() return 3 possible values:
-    // 0 when the HBV of the object is completely outside the frustum: cull itself and all its children out
-    // 1 when the HBV of the object is intersecting the frustum but the object itself is not: cull it out and continue culling test with its children
-    // 2 when the HBV of the object is intersecting the frustum and the mesh BV of the object are intersecting (inside) the frustum: render itself and continue culling test with its children
-    // 3 when the HBV of the object is completely inside the frustum: render itself and all its children without further culling test
-    int cullVal;
-
-    if (!object->enabled()) {
-        return;
-    }
-
-    //allows for on demand calculation of the camera distance; usually matters
-    //when transparent objects are in play
-    RenderData* renderData = object->render_data();
-    if (nullptr != renderData) {
-        renderData->setCameraDistanceLambda([object, camera_position]() {
-            // Transform the bounding volume
-            BoundingVolume bounding_volume_ = object->getBoundingVolume();
-            glm::vec4 transformed_sphere_center(bounding_volume_.center(), 1.0f);
-
-            // Calculate distance from camera
-            glm::vec4 position(camera_position, 1.0f);
-            glm::vec4 difference = transformed_sphere_center - position;
-            float distance = glm::dot(difference, difference);
-
-            // this distance will be used when sorting transparent objects
-            return distance;
-        });
+/*
+ * Computes the squared distance of the bounding volume centers of the
+ * visible objects from the camera into a flat array and stores it in their
+ * render data, where it is used to sort transparent objects back to front
+ * and opaque ones front to back.
+ */
+void Renderer::computeCameraDistances(const glm::vec3& camera_position,
+        const std::vector<SceneObject*>& scene_objects) {
+    size_t count = scene_objects.size();
+    camera_distances_.resize(count);
+    float* distances = camera_distances_.data();
+
+    for (size_t i = 0; i < count; ++i) {
+        glm::vec3 difference = scene_objects[i]->getBoundingVolume().center() - camera_position;
+        distances[i] = glm::dot(difference, difference);
     }
-
-    if (need_cull) {
-        cullVal = object->frustumCull(camera_position, frustum, planeMask);
-        if (cullVal == 0) {
-            object->setCullStatus(true);
-            return;
-        }
-
-        if (cullVal >= 2) {
-            object->setCullStatus(false);
-            scene_objects.push_back(object);
+    for (size_t i = 0; i < count; ++i) {
+        RenderData* renderData = scene_objects[i]->render_data();
+        if (nullptr != renderData) {
+            renderData->set_camera_distance(distances[i]);
         }
+    }
+}
 
-        if (cullVal == 3) {
-            object->setCullStatus(false);
-            need_cull = false;
+/*
+ * Collects all enabled objects below the root in depth first order, for
+ * rendering without frustum culling. Uses a persistent stack instead of
+ * recursing so the traversal does not allocate once the stack has grown.
+ */
+void Renderer::collect_enabled(SceneObject* root, std::vector<SceneObject*>& scene_objects) {
+    cull_stack_.clear();
+    cull_stack_.push_back(root);
+    while (!cull_stack_.empty()) {
+        SceneObject* object = cull_stack_.back();
+        cull_stack_.pop_back();
+        if (!object->enabled()) {
+            continue;
         }
-    } else {
         object->setCullStatus(false);
         scene_objects.push_back(object);
-    }
 
-    const std::vector<SceneObject*> children = object->children();
-    for (auto it = children.begin(); it != children.end(); ++it) {
-        frustum_cull(camera_position, *it, frustum, scene_objects, need_cull, planeMask);
+        // push the children in reverse to visit them in order
+        size_t first = cull_stack_.size();
+        object->appendChildren(cull_stack_);
+        std::reverse(cull_stack_.begin() + first, cull_stack_.end());
     }
 }
 
@@ -127,8 +116,59 @@ void Renderer::state_sort() {
     // 1. rendering order first to maintain specified order
     // 2. shader type second to minimize the gl cost of switching shader
     // 3. camera distance last to minimize overdraw
-    std::sort(render_data_vector.begin(), render_data_vector.end(),
-            compareRenderDataByOrderShaderDistance);
+    // in the order of compareRenderDataByOrderShaderDistance, with the
+    // fields packed into one key per render data
+    size_t count = render_data_vector.size();
+
+    // Start from the order of the last sort rather than the culling order:
+    // render data go back to their last position, new ones fill the gaps,
+    // so the keys of an unchanged scene are already sorted
+    sort_slots_.assign(count, nullptr);
+    for (size_t i = 0; i < count; ++i) {
+        RenderData* renderData = render_data_vector[i];
+        unsigned int position = renderData->sort_position();
+        if (position < count && sort_slots_[position] == nullptr) {
+            sort_slots_[position] = renderData;
+        }
+    }
+    size_t free_slot = 0;
+    for (size_t i = 0; i < count; ++i) {
+        RenderData* renderData = render_data_vector[i];
+        unsigned int position = renderData->sort_position();
+        if (position < count && sort_slots_[position] == renderData) {
+            continue;
+        }
+        while (sort_slots_[free_slot] != nullptr) {
+            ++free_slot;
+        }
+        sort_slots_[free_slot] = renderData;
+    }
+
+    render_sorter_.beginSort();
+    sort_items_.resize(count);
+    for (size_t i = 0; i < count; ++i) {
+        RenderData* renderData = sort_slots_[i];
+        Material* material = renderData->material(0);
+        int order = renderData->rendering_order();
+        RenderSorter::Item& item = sort_items_[i];
+
+        item.data = renderData;
+        if (order >= RenderData::Transparent && order < RenderData::Overlay) {
+            item.key = RenderSorter::makeTransparentKey(order, material->shader_type(),
+                    renderData->camera_distance());
+        } else {
+            item.key = RenderSorter::makeOpaqueKey(order, material->shader_type(),
+                    renderData->pass_count(), render_sorter_.materialRank(material),
+                    renderData->cull_face(0), render_sorter_.batchRank(renderData->getHashCode()),
+                    renderData->camera_distance());
+        }
+    }
+    render_sorter_.sort(sort_items_);
+    for (size_t i = 0; i < count; ++i) {
+        RenderData* renderData = static_cast<RenderData*>(sort_items_[i].data);
+        renderData->set_sort_position(i);
+        render_data_vector[i] = renderData;
+    }
 
     if (DEBUG_RENDERER) {
         LOGD("SORTING: After sorting");
@@ -189,14 +229,14 @@ void Renderer::cull(Scene *scene, Camera *camera,
 void Renderer::cullFromCamera(Scene *scene, Camera* camera,
         ShaderManager* shader_manager)
 {
-    std::vector<SceneObject*> scene_objects;
+    long long start = getNanoTime();
     glm::mat4 view_matrix = camera->getViewMatrix();
     glm::mat4 projection_matrix = camera->getProjectionMatrix();
     glm::mat4 vp_matrix = glm::mat4(projection_matrix * view_matrix);
     glm::vec3 campos(view_matrix[3]);
 
-    scene_objects.reserve(1024);
-    scene_objects.clear();
+    // scene_objects_ keeps its capacity from frame to frame
+    scene_objects_.clear();
     render_data_vector.clear();
 
     // Travese all scene objects in the scene as a tree and do frustum culling at the same time if enabled
@@ -204,18 +244,27 @@ void Renderer::cullFromCamera(Scene *scene, Camera* camera,
     float frustum[6][4];
     build_frustum(frustum, (const float*) glm::value_ptr(vp_matrix));
 
-    // 2. Iteratively execute frustum culling for each root object (as well as its children objects recursively)
+    // 2. Query the bounding volume hierarchy of the scene if frustum culling is enabled,
+    //    otherwise collect all enabled objects in the scene
     SceneObject *object = scene->getRoot();
     if (DEBUG_RENDERER) {
         LOGD("FRUSTUM: start frustum culling for root %s\n", object->name().c_str());
     }
-    //    frustum_cull(camera->owner_object()->transform()->position(), object, frustum, scene_objects, scene->get_frustum_culling(), 0);
-    frustum_cull(campos, object, frustum, scene_objects, scene->get_frustum_culling(), 0);
+    if (scene->get_frustum_culling()) {
+        numberCullNodes = scene->getBVH().cull(frustum, scene_objects_, &numberCulledObjects);
+    } else {
+        collect_enabled(object, scene_objects_);
+        numberCullNodes = 0;
+        numberCulledObjects = 0;
+    }
+    numberVisibleObjects = scene_objects_.size();
+    computeCameraDistances(campos, scene_objects_);
     if (DEBUG_RENDERER) {
         LOGD("FRUSTUM: end frustum culling for root %s\n", object->name().c_str());
     }
     // 3. do occlusion culling, if enabled
-    occlusion_cull(scene, scene_objects, shader_manager, vp_matrix);
+    occlusion_cull(scene, scene_objects_, shader_manager, vp_matrix);
+    cullTimeNanos = getNanoTime() - start;
 }
 
 
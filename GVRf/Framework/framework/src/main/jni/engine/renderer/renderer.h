@@ -33,6 +33,7 @@
 #include "gl/gl_program.h"
 #include <unordered_map>
 #include "batch_manager.h"
+#include "render_sorter.h"
 
 typedef unsigned long Long;
 namespace gvr {
@@ -107,6 +108,31 @@ public:
      int incrementDrawCalls(){
         return ++numberDrawCalls;
      }
+     /*
+      * Number of bounding volume hierarchy nodes visited
+      * by the last frustum culling pass.
+      */
+     int getNumberCullNodes() {
+        return numberCullNodes;
+     }
+     /*
+      * Number of objects returned by the last culling pass.
+      */
+     int getNumberVisibleObjects() {
+        return numberVisibleObjects;
+     }
+     /*
+      * Number of objects rejected by the last frustum culling pass.
+      */
+     int getNumberCulledObjects() {
+        return numberCulledObjects;
+     }
+     /*
+      * Duration of the last culling pass in nanoseconds.
+      */
+     long long getCullTimeNanos() {
+        return cullTimeNanos;
+     }
      static Renderer* getInstance(const char* type = " ");
      static void resetInstance(){
         delete instance;
@@ -157,9 +183,9 @@ public:
 private:
     static bool isVulkan_;
     virtual void build_frustum(float frustum[6][4], const float *vp_matrix);
-    virtual void frustum_cull(glm::vec3 camera_position, SceneObject *object,
-            float frustum[6][4], std::vector<SceneObject*>& scene_objects,
-            bool continue_cull, int planeMask);
+    void collect_enabled(SceneObject* root, std::vector<SceneObject*>& scene_objects);
+    void computeCameraDistances(const glm::vec3& camera_position,
+            const std::vector<SceneObject*>& scene_objects);
 
     virtual bool isShader3d(const Material* curr_material);
     virtual bool isDefaultPosition3d(const Material* curr_material);
@@ -170,6 +196,15 @@ private:
     Renderer& operator=(Renderer&& render_engine);
     BatchManager* batch_manager;
     static Renderer* instance;
+
+    // scratch buffers of the culling pass, reused from frame to frame
+    std::vector<SceneObject*> scene_objects_;
+    std::vector<SceneObject*> cull_stack_;
+    std::vector<float> camera_distances_;
+
+    RenderSorter render_sorter_;
+    std::vector<RenderSorter::Item> sort_items_;
+    std::vector<RenderData*> sort_slots_;
     
 protected:
     Renderer();
@@ -193,6 +228,10 @@ protected:
     std::vector<RenderData*> render_data_vector;
     int numberDrawCalls;
     int numberTriangles;
+    int numberCullNodes;
+    int numberVisibleObjects;
+    int numberCulledObjects;
+    long long cullTimeNanos;
     bool useStencilBuffer_ = false;
 
 public:
@@ -21,6 +21,7 @@
 #define GL_PROGRAM_H_
 
 #include "gl/gl_headers.h"
+#include "gl/gl_program_cache.h"
 
 #include "util/gvr_log.h"
 #include "util/gvr_gl.h"
@@ -35,9 +36,16 @@ public:
         GLint fragment_shader_string_lengths[1] = { (GLint) strlen(
                 pFragmentSourceStrings) };
 
+        id_ = ProgramBinaryCache::load(pVertexSourceStrings, pFragmentSourceStrings);
+        if (0 != id_) {
+            return;
+        }
         id_ = createProgram(1, &pVertexSourceStrings,
                 vertex_shader_string_lengths, &pFragmentSourceStrings,
                 fragment_shader_string_lengths);
+        if (0 != id_ && ProgramBinaryCache::isEnabled()) {
+            ProgramBinaryCache::store(id_, pVertexSourceStrings, pFragmentSourceStrings);
+        }
     }
 
     GLProgram(const char** pVertexSourceStrings,
@@ -117,6 +125,9 @@ public:
             glAttachShader(program, pixelShader);
             checkGLError("glAttachShader");
 
+            if (ProgramBinaryCache::isEnabled()) {
+                glProgramParameteri(program, GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL_TRUE);
+            }
             glLinkProgram(program);
             GLint linkStatus = GL_FALSE;
             glGetProgramiv(program, GL_LINK_STATUS, &linkStatus);
@@ -0,0 +1,151 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * On-disk cache of linked GL program binaries.
+ ***************************************************************************/
+
+#include "gl_program_cache.h"
+
+#include <stdio.h>
+#include <stdint.h>
+#include <vector>
+
+#include "util/gvr_log.h"
+
+namespace gvr {
+
+namespace {
+const uint32_t kMagic = 0x47565250; // "GVRP"
+
+uint64_t hashString(uint64_t hash, const char* s) {
+    // 64-bit FNV-1a
+    for (; *s; ++s) {
+        hash ^= static_cast<unsigned char>(*s);
+        hash *= 0x100000001b3ULL;
+    }
+    return hash;
+}
+}
+
+std::mutex ProgramBinaryCache::lock_;
+std::string ProgramBinaryCache::directory_;
+
+void ProgramBinaryCache::setDirectory(const std::string& directory) {
+    std::lock_guard<std::mutex> lock(lock_);
+    directory_ = directory;
+}
+
+bool ProgramBinaryCache::isEnabled() {
+    std::lock_guard<std::mutex> lock(lock_);
+    return !directory_.empty();
+}
+
+std::string ProgramBinaryCache::getFileName(const char* vertex_shader,
+        const char* fragment_shader) {
+    uint64_t hash = 0xcbf29ce484222325ULL;
+    hash = hashString(hash, vertex_shader);
+    hash = hashString(hash, "\n#fragment\n");
+    hash = hashString(hash, fragment_shader);
+
+    char name[32];
+    snprintf(name, sizeof(name), "/%016llx.bin",
+            static_cast<unsigned long long>(hash));
+
+    std::lock_guard<std::mutex> lock(lock_);
+    if (directory_.empty()) {
+        return std::string();
+    }
+    return directory_ + name;
+}
+
+GLuint ProgramBinaryCache::load(const char* vertex_shader,
+        const char* fragment_shader) {
+    std::string file_name = getFileName(vertex_shader, fragment_shader);
+    if (file_name.empty()) {
+        return 0;
+    }
+    FILE* file = fopen(file_name.c_str(), "rb");
+    if (nullptr == file) {
+        return 0;
+    }
+
+    uint32_t header[3];
+    std::vector<char> binary;
+    bool ok = fread(header, sizeof(header), 1, file) == 1
+            && header[0] == kMagic && header[2] > 0;
+    if (ok) {
+        binary.resize(header[2]);
+        ok = fread(binary.data(), binary.size(), 1, file) == 1;
+    }
+    fclose(file);
+    if (!ok) {
+        LOGW("ProgramBinaryCache: ignoring malformed %s", file_name.c_str());
+        remove(file_name.c_str());
+        return 0;
+    }
+
+    GLuint program = glCreateProgram();
+    glProgramBinary(program, header[1], binary.data(), binary.size());
+    GLint linkStatus = GL_FALSE;
+    glGetProgramiv(program, GL_LINK_STATUS, &linkStatus);
+    if (linkStatus != GL_TRUE) {
+        LOGW("ProgramBinaryCache: driver rejected %s", file_name.c_str());
+        glDeleteProgram(program);
+        remove(file_name.c_str());
+        return 0;
+    }
+    LOGD("ProgramBinaryCache: loaded program %d from %s", program, file_name.c_str());
+    return program;
+}
+
+void ProgramBinaryCache::store(GLuint program, const char* vertex_shader,
+        const char* fragment_shader) {
+    std::string file_name = getFileName(vertex_shader, fragment_shader);
+    if (file_name.empty()) {
+        return;
+    }
+
+    GLint length = 0;
+    glGetProgramiv(program, GL_PROGRAM_BINARY_LENGTH, &length);
+    if (length <= 0) {
+        return;
+    }
+    std::vector<char> binary(length);
+    GLenum format = 0;
+    glGetProgramBinary(program, length, &length, &format, binary.data());
+    if (glGetError() != GL_NO_ERROR || length <= 0) {
+        return;
+    }
+
+    // Write to a temporary file first so a crash never leaves a partial binary
+    std::string temp_name = file_name + ".tmp";
+    FILE* file = fopen(temp_name.c_str(), "wb");
+    if (nullptr == file) {
+        LOGW("ProgramBinaryCache: cannot write %s", temp_name.c_str());
+        return;
+    }
+    uint32_t header[3] = { kMagic, format, static_cast<uint32_t>(length) };
+    bool ok = fwrite(header, sizeof(header), 1, file) == 1
+            && fwrite(binary.data(), length, 1, file) == 1;
+    ok = (fclose(file) == 0) && ok;
+    if (ok && rename(temp_name.c_str(), file_name.c_str()) == 0) {
+        LOGD("ProgramBinaryCache: stored program %d in %s", program, file_name.c_str());
+    } else {
+        remove(temp_name.c_str());
+    }
+}
+
+}
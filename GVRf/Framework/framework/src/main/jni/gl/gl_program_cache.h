@@ -0,0 +1,59 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * On-disk cache of linked GL program binaries.
+ ***************************************************************************/
+
+#ifndef GL_PROGRAM_CACHE_H_
+#define GL_PROGRAM_CACHE_H_
+
+#include <mutex>
+#include <string>
+
+#include "gl/gl_headers.h"
+
+namespace gvr {
+
+/*
+ * Programs are keyed by a hash of their vertex and fragment shader source.
+ * A cached binary which the driver rejects (e.g. after a driver update) is
+ * ignored and replaced the next time the program is linked from source.
+ * The cache is disabled until a directory is set.
+ */
+class ProgramBinaryCache {
+public:
+    static void setDirectory(const std::string& directory);
+    static bool isEnabled();
+
+    // Returns a linked program, or 0 if there is no usable cached binary
+    static GLuint load(const char* vertex_shader, const char* fragment_shader);
+
+    static void store(GLuint program, const char* vertex_shader,
+            const char* fragment_shader);
+
+private:
+    ProgramBinaryCache() {
+    }
+
+    static std::string getFileName(const char* vertex_shader,
+            const char* fragment_shader);
+
+    static std::mutex lock_;
+    static std::string directory_;
+};
+
+}
+#endif
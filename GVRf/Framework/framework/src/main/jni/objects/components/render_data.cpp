@@ -16,6 +16,7 @@
 
 #include "objects/hybrid_object.h"
 #include "objects/components/render_data.h"
+#include "objects/scene_object.h"
 
 namespace gvr {
 
@@ -39,6 +40,9 @@ void RenderData::set_mesh(Mesh* mesh) {
     mesh_ = mesh;
     mesh->add_dirty_flag(dirty_flag_);
     *dirty_flag_ = true;
+    if (owner_object() != nullptr) {
+        owner_object()->dirtyHierarchicalBoundingVolume();
+    }
 }
 
 void RenderData::setDirty(bool dirty){
@@ -59,10 +63,6 @@ Material* RenderData::material(int pass) const {
     return nullptr;
 }
 
-void RenderData::setCameraDistanceLambda(std::function<float()> func) {
-    cameraDistanceLambda_ = func;
-}
-
 void RenderData::setStencilFunc(int func, int ref, int mask) {
     stencilFuncFunc_= func;
     stencilFuncRef_ = ref;
@@ -20,6 +20,7 @@
 #ifndef RENDER_DATA_H_
 #define RENDER_DATA_H_
 
+#include <climits>
 #include <memory>
 #include <vector>
 
@@ -73,7 +74,7 @@ public:
                     depth_test_(true), alpha_blend_(true), alpha_to_coverage_(false),
                     source_alpha_blend_func_(GL_ONE), dest_alpha_blend_func_(GL_ONE_MINUS_SRC_ALPHA),
                     sample_coverage_(1.0f), invert_coverage_mask_(GL_FALSE), draw_mode_(GL_TRIANGLES),
-                    texture_capturer(0), cast_shadows_(true), dirty_flag_(std::make_shared<bool>(true)) {
+                    camera_distance_(0.0f), texture_capturer(0), cast_shadows_(true), dirty_flag_(std::make_shared<bool>(true)) {
     }
 
     void copy(const RenderData& rdata) {
@@ -317,14 +318,29 @@ public:
         return draw_mode_;
     }
 
-    float camera_distance() {
-        if (nullptr != cameraDistanceLambda_) {
-            camera_distance_ = cameraDistanceLambda_();
-            cameraDistanceLambda_ = nullptr;
-        }
+    float camera_distance() const {
         return camera_distance_;
     }
 
+    /*
+     * Set by the renderer for every visible object in each culling pass.
+     */
+    void set_camera_distance(float distance) {
+        camera_distance_ = distance;
+    }
+
+    /*
+     * Position of the render data in the order the renderer sorted them
+     * in last, so the next sort can start from that order.
+     */
+    unsigned int sort_position() const {
+        return sort_position_;
+    }
+
+    void set_sort_position(unsigned int position) {
+        sort_position_ = position;
+    }
+
     void set_draw_mode(GLenum draw_mode) {
         draw_mode_ = draw_mode;
         hash_code_dirty_ = true;
@@ -342,7 +358,7 @@ public:
         return texture_capturer;
     }
 
-    std::string getHashCode() {
+    const std::string& getHashCode() {
         if (hash_code_dirty_) {
             std::string render_data_string;
             render_data_string.append(to_string(use_light_));
@@ -376,8 +392,6 @@ public:
         return hash_code;
     }
 
-    void setCameraDistanceLambda(std::function<float()> func);
-
     void setStencilFunc(int func, int ref, int mask);
 
     void setStencilOp(int sfail, int dpfail, int dppass);
@@ -427,10 +441,9 @@ private:
     GLboolean invert_coverage_mask_;
     GLenum draw_mode_;
     float camera_distance_;
+    unsigned int sort_position_ = UINT_MAX;
     TextureCapturer *texture_capturer;
 
-    std::function<float()> cameraDistanceLambda_ = nullptr;
-
     int stencilFuncFunc_ = 0;
     int stencilFuncRef_ = 0;
     int stencilFuncMask_ = 0;
@@ -174,6 +174,33 @@ public:
         invalidate(false);
     }
 
+    void set_trs(const float* trs) {
+        position_.x = trs[0];
+        position_.y = trs[1];
+        position_.z = trs[2];
+        rotation_.w = trs[3];
+        rotation_.x = trs[4];
+        rotation_.y = trs[5];
+        rotation_.z = trs[6];
+        scale_.x = trs[7];
+        scale_.y = trs[8];
+        scale_.z = trs[9];
+        invalidate(true);
+    }
+
+    void get_trs(float* trs) const {
+        trs[0] = position_.x;
+        trs[1] = position_.y;
+        trs[2] = position_.z;
+        trs[3] = rotation_.w;
+        trs[4] = rotation_.x;
+        trs[5] = rotation_.y;
+        trs[6] = rotation_.z;
+        trs[7] = scale_.x;
+        trs[8] = scale_.y;
+        trs[9] = scale_.z;
+    }
+
     bool isModelMatrixValid() {
         return model_matrix_.isValid();
     }
@@ -18,6 +18,8 @@
  * JNI
  ***************************************************************************/
 
+#include <cstring>
+
 #include "transform.h"
 
 #include "util/gvr_jni.h"
@@ -148,6 +150,18 @@ Java_org_gearvrf_NativeTransform_rotateWithPivot(
         jfloat quat_x, jfloat quat_y, jfloat quat_z, jfloat pivot_x,
         jfloat pivot_y, jfloat pivot_z);
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransform_setTRSBatch(JNIEnv * env,
+        jobject obj, jobject jtransforms, jobject jtrs, jint count);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransform_getTRSBatch(JNIEnv * env,
+        jobject obj, jobject jtransforms, jobject jtrs, jint count);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransform_getModelMatrixBatch(JNIEnv * env,
+        jobject obj, jobject jtransforms, jobject jmatrices, jint count);
+
 }
 ;
 
@@ -406,5 +420,38 @@ Java_org_gearvrf_NativeTransform_rotateWithPivot(
             pivot_y, pivot_z);
 }
 
+// Number of floats per transform in the batch TRS buffer, see GVRTransformBatch
+static const int TRS_STRIDE = 10;
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransform_setTRSBatch(JNIEnv * env,
+        jobject obj, jobject jtransforms, jobject jtrs, jint count) {
+    const jlong* transforms = static_cast<const jlong*>(env->GetDirectBufferAddress(jtransforms));
+    const float* trs = static_cast<const float*>(env->GetDirectBufferAddress(jtrs));
+    for (int i = 0; i < count; ++i, trs += TRS_STRIDE) {
+        reinterpret_cast<Transform*>(transforms[i])->set_trs(trs);
+    }
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransform_getTRSBatch(JNIEnv * env,
+        jobject obj, jobject jtransforms, jobject jtrs, jint count) {
+    const jlong* transforms = static_cast<const jlong*>(env->GetDirectBufferAddress(jtransforms));
+    float* trs = static_cast<float*>(env->GetDirectBufferAddress(jtrs));
+    for (int i = 0; i < count; ++i, trs += TRS_STRIDE) {
+        reinterpret_cast<Transform*>(transforms[i])->get_trs(trs);
+    }
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransform_getModelMatrixBatch(JNIEnv * env,
+        jobject obj, jobject jtransforms, jobject jmatrices, jint count) {
+    const jlong* transforms = static_cast<const jlong*>(env->GetDirectBufferAddress(jtransforms));
+    float* matrices = static_cast<float*>(env->GetDirectBufferAddress(jmatrices));
+    for (int i = 0; i < count; ++i, matrices += 16) {
+        glm::mat4 matrix = reinterpret_cast<Transform*>(transforms[i])->getModelMatrix();
+        std::memcpy(matrices, glm::value_ptr(matrix), sizeof(matrix));
+    }
+}
 
 }
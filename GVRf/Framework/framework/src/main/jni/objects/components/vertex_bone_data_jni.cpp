@@ -26,6 +26,10 @@ Java_org_gearvrf_NativeVertexBoneData_setVertexBoneWeight(JNIEnv * env, jclass c
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeVertexBoneData_normalizeWeights(JNIEnv * env, jclass clz, jlong ptr);
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeVertexBoneData_setFinalBoneTransforms(JNIEnv * env, jclass clz, jlong ptr,
+        jfloatArray jPalette);
+
 } // extern "C"
 ;
 
@@ -55,4 +59,18 @@ Java_org_gearvrf_NativeVertexBoneData_normalizeWeights(JNIEnv * env, jclass clz,
     boneData->normalizeWeights();
 }
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeVertexBoneData_setFinalBoneTransforms(JNIEnv * env, jclass clz, jlong ptr,
+        jfloatArray jPalette) {
+    VertexBoneData *boneData = reinterpret_cast<VertexBoneData*>(ptr);
+    if (!jPalette)
+        return;
+
+    int numBones = env->GetArrayLength(jPalette) / 16;
+    float* dest = boneData->getFinalBoneTransforms(numBones);
+    if (dest) {
+        env->GetFloatArrayRegion(jPalette, 0, numBones * 16, dest);
+    }
+}
+
 } // namespace gvr
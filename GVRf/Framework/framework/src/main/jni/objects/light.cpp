@@ -25,6 +25,9 @@
 
 namespace gvr {
 
+// GL returns -1 for uniforms the program does not use
+static const int LOCATION_UNKNOWN = -2;
+
 /*
  * Loads the uniforms associated with this light
  * into the GPU if they have changed.
@@ -42,78 +45,35 @@ namespace gvr {
             return;
         }
         dirty_[program] = false;
-        std::string key;
         std::string lname = lightID_ + ".";
-        int offset;
-
-        for (auto it = floats_.begin(); it != floats_.end(); ++it)
-        {
-            key = lname + it->first;
-            offset = getOffset(it->first, program);
-            if (offset <= 0)
-            {
-                offset = glGetUniformLocation(program, key.c_str());
-                offsets_[it->first][program] = offset;
-            }
-            if (offset >= 0)
-                glUniform1f(offset, it->second);
-    #ifdef DEBUG_LIGHT
-            LOGD("LIGHT: %s = %f\n", key.c_str(), it->second);
-    #endif
-        }
-
-        for (auto it = vec3s_.begin(); it != vec3s_.end(); ++it)
-        {
-            offset = getOffset(it->first, program);
-            key = lname + it->first;
-            if (offset <= 0)
-            {
-                offset = glGetUniformLocation(program, key.c_str());
-                offsets_[it->first][program] = offset;
-              }
-            if (offset >= 0)
-            {
-                glm::vec3 v = it->second;
-                glUniform3f(offset, v.x, v.y, v.z);
-    #ifdef DEBUG_LIGHT
-                LOGD("LIGHT: %s = %f, %f, %f\n", key.c_str(), v.x, v.y, v.z);
-    #endif
-            }
-        }
+        std::vector<int>& locations = locations_[program];
+        std::vector<int> slots = uniforms_.slots();
 
-        for (auto it = vec4s_.begin(); it != vec4s_.end(); ++it)
+        for (auto it = slots.begin(); it != slots.end(); ++it)
         {
-            offset = getOffset(it->first, program);
-            key = lname + it->first;
-            if (offset <= 0)
+            int slot = *it;
+            if (slot >= static_cast<int>(locations.size()))
             {
-                offset = glGetUniformLocation(program, key.c_str());
-                offsets_[it->first][program] = offset;
+                locations.resize(slot + 1, LOCATION_UNKNOWN);
             }
-            if (offset >= 0)
-            {
-                glm::vec4 v = it->second;
-                glUniform4f(offset, v.x, v.y, v.z, v.w);
-    #ifdef DEBUG_LIGHT
-                LOGD("LIGHT: %s = %f, %f, %f, %f\n", key.c_str(), v.x, v.y, v.z, v.w);
-    #endif
-            }
-        }
-        for (auto it = mat4s_.begin(); it != mat4s_.end(); ++it)
-        {
-            offset = getOffset(it->first, program);
-            key = lname + it->first;
-            if (offset <= 0)
+            int location = locations[slot];
+            if (location == LOCATION_UNKNOWN)
             {
-                offset = glGetUniformLocation(program, key.c_str());
-                offsets_[it->first][program] = offset;
+                std::string key = lname + UniformBlock::getSlotName(slot);
+                location = glGetUniformLocation(program, key.c_str());
+                locations[slot] = location;
             }
-            if (offset >= 0)
+            if (location >= 0)
             {
-                glm::mat4 v = it->second;
-                glUniformMatrix4fv(offset, 1, GL_FALSE, glm::value_ptr(v));
+                int size = uniforms_.getSize(slot);
+                float values[16];
+                if ((size <= 16) && uniforms_.get(slot, values, size))
+                {
+                    UniformBlock::upload(location, values, size);
+                }
     #ifdef DEBUG_LIGHT
-                LOGD("LIGHT: %s\n", key.c_str());
+                LOGD("LIGHT: %s.%s (%d floats)\n", lightID_.c_str(),
+                     UniformBlock::getSlotName(slot).c_str(), size);
     #endif
             }
         }
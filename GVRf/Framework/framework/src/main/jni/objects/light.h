@@ -23,14 +23,17 @@
 #include <map>
 #include <memory>
 #include <string>
+#include <vector>
 
 #include "glm/glm.hpp"
+#include "glm/gtc/type_ptr.hpp"
 
 #include "objects/hybrid_object.h"
 #include "objects/scene_object.h"
 #include "objects/components/shadow_map.h"
 #include "components/component.h"
 #include "objects/material.h"
+#include "objects/uniform_block.h"
 #include "util/gvr_jni.h"
 #include "engine/renderer/renderer.h"
 #include "glm/gtc/matrix_inverse.hpp"
@@ -62,72 +65,69 @@ public:
     }
 
     float getFloat(std::string key) {
-        auto it = floats_.find(key);
-        if (it != floats_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Light::getFloat() : " + key + " not found";
-            throw error;
-        }
+        float value;
+        getValues("getFloat", UniformBlock::findSlot(key), &value, 1, &key);
+        return value;
     }
 
     void setFloat(std::string key, float value) {
-        if (floats_[key] != value)
-        {
-            floats_[key] = value;
-            if (enabled_)
-            {
-                setDirty();
-            }
-        }
+        setUniform(UniformBlock::getSlot(key), &value, 1);
     }
 
     glm::vec3 getVec3(std::string key) {
-        auto it = vec3s_.find(key);
-        if (it != vec3s_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Light::getVec3() : " + key + " not found";
-            throw error;
-        }
+        glm::vec3 vector;
+        getValues("getVec3", UniformBlock::findSlot(key), glm::value_ptr(vector), 3, &key);
+        return vector;
+    }
+
+    /*
+     * The getters by slot of UniformBlock are for shaders, which resolve
+     * the slots of the uniforms they read once instead of on every draw.
+     */
+    glm::vec3 getVec3(int slot) const {
+        glm::vec3 vector;
+        getValues("getVec3", slot, glm::value_ptr(vector), 3);
+        return vector;
     }
 
     void setVec3(std::string key, glm::vec3 vector) {
-        vec3s_[key] = vector;
-        if (enabled_) {
-            setDirty();
-        }
+        setUniform(UniformBlock::getSlot(key), glm::value_ptr(vector), 3);
     }
 
     glm::vec4 getVec4(std::string key) {
-        auto it = vec4s_.find(key);
-        if (it != vec4s_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Light::getVec4() : " + key + " not found";
-            throw error;
-        }
+        glm::vec4 vector;
+        getValues("getVec4", UniformBlock::findSlot(key), glm::value_ptr(vector), 4, &key);
+        return vector;
+    }
+
+    glm::vec4 getVec4(int slot) const {
+        glm::vec4 vector;
+        getValues("getVec4", slot, glm::value_ptr(vector), 4);
+        return vector;
     }
 
     void setVec4(std::string key, glm::vec4 vector) {
-        vec4s_[key] = vector;
-        if (enabled_) {
-            setDirty();
-        }
+        setUniform(UniformBlock::getSlot(key), glm::value_ptr(vector), 4);
     }
 
     bool getMat4(std::string key, glm::mat4& matrix) {
-        auto it = mat4s_.find(key);
-        if (it != mat4s_.end()) {
-            matrix = it->second;
-            return true;
-        }
-        return false;
+        return uniforms_.get(UniformBlock::findSlot(key), glm::value_ptr(matrix), 16);
     }
 
     void setMat4(std::string key, glm::mat4 matrix) {
-        mat4s_[key] = matrix;
-        if (enabled_) {
+        setUniform(UniformBlock::getSlot(key), glm::value_ptr(matrix), 16);
+    }
+
+    /*
+     * Copies the values of the uniform in a slot of UniformBlock.
+     * @return false if the light does not have a uniform of that size
+     */
+    bool getUniform(int slot, float* values, int size) const {
+        return uniforms_.get(slot, values, size);
+    }
+
+    void setUniform(int slot, const float* values, int size) {
+        if (uniforms_.set(slot, values, size) && enabled_) {
             setDirty();
         }
     }
@@ -208,6 +208,7 @@ public:
      */
     void setLightID(std::string lightid) {
         lightID_ = lightid;
+        locations_.clear();
     };
 
 private:
@@ -218,38 +219,34 @@ private:
 
 
     /*
-     * Mark the light as needing update for all shaders using it
+     * Copies the values of a uniform, throws if the light does not have
+     * a uniform of that size. The error names key, or else the slot.
      */
-    void setDirty() {
-        for (auto it = dirty_.begin(); it != dirty_.end(); ++it) {
-            it->second = true;
+    void getValues(const char* getter, int slot, float* values, int size,
+            const std::string* key = nullptr) const {
+        if (!uniforms_.get(slot, values, size)) {
+            std::string error = std::string("Light::") + getter + "() : "
+                    + ((key != nullptr) ? *key : UniformBlock::getSlotName(slot)) + " not found";
+            throw error;
         }
     }
 
     /*
-     * Get the GL uniform offset for a named uniform.
+     * Mark the light as needing update for all shaders using it
      */
-    int getOffset(std::string key, int programId) {
-        auto it = offsets_.find(key);
-        if (it != offsets_.end()) {
-            std::map<int, int> offsets = it->second;
-            auto it2 = offsets.find(programId);
-            if (it2 != offsets.end()) {
-                return it2->second;
-            }
+    void setDirty() {
+        for (auto it = dirty_.begin(); it != dirty_.end(); ++it) {
+            it->second = true;
         }
-        return -1;
     }
 
 private:
     int shadowMapIndex_;
     std::string lightID_;
     std::map<int, bool> dirty_;
-    std::map<std::string, float> floats_;
-    std::map<std::string, glm::vec3> vec3s_;
-    std::map<std::string, glm::vec4> vec4s_;
-    std::map<std::string, glm::mat4> mat4s_;
-    std::map<std::string, std::map<int, int> > offsets_;
+    UniformBlock uniforms_;
+    // GL uniform locations of each shader program, indexed by slot
+    std::map<int, std::vector<int> > locations_;
 };
 }
 #endif
@@ -83,6 +83,28 @@ JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeLight_setMat4(JNIEnv * env,
         jobject obj, jlong jlight, jstring key, jfloatArray matrix);
 
+JNIEXPORT jfloat JNICALL
+Java_org_gearvrf_NativeLight_getFloatSlot(JNIEnv * env,
+        jobject obj, jlong jlight, jint slot);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeLight_setFloatSlot(JNIEnv * env,
+        jobject obj, jlong jlight, jint slot, jfloat value);
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeLight_getVec3Slot(JNIEnv * env,
+        jobject obj, jlong jlight, jint slot, jfloatArray vector);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeLight_setVec3Slot(JNIEnv * env,
+        jobject obj, jlong jlight, jint slot, jfloat x, jfloat y,
+        jfloat z);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeLight_setVec4Slot(JNIEnv * env,
+        jobject obj, jlong jlight, jint slot, jfloat x, jfloat y, jfloat z,
+        jfloat w);
+
 }
 
 JNIEXPORT jlong JNICALL
@@ -242,4 +264,55 @@ Java_org_gearvrf_NativeLight_setCastShadow(JNIEnv * env, jobject obj, jlong jlig
     light->castShadow(material);
 }
 
+JNIEXPORT jfloat JNICALL
+Java_org_gearvrf_NativeLight_getFloatSlot(JNIEnv * env,
+        jobject obj, jlong jlight, jint slot)
+{
+    Light* light = reinterpret_cast<Light*>(jlight);
+    float value;
+    return light->getUniform(slot, &value, 1) ? value : 0.0f;
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeLight_setFloatSlot(JNIEnv * env,
+        jobject obj, jlong jlight, jint slot, jfloat value)
+{
+    Light* light = reinterpret_cast<Light*>(jlight);
+    light->setUniform(slot, &value, 1);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeLight_getVec3Slot(JNIEnv * env,
+        jobject obj, jlong jlight, jint slot, jfloatArray jvector)
+{
+    Light* light = reinterpret_cast<Light*>(jlight);
+    float values[3];
+    if (!light->getUniform(slot, values, 3))
+    {
+        return JNI_FALSE;
+    }
+    env->SetFloatArrayRegion(jvector, 0, 3, values);
+    return JNI_TRUE;
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeLight_setVec3Slot(JNIEnv * env,
+        jobject obj, jlong jlight, jint slot, jfloat x, jfloat y,
+        jfloat z)
+{
+    Light* light = reinterpret_cast<Light*>(jlight);
+    float values[] = { x, y, z };
+    light->setUniform(slot, values, 3);
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeLight_setVec4Slot(JNIEnv * env,
+        jobject obj, jlong jlight, jint slot, jfloat x, jfloat y, jfloat z,
+        jfloat w)
+{
+    Light* light = reinterpret_cast<Light*>(jlight);
+    float values[] = { x, y, z, w };
+    light->setUniform(slot, values, 4);
+}
+
 }
@@ -26,8 +26,10 @@
 #include <string>
 
 #include "glm/glm.hpp"
+#include "glm/gtc/type_ptr.hpp"
 
 #include "objects/hybrid_object.h"
+#include "objects/uniform_block.h"
 #include "objects/textures/texture.h"
 #include "objects/components/render_data.h"
 #include "objects/helpers.h"
@@ -61,16 +63,13 @@ public:
     explicit Material(ShaderType shader_type) :
             shader_type_(shader_type),
             textures_(),
-            floats_(),
-            vec2s_(),
-            vec3s_(),
-            vec4s_(),
+            uniforms_(),
             shader_feature_set_(0)
     {
         switch (shader_type) {
         default:
-            vec3s_["color"] = glm::vec3(1.0f, 1.0f, 1.0f);
-            floats_["opacity"] = 1.0f;
+            setVec3("color", glm::vec3(1.0f, 1.0f, 1.0f));
+            setFloat("opacity", 1.0f);
             break;
         }
     }
@@ -121,96 +120,114 @@ public:
     }
 
     float getFloat(const std::string& key) {
-        auto it = floats_.find(key);
-        if (it != floats_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Material::getFloat() : " + key + " not found";
-            throw error;
-        }
+        float value;
+        getValues("getFloat", UniformBlock::findSlot(key), &value, 1, &key);
+        return value;
     }
+
+    /*
+     * The getters by slot of UniformBlock are for shaders, which resolve
+     * the slots of the uniforms they read once instead of on every draw.
+     */
+    float getFloat(int slot) const {
+        float value;
+        getValues("getFloat", slot, &value, 1);
+        return value;
+    }
+
     void setFloat(const std::string& key, float value) {
-        floats_[key] = value;
-        dirty();
+        setUniform(UniformBlock::getSlot(key), &value, 1);
     }
 
     glm::vec2 getVec2(const std::string& key) {
-        auto it = vec2s_.find(key);
-        if (it != vec2s_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Material::getVec2() : " + key + " not found";
-            throw error;
-        }
+        glm::vec2 vector;
+        getValues("getVec2", UniformBlock::findSlot(key), glm::value_ptr(vector), 2, &key);
+        return vector;
+    }
+
+    glm::vec2 getVec2(int slot) const {
+        glm::vec2 vector;
+        getValues("getVec2", slot, glm::value_ptr(vector), 2);
+        return vector;
     }
 
     void setVec2(const std::string& key, glm::vec2 vector) {
-        vec2s_[key] = vector;
-        dirty();
+        setUniform(UniformBlock::getSlot(key), glm::value_ptr(vector), 2);
     }
 
     glm::vec3 getVec3(const std::string& key) {
-        auto it = vec3s_.find(key);
-        if (it != vec3s_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Material::getVec3() : " + key + " not found";
-            throw error;
-        }
+        glm::vec3 vector;
+        getValues("getVec3", UniformBlock::findSlot(key), glm::value_ptr(vector), 3, &key);
+        return vector;
+    }
+
+    glm::vec3 getVec3(int slot) const {
+        glm::vec3 vector;
+        getValues("getVec3", slot, glm::value_ptr(vector), 3);
+        return vector;
     }
 
     void setVec3(const std::string& key, glm::vec3 vector) {
-        vec3s_[key] = vector;
-        dirty();
+        setUniform(UniformBlock::getSlot(key), glm::value_ptr(vector), 3);
     }
 
     glm::vec4 getVec4(const std::string& key) {
-        auto it = vec4s_.find(key);
-        if (it != vec4s_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Material::getVec4() : " + key + " not found";
-            throw error;
-        }
+        glm::vec4 vector;
+        getValues("getVec4", UniformBlock::findSlot(key), glm::value_ptr(vector), 4, &key);
+        return vector;
+    }
+
+    glm::vec4 getVec4(int slot) const {
+        glm::vec4 vector;
+        getValues("getVec4", slot, glm::value_ptr(vector), 4);
+        return vector;
     }
 
     void setVec4(const std::string& key, glm::vec4 vector) {
-        vec4s_[key] = vector;
-        dirty();
+        setUniform(UniformBlock::getSlot(key), glm::value_ptr(vector), 4);
     }
 
     glm::mat4 getMat4(const std::string& key) {
-        auto it = mat4s_.find(key);
-        if (it != mat4s_.end()) {
-            return it->second;
-        } else {
-            std::string error = "Material::getMat4() : " + key + " not found";
-            throw error;
-        }
+        glm::mat4 matrix;
+        getValues("getMat4", UniformBlock::findSlot(key), glm::value_ptr(matrix), 16, &key);
+        return matrix;
     }
 
     bool hasUniform(const std::string& key) const {
-        if (vec3s_.find(key) != vec3s_.end()) {
-            return true;
-        }
-        if (vec2s_.find(key) != vec2s_.end()) {
-            return true;
-        }
-        if (vec4s_.find(key) != vec4s_.end()) {
-            return true;
-        }
-        if (mat4s_.find(key) != mat4s_.end()) {
-            return true;
-        }
-        if (floats_.find(key) != floats_.end()) {
-            return true;
-        }
-        return false;
+        return uniforms_.has(UniformBlock::findSlot(key));
     }
 
     void setMat4(const std::string& key, glm::mat4 matrix) {
-        mat4s_[key] = matrix;
-        dirty();
+        setUniform(UniformBlock::getSlot(key), glm::value_ptr(matrix), 16);
+    }
+
+    /*
+     * Copies the values of the uniform in a slot of UniformBlock.
+     * @return false if the material does not have a uniform of that size
+     */
+    bool getUniform(int slot, float* values, int size) const {
+        return uniforms_.get(slot, values, size);
+    }
+
+    /*
+     * Slots of the uniforms of this material, in the order they were set.
+     */
+    std::vector<int> getUniformSlots() const {
+        return uniforms_.slots();
+    }
+
+    /*
+     * Returns the number of floats of the uniform in a slot, or 0 if the
+     * material does not have the uniform.
+     */
+    int getUniformSize(int slot) const {
+        return uniforms_.getSize(slot);
+    }
+
+    void setUniform(int slot, const float* values, int size) {
+        if (uniforms_.set(slot, values, size)) {
+            dirty();
+        }
     }
 
     int get_shader_feature_set() {
@@ -237,6 +254,19 @@ public:
     }
 
     private:
+    /*
+     * Copies the values of a uniform, throws if the material does not have
+     * a uniform of that size. The error names key, or else the slot.
+     */
+    void getValues(const char* getter, int slot, float* values, int size,
+            const std::string* key = nullptr) const {
+        if (!uniforms_.get(slot, values, size)) {
+            std::string error = std::string("Material::") + getter + "() : "
+                    + ((key != nullptr) ? *key : UniformBlock::getSlotName(slot)) + " not found";
+            throw error;
+        }
+    }
+
     Material(const Material& material);
     Material(Material&& material);
     Material& operator=(const Material& material);
@@ -246,11 +276,7 @@ private:
     ShaderType shader_type_;
     std::map<std::string, Texture*> textures_;
     Texture* main_texture = NULL;
-    std::map<std::string, float> floats_;
-    std::map<std::string, glm::vec2> vec2s_;
-    std::map<std::string, glm::vec3> vec3s_;
-    std::map<std::string, glm::vec4> vec4s_;
-    std::map<std::string, glm::mat4> mat4s_;
+    UniformBlock uniforms_;
     std::unordered_set<std::shared_ptr<bool>> dirty_flags_;
 
     unsigned int shader_feature_set_;
@@ -77,6 +77,44 @@ extern "C" {
 
     JNIEXPORT jboolean JNICALL
     Java_org_gearvrf_NativeMaterial_hasUniform(JNIEnv *, jobject, jlong, jstring);
+
+    JNIEXPORT jobjectArray JNICALL
+    Java_org_gearvrf_NativeMaterial_getUniformNames(JNIEnv * env,
+            jobject obj, jlong jmaterial);
+
+    JNIEXPORT jfloatArray JNICALL
+    Java_org_gearvrf_NativeMaterial_getUniform(JNIEnv * env,
+            jobject obj, jlong jmaterial, jstring key);
+
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_NativeMaterial_getUniformSlot(JNIEnv * env,
+            jobject obj, jstring key);
+
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_NativeMaterial_getUniformSlotCount(JNIEnv * env,
+            jobject obj);
+
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeMaterial_setFloatSlot(JNIEnv * env,
+            jobject obj, jlong jmaterial, jint slot, jfloat value);
+
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeMaterial_setVec2Slot(JNIEnv * env,
+            jobject obj, jlong jmaterial, jint slot, jfloat x, jfloat y);
+
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeMaterial_setVec3Slot(JNIEnv * env,
+            jobject obj, jlong jmaterial, jint slot, jfloat x, jfloat y,
+            jfloat z);
+
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeMaterial_setVec4Slot(JNIEnv * env,
+            jobject obj, jlong jmaterial, jint slot, jfloat x, jfloat y, jfloat z,
+            jfloat w);
+
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeMaterial_setMat4Slot(JNIEnv * env,
+            jobject obj, jlong jmaterial, jint slot, jfloatArray matrix);
 };
 
 JNIEXPORT jlong JNICALL
@@ -232,4 +270,93 @@ Material* material = reinterpret_cast<Material*>(jmaterial);
 material->set_shader_feature_set(feature_set);
 }
 
+JNIEXPORT jobjectArray JNICALL
+Java_org_gearvrf_NativeMaterial_getUniformNames(JNIEnv * env,
+    jobject obj, jlong jmaterial) {
+Material* material = reinterpret_cast<Material*>(jmaterial);
+std::vector<int> slots = material->getUniformSlots();
+jobjectArray jnames = env->NewObjectArray(slots.size(),
+        env->FindClass("java/lang/String"), nullptr);
+for (int i = 0; i < slots.size(); ++i) {
+    jstring jname = env->NewStringUTF(UniformBlock::getSlotName(slots[i]).c_str());
+    env->SetObjectArrayElement(jnames, i, jname);
+    env->DeleteLocalRef(jname);
+}
+return jnames;
+}
+
+JNIEXPORT jfloatArray JNICALL
+Java_org_gearvrf_NativeMaterial_getUniform(JNIEnv * env,
+    jobject obj, jlong jmaterial, jstring key) {
+Material* material = reinterpret_cast<Material*>(jmaterial);
+const char* char_key = env->GetStringUTFChars(key, 0);
+int slot = UniformBlock::findSlot(std::string(char_key));
+env->ReleaseStringUTFChars(key, char_key);
+int size = material->getUniformSize(slot);
+float values[16];
+if (size == 0 || size > 16 || !material->getUniform(slot, values, size)) {
+    return nullptr;
+}
+jfloatArray jvalues = env->NewFloatArray(size);
+env->SetFloatArrayRegion(jvalues, 0, size, values);
+return jvalues;
+}
+
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeMaterial_getUniformSlot(JNIEnv * env,
+    jobject obj, jstring key) {
+const char* char_key = env->GetStringUTFChars(key, 0);
+int slot = UniformBlock::getSlot(std::string(char_key));
+env->ReleaseStringUTFChars(key, char_key);
+return slot;
+}
+
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeMaterial_getUniformSlotCount(JNIEnv * env,
+    jobject obj) {
+return UniformBlock::getSlotCount();
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeMaterial_setFloatSlot(JNIEnv * env,
+    jobject obj, jlong jmaterial, jint slot, jfloat value) {
+Material* material = reinterpret_cast<Material*>(jmaterial);
+material->setUniform(slot, &value, 1);
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeMaterial_setVec2Slot(JNIEnv * env,
+    jobject obj, jlong jmaterial, jint slot, jfloat x, jfloat y) {
+Material* material = reinterpret_cast<Material*>(jmaterial);
+float values[] = { x, y };
+material->setUniform(slot, values, 2);
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeMaterial_setVec3Slot(JNIEnv * env,
+    jobject obj, jlong jmaterial, jint slot, jfloat x, jfloat y,
+    jfloat z) {
+Material* material = reinterpret_cast<Material*>(jmaterial);
+float values[] = { x, y, z };
+material->setUniform(slot, values, 3);
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeMaterial_setVec4Slot(JNIEnv * env,
+    jobject obj, jlong jmaterial, jint slot, jfloat x, jfloat y, jfloat z,
+    jfloat w) {
+Material* material = reinterpret_cast<Material*>(jmaterial);
+float values[] = { x, y, z, w };
+material->setUniform(slot, values, 4);
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeMaterial_setMat4Slot(JNIEnv * env,
+    jobject obj, jlong jmaterial, jint slot, jfloatArray jmatrix) {
+Material* material = reinterpret_cast<Material*>(jmaterial);
+float values[16];
+env->GetFloatArrayRegion(jmatrix, 0, 16, values);
+material->setUniform(slot, values, 16);
+}
+
 }
@@ -17,6 +17,9 @@
  * The mesh for rendering.
  ***************************************************************************/
 
+#include <algorithm>
+#include <cstring>
+
 #include "mesh.h"
 
 #include "assimp/Importer.hpp"
@@ -272,10 +275,56 @@ namespace gvr {
         }
     }
 
+    void Mesh::createInterleavedMapping(int programId, int& totalStride, int &attrLen) {
+        totalStride = attrLen = 0;
+        if (programId == -1) {
+            return;
+        }
+        GLint numActiveAtributes;
+        glGetProgramiv(programId, GL_ACTIVE_ATTRIBUTES, &numActiveAtributes);
+        GLchar attrName[512];
+        GLAttributeMapping attrData;
+
+        for (int i = 0; i < numActiveAtributes; i++) {
+            GLsizei length;
+            GLint size;
+            GLenum type;
+            glGetActiveAttrib(programId, i, 512, &length, &size, &type, attrName);
+            if (std::find(dynamicAttribute_Names_.begin(), dynamicAttribute_Names_.end(),
+                          attrName) != dynamicAttribute_Names_.end()) {
+                continue;
+            }
+            auto attr = std::find_if(interleaved_layout_.begin(), interleaved_layout_.end(),
+                    [&attrName](const InterleavedAttribute& a) { return a.name == attrName; });
+            if (attr == interleaved_layout_.end()) {
+                LOGE("Mesh: attribute %s is not in the interleaved vertex layout", attrName);
+                continue;
+            }
+            attrData.type = GL_FLOAT;
+            attrData.index = glGetAttribLocation(programId, attrName);
+            attrData.size = attr->size;
+            attrData.offset = attr->offset;
+            attrData.data = NULL;
+            attrMapping.push_back(attrData);
+        }
+        totalStride = interleaved_stride_;
+        attrLen = interleaved_.size() / interleaved_stride_;
+    }
+
     void Mesh::createBuffer(std::vector<GLfloat> &buffer, int attrLength) {
-        for (int i = 0; i < attrLength; i++) {
-            for (auto it = attrMapping.begin(); it != attrMapping.end(); ++it) {
-                GLAttributeMapping currAttr = *it;
+        createBuffer(buffer, 0, attrLength, attrMapping);
+    }
+
+    void Mesh::createBuffer(std::vector<GLfloat> &buffer, int first, int count,
+                            const std::vector<GLAttributeMapping>& mapping) {
+        int stride = 0;
+        for (auto it = mapping.begin(); it != mapping.end(); ++it) {
+            stride += it->size;
+        }
+        buffer.reserve(buffer.size() + count * stride);
+        for (int i = first; i < first + count; i++) {
+            for (auto it = mapping.begin(); it != mapping.end(); ++it) {
+                const GLAttributeMapping& currAttr = *it;
                 const float *ptr = (float *) currAttr.data;
                 for (int k = 0; k < currAttr.size; k++) {
                     buffer.push_back(ptr[i * currAttr.size + k]);
@@ -284,20 +333,272 @@ namespace gvr {
         }
     }
 
+    float* Mesh::getAttributeData(const std::string& key, int& numFloats) {
+        numFloats = 0;
+        if (key == "a_position") {
+            numFloats = vertices_.size() * 3;
+            return vertices_.empty() ? nullptr : &vertices_[0].x;
+        }
+        if (key == "a_normal") {
+            numFloats = normals_.size() * 3;
+            return normals_.empty() ? nullptr : &normals_[0].x;
+        }
+        auto it1 = float_vectors_.find(key);
+        if (it1 != float_vectors_.end()) {
+            numFloats = it1->second.size();
+            return it1->second.data();
+        }
+        auto it2 = vec2_vectors_.find(key);
+        if (it2 != vec2_vectors_.end()) {
+            numFloats = it2->second.size() * 2;
+            return it2->second.empty() ? nullptr : &it2->second[0].x;
+        }
+        auto it3 = vec3_vectors_.find(key);
+        if (it3 != vec3_vectors_.end()) {
+            numFloats = it3->second.size() * 3;
+            return it3->second.empty() ? nullptr : &it3->second[0].x;
+        }
+        auto it4 = vec4_vectors_.find(key);
+        if (it4 != vec4_vectors_.end()) {
+            numFloats = it4->second.size() * 4;
+            return it4->second.empty() ? nullptr : &it4->second[0].x;
+        }
+        return nullptr;
+    }
+
+    /*
+     * Returns the separate storage of an attribute with numVertices
+     * elements of the given size, creating or resizing it if needed.
+     */
+    float* Mesh::getSeparateAttribute(const std::string& key, int size, int numVertices) {
+        if (key == "a_position" || key == "a_normal") {
+            if (size != 3) {
+                return nullptr;
+            }
+            std::vector<glm::vec3>& v = (key == "a_position") ? vertices_ : normals_;
+            v.resize(numVertices);
+            return v.empty() ? nullptr : &v[0].x;
+        }
+        if (size != 1) {
+            float_vectors_.erase(key);
+        }
+        if (size != 2) {
+            vec2_vectors_.erase(key);
+        }
+        if (size != 3) {
+            vec3_vectors_.erase(key);
+        }
+        if (size != 4) {
+            vec4_vectors_.erase(key);
+        }
+        switch (size) {
+            case 1: {
+                std::vector<float>& v = float_vectors_[key];
+                v.resize(numVertices);
+                return v.data();
+            }
+            case 2: {
+                std::vector<glm::vec2>& v = vec2_vectors_[key];
+                v.resize(numVertices);
+                return v.empty() ? nullptr : &v[0].x;
+            }
+            case 3: {
+                std::vector<glm::vec3>& v = vec3_vectors_[key];
+                v.resize(numVertices);
+                return v.empty() ? nullptr : &v[0].x;
+            }
+            case 4: {
+                std::vector<glm::vec4>& v = vec4_vectors_[key];
+                v.resize(numVertices);
+                return v.empty() ? nullptr : &v[0].x;
+            }
+            default:
+                return nullptr;
+        }
+    }
+
+    float* Mesh::setInterleavedLayout(const std::vector<std::string>& names,
+                                      const std::vector<int>& sizes, int numVertices,
+                                      int& numFloats) {
+        numFloats = 0;
+        std::vector<InterleavedAttribute> layout;
+        int stride = 0;
+        for (int i = 0; i < names.size(); ++i) {
+            if ((sizes[i] < 1) || (sizes[i] > 4) ||
+                ((names[i] == "a_position" || names[i] == "a_normal") && (sizes[i] != 3))) {
+                LOGE("Mesh: invalid size %d for attribute %s", sizes[i], names[i].c_str());
+                return nullptr;
+            }
+            InterleavedAttribute attr = { names[i], sizes[i], stride };
+            layout.push_back(attr);
+            stride += sizes[i];
+        }
+        if ((stride == 0) || (numVertices <= 0)) {
+            return nullptr;
+        }
+
+        // copy existing attribute data into the new interleaved array
+        std::lock_guard<std::mutex> lock(data_lock_);
+        std::vector<float> interleaved(numVertices * stride, 0.0f);
+        for (auto it = layout.begin(); it != layout.end(); ++it) {
+            int oldFloats;
+            const float* src = getAttributeData(it->name, oldFloats);
+            int oldVertices = (src != nullptr) ? std::min(oldFloats / it->size, numVertices) : 0;
+            float* dst = interleaved.data() + it->offset;
+            for (int v = 0; v < oldVertices; ++v, dst += stride, src += it->size) {
+                std::memcpy(dst, src, it->size * sizeof(float));
+            }
+            getSeparateAttribute(it->name, it->size, numVertices);
+        }
+
+        interleaved_.swap(interleaved);
+        interleaved_layout_.swap(layout);
+        interleaved_stride_ = stride;
+        dynamic_ = true;
+        have_bounding_volume_ = false;
+        vao_dirty_ = true;
+        dirty();
+        numFloats = interleaved_.size();
+        return interleaved_.data();
+    }
+
+    bool Mesh::setVertexData(const std::string& key, const float* data, int size, int stride,
+                             int numVertices) {
+        if (interleaved_stride_ > 0) {
+            LOGE("Mesh: cannot set %s, the mesh has an interleaved layout", key.c_str());
+            return false;
+        }
+        if ((size < 1) || (stride < size) || (numVertices < 0)) {
+            LOGE("Mesh: invalid size %d or stride %d for attribute %s", size, stride, key.c_str());
+            return false;
+        }
+        std::lock_guard<std::mutex> lock(data_lock_);
+        float* dst = getSeparateAttribute(key, size, numVertices);
+        if (dst == nullptr) {
+            return numVertices == 0;
+        }
+        if (stride == size) {
+            std::memcpy(dst, data, numVertices * size * sizeof(float));
+        } else {
+            for (int v = 0; v < numVertices; ++v, dst += size, data += stride) {
+                std::memcpy(dst, data, size * sizeof(float));
+            }
+        }
+        if (key == "a_position") {
+            have_bounding_volume_ = false;
+            getBoundingVolume(); // calculate bounding volume
+        }
+        vao_dirty_ = true;
+        dirty();
+        return true;
+    }
+
+    int Mesh::setIndexData(const unsigned int* data, int count) {
+        unsigned int maxIndex = 0;
+        for (int i = 0; i < count; ++i) {
+            maxIndex = std::max(maxIndex, data[i]);
+        }
+        if (maxIndex <= 0xFFFF) {
+            std::vector<unsigned short> indices(data, data + count);
+            set_indices(std::move(indices));
+            return sizeof(unsigned short);
+        }
+        std::vector<unsigned int> indices(data, data + count);
+        set_int_indices(std::move(indices));
+        return sizeof(unsigned int);
+    }
+
+    void Mesh::markDirty(int first, int count) {
+        std::lock_guard<std::mutex> lock(data_lock_);
+        int numVertices = (interleaved_stride_ > 0) ?
+                (interleaved_.size() / interleaved_stride_) : vertices_.size();
+        int end = std::min(first + count, numVertices);
+        first = std::max(first, 0);
+        if (first >= end) {
+            return;
+        }
+
+        // keep the separate attributes, which the getters, picking and
+        // bounding volumes use, in sync with the interleaved array
+        if (interleaved_stride_ > 0) {
+            for (auto it = interleaved_layout_.begin(); it != interleaved_layout_.end(); ++it) {
+                float* dst = getSeparateAttribute(it->name, it->size, numVertices);
+                if (dst == nullptr) {
+                    continue;
+                }
+                const float* src = interleaved_.data() + first * interleaved_stride_ + it->offset;
+                dst += first * it->size;
+                for (int v = first; v < end; ++v, src += interleaved_stride_, dst += it->size) {
+                    std::memcpy(dst, src, it->size * sizeof(float));
+                }
+            }
+        }
+        if (dirty_first_ == dirty_end_) {
+            dirty_first_ = first;
+            dirty_end_ = end;
+        } else {
+            dirty_first_ = std::min(dirty_first_, first);
+            dirty_end_ = std::max(dirty_end_, end);
+        }
+        dynamic_ = true;
+        have_bounding_volume_ = false;
+        dirty();
+    }
+
+    /*
+     * Uploads the vertices modified since the last frame into the vertex
+     * buffers of every program. Must be called on the rendering thread
+     * with data_lock_ held, and only while the vertex buffers match the
+     * attribute data, i.e. not while vao_dirty_ is set.
+     */
+    void Mesh::updateDirtyRange() {
+        int first = dirty_first_;
+        int end = dirty_end_;
+        dirty_first_ = dirty_end_ = 0;
+        if (first == end) {
+            return;
+        }
+        std::vector<GLfloat> buffer;
+        for (auto it = program_ids_.begin(); it != program_ids_.end(); ++it) {
+            const GLVaoVboId& ids = it->second;
+            int last = std::min(end, ids.length);
+            if (first >= last) {
+                continue;
+            }
+            const GLfloat* data;
+            if (interleaved_stride_ > 0) {
+                data = interleaved_.data() + first * ids.stride;
+            } else {
+                buffer.clear();
+                createBuffer(buffer, first, last - first, ids.mapping);
+                data = buffer.data();
+            }
+            glBindBuffer(GL_ARRAY_BUFFER, ids.static_vboID);
+            glBufferSubData(GL_ARRAY_BUFFER, first * ids.stride * sizeof(GLfloat),
+                            (last - first) * ids.stride * sizeof(GLfloat), data);
+        }
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
 
     const GLuint Mesh::getVAOId(int programId) {
         if (programId == -1) {
             LOGI("!! %p Prog Id -- %d ", this, programId);
             return 0;
         }
+        std::lock_guard<std::mutex> lock(data_lock_);
         if (vao_dirty_)
         {
             generateVAO(programId);
         }
+        else
+        {
+            updateDirtyRange();
+        }
         auto it = program_ids_.find(programId);
         if (it != program_ids_.end())
         {
-            GLVaoVboId id = it->second;
+            const GLVaoVboId& id = it->second;
             return id.vaoID;
         }
         vao_dirty_ = true;
@@ -305,7 +606,7 @@ namespace gvr {
         it = program_ids_.find(programId);
         if (it != program_ids_.end())
         {
-            GLVaoVboId id = it->second;
+            const GLVaoVboId& id = it->second;
             return id.vaoID;
         }
         LOGI("!! %p Error in creating VAO  for Prog Id -- %d", this, programId);
@@ -333,7 +634,7 @@ namespace gvr {
         auto it = program_ids_.find(programId);
         if (it != program_ids_.end()) {
 
-            GLVaoVboId ids = it->second;
+            const GLVaoVboId& ids = it->second;
             vaoID_ = ids.vaoID;
             triangle_vboID_ = ids.triangle_vboID;
             static_vboID_ = ids.static_vboID;
@@ -347,21 +648,36 @@ namespace gvr {
 
         glBindVertexArray(vaoID_);
         glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, triangle_vboID_);
-        glBufferData(GL_ELEMENT_ARRAY_BUFFER, sizeof(unsigned short) * indices_.size(),
-                     &indices_[0], GL_STATIC_DRAW);
-        numTriangles_ = indices_.size() / 3;
+        if (int_indices_.empty()) {
+            glBufferData(GL_ELEMENT_ARRAY_BUFFER, sizeof(unsigned short) * indices_.size(),
+                         indices_.data(), GL_STATIC_DRAW);
+        } else {
+            glBufferData(GL_ELEMENT_ARRAY_BUFFER, sizeof(unsigned int) * int_indices_.size(),
+                         int_indices_.data(), GL_STATIC_DRAW);
+        }
+        numTriangles_ = getIndexCount() / 3;
 
         attrMapping.clear();
         int totalStride;
         int attrLength;
-        createAttributeMapping(programId, totalStride, attrLength);
 
         std::vector<GLfloat> buffer;
-        createBuffer(buffer, attrLength);
+        const GLfloat* bufferData;
+        size_t bufferSize;
+        if (interleaved_stride_ > 0) {
+            createInterleavedMapping(programId, totalStride, attrLength);
+            bufferData = interleaved_.data();
+            bufferSize = interleaved_.size();
+        } else {
+            createAttributeMapping(programId, totalStride, attrLength);
+            createBuffer(buffer, attrLength);
+            bufferData = buffer.data();
+            bufferSize = buffer.size();
+        }
         glBindBuffer(GL_ARRAY_BUFFER, static_vboID_);
 
-        glBufferData(GL_ARRAY_BUFFER, sizeof(GLfloat) * buffer.size(), &buffer[0],
-                     GL_STATIC_DRAW);
+        glBufferData(GL_ARRAY_BUFFER, sizeof(GLfloat) * bufferSize, bufferData,
+                     dynamic_ ? GL_DYNAMIC_DRAW : GL_STATIC_DRAW);
         int localCnt = 0;
         for (std::vector<GLAttributeMapping>::iterator it = attrMapping.begin();
              it != attrMapping.end(); ++it) {
@@ -378,14 +694,21 @@ namespace gvr {
         glBindBuffer(GL_ARRAY_BUFFER, 0);
         glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
 
-        if (it == program_ids_.end())
-        {
-            GLVaoVboId id;
-            id.vaoID = vaoID_;
-            id.static_vboID = static_vboID_;
-            id.triangle_vboID = triangle_vboID_;
-            program_ids_[programId] = id;
+        // The attribute data may have been replaced, so the layouts kept for
+        // the other programs can no longer be used for partial updates.
+        for (auto other = program_ids_.begin(); other != program_ids_.end(); ++other) {
+            other->second.mapping.clear();
+            other->second.length = 0;
         }
+        GLVaoVboId& id = program_ids_[programId];
+        id.vaoID = vaoID_;
+        id.static_vboID = static_vboID_;
+        id.triangle_vboID = triangle_vboID_;
+        id.mapping = attrMapping;
+        id.stride = totalStride;
+        id.length = attrLength;
+        // the whole buffer was just uploaded
+        dirty_first_ = dirty_end_ = 0;
         vao_dirty_ = false;
     }
 
@@ -438,7 +761,7 @@ namespace gvr {
             LOGV("Invalid program Id for bones");
             return;
         }
-        GLVaoVboId id = it->second;
+        const GLVaoVboId& id = it->second;
         glBindVertexArray(id.vaoID);
 
         // BoneID
@@ -22,6 +22,7 @@
 
 #include <map>
 #include <memory>
+#include <mutex>
 #include <vector>
 #include <string>
 #include <set>
@@ -46,12 +47,17 @@ public:
             vertices_(),
             normals_(),
             indices_(),
+            int_indices_(),
             float_vectors_(),
             vec2_vectors_(),
             vec3_vectors_(),
             vec4_vectors_(),
             have_bounding_volume_(false),
             vao_dirty_(true),
+            interleaved_stride_(0),
+            dirty_first_(0),
+            dirty_end_(0),
+            dynamic_(false),
             boneVboID_(0),
             vertexBoneData_(this),
             bone_data_dirty_(true)
@@ -72,6 +78,12 @@ public:
         normals.swap(normals_);
         std::vector<unsigned short> indices;
         indices.swap(indices_);
+        std::vector<unsigned int> int_indices;
+        int_indices.swap(int_indices_);
+        std::vector<float> interleaved;
+        interleaved.swap(interleaved_);
+        interleaved_layout_.clear();
+        interleaved_stride_ = 0;
 
         deleteVaos();
     }
@@ -94,6 +106,7 @@ public:
      * Must be called on the rendering thread
      */
     void deleteVaos() {
+        std::lock_guard<std::mutex> lock(data_lock_);
         for (auto it : program_ids_ )
         {
             GLVaoVboId ids = it.second;
@@ -102,6 +115,7 @@ public:
             GL(glDeleteBuffers(1, &ids.triangle_vboID));
         }
         program_ids_.clear();
+        dirty_first_ = dirty_end_ = 0;
         have_bounding_volume_ = false;
         vao_dirty_ = true;
         bone_data_dirty_ = true;
@@ -112,6 +126,7 @@ public:
     }
 
     void set_vertices(const std::vector<glm::vec3>& vertices) {
+        std::lock_guard<std::mutex> lock(data_lock_);
         vertices_ = vertices;
         have_bounding_volume_ = false;
         getBoundingVolume(); // calculate bounding volume
@@ -120,6 +135,7 @@ public:
     }
 
     void set_vertices(std::vector<glm::vec3>&& vertices) {
+        std::lock_guard<std::mutex> lock(data_lock_);
         vertices_ = std::move(vertices);
         have_bounding_volume_ = false;
         getBoundingVolume(); // calculate bounding volume
@@ -132,12 +148,14 @@ public:
     }
 
     void set_normals(const std::vector<glm::vec3>& normals) {
+        std::lock_guard<std::mutex> lock(data_lock_);
         normals_ = normals;
         vao_dirty_ = true;
         dirty();
     }
 
     void set_normals(std::vector<glm::vec3>&& normals) {
+        std::lock_guard<std::mutex> lock(data_lock_);
         normals_ = std::move(normals);
         vao_dirty_ = true;
         dirty();
@@ -148,13 +166,17 @@ public:
     }
 
     void set_triangles(const std::vector<unsigned short>& triangles) {
+        std::lock_guard<std::mutex> lock(data_lock_);
         indices_ = triangles;
+        int_indices_.clear();
         vao_dirty_ = true;
         dirty();
     }
 
     void set_triangles(std::vector<unsigned short>&& triangles) {
+        std::lock_guard<std::mutex> lock(data_lock_);
         indices_ = std::move(triangles);
+        int_indices_.clear();
         vao_dirty_ = true;
         dirty();
     }
@@ -164,17 +186,69 @@ public:
     }
 
     void set_indices(const std::vector<unsigned short>& indices) {
+        std::lock_guard<std::mutex> lock(data_lock_);
         indices_ = indices;
+        int_indices_.clear();
         vao_dirty_ = true;
         dirty();
     }
 
     void set_indices(std::vector<unsigned short>&& indices) {
+        std::lock_guard<std::mutex> lock(data_lock_);
         indices_ = std::move(indices);
+        int_indices_.clear();
         vao_dirty_ = true;
         dirty();
     }
 
+    /*
+     * 32-bit indices for meshes with more than 65536 vertices. They
+     * replace the 16-bit indices, which are empty while they are set.
+     * Meshes with 32-bit indices are never batched.
+     */
+    const std::vector<unsigned int>& int_indices() const {
+        return int_indices_;
+    }
+
+    void set_int_indices(std::vector<unsigned int>&& indices) {
+        std::lock_guard<std::mutex> lock(data_lock_);
+        int_indices_ = std::move(indices);
+        indices_.clear();
+        vao_dirty_ = true;
+        dirty();
+    }
+
+    /*
+     * Number of indices, whether they are 16 or 32 bit.
+     */
+    size_t getIndexCount() const {
+        return int_indices_.empty() ? indices_.size() : int_indices_.size();
+    }
+
+    GLenum getIndexType() const {
+        return int_indices_.empty() ? GL_UNSIGNED_SHORT : GL_UNSIGNED_INT;
+    }
+
+    unsigned int getIndex(size_t i) const {
+        return int_indices_.empty() ? indices_[i] : int_indices_[i];
+    }
+
+    /*
+     * Copies a vertex attribute from a packed float array, taking the
+     * first size floats out of every stride floats. a_position and
+     * a_normal set the vertices and normals, other keys set the float,
+     * vec2, vec3 or vec4 vector of that name depending on size.
+     */
+    bool setVertexData(const std::string& key, const float* data, int size, int stride,
+            int numVertices);
+
+    /*
+     * Copies 32-bit indices, they are stored as 16-bit indices when
+     * all of them fit.
+     * @return size of a stored index in bytes
+     */
+    int setIndexData(const unsigned int* data, int count);
+
     bool hasAttribute(std::string key) const {
         if (vec3_vectors_.find(key) != vec3_vectors_.end()) {
             return true;
@@ -203,6 +277,7 @@ public:
     }
 
     void setFloatVector(std::string key, const std::vector<float>& vector) {
+        std::lock_guard<std::mutex> lock(data_lock_);
         float_vectors_[key] = vector;
         vao_dirty_ = true;
     }
@@ -229,6 +304,7 @@ public:
     }
 
     void setVec2Vector(std::string key, const std::vector<glm::vec2>& vector) {
+        std::lock_guard<std::mutex> lock(data_lock_);
         vec2_vectors_[key] = vector;
         if(strstr((key.c_str()),"a_texcoord")) {
             dirty();
@@ -247,6 +323,7 @@ public:
     }
 
     void setVec3Vector(std::string key, const std::vector<glm::vec3>& vector) {
+        std::lock_guard<std::mutex> lock(data_lock_);
         vec3_vectors_[key] = vector;
         vao_dirty_ = true;
     }
@@ -262,6 +339,7 @@ public:
     }
 
     void setVec4Vector(std::string key, const std::vector<glm::vec4>& vector) {
+        std::lock_guard<std::mutex> lock(data_lock_);
         vec4_vectors_[key] = vector;
         vao_dirty_ = true;
     }
@@ -342,6 +420,32 @@ public:
 
     void generateVAO(int programId);
 
+    /**
+     * Returns the storage of a vertex attribute so it can be shared with
+     * Java as a direct buffer. The pointer stays valid until the attribute
+     * is replaced or resized.
+     *
+     * @return first float of the attribute, nullptr if there is none
+     */
+    float* getAttributeData(const std::string& key, int& numFloats);
+
+    /**
+     * Switches the mesh to a single interleaved vertex array with the given
+     * layout, copying in any existing attribute data. The separate
+     * attributes are kept and refreshed from the interleaved array by
+     * markDirty().
+     *
+     * @return the interleaved array, nullptr if the layout is invalid
+     */
+    float* setInterleavedLayout(const std::vector<std::string>& names,
+            const std::vector<int>& sizes, int numVertices, int& numFloats);
+
+    /**
+     * Records that vertices [first, first + count) were modified in place.
+     * Only that span of the vertex buffers is uploaded again.
+     */
+    void markDirty(int first, int count);
+
     void add_dirty_flag(const std::shared_ptr<bool>& dirty_flag);
     void dirty();
 
@@ -360,6 +464,7 @@ private:
     std::map<std::string, std::vector<glm::vec3>> vec3_vectors_;
     std::map<std::string, std::vector<glm::vec4>> vec4_vectors_;
     std::vector<unsigned short> indices_;
+    std::vector<unsigned int> int_indices_;
 
     // add location slot map
     std::map<int, std::string> attribute_float_keys_;
@@ -369,14 +474,6 @@ private:
 
     // add vertex array object and VBO
 
-    struct GLVaoVboId {
-        GLuint vaoID;
-        GLuint static_vboID;
-        GLuint triangle_vboID;
-    };
-
-    std::map<GLuint, GLVaoVboId> program_ids_;
-
     struct GLAttributeMapping {
         GLuint          index;
         GLuint          size;
@@ -386,8 +483,45 @@ private:
     };
     std::vector<GLAttributeMapping> attrMapping;
 
+    struct GLVaoVboId {
+        GLuint vaoID;
+        GLuint static_vboID;
+        GLuint triangle_vboID;
+        // layout of static_vboID, kept for partial updates
+        std::vector<GLAttributeMapping> mapping;
+        int stride;
+        int length;
+    };
+
+    std::map<GLuint, GLVaoVboId> program_ids_;
+
     void createAttributeMapping(int programId, int& totalStride, int& attrLength);
+    void createInterleavedMapping(int programId, int& totalStride, int& attrLength);
     void createBuffer(std::vector<GLfloat>& buffer, int attrLength);
+    void createBuffer(std::vector<GLfloat>& buffer, int first, int count,
+            const std::vector<GLAttributeMapping>& mapping);
+    void updateDirtyRange();
+    float* getSeparateAttribute(const std::string& key, int size, int numVertices);
+
+    // interleaved vertex array, used instead of the separate attributes
+    // when the vertex layout was declared from Java
+    struct InterleavedAttribute {
+        std::string name;
+        int size;
+        int offset;
+    };
+    std::vector<float> interleaved_;
+    std::vector<InterleavedAttribute> interleaved_layout_;
+    int interleaved_stride_;
+
+    // guards the vertex data, the dirty range and vao_dirty_ between the
+    // thread setting them and the rendering thread uploading them
+    std::mutex data_lock_;
+
+    // vertices modified in place since the last upload
+    int dirty_first_;
+    int dirty_end_;
+    bool dynamic_;
 
     // triangle information
     GLuint numTriangles_;
@@ -100,6 +100,31 @@ extern "C" {
     Java_org_gearvrf_NativeMesh_getAttribNames(JNIEnv * env,
             jobject obj, jlong jmesh);
 
+    JNIEXPORT jobject JNICALL
+    Java_org_gearvrf_NativeMesh_getAttributeBuffer(JNIEnv * env,
+            jobject obj, jlong jmesh, jstring key);
+
+    JNIEXPORT jobject JNICALL
+    Java_org_gearvrf_NativeMesh_setInterleavedLayout(JNIEnv * env,
+            jobject obj, jlong jmesh, jobjectArray jnames, jintArray jsizes, jint numVertices);
+
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeMesh_markDirty(JNIEnv * env,
+            jobject obj, jlong jmesh, jint first, jint count);
+
+    JNIEXPORT jboolean JNICALL
+    Java_org_gearvrf_NativeMesh_setVertexBuffer(JNIEnv * env,
+            jobject obj, jlong jmesh, jstring key, jobject jdata, jint size, jint stride,
+            jint numVertices);
+
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_NativeMesh_setIndexBuffer(JNIEnv * env,
+            jobject obj, jlong jmesh, jobject jdata, jint count);
+
+    JNIEXPORT jintArray JNICALL
+    Java_org_gearvrf_NativeMesh_getIntIndices(JNIEnv * env,
+            jobject obj, jlong jmesh);
+
 };
 
 JNIEXPORT jobjectArray JNICALL
@@ -429,4 +454,91 @@ Java_org_gearvrf_NativeMesh_getSphereBound(JNIEnv * env,
     sphere[3] = bvol.radius();
     env->SetFloatArrayRegion(jsphere, 0, 4, sphere);
 }
+
+JNIEXPORT jobject JNICALL
+Java_org_gearvrf_NativeMesh_getAttributeBuffer(JNIEnv * env,
+        jobject obj, jlong jmesh, jstring key) {
+    Mesh* mesh = reinterpret_cast<Mesh*>(jmesh);
+    const char* char_key = env->GetStringUTFChars(key, 0);
+    int numFloats;
+    float* data = mesh->getAttributeData(std::string(char_key), numFloats);
+    env->ReleaseStringUTFChars(key, char_key);
+    if (data == nullptr) {
+        return nullptr;
+    }
+    return env->NewDirectByteBuffer(data, numFloats * sizeof(jfloat));
+}
+
+JNIEXPORT jobject JNICALL
+Java_org_gearvrf_NativeMesh_setInterleavedLayout(JNIEnv * env,
+        jobject obj, jlong jmesh, jobjectArray jnames, jintArray jsizes, jint numVertices) {
+    Mesh* mesh = reinterpret_cast<Mesh*>(jmesh);
+    int count = env->GetArrayLength(jnames);
+    std::vector<std::string> names;
+    std::vector<int> sizes(count);
+    env->GetIntArrayRegion(jsizes, 0, count, sizes.data());
+    for (int i = 0; i < count; ++i) {
+        jstring jname = static_cast<jstring>(env->GetObjectArrayElement(jnames, i));
+        const char* char_name = env->GetStringUTFChars(jname, 0);
+        names.push_back(std::string(char_name));
+        env->ReleaseStringUTFChars(jname, char_name);
+        env->DeleteLocalRef(jname);
+    }
+    int numFloats;
+    float* data = mesh->setInterleavedLayout(names, sizes, numVertices, numFloats);
+    if (data == nullptr) {
+        return nullptr;
+    }
+    return env->NewDirectByteBuffer(data, numFloats * sizeof(jfloat));
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeMesh_markDirty(JNIEnv * env,
+        jobject obj, jlong jmesh, jint first, jint count) {
+    Mesh* mesh = reinterpret_cast<Mesh*>(jmesh);
+    mesh->markDirty(first, count);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeMesh_setVertexBuffer(JNIEnv * env,
+        jobject obj, jlong jmesh, jstring key, jobject jdata, jint size, jint stride,
+        jint numVertices) {
+    Mesh* mesh = reinterpret_cast<Mesh*>(jmesh);
+    const float* data = static_cast<const float*>(env->GetDirectBufferAddress(jdata));
+    if (data == nullptr) {
+        return JNI_FALSE;
+    }
+    const char* char_key = env->GetStringUTFChars(key, 0);
+    bool result = mesh->setVertexData(std::string(char_key), data, size, stride, numVertices);
+    env->ReleaseStringUTFChars(key, char_key);
+    return result ? JNI_TRUE : JNI_FALSE;
+}
+
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeMesh_setIndexBuffer(JNIEnv * env,
+        jobject obj, jlong jmesh, jobject jdata, jint count) {
+    Mesh* mesh = reinterpret_cast<Mesh*>(jmesh);
+    const unsigned int* data = static_cast<const unsigned int*>(env->GetDirectBufferAddress(jdata));
+    if (data == nullptr) {
+        return 0;
+    }
+    return mesh->setIndexData(data, count);
+}
+
+JNIEXPORT jintArray JNICALL
+Java_org_gearvrf_NativeMesh_getIntIndices(JNIEnv * env,
+        jobject obj, jlong jmesh) {
+    Mesh* mesh = reinterpret_cast<Mesh*>(jmesh);
+    int count = mesh->getIndexCount();
+    jintArray jindices = env->NewIntArray(count);
+    if (mesh->getIndexType() == GL_UNSIGNED_INT) {
+        env->SetIntArrayRegion(jindices, 0, count,
+                reinterpret_cast<const jint*>(mesh->int_indices().data()));
+    } else {
+        std::vector<jint> indices(mesh->indices().begin(), mesh->indices().end());
+        env->SetIntArrayRegion(jindices, 0, count, indices.data());
+    }
+    return jindices;
+}
+
 }
@@ -27,6 +27,7 @@ namespace gvr {
 Scene* Scene::main_scene_ = NULL;
 Scene::Scene() :
         HybridObject(),
+        bvh_(&scene_root_),
         main_camera_rig_(),
         frustum_flag_(false),
         dirtyFlag_(0),
@@ -29,6 +29,7 @@
 #include "components/camera_rig.h"
 #include "engine/renderer/renderer.h"
 #include "objects/light.h"
+#include "objects/scene_bvh.h"
 
 namespace gvr {
 class SceneObject;
@@ -38,6 +39,12 @@ public:
     Scene();
     virtual ~Scene();
     SceneObject* getRoot() { return &scene_root_; }
+
+    /*
+     * Spatial index over the scene objects, used for
+     * frustum culling and picking.
+     */
+    SceneBVH& getBVH() { return bvh_; }
     void addSceneObject(SceneObject* scene_object);
     void removeSceneObject(SceneObject* scene_object);
     void removeAllSceneObjects();
@@ -81,6 +88,22 @@ public:
         if(nullptr!= gRenderer) {
             return gRenderer->getNumberTriangles();
         }
+        return 0;
+    }
+    int getNumberCullNodes() {
+        if(nullptr!= gRenderer) {
+            return gRenderer->getNumberCullNodes();
+        }
+        return 0;
+    }
+    int getNumberVisibleObjects() {
+        return (nullptr != gRenderer) ? gRenderer->getNumberVisibleObjects() : 0;
+    }
+    int getNumberCulledObjects() {
+        return (nullptr != gRenderer) ? gRenderer->getNumberCulledObjects() : 0;
+    }
+    long long getCullTimeNanos() {
+        return (nullptr != gRenderer) ? gRenderer->getCullTimeNanos() : 0;
     }
 
     void exportToFile(std::string filepath);
@@ -176,6 +199,7 @@ private:
 private:
     static Scene* main_scene_;
     SceneObject scene_root_;
+    SceneBVH bvh_;
     CameraRig* main_camera_rig_;
     int dirtyFlag_;
     bool frustum_flag_;
@@ -0,0 +1,397 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Bounding volume hierarchy over the world bounds of the scene objects.
+ ***************************************************************************/
+
+#include "scene_bvh.h"
+
+#include <algorithm>
+#include <cfloat>
+
+#include "objects/mesh.h"
+#include "objects/scene_object.h"
+#include "objects/components/mesh_collider.h"
+#include "objects/components/render_data.h"
+
+namespace gvr {
+
+static const int MAX_LEAF_SIZE = 4;
+
+enum FRUSTUM_STATE {
+    FRUSTUM_OUTSIDE, FRUSTUM_INTERSECT, FRUSTUM_INSIDE
+};
+
+SceneBVH::SceneBVH(SceneObject* root) :
+        root_(root),
+        hierarchy_version_(0),
+        valid_(false),
+        cull_status_stale_(true) {
+}
+
+void SceneBVH::invalidate() {
+    std::lock_guard<std::mutex> lock(lock_);
+    valid_ = false;
+}
+
+int SceneBVH::cull(const float frustum[6][4], std::vector<SceneObject*>& visible,
+        int* culled) {
+    std::lock_guard<std::mutex> lock(lock_);
+    update();
+
+    // Objects not reached by the traversal are culled. Only the objects
+    // visible last time can have a stale status, unless the tree changed.
+    if (cull_status_stale_) {
+        for (auto it = leaves_.begin(); it != leaves_.end(); ++it) {
+            it->object->setCullStatus(true);
+        }
+        cull_status_stale_ = false;
+    } else {
+        for (auto it = last_visible_.begin(); it != last_visible_.end(); ++it) {
+            (*it)->setCullStatus(true);
+        }
+    }
+
+    size_t start = visible.size();
+    int visits = 0;
+    if (!nodes_.empty()) {
+        stack_.clear();
+        stack_.push_back(std::make_pair(0, 0));
+        while (!stack_.empty()) {
+            const Node& node = nodes_[stack_.back().first];
+            int planeMask = stack_.back().second;
+            stack_.pop_back();
+            ++visits;
+
+            int result = checkFrustum(frustum, node.min, node.max, planeMask);
+            if (result == FRUSTUM_OUTSIDE) {
+                continue;
+            }
+            if (result == FRUSTUM_INSIDE) {
+                addVisible(node, visible);
+                continue;
+            }
+            if (node.left < 0) {
+                for (int i = node.first; i < node.first + node.count; ++i) {
+                    Leaf& leaf = leaves_[order_[i]];
+                    int leafMask = planeMask;
+                    if (checkFrustum(frustum, leaf.min, leaf.max, leafMask) != FRUSTUM_OUTSIDE) {
+                        addVisible(leaf, visible);
+                    }
+                }
+            } else {
+                stack_.push_back(std::make_pair(node.right, planeMask));
+                stack_.push_back(std::make_pair(node.left, planeMask));
+            }
+        }
+    }
+    for (auto it = unbounded_.begin(); it != unbounded_.end(); ++it) {
+        addVisible(leaves_[*it], visible);
+    }
+    last_visible_.assign(visible.begin() + start, visible.end());
+    if (nullptr != culled) {
+        *culled = leaves_.size() - last_visible_.size();
+    }
+    return visits;
+}
+
+int SceneBVH::intersect(const glm::vec3& rayStart, const glm::vec3& rayDir,
+        std::vector<SceneObject*>& hits) {
+    std::lock_guard<std::mutex> lock(lock_);
+    update();
+
+    glm::vec3 invDir(1.0f / rayDir.x, 1.0f / rayDir.y, 1.0f / rayDir.z);
+    int visits = 0;
+    if (!nodes_.empty()) {
+        stack_.clear();
+        stack_.push_back(std::make_pair(0, 0));
+        while (!stack_.empty()) {
+            const Node& node = nodes_[stack_.back().first];
+            stack_.pop_back();
+            ++visits;
+
+            if (!checkRay(rayStart, invDir, node.min, node.max)) {
+                continue;
+            }
+            if (node.left < 0) {
+                for (int i = node.first; i < node.first + node.count; ++i) {
+                    Leaf& leaf = leaves_[order_[i]];
+                    if (leaf.pick_bounded && checkRay(rayStart, invDir, leaf.min, leaf.max)) {
+                        hits.push_back(leaf.object);
+                    }
+                }
+            } else {
+                stack_.push_back(std::make_pair(node.right, 0));
+                stack_.push_back(std::make_pair(node.left, 0));
+            }
+        }
+    }
+    for (auto it = pick_unbounded_.begin(); it != pick_unbounded_.end(); ++it) {
+        hits.push_back(leaves_[*it].object);
+    }
+    return visits;
+}
+
+/*
+ * Rebuilds the tree if objects were added or removed since it was built,
+ * otherwise refits it to the current bounds.
+ */
+void SceneBVH::update() {
+    unsigned int version = root_->hierarchyVersion();
+    if (!valid_ || (version != hierarchy_version_)) {
+        hierarchy_version_ = version;
+        rebuild();
+    } else {
+        refit();
+    }
+}
+
+void SceneBVH::rebuild() {
+    std::vector<SceneObject*> objects;
+    root_->getDescendants(objects);
+
+    leaves_.clear();
+    order_.clear();
+    unbounded_.clear();
+    pick_unbounded_.clear();
+    nodes_.clear();
+    last_visible_.clear();
+
+    for (auto it = objects.begin(); it != objects.end(); ++it) {
+        SceneObject* object = *it;
+        if ((object->render_data() == nullptr) && (object->collider() == nullptr)) {
+            continue;
+        }
+        Leaf leaf;
+        leaf.object = object;
+        leaf.node = -1;
+        computeLeaf(leaf);
+        leaves_.push_back(leaf);
+    }
+    for (int i = 0; i < leaves_.size(); ++i) {
+        const Leaf& leaf = leaves_[i];
+        if (leaf.bounded) {
+            order_.push_back(i);
+        } else {
+            unbounded_.push_back(i);
+        }
+        if (leaf.pickable && !leaf.pick_bounded) {
+            pick_unbounded_.push_back(i);
+        }
+    }
+    if (!order_.empty()) {
+        nodes_.reserve(2 * (order_.size() / MAX_LEAF_SIZE + 1));
+        build(-1, 0, order_.size());
+    }
+    node_dirty_.assign(nodes_.size(), 0);
+    cull_status_stale_ = true;
+    valid_ = true;
+}
+
+/*
+ * Recomputes the leaves whose bounds changed and the nodes above them.
+ */
+void SceneBVH::refit() {
+    bool changed = false;
+    for (auto it = leaves_.begin(); it != leaves_.end(); ++it) {
+        Leaf& leaf = *it;
+        if (leaf.object->boundsVersion() == leaf.version) {
+            continue;
+        }
+        bool bounded = leaf.bounded;
+        bool pick_bounded = leaf.pick_bounded;
+        computeLeaf(leaf);
+        if ((bounded != leaf.bounded) || (pick_bounded != leaf.pick_bounded)) {
+            // the leaf moves into or out of the tree
+            rebuild();
+            return;
+        }
+        for (int n = leaf.node; (n >= 0) && !node_dirty_[n]; n = nodes_[n].parent) {
+            node_dirty_[n] = 1;
+            changed = true;
+        }
+    }
+    if (!changed) {
+        return;
+    }
+    // children are always stored after their parent
+    for (int n = nodes_.size() - 1; n >= 0; --n) {
+        if (node_dirty_[n]) {
+            refitNode(nodes_[n]);
+            node_dirty_[n] = 0;
+        }
+    }
+}
+
+int SceneBVH::build(int parent, int first, int count) {
+    int index = nodes_.size();
+    Node node;
+    node.parent = parent;
+    node.left = node.right = -1;
+    node.first = first;
+    node.count = count;
+    nodes_.push_back(node);
+    refitNode(nodes_[index]);
+
+    if (count <= MAX_LEAF_SIZE) {
+        for (int i = first; i < first + count; ++i) {
+            leaves_[order_[i]].node = index;
+        }
+        return index;
+    }
+
+    // split at the median of the leaf centers along the longest axis
+    glm::vec3 cmin(FLT_MAX);
+    glm::vec3 cmax(-FLT_MAX);
+    for (int i = first; i < first + count; ++i) {
+        const Leaf& leaf = leaves_[order_[i]];
+        glm::vec3 center = leaf.min + leaf.max;
+        cmin = glm::min(cmin, center);
+        cmax = glm::max(cmax, center);
+    }
+    glm::vec3 extent = cmax - cmin;
+    int axis = (extent.x > extent.y) ? ((extent.x > extent.z) ? 0 : 2) : ((extent.y > extent.z) ? 1 : 2);
+    int half = count / 2;
+    std::vector<Leaf>& leaves = leaves_;
+    std::nth_element(order_.begin() + first, order_.begin() + first + half,
+            order_.begin() + first + count, [&leaves, axis](int a, int b) {
+                return (leaves[a].min[axis] + leaves[a].max[axis])
+                        < (leaves[b].min[axis] + leaves[b].max[axis]);
+            });
+
+    int left = build(index, first, half);
+    int right = build(index, first + half, count - half);
+    nodes_[index].left = left;
+    nodes_[index].right = right;
+    return index;
+}
+
+void SceneBVH::computeLeaf(Leaf& leaf) {
+    SceneObject* object = leaf.object;
+
+    // read the version first so changes made while computing are seen next time
+    leaf.version = object->boundsVersion();
+    RenderData* rdata = object->render_data();
+    Mesh* mesh = (rdata != nullptr) ? rdata->mesh() : nullptr;
+    leaf.bounded = false;
+    if ((mesh != nullptr) && (object->transform() != nullptr)) {
+        const BoundingVolume& bounds = object->getMeshBoundingVolume();
+        if (bounds.radius() > 0) {
+            leaf.bounded = true;
+            leaf.min = bounds.min_corner();
+            leaf.max = bounds.max_corner();
+        }
+    }
+
+    Collider* collider = object->collider();
+    leaf.pickable = (collider != nullptr);
+    leaf.pick_bounded = false;
+    if (leaf.pickable && leaf.bounded && (collider->shape_type() == COLLIDER_SHAPE_MESH)) {
+        Mesh* collider_mesh = static_cast<MeshCollider*>(collider)->mesh();
+        leaf.pick_bounded = (collider_mesh == nullptr) || (collider_mesh == mesh);
+    }
+}
+
+void SceneBVH::refitNode(Node& node) {
+    if (node.left >= 0) {
+        const Node& left = nodes_[node.left];
+        const Node& right = nodes_[node.right];
+        node.min = glm::min(left.min, right.min);
+        node.max = glm::max(left.max, right.max);
+        return;
+    }
+    node.min = glm::vec3(FLT_MAX);
+    node.max = glm::vec3(-FLT_MAX);
+    for (int i = node.first; i < node.first + node.count; ++i) {
+        const Leaf& leaf = leaves_[order_[i]];
+        node.min = glm::min(node.min, leaf.min);
+        node.max = glm::max(node.max, leaf.max);
+    }
+}
+
+void SceneBVH::addVisible(const Node& node, std::vector<SceneObject*>& visible) {
+    for (int i = node.first; i < node.first + node.count; ++i) {
+        addVisible(leaves_[order_[i]], visible);
+    }
+}
+
+void SceneBVH::addVisible(Leaf& leaf, std::vector<SceneObject*>& visible) {
+    if (isShown(leaf.object)) {
+        leaf.object->setCullStatus(false);
+        visible.push_back(leaf.object);
+    }
+}
+
+/*
+ * An object is only rendered if it and all of its ancestors are enabled
+ * and visible.
+ */
+bool SceneBVH::isShown(SceneObject* object) {
+    for (; object != nullptr; object = object->parent()) {
+        if (!object->enabled() || !object->visible()) {
+            return false;
+        }
+    }
+    return true;
+}
+
+/*
+ * Same test as SceneObject::checkAABBVsFrustumOpt: planes the box is
+ * completely inside of are added to planeMask and skipped for the subtree.
+ */
+int SceneBVH::checkFrustum(const float frustum[6][4], const glm::vec3& min,
+        const glm::vec3& max, int& planeMask) {
+    bool isCompleteInside = true;
+
+    for (int p = 0; p < 6; p++) {
+        if ((planeMask >> p) & 1) {
+            continue;
+        }
+        const float* plane = frustum[p];
+
+        // the corners furthest along and against the plane normal
+        float farX = (plane[0] > 0) ? max.x : min.x;
+        float farY = (plane[1] > 0) ? max.y : min.y;
+        float farZ = (plane[2] > 0) ? max.z : min.z;
+        float nearX = (plane[0] > 0) ? min.x : max.x;
+        float nearY = (plane[1] > 0) ? min.y : max.y;
+        float nearZ = (plane[2] > 0) ? min.z : max.z;
+
+        if (plane[0] * farX + plane[1] * farY + plane[2] * farZ + plane[3] <= 0) {
+            return FRUSTUM_OUTSIDE;
+        }
+        if (plane[0] * nearX + plane[1] * nearY + plane[2] * nearZ + plane[3] > 0) {
+            planeMask |= (1 << p);
+        } else {
+            isCompleteInside = false;
+        }
+    }
+    return isCompleteInside ? FRUSTUM_INSIDE : FRUSTUM_INTERSECT;
+}
+
+bool SceneBVH::checkRay(const glm::vec3& rayStart, const glm::vec3& invDir,
+        const glm::vec3& min, const glm::vec3& max) {
+    glm::vec3 t1 = (min - rayStart) * invDir;
+    glm::vec3 t2 = (max - rayStart) * invDir;
+    glm::vec3 tmin = glm::min(t1, t2);
+    glm::vec3 tmax = glm::max(t1, t2);
+    float enter = std::max(std::max(tmin.x, tmin.y), tmin.z);
+    float exit = std::min(std::min(tmax.x, tmax.y), tmax.z);
+    return (exit >= 0) && (exit >= enter);
+}
+
+}
@@ -0,0 +1,138 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Bounding volume hierarchy over the world bounds of the scene objects.
+ ***************************************************************************/
+
+#ifndef SCENE_BVH_H_
+#define SCENE_BVH_H_
+
+#include <mutex>
+#include <vector>
+
+#include "glm/glm.hpp"
+
+namespace gvr {
+class SceneObject;
+
+/*
+ * Binary bounding volume hierarchy over the world space mesh bounds of
+ * all scene objects below a root which have render data or a collider.
+ *
+ * The hierarchy is maintained incrementally: when the set of objects
+ * changes (objects added or removed, components attached or detached)
+ * it is rebuilt, otherwise only the leaves whose bounds changed since
+ * the last query are refit together with their ancestors.
+ *
+ * Objects without usable bounds (no mesh, empty mesh) are kept outside
+ * of the tree and are always returned by the queries.
+ *
+ * All public functions are thread safe.
+ */
+class SceneBVH {
+public:
+    explicit SceneBVH(SceneObject* root);
+
+    /*
+     * Finds the enabled, visible objects whose bounds intersect the frustum
+     * and marks all other objects as culled.
+     *
+     * @param frustum   planes of the view frustum in world coordinates
+     * @param visible   receives the objects which are not culled
+     * @param culled    if not null, receives the number of objects culled
+     * @returns number of tree nodes visited
+     */
+    int cull(const float frustum[6][4], std::vector<SceneObject*>& visible,
+            int* culled = nullptr);
+
+    /*
+     * Finds the objects with a collider which may be hit by a ray.
+     * The caller still has to check whether the returned objects are
+     * enabled and hit test their colliders.
+     *
+     * @param rayStart  origin of the ray in world coordinates
+     * @param rayDir    direction of the ray in world coordinates
+     * @param hits      receives the candidate objects
+     * @returns number of tree nodes visited
+     */
+    int intersect(const glm::vec3& rayStart, const glm::vec3& rayDir,
+            std::vector<SceneObject*>& hits);
+
+    /*
+     * Forces a rebuild on the next query.
+     */
+    void invalidate();
+
+private:
+    SceneBVH(const SceneBVH&);
+    SceneBVH& operator=(const SceneBVH&);
+
+    struct Node {
+        glm::vec3 min;
+        glm::vec3 max;
+        int parent;
+        int left;   // children, -1 for leaf nodes
+        int right;
+        int first;  // the leaves below a node are order_[first, first + count)
+        int count;
+    };
+
+    struct Leaf {
+        SceneObject* object;
+        unsigned int version;
+        glm::vec3 min;
+        glm::vec3 max;
+        int node;           // leaf node containing this leaf, -1 if not in the tree
+        bool bounded;       // mesh bounds are available
+        bool pickable;      // has a collider
+        bool pick_bounded;  // collider lies within the mesh bounds
+    };
+
+    void update();
+    void rebuild();
+    void refit();
+    int build(int parent, int first, int count);
+    void computeLeaf(Leaf& leaf);
+    void refitNode(Node& node);
+    void addVisible(const Node& node, std::vector<SceneObject*>& visible);
+    void addVisible(Leaf& leaf, std::vector<SceneObject*>& visible);
+    static bool isShown(SceneObject* object);
+    static int checkFrustum(const float frustum[6][4], const glm::vec3& min,
+            const glm::vec3& max, int& planeMask);
+    static bool checkRay(const glm::vec3& rayStart, const glm::vec3& invDir,
+            const glm::vec3& min, const glm::vec3& max);
+
+    SceneObject* root_;
+    std::mutex lock_;
+    unsigned int hierarchy_version_;
+    bool valid_;
+    bool cull_status_stale_;
+
+    std::vector<Leaf> leaves_;
+    std::vector<int> order_;            // bounded leaves in tree order
+    std::vector<int> unbounded_;        // leaves outside of the tree
+    std::vector<int> pick_unbounded_;   // pickable leaves not bounded by the tree
+    std::vector<Node> nodes_;
+    std::vector<char> node_dirty_;
+    std::vector<SceneObject*> last_visible_;
+
+    // scratch stack of (node, plane mask) used by the queries
+    std::vector<std::pair<int, int>> stack_;
+};
+
+}
+#endif
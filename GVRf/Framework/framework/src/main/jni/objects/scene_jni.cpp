@@ -67,6 +67,22 @@ extern "C" {
     Java_org_gearvrf_NativeScene_getNumberTriangles(JNIEnv * env,
             jobject obj, jlong jscene);
 
+    JNIEXPORT int JNICALL
+    Java_org_gearvrf_NativeScene_getNumberCullNodes(JNIEnv * env,
+            jobject obj, jlong jscene);
+
+    JNIEXPORT int JNICALL
+    Java_org_gearvrf_NativeScene_getNumberVisibleObjects(JNIEnv * env,
+            jobject obj, jlong jscene);
+
+    JNIEXPORT int JNICALL
+    Java_org_gearvrf_NativeScene_getNumberCulledObjects(JNIEnv * env,
+            jobject obj, jlong jscene);
+
+    JNIEXPORT jlong JNICALL
+    Java_org_gearvrf_NativeScene_getCullTimeNanos(JNIEnv * env,
+            jobject obj, jlong jscene);
+
     JNIEXPORT jboolean JNICALL
     Java_org_gearvrf_NativeScene_addLight(
             JNIEnv * env, jobject obj, jlong jscene, jlong light);
@@ -180,6 +196,34 @@ Java_org_gearvrf_NativeScene_getNumberTriangles(JNIEnv * env,
     return scene->getNumberTriangles();
 }
 
+JNIEXPORT int JNICALL
+Java_org_gearvrf_NativeScene_getNumberCullNodes(JNIEnv * env,
+        jobject obj, jlong jscene) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    return scene->getNumberCullNodes();
+}
+
+JNIEXPORT int JNICALL
+Java_org_gearvrf_NativeScene_getNumberVisibleObjects(JNIEnv * env,
+        jobject obj, jlong jscene) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    return scene->getNumberVisibleObjects();
+}
+
+JNIEXPORT int JNICALL
+Java_org_gearvrf_NativeScene_getNumberCulledObjects(JNIEnv * env,
+        jobject obj, jlong jscene) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    return scene->getNumberCulledObjects();
+}
+
+JNIEXPORT jlong JNICALL
+Java_org_gearvrf_NativeScene_getCullTimeNanos(JNIEnv * env,
+        jobject obj, jlong jscene) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    return scene->getCullTimeNanos();
+}
+
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeScene_exportToFile(JNIEnv * env,
         jobject obj, jlong jscene, jstring filepath) {
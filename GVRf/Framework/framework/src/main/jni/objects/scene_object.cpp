@@ -31,7 +31,8 @@ namespace gvr {
 SceneObject::SceneObject() :
         HybridObject(), name_(""), children_(), visible_(true), transform_dirty_(false), in_frustum_(
                 false),  enabled_(true),query_currently_issued_(false), vis_count_(0),
-                cull_status_(false), bounding_volume_dirty_(true) {
+                cull_status_(false), bounding_volume_dirty_(true), bounds_version_(0),
+                hierarchy_version_(0) {
 
     // Occlusion query setup
     queries_ = new GLuint[1];
@@ -49,6 +50,7 @@ bool SceneObject::attachComponent(Component* component) {
     }
     component->set_owner_object(this);
     components_.push_back(component);
+    dirtyHierarchy();
     dirtyHierarchicalBoundingVolume();
     return true;
 }
@@ -59,6 +61,7 @@ bool SceneObject::detachComponent(Component* component) {
         return false;
     (*it)->set_owner_object(NULL);
     components_.erase(it);
+    dirtyHierarchy();
     dirtyHierarchicalBoundingVolume();
     return true;
 }
@@ -69,6 +72,7 @@ Component* SceneObject::detachComponent(long long type) {
             Component* component = *it;
             component->set_owner_object(NULL);
             components_.erase(it);
+            dirtyHierarchy();
             dirtyHierarchicalBoundingVolume();
             return component;
         }
@@ -116,6 +120,7 @@ void SceneObject::addChildObject(SceneObject* self, SceneObject* child) {
         children_.push_back(child);
     }
     child->parent_ = self;
+    dirtyHierarchy();
     Transform* const t = child->transform();
     if (nullptr != t) {
         t->invalidate(false);
@@ -130,6 +135,7 @@ void SceneObject::removeChildObject(SceneObject* child) {
             children_.erase(std::remove(children_.begin(), children_.end(), child), children_.end());
         }
         child->parent_ = NULL;
+        dirtyHierarchy();
     }
 
     Transform* const t = child->transform();
@@ -146,6 +152,19 @@ void SceneObject::clear() {
         child->parent_ = NULL;
     }
     children_.clear();
+    dirtyHierarchy();
+}
+
+/*
+ * Bumps the hierarchy version of the root this object belongs to, so only
+ * the scene whose hierarchy changed rebuilds its bounding volume hierarchy.
+ */
+void SceneObject::dirtyHierarchy() {
+    SceneObject* root = this;
+    while (root->parent_ != nullptr) {
+        root = root->parent_;
+    }
+    ++root->hierarchy_version_;
 }
 
 int SceneObject::getChildrenCount() const {
@@ -319,6 +338,7 @@ bool SceneObject::intersectsBoundingVolume(SceneObject *scene_object) {
 }
 
 void SceneObject::dirtyHierarchicalBoundingVolume() {
+    ++bounds_version_;
     if (bounding_volume_dirty_) {
         return;
     }
@@ -21,6 +21,7 @@
 #define SCENE_OBJECT_H_
 
 #include <algorithm>
+#include <atomic>
 #include <mutex>
 
 #include "objects/hybrid_object.h"
@@ -129,6 +130,15 @@ public:
         return std::vector<SceneObject*>(children_);
     }
 
+    /*
+     * Appends the children to a vector the caller reuses, instead of
+     * returning a new copy like children().
+     */
+    void appendChildren(std::vector<SceneObject*>& children) {
+        std::lock_guard < std::mutex > lock(children_mutex_);
+        children.insert(children.end(), children_.begin(), children_.end());
+    }
+
     void addChildObject(SceneObject* self, SceneObject* child);
     void removeChildObject(SceneObject* child);
     void getDescendants(std::vector<SceneObject*>& descendants);
@@ -146,6 +156,30 @@ public:
     void dirtyHierarchicalBoundingVolume();
     BoundingVolume& getBoundingVolume();
 
+    /*
+     * World space bounds of this object's own mesh, without its children.
+     */
+    const BoundingVolume& getMeshBoundingVolume() {
+        getBoundingVolume();
+        return mesh_bounding_volume;
+    }
+
+    /*
+     * Incremented whenever the bounds of this object may have changed.
+     */
+    unsigned int boundsVersion() const {
+        return bounds_version_;
+    }
+
+    /*
+     * Incremented on the root of a hierarchy whenever objects are added
+     * to or removed from it, or components are attached or detached
+     * within it.
+     */
+    unsigned int hierarchyVersion() const {
+        return hierarchy_version_;
+    }
+
     int frustumCull(glm::vec3 camera_position, const float frustum[6][4], int& planeMask);
 
 private:
@@ -158,6 +192,10 @@ private:
     BoundingVolume transformed_bounding_volume_;
     bool bounding_volume_dirty_;
     BoundingVolume mesh_bounding_volume;
+    unsigned int bounds_version_;
+    std::atomic<unsigned int> hierarchy_version_;
+
+    void dirtyHierarchy();
 
     //Flags to check for visibility of a node and
     //whether there are any pending occlusion queries on it
@@ -0,0 +1,151 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <atomic>
+#include <cstring>
+#include <map>
+#include <mutex>
+
+#include "uniform_block.h"
+#include "gl/gl_headers.h"
+
+namespace gvr {
+
+namespace {
+std::mutex slot_lock;
+std::map<std::string, int> slot_ids;
+std::vector<std::string> slot_names;
+std::atomic<int> slot_count(0);
+}
+
+int UniformBlock::getSlot(const std::string& name) {
+    std::lock_guard<std::mutex> lock(slot_lock);
+    auto it = slot_ids.find(name);
+    if (it != slot_ids.end()) {
+        return it->second;
+    }
+    int slot = slot_names.size();
+    slot_ids.emplace(name, slot);
+    slot_names.push_back(name);
+    slot_count.store(slot_names.size());
+    return slot;
+}
+
+int UniformBlock::findSlot(const std::string& name) {
+    std::lock_guard<std::mutex> lock(slot_lock);
+    auto it = slot_ids.find(name);
+    return (it != slot_ids.end()) ? it->second : -1;
+}
+
+std::string UniformBlock::getSlotName(int slot) {
+    std::lock_guard<std::mutex> lock(slot_lock);
+    if ((slot < 0) || (slot >= static_cast<int>(slot_names.size()))) {
+        return std::string();
+    }
+    return slot_names[slot];
+}
+
+int UniformBlock::getSlotCount() {
+    return slot_count.load();
+}
+
+bool UniformBlock::get(int slot, float* values, int size) const {
+    std::lock_guard<std::mutex> lock(lock_);
+    if ((slot < 0) || (slot >= static_cast<int>(entries_.size()))) {
+        return false;
+    }
+    const Entry& entry = entries_[slot];
+    if (entry.size != size) {
+        return false;
+    }
+    std::memcpy(values, data_.data() + entry.offset, size * sizeof(float));
+    return true;
+}
+
+int UniformBlock::getSize(int slot) const {
+    std::lock_guard<std::mutex> lock(lock_);
+    if ((slot < 0) || (slot >= static_cast<int>(entries_.size()))) {
+        return 0;
+    }
+    return entries_[slot].size;
+}
+
+std::vector<int> UniformBlock::slots() const {
+    std::lock_guard<std::mutex> lock(lock_);
+    return slots_;
+}
+
+bool UniformBlock::set(int slot, const float* values, int size) {
+    // an unknown slot would grow the entries of the block up to it
+    if ((slot < 0) || (slot >= getSlotCount()) || (size <= 0)) {
+        return false;
+    }
+    std::lock_guard<std::mutex> lock(lock_);
+    if (slot >= static_cast<int>(entries_.size())) {
+        entries_.resize(slot + 1);
+    }
+    Entry& entry = entries_[slot];
+    if (entry.size == size) {
+        float* data = data_.data() + entry.offset;
+        if (std::memcmp(data, values, size * sizeof(float)) == 0) {
+            return false;
+        }
+        std::memcpy(data, values, size * sizeof(float));
+        return true;
+    }
+
+    // A new uniform, or one set with another type before, goes to the end
+    // of the block. The floats of the old type are removed, so the block
+    // does not grow each time a uniform changes its type.
+    if (entry.size == 0) {
+        slots_.push_back(slot);
+    } else {
+        data_.erase(data_.begin() + entry.offset,
+                data_.begin() + entry.offset + entry.size);
+        for (Entry& other : entries_) {
+            if (other.offset > entry.offset) {
+                other.offset -= entry.size;
+            }
+        }
+    }
+    entry.offset = data_.size();
+    entry.size = size;
+    data_.insert(data_.end(), values, values + size);
+    return true;
+}
+
+void UniformBlock::upload(int location, const float* values, int size) {
+    switch (size) {
+    case 1:
+        glUniform1fv(location, 1, values);
+        break;
+    case 2:
+        glUniform2fv(location, 1, values);
+        break;
+    case 3:
+        glUniform3fv(location, 1, values);
+        break;
+    case 4:
+        glUniform4fv(location, 1, values);
+        break;
+    case 16:
+        glUniformMatrix4fv(location, 1, GL_FALSE, values);
+        break;
+    default:
+        break;
+    }
+}
+
+}
@@ -0,0 +1,112 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Uniform values of a material or light in one contiguous float block.
+ ***************************************************************************/
+
+#ifndef UNIFORM_BLOCK_H_
+#define UNIFORM_BLOCK_H_
+
+#include <mutex>
+#include <string>
+#include <vector>
+
+namespace gvr {
+
+/*
+ * Uniform names are resolved to integer slots once, by getSlot(). The slots
+ * are shared by all blocks, so a shader can resolve the names it uses when
+ * it is created and read the values of any material by slot.
+ *
+ * A block stores the floats of its uniforms one after the other; a float
+ * uniform takes one float, a vec3 three and a mat4 sixteen.
+ *
+ * Uniforms are set from the Java threads while the GL thread draws, so
+ * the block is locked while it is read or written and the values are
+ * copied out instead of handing out pointers into the block.
+ */
+class UniformBlock {
+public:
+    UniformBlock() {
+    }
+
+    /*
+     * Returns the slot of a uniform name, adding the name if no block used
+     * it before.
+     */
+    static int getSlot(const std::string& name);
+
+    /*
+     * Returns the slot of a uniform name, or -1 if no block used the name.
+     */
+    static int findSlot(const std::string& name);
+
+    static std::string getSlotName(int slot);
+
+    /*
+     * Number of slots handed out by getSlot(); valid slots are below it.
+     */
+    static int getSlotCount();
+
+    /*
+     * Copies the values of a uniform.
+     * @return false if the block does not have a uniform of that size in
+     *         the slot
+     */
+    bool get(int slot, float* values, int size) const;
+
+    /*
+     * Returns the number of floats of the uniform in a slot, or 0 if the
+     * block does not have the uniform.
+     */
+    int getSize(int slot) const;
+
+    bool has(int slot) const {
+        return getSize(slot) > 0;
+    }
+
+    /*
+     * Sets the values of a uniform.
+     * @return true if the uniform was added or one of its values changed,
+     *         false also if getSlot() did not hand out the slot
+     */
+    bool set(int slot, const float* values, int size);
+
+    /*
+     * Slots of the uniforms of this block, in the order they were added.
+     */
+    std::vector<int> slots() const;
+
+    /*
+     * Uploads the values of a uniform to a location of the current GL
+     * program, with one glUniform call.
+     */
+    static void upload(int location, const float* values, int size);
+
+private:
+    struct Entry {
+        int offset = 0;
+        int size = 0;
+    };
+
+    mutable std::mutex lock_;
+    std::vector<Entry> entries_;
+    std::vector<float> data_;
+    std::vector<int> slots_;
+};
+
+}
+#endif
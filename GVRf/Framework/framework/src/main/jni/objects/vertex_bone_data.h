@@ -29,6 +29,7 @@
 
 #include "glm/glm.hpp"
 #include "glm/geometric.hpp"
+#include "glm/gtc/type_ptr.hpp"
 #include "util/gvr_log.h"
 
 #define MAX_BONES 60
@@ -54,6 +55,17 @@ public:
         boneMatrices[boneId] = transform;
     }
 
+    /*
+     * Returns the packed bone palette for writing numBones matrices,
+     * or nullptr if the mesh has fewer bones.
+     */
+    float* getFinalBoneTransforms(int numBones) {
+        if (numBones <= 0 || numBones > boneMatrices.size()) {
+            return nullptr;
+        }
+        return glm::value_ptr(boneMatrices[0]);
+    }
+
     int getFreeBoneSlot(int vertexId);
     void setVertexBoneWeight(int vertexId, int boneSlot, int boneId, float boneWeight);
     void normalizeWeights();
@@ -217,8 +217,12 @@ void AssimpShader::render(RenderState* rstate,
     u_opacity_ = glGetUniformLocation(program_->id(), "u_opacity");
 
     /* Get common attributes and uniforms from material */
-    glm::vec3 color = material->getVec3("color");
-    float opacity = material->getFloat("opacity");
+    static const int color_slot = UniformBlock::getSlot("color");
+    static const int opacity_slot = UniformBlock::getSlot("opacity");
+    static const int diffuse_color_slot = UniformBlock::getSlot("diffuse_color");
+    static const int ambient_color_slot = UniformBlock::getSlot("ambient_color");
+    glm::vec3 color = material->getVec3(color_slot);
+    float opacity = material->getFloat(opacity_slot);
 
     glUseProgram(program_->id());
     glUniformMatrix4fv(u_mvp_, 1, GL_FALSE, glm::value_ptr(rstate->uniforms.u_mvp));
@@ -228,8 +232,8 @@ void AssimpShader::render(RenderState* rstate,
         glBindTexture(texture->getTarget(), texture->getId());
         glUniform1i(u_texture_, 0);
     } else {
-        glm::vec4 diffuse_color = material->getVec4("diffuse_color");
-        glm::vec4 ambient_color = material->getVec4("ambient_color");
+        glm::vec4 diffuse_color = material->getVec4(diffuse_color_slot);
+        glm::vec4 ambient_color = material->getVec4(ambient_color_slot);
         glUniform4f(u_diffuse_color_, diffuse_color.r, diffuse_color.g,
                 diffuse_color.b, diffuse_color.a);
         glUniform4f(u_ambient_color_, ambient_color.r, ambient_color.g,
@@ -196,11 +196,20 @@ void CustomShader::addUniformKey(const std::string& variable_name,
 }
 
 
+/*
+ * The uniform values are read by slot, which is resolved here once, and
+ * copied from the uniform block of the material. Keys which the material
+ * does not have (yet) are skipped.
+ */
 void CustomShader::addUniformFloatKey(const std::string& variable_name,
         const std::string& key) {
+    int slot = UniformBlock::getSlot(key);
     UniformVariableBind f =
-            [key] (Material& material, GLuint location) {
-                glUniform1f(location, material.getFloat(key));
+            [slot] (Material& material, GLuint location) {
+                float v[1];
+                if (material.getUniform(slot, v, 1)) {
+                    glUniform1fv(location, 1, v);
+                }
             };
     addUniformKey(variable_name, key, f);
 }
@@ -208,10 +217,13 @@ void CustomShader::addUniformFloatKey(const std::string& variable_name,
 
 void CustomShader::addUniformVec2Key(const std::string& variable_name,
         const std::string& key) {
+    int slot = UniformBlock::getSlot(key);
     UniformVariableBind f =
-            [key] (Material& material, GLuint location) {
-                glm::vec2 v = material.getVec2(key);
-                glUniform2f(location, v.x, v.y);
+            [slot] (Material& material, GLuint location) {
+                float v[2];
+                if (material.getUniform(slot, v, 2)) {
+                    glUniform2fv(location, 1, v);
+                }
             };
     addUniformKey(variable_name, key, f);
 }
@@ -219,10 +231,13 @@ void CustomShader::addUniformVec2Key(const std::string& variable_name,
 
 void CustomShader::addUniformVec3Key(const std::string& variable_name,
         const std::string& key) {
+    int slot = UniformBlock::getSlot(key);
     UniformVariableBind f =
-            [key] (Material& material, GLuint location) {
-                glm::vec3 v = material.getVec3(key);
-                glUniform3f(location, v.x, v.y, v.z);
+            [slot] (Material& material, GLuint location) {
+                float v[3];
+                if (material.getUniform(slot, v, 3)) {
+                    glUniform3fv(location, 1, v);
+                }
             };
     addUniformKey(variable_name, key, f);
 }
@@ -230,20 +245,26 @@ void CustomShader::addUniformVec3Key(const std::string& variable_name,
 
 void CustomShader::addUniformVec4Key(const std::string& variable_name,
         const std::string& key) {
+    int slot = UniformBlock::getSlot(key);
     UniformVariableBind f =
-            [key] (Material& material, GLuint location) {
-                glm::vec4 v = material.getVec4(key);
-                glUniform4f(location, v.x, v.y, v.z, v.w);
+            [slot] (Material& material, GLuint location) {
+                float v[4];
+                if (material.getUniform(slot, v, 4)) {
+                    glUniform4fv(location, 1, v);
+                }
             };
     addUniformKey(variable_name, key, f);
 }
 
 void CustomShader::addUniformMat4Key(const std::string& variable_name,
         const std::string& key) {
+    int slot = UniformBlock::getSlot(key);
     UniformVariableBind f =
-            [key] (Material& material, GLuint location) {
-                glm::mat4 m = material.getMat4(key);
-                glUniformMatrix4fv(location, 1, GL_FALSE, glm::value_ptr(m));
+            [slot] (Material& material, GLuint location) {
+                float m[16];
+                if (material.getUniform(slot, m, 16)) {
+                    glUniformMatrix4fv(location, 1, GL_FALSE, m);
+                }
             };
     addUniformKey(variable_name, key, f);
 }
@@ -294,13 +315,9 @@ void CustomShader::render(RenderState* rstate, RenderData* render_data, Material
     {
         std::lock_guard<std::mutex> lock(uniformVariablesLock_);
         for (auto it = uniformVariables_.begin(); it != uniformVariables_.end(); ++it) {
-            auto d = *it;
-            try {
-                d.variableType.f_bind(*material, d.location);
-                checkGLError("CustomShader::render bindUniform");
-            } catch(const std::string& exc) {
-                //the keys defined for this shader might not have been used by the material yet
-            }
+            const auto& d = *it;
+            d.variableType.f_bind(*material, d.location);
+            checkGLError("CustomShader::render bindUniform");
         }
     }
 
@@ -341,7 +358,7 @@ void CustomShader::render(RenderState* rstate, RenderData* render_data, Material
     {
         std::lock_guard<std::mutex> lock(textureVariablesLock_);
         for (auto it = textureVariables_.begin(); it != textureVariables_.end(); ++it) {
-            auto d = *it;
+            const auto& d = *it;
             d.variableType.f_bind(texture_index, *material, d.location);
             texture_index++;
             checkGLError("CustomShader::render bindTexture");
@@ -67,6 +67,7 @@ void ExternalRendererShader::render(RenderState* rstate, RenderData* render_data
     glBindVertexArray(0);
     glActiveTexture(GL_TEXTURE0);
 
+    static const int opacity_slot = UniformBlock::getSlot("opacity");
     TextureCapturer *capturer(render_data->get_texture_capturer());
     if (!capturer || !capturer->getAndClearPendingCapture()) {
         // Original rendering
@@ -74,7 +75,7 @@ void ExternalRendererShader::render(RenderState* rstate, RenderData* render_data
                          scratchBuffer, 6,
                          glm::value_ptr(rstate->uniforms.u_mvp), 16,
                          glm::value_ptr(*mesh->getVec2Vector("a_texcoord").data()), mesh->getVec2Vector("a_texcoord").size() * 2,
-                         material->getFloat("opacity"));
+                         material->getFloat(opacity_slot));
     } else {
         // Capture texture in RenderTexture
         capturer->beginCapture();
@@ -71,8 +71,10 @@ void LightMapShader::render(RenderState* rstate,
 
     Texture* texture = material->getTexture("main_texture");
     Texture* lightmap_texture = material->getTexture("lightmap_texture");
-    glm::vec2 lightmap_offset = material->getVec2("lightmap_offset");
-    glm::vec2 lightmap_scale = material->getVec2("lightmap_scale");
+    static const int lightmap_offset_slot = UniformBlock::getSlot("lightmap_offset");
+    static const int lightmap_scale_slot = UniformBlock::getSlot("lightmap_scale");
+    glm::vec2 lightmap_offset = material->getVec2(lightmap_offset_slot);
+    glm::vec2 lightmap_scale = material->getVec2(lightmap_scale_slot);
 
     glUseProgram(program_->id());
 
@@ -143,8 +143,10 @@ OESShader::~OESShader() {
 
 void OESShader::render(RenderState* rstate, RenderData* render_data, Material* material) {
     Texture* texture = material->getTexture("main_texture");
-    glm::vec3 color = material->getVec3("color");
-    float opacity = material->getFloat("opacity");
+    static const int color_slot = UniformBlock::getSlot("color");
+    static const int opacity_slot = UniformBlock::getSlot("opacity");
+    glm::vec3 color = material->getVec3(color_slot);
+    float opacity = material->getFloat(opacity_slot);
 
     if (texture->getTarget() != GL_TEXTURE_EXTERNAL_OES) {
         std::string error = "OESShader::render : texture with wrong target";
@@ -65,8 +65,11 @@ OESVerticalStereoShader::~OESVerticalStereoShader() {
 void OESVerticalStereoShader::render(RenderState* rstate,
         RenderData* render_data, Material* material) {
     Texture* texture = material->getTexture("main_texture");
-    glm::vec3 color = material->getVec3("color");
-    float opacity = material->getFloat("opacity");
+    static const int color_slot = UniformBlock::getSlot("color");
+    static const int opacity_slot = UniformBlock::getSlot("opacity");
+    static const int mono_rendering_slot = UniformBlock::getSlot("mono_rendering");
+    glm::vec3 color = material->getVec3(color_slot);
+    float opacity = material->getFloat(opacity_slot);
     bool mono_rendering;
 
     if (texture->getTarget() != GL_TEXTURE_EXTERNAL_OES) {
@@ -76,7 +79,7 @@ void OESVerticalStereoShader::render(RenderState* rstate,
     }
 
     try {
-        mono_rendering = material->getFloat("mono_rendering") == 1;
+        mono_rendering = material->getFloat(mono_rendering_slot) == 1;
     } catch (std::string& error) {
         mono_rendering = false;
     }
@@ -207,12 +207,22 @@ void TextureShader::programInit(RenderState* rstate, RenderData* render_data, Ma
         return;
 
     Texture* texture = material->getTexture("main_texture");
-    glm::vec3 color = material->getVec3("color");
-    float opacity = material->getFloat("opacity");
-    glm::vec4 material_ambient_color = material->getVec4("ambient_color");
-    glm::vec4 material_diffuse_color = material->getVec4("diffuse_color");
-    glm::vec4 material_specular_color = material->getVec4("specular_color");
-    float material_specular_exponent = material->getFloat("specular_exponent");
+    static const int color_slot = UniformBlock::getSlot("color");
+    static const int opacity_slot = UniformBlock::getSlot("opacity");
+    static const int ambient_color_slot = UniformBlock::getSlot("ambient_color");
+    static const int diffuse_color_slot = UniformBlock::getSlot("diffuse_color");
+    static const int specular_color_slot = UniformBlock::getSlot("specular_color");
+    static const int specular_exponent_slot = UniformBlock::getSlot("specular_exponent");
+    static const int world_position_slot = UniformBlock::getSlot("world_position");
+    static const int ambient_intensity_slot = UniformBlock::getSlot("ambient_intensity");
+    static const int diffuse_intensity_slot = UniformBlock::getSlot("diffuse_intensity");
+    static const int specular_intensity_slot = UniformBlock::getSlot("specular_intensity");
+    glm::vec3 color = material->getVec3(color_slot);
+    float opacity = material->getFloat(opacity_slot);
+    glm::vec4 material_ambient_color = material->getVec4(ambient_color_slot);
+    glm::vec4 material_diffuse_color = material->getVec4(diffuse_color_slot);
+    glm::vec4 material_specular_color = material->getVec4(specular_color_slot);
+    float material_specular_exponent = material->getFloat(specular_exponent_slot);
     GLenum target = texture->getTarget();
     if (target != GL_TEXTURE_2D) {
         std::string error = "TextureShader::render : texture with wrong target.";
@@ -298,11 +308,10 @@ void TextureShader::programInit(RenderState* rstate, RenderData* render_data, Ma
 
     glUniformMatrix4fv(uniform_locations.u_proj, 1, GL_FALSE, glm::value_ptr(rstate->uniforms.u_proj));
     if (use_light) {
-        glm::vec3 light_position = light->getVec3("world_position");
-        glm::vec4 light_ambient_intensity = light->getVec4("ambient_intensity");
-        glm::vec4 light_diffuse_intensity = light->getVec4("diffuse_intensity");
-        glm::vec4 light_specular_intensity = light->getVec4(
-                "specular_intensity");
+        glm::vec3 light_position = light->getVec3(world_position_slot);
+        glm::vec4 light_ambient_intensity = light->getVec4(ambient_intensity_slot);
+        glm::vec4 light_diffuse_intensity = light->getVec4(diffuse_intensity_slot);
+        glm::vec4 light_specular_intensity = light->getVec4(specular_intensity_slot);
 
         glUniform3f(uniform_locations.u_light_pos, light_position.x, light_position.y,
                 light_position.z);